@@ -0,0 +1,298 @@
+package com.shopsphere.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.shopsphere.analytics.SalesFactStore;
+import com.shopsphere.dto.RangeReportDTO;
+import com.shopsphere.dto.SalesBreakdownDTO;
+import com.shopsphere.service.AnalyticsService;
+import com.shopsphere.service.CampaignSalesService;
+import com.shopsphere.service.CampaignService;
+import com.shopsphere.service.CustomerSketchService;
+import com.shopsphere.service.OrderExportService;
+import com.shopsphere.service.RangeReportService;
+import com.shopsphere.service.RfmSegmentationService;
+import com.shopsphere.service.SalesFactService;
+import com.shopsphere.service.SalesRollupService;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/**
+ * Measures the analytics operations against generated datasets of each configured scale and
+ * writes the timings as CSV and JSON under the output directory.
+ * <p>
+ * Per scale, the database is regenerated, the derived stores (rollups, customer sketches,
+ * campaign counters, the in-memory sales facts, RFM scores) are built once and timed as such,
+ * and every query is run for the warm-up iterations and then timed over the measured ones. A
+ * failing operation is recorded with its error and the suite moves on. Result rows carry the scale, so files from
+ * different runs or machines can be concatenated and compared.
+ */
+@Component
+@Profile("benchmark")
+@RequiredArgsConstructor
+@Slf4j
+public class AnalyticsBenchmark implements ApplicationRunner {
+
+    private static final String[] CSV_COLUMNS = {"scale", "orders", "operation", "iterations", "minMs", "medianMs",
+            "p95Ms", "maxMs", "meanMs", "resultSize", "error"};
+
+    private final SyntheticDataGenerator generator;
+    private final SalesRollupService salesRollupService;
+    private final CustomerSketchService customerSketchService;
+    private final SalesFactService salesFactService;
+    private final RfmSegmentationService rfmSegmentationService;
+    private final AnalyticsService analyticsService;
+    private final RangeReportService rangeReportService;
+    private final CampaignService campaignService;
+    private final CampaignSalesService campaignSalesService;
+    private final OrderExportService orderExportService;
+    private final ObjectMapper objectMapper;
+    private final ConfigurableApplicationContext context;
+
+    @Value("${shopsphere.benchmark.scales:10k}")
+    private String[] scales;
+
+    @Value("${shopsphere.benchmark.warmup-iterations:2}")
+    private int warmupIterations;
+
+    @Value("${shopsphere.benchmark.iterations:5}")
+    private int iterations;
+
+    @Value("${shopsphere.benchmark.output-dir:target/benchmark}")
+    private String outputDir;
+
+    @Value("${shopsphere.benchmark.exit-on-finish:true}")
+    private boolean exitOnFinish;
+
+    @Value("${shopsphere.benchmark.embedded-db:true}")
+    private boolean embeddedDb;
+
+    @Override
+    public void run(ApplicationArguments args) throws IOException {
+        LocalDateTime startedAt = LocalDateTime.now();
+        List<Result> results = new ArrayList<>();
+        for (String scale : scales) {
+            DatasetSize size = DatasetSize.parse(scale);
+            log.info("Benchmarking analytics at scale {} ({} orders)", size.getName(), size.getOrders());
+            results.add(once(size, "data.generate", () -> generator.generate(size).values().stream()
+                    .mapToLong(Long::longValue).sum()));
+            runOperations(size, results);
+        }
+        write(startedAt, results);
+
+        if (exitOnFinish) {
+            System.exit(SpringApplication.exit(context, () -> 0));
+        }
+    }
+
+    private void runOperations(DatasetSize size, List<Result> results) {
+        LocalDate last = generator.getLastDay();
+        LocalDate first = last.minusDays(generator.getHistoryDays() - 1L);
+        long campaignId = Math.max(1, size.getCampaigns() / 2);
+
+        // Derived stores, built once per dataset
+        results.add(once(size, "rollup.backfill", () -> salesRollupService.backfill().getRowsWritten()));
+        results.add(once(size, "customerSketch.backfill", customerSketchService::backfill));
+        results.add(once(size, "campaignSales.backfill", campaignSalesService::backfill));
+        results.add(once(size, "salesFacts.rebuild", salesFactService::rebuild));
+        results.add(once(size, "rfm.fullRebuild", () -> rfmSegmentationService.recompute(true).getCustomersScored()));
+
+        results.add(repeat(size, "analytics.dashboard", () ->
+                analyticsService.getComprehensiveAnalytics().getTopSellingProducts().size()));
+        results.add(repeat(size, "analytics.storeChannelBreakdown.30d", () ->
+                segments(analyticsService.getStoreChannelBreakdown(last.minusDays(29), last, 5))));
+        results.add(repeat(size, "analytics.storeChannelBreakdown.365d", () ->
+                segments(analyticsService.getStoreChannelBreakdown(last.minusDays(364), last, 5))));
+
+        results.add(repeat(size, "salesFacts.query.byCategory.90d", () -> salesFactService.query(last.minusDays(89),
+                last, null, null, null, SalesFactStore.Dimension.CATEGORY).size()));
+        results.add(repeat(size, "salesFacts.query.byDay.all", () -> salesFactService.query(first, last, null, null,
+                null, SalesFactStore.Dimension.DAY).size()));
+        results.add(repeat(size, "salesFacts.query.byProduct.365d", () -> salesFactService.query(last.minusDays(364),
+                last, null, null, null, SalesFactStore.Dimension.PRODUCT).size()));
+
+        results.add(repeat(size, "customers.distinct.30d", () -> customerSketchService.estimateDistinctCustomers(
+                last.minusDays(29), last, null).getEstimatedCustomers()));
+        results.add(repeat(size, "customers.distinct.all", () -> customerSketchService.estimateDistinctCustomers(
+                first, last, null).getEstimatedCustomers()));
+
+        results.add(repeat(size, "rangeReport.day.90d", () -> periods(rangeReportService.generateReport(
+                last.minusDays(89), last, RangeReportService.Granularity.DAY))));
+        results.add(repeat(size, "rangeReport.week.all", () -> periods(rangeReportService.generateReport(
+                first, last, RangeReportService.Granularity.WEEK))));
+
+        results.add(repeat(size, "campaign.report", () -> campaignService.getReport(campaignId).getOrdersCount()));
+
+        results.add(repeat(size, "orderExport.csv.30d", () -> export(last.minusDays(29), last,
+                OrderExportService.Format.CSV)));
+        results.add(repeat(size, "orderExport.ndjson.30d", () -> export(last.minusDays(29), last,
+                OrderExportService.Format.NDJSON)));
+
+        // In-memory only: a category index with one entry per order (capped), so build times across
+        // scales show its scaling; lookups are a fixed count and should stay flat
+        CategoryIndexWorkload categoryIndex = new CategoryIndexWorkload((int) Math.min(size.getOrders(), 5_000_000),
+                40, generator.getSeed());
+        results.add(repeat(size, "categoryIndex.build", categoryIndex::build));
+        results.add(repeat(size, "categoryIndex.lookup.1m", categoryIndex::lookups));
+
+        // In-memory only: about three lines per order, BigDecimal against long cents; equal
+        // result sizes (total in cents) show both paths computed the same amounts
+        MoneyWorkload money = new MoneyWorkload((int) Math.min(size.getOrders() * 3, 3_000_000), generator.getSeed());
+        results.add(repeat(size, "money.orderLines.bigDecimal", money::bigDecimal));
+        results.add(repeat(size, "money.orderLines.cents", money::cents));
+
+        // In-memory only: as many orders as the scale (capped), spread over 90 days; the dashboard
+        // windows from a filtered list each, as before, against one bucketing pass
+        WindowedRevenueWorkload windows = new WindowedRevenueWorkload((int) Math.min(size.getOrders(), 5_000_000),
+                last.toEpochDay(), generator.getSeed());
+        results.add(repeat(size, "windows.perWindowLists", windows::perWindowLists));
+        results.add(repeat(size, "windows.buckets", windows::buckets));
+    }
+
+    private Result once(DatasetSize size, String operation, LongSupplier body) {
+        return measure(size, operation, 0, 1, body);
+    }
+
+    private Result repeat(DatasetSize size, String operation, LongSupplier body) {
+        return measure(size, operation, warmupIterations, Math.max(1, iterations), body);
+    }
+
+    private Result measure(DatasetSize size, String operation, int warmup, int measured, LongSupplier body) {
+        long resultSize = 0;
+        double[] millis = new double[measured];
+        try {
+            for (int i = 0; i < warmup; i++) {
+                body.getAsLong();
+            }
+            for (int i = 0; i < measured; i++) {
+                long start = System.nanoTime();
+                resultSize = body.getAsLong();
+                millis[i] = (System.nanoTime() - start) / 1_000_000.0;
+            }
+        } catch (RuntimeException e) {
+            log.warn("Benchmark operation {} failed at scale {}", operation, size.getName(), e);
+            return new Result(size.getName(), size.getOrders(), operation, 0, 0, 0, 0, 0, 0, 0,
+                    e.getClass().getSimpleName() + ": " + e.getMessage());
+        }
+        Arrays.sort(millis);
+        double mean = Arrays.stream(millis).average().orElse(0);
+        Result result = new Result(size.getName(), size.getOrders(), operation, measured, millis[0],
+                percentile(millis, 50), percentile(millis, 95), millis[measured - 1], mean, resultSize, null);
+        log.info("{} [{}]: median {} ms over {} runs", operation, size.getName(),
+                String.format("%.2f", result.getMedianMs()), measured);
+        return result;
+    }
+
+    private long export(LocalDate from, LocalDate to, OrderExportService.Format format) {
+        try {
+            return orderExportService.export(from, to, format, false, OutputStream.nullOutputStream());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void write(LocalDateTime startedAt, List<Result> results) throws IOException {
+        Path directory = Path.of(outputDir);
+        Files.createDirectories(directory);
+        String name = "analytics-benchmark-" + startedAt.format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss"));
+
+        Path csv = directory.resolve(name + ".csv");
+        try (Writer writer = Files.newBufferedWriter(csv, StandardCharsets.UTF_8)) {
+            writer.write(String.join(",", CSV_COLUMNS));
+            writer.write('\n');
+            for (Result r : results) {
+                writer.write(String.join(",", r.getScale(), Long.toString(r.getOrders()), r.getOperation(),
+                        Integer.toString(r.getIterations()), millis(r.getMinMs()), millis(r.getMedianMs()),
+                        millis(r.getP95Ms()), millis(r.getMaxMs()), millis(r.getMeanMs()),
+                        Long.toString(r.getResultSize()), csvField(r.getError())));
+                writer.write('\n');
+            }
+        }
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("startedAt", startedAt);
+        report.put("javaVersion", System.getProperty("java.version"));
+        report.put("availableProcessors", Runtime.getRuntime().availableProcessors());
+        report.put("maxHeapMb", Runtime.getRuntime().maxMemory() / (1024 * 1024));
+        report.put("embeddedDb", embeddedDb);
+        report.put("seed", generator.getSeed());
+        report.put("historyDays", generator.getHistoryDays());
+        report.put("lastDay", generator.getLastDay());
+        report.put("warmupIterations", warmupIterations);
+        report.put("iterations", iterations);
+        report.put("results", results);
+        Path json = directory.resolve(name + ".json");
+        objectMapper.writerWithDefaultPrettyPrinter().writeValue(json.toFile(), report);
+        log.info("Benchmark results written to {} and {}", csv.toAbsolutePath(), json.toAbsolutePath());
+    }
+
+    // Nearest-rank percentile of sorted values
+    private static double percentile(double[] sorted, int percent) {
+        int rank = (int) Math.ceil(percent / 100.0 * sorted.length);
+        return sorted[Math.max(0, rank - 1)];
+    }
+
+    private static long segments(SalesBreakdownDTO breakdown) {
+        return breakdown.getStores().size() + breakdown.getChannels().size();
+    }
+
+    private static long periods(RangeReportDTO report) {
+        return report.getPeriods().size();
+    }
+
+    private static String millis(double value) {
+        return String.format(Locale.ROOT, "%.3f", value);
+    }
+
+    private static String csvField(String value) {
+        if (value == null) {
+            return "";
+        }
+        return "\"" + value.replace("\"", "\"\"") + "\"";
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class Result {
+        // Preset name or order count the dataset was generated for
+        private final String scale;
+        private final long orders;
+        private final String operation;
+        // 0 when the operation failed
+        private final int iterations;
+        private final double minMs;
+        private final double medianMs;
+        private final double p95Ms;
+        private final double maxMs;
+        private final double meanMs;
+        // Rows or groups returned by the last run, to compare work done across scales
+        private final long resultSize;
+        private final String error;
+    }
+}
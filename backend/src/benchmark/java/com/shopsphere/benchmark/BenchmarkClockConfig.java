@@ -0,0 +1,26 @@
+package com.shopsphere.benchmark;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+
+import java.time.Clock;
+import java.time.LocalTime;
+import java.time.ZoneId;
+
+/**
+ * Fixes the analytics clock to the last day of the generated history, so the dashboard's
+ * today, week and month windows cover generated orders whatever the anchor date.
+ */
+@Configuration
+@Profile("benchmark")
+public class BenchmarkClockConfig {
+
+    @Bean
+    @Primary
+    public Clock benchmarkClock(SyntheticDataGenerator generator) {
+        ZoneId zone = ZoneId.systemDefault();
+        return Clock.fixed(generator.getLastDay().atTime(LocalTime.NOON).atZone(zone).toInstant(), zone);
+    }
+}
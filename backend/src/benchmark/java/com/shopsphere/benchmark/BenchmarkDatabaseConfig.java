@@ -0,0 +1,68 @@
+package com.shopsphere.benchmark;
+
+import ch.vorburger.exec.ManagedProcessException;
+import ch.vorburger.mariadb4j.DB;
+import ch.vorburger.mariadb4j.DBConfigurationBuilder;
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.context.annotation.Profile;
+
+import javax.sql.DataSource;
+
+/**
+ * Starts a throwaway MariaDB server for the benchmark run and points the application's data
+ * source at it, so benchmarks exercise the same SQL dialect and streaming behaviour as MySQL in
+ * production. The server's data directory is temporary and removed on shutdown.
+ */
+@Configuration
+@Profile("benchmark")
+@ConditionalOnProperty(name = "shopsphere.benchmark.embedded-db", havingValue = "true", matchIfMissing = true)
+@Slf4j
+public class BenchmarkDatabaseConfig {
+
+    private static final String DATABASE = "shopsphere_bench";
+
+    @Value("${shopsphere.benchmark.db-port:0}")
+    private int port;
+
+    @Value("${shopsphere.benchmark.innodb-buffer-pool:1G}")
+    private String innodbBufferPool;
+
+    @Bean(destroyMethod = "stop")
+    public DB benchmarkDatabaseServer() throws ManagedProcessException {
+        DBConfigurationBuilder config = DBConfigurationBuilder.newBuilder();
+        // 0 = any free port
+        config.setPort(port);
+        config.addArg("--innodb-buffer-pool-size=" + innodbBufferPool);
+        // Bulk loading speed over durability; the data is regenerated on every run
+        config.addArg("--innodb-flush-log-at-trx-commit=2");
+        config.addArg("--max-allowed-packet=64M");
+        DB db = DB.newEmbeddedDB(config.build());
+        db.start();
+        db.createDB(DATABASE);
+        log.info("Embedded MariaDB for benchmarks listening on port {}", db.getConfiguration().getPort());
+        return db;
+    }
+
+    @Bean
+    @DependsOn("benchmarkDatabaseServer")
+    public DataSource dataSource(DB benchmarkDatabaseServer) {
+        HikariDataSource dataSource = DataSourceBuilder.create()
+                .type(HikariDataSource.class)
+                .driverClassName("com.mysql.cj.jdbc.Driver")
+                .url("jdbc:mysql://localhost:" + benchmarkDatabaseServer.getConfiguration().getPort() + "/" + DATABASE
+                        + "?useSSL=false&allowPublicKeyRetrieval=true")
+                .username("root")
+                .password("")
+                .build();
+        // Parallel loads hold one streaming connection per worker for their whole run
+        dataSource.setMaximumPoolSize(Math.max(10, Runtime.getRuntime().availableProcessors() + 4));
+        return dataSource;
+    }
+}
@@ -0,0 +1,52 @@
+package com.shopsphere.benchmark;
+
+import com.shopsphere.analytics.ProductCategoryIndex;
+
+import java.util.Random;
+
+/**
+ * Builds and probes {@link ProductCategoryIndex} instances of a given size with sequential ids,
+ * as product identities are. Timing the build over growing sizes shows whether it stays linear;
+ * the lookups run a fixed count, half hits and half misses, so their time should not grow.
+ */
+public class CategoryIndexWorkload {
+
+    public static final int LOOKUPS = 1_000_000;
+
+    private final long[] productIds;
+    private final String[] categories;
+    private final long[] probes;
+    private ProductCategoryIndex index;
+
+    public CategoryIndexWorkload(int products, int categoryCount, long seed) {
+        Random random = new Random(seed);
+        productIds = new long[products];
+        categories = new String[products];
+        for (int i = 0; i < products; i++) {
+            productIds[i] = i + 1L;
+            categories[i] = "Category " + random.nextInt(categoryCount);
+        }
+        probes = new long[LOOKUPS];
+        for (int i = 0; i < LOOKUPS; i++) {
+            probes[i] = random.nextBoolean() ? random.nextLong(1, products + 1L) : products + 1L + random.nextInt(products);
+        }
+    }
+
+    public long build() {
+        index = ProductCategoryIndex.build(productIds, categories);
+        return index.size();
+    }
+
+    public long lookups() {
+        if (index == null) {
+            build();
+        }
+        long found = 0;
+        for (long productId : probes) {
+            if (index.categoryOf(productId) >= 0) {
+                found++;
+            }
+        }
+        return found;
+    }
+}
@@ -0,0 +1,53 @@
+package com.shopsphere.benchmark;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.Locale;
+
+/**
+ * Row counts of a synthetic dataset, derived from its number of orders so that every scale
+ * has a comparable shape (orders per customer, orders per product, stores).
+ */
+@Getter
+@AllArgsConstructor
+public class DatasetSize {
+
+    private final String name;
+    private final long orders;
+    private final int customers;
+    private final int products;
+    private final int stores;
+    private final int campaigns;
+
+    /**
+     * Parses a preset ({@code 10k}, {@code 1m}, {@code 10m}) or a plain order count.
+     */
+    public static DatasetSize parse(String scale) {
+        String value = scale.trim().toLowerCase(Locale.ROOT);
+        long orders;
+        try {
+            if (value.endsWith("k")) {
+                orders = Long.parseLong(value.substring(0, value.length() - 1)) * 1_000L;
+            } else if (value.endsWith("m")) {
+                orders = Long.parseLong(value.substring(0, value.length() - 1)) * 1_000_000L;
+            } else {
+                orders = Long.parseLong(value);
+            }
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid benchmark scale: " + scale, e);
+        }
+        if (orders <= 0) {
+            throw new IllegalArgumentException("Benchmark scale must have at least one order: " + scale);
+        }
+        return forOrders(value, orders);
+    }
+
+    public static DatasetSize forOrders(String name, long orders) {
+        // About 8 orders per customer and 200 per product, within sensible catalogue limits
+        int customers = (int) Math.max(100, Math.min(orders / 8, 5_000_000));
+        int products = (int) Math.max(200, Math.min(orders / 200, 50_000));
+        int stores = orders < 100_000 ? 10 : 40;
+        return new DatasetSize(name, orders, customers, products, stores, 24);
+    }
+}
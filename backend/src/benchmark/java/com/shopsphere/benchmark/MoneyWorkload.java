@@ -0,0 +1,67 @@
+package com.shopsphere.benchmark;
+
+import com.shopsphere.util.Money;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Random;
+
+/**
+ * Order-line arithmetic (subtotal, campaign discount, savings) over generated lines, done once
+ * with {@link BigDecimal} as before and once with {@link Money}. Both return the total in cents,
+ * so equal results show the two paths agree while their timings are compared.
+ */
+public class MoneyWorkload {
+
+    private final BigDecimal[] prices;
+    private final int[] quantities;
+    private final int[] percents;
+
+    public MoneyWorkload(int lines, long seed) {
+        Random random = new Random(seed);
+        prices = new BigDecimal[lines];
+        quantities = new int[lines];
+        percents = new int[lines];
+        for (int i = 0; i < lines; i++) {
+            prices[i] = BigDecimal.valueOf(random.nextLong(50, 5_000_000), 2);
+            quantities[i] = random.nextInt(1, 10);
+            percents[i] = random.nextInt(4) == 0 ? random.nextInt(5, 60) : 0;
+        }
+    }
+
+    public int size() {
+        return prices.length;
+    }
+
+    public long bigDecimal() {
+        BigDecimal total = BigDecimal.ZERO;
+        BigDecimal savings = BigDecimal.ZERO;
+        for (int i = 0; i < prices.length; i++) {
+            BigDecimal unitPrice = prices[i];
+            if (percents[i] > 0) {
+                BigDecimal discount = prices[i].multiply(BigDecimal.valueOf(percents[i]))
+                        .divide(BigDecimal.valueOf(100), 2, RoundingMode.HALF_UP);
+                unitPrice = prices[i].subtract(discount).max(BigDecimal.ZERO);
+            }
+            BigDecimal quantity = BigDecimal.valueOf(quantities[i]);
+            total = total.add(unitPrice.multiply(quantity));
+            savings = savings.add(prices[i].subtract(unitPrice).multiply(quantity));
+        }
+        return total.add(savings).movePointRight(2).longValueExact();
+    }
+
+    public long cents() {
+        Money total = Money.ZERO;
+        Money savings = Money.ZERO;
+        for (int i = 0; i < prices.length; i++) {
+            Money original = Money.of(prices[i]);
+            Money unitPrice = original;
+            if (percents[i] > 0) {
+                unitPrice = original.minus(original.percent(percents[i])).max(Money.ZERO);
+            }
+            total = total.plus(unitPrice.times(quantities[i]));
+            savings = savings.plus(original.minus(unitPrice).times(quantities[i]));
+        }
+        return total.plus(savings).cents();
+    }
+}
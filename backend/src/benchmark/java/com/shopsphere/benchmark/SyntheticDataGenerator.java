@@ -0,0 +1,445 @@
+package com.shopsphere.benchmark;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Fills the benchmark database with a deterministic synthetic shop: stores, products, customers,
+ * campaigns, orders with their items and payments, and loyalty points.
+ * <p>
+ * The same seed, size and anchor date always produce the same rows. Orders are generated in
+ * fixed-size chunks, each from its own random stream keyed by the chunk number, so chunks can be
+ * inserted in parallel without changing the data; only the surrogate ids of items, payments and
+ * loyalty rows depend on insertion order. Order ids grow with creation time, order volume grows
+ * over the history, and customer and product popularity are skewed so a minority of customers and
+ * products account for most orders.
+ */
+@Component
+@Profile("benchmark")
+@RequiredArgsConstructor
+@Slf4j
+public class SyntheticDataGenerator {
+
+    private static final int CHUNK_ORDERS = 5_000;
+    private static final int CAMPAIGN_DAYS = 14;
+    private static final int CAMPAIGN_DISCOUNT_PERCENT = 10;
+    private static final int POINTS_PER_HUNDRED_RUPEES = 1;
+    private static final String[] CATEGORIES = {"Electronics", "Clothing", "Home & Kitchen", "Books", "Sports",
+            "Beauty", "Toys", "Groceries", "Footwear", "Accessories", "Furniture", "Stationery"};
+
+    private static final String INSERT_STORE_SQL =
+            "INSERT INTO stores (store_id, store_location, in_store_reserve_floor, online_share_cap_percent, " +
+            "online_enabled, online_priority, latitude, longitude, created_at, updated_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String INSERT_PRODUCT_SQL =
+            "INSERT INTO products (product_id, name, category, price, stock_quantity, sku, store_location, " +
+            "is_active, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String INSERT_USER_SQL =
+            "INSERT INTO users (user_id, name, email, password, role, phone, address, is_active, created_at, " +
+            "updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String INSERT_CAMPAIGN_SQL =
+            "INSERT INTO campaigns (campaign_id, title, start_date, end_date, created_at, updated_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?)";
+
+    private static final String INSERT_ORDER_SQL =
+            "INSERT INTO orders (order_id, customer_id, order_type, status, total_amount, discount_code, " +
+            "discount_amount, shipping_address, store_location, tracking_number, payment_method, payment_status, " +
+            "campaign_id, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String INSERT_ORDER_ITEM_SQL =
+            "INSERT INTO order_items (order_id, product_id, product_name, product_sku, quantity, unit_price, " +
+            "original_price, subtotal, store_location, created_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String INSERT_PAYMENT_SQL =
+            "INSERT INTO payments (order_id, customer_id, amount, payment_method, status, transaction_id, upi_id, " +
+            "created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String INSERT_LOYALTY_TRANSACTION_SQL =
+            "INSERT INTO loyalty_transactions (user_id, order_id, points, type, description, created_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?)";
+
+    // Accounts follow from the transactions, as LoyaltyService would have kept them
+    private static final String INSERT_LOYALTY_ACCOUNTS_SQL =
+            "INSERT INTO loyalty_accounts (user_id, points_balance, total_earned, created_at, updated_at) " +
+            "SELECT user_id, SUM(points), SUM(points), MIN(created_at), MAX(created_at) FROM loyalty_transactions " +
+            "GROUP BY user_id";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${shopsphere.benchmark.seed:20240601}")
+    private long seed;
+
+    @Value("${shopsphere.benchmark.anchor-date:2024-06-01}")
+    private String anchorDate;
+
+    @Value("${shopsphere.benchmark.history-days:730}")
+    private int historyDays;
+
+    // 0 = one worker per available processor
+    @Value("${shopsphere.benchmark.generator-parallelism:0}")
+    private int parallelism;
+
+    @Value("${shopsphere.benchmark.embedded-db:true}")
+    private boolean embeddedDb;
+
+    @Value("${shopsphere.benchmark.reset:false}")
+    private boolean reset;
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public int getHistoryDays() {
+        return historyDays;
+    }
+
+    /**
+     * Last day with generated orders.
+     */
+    public LocalDate getLastDay() {
+        return anchor().minusDays(1);
+    }
+
+    /**
+     * Empties the database and generates a dataset of the given size.
+     *
+     * @return rows inserted per table
+     * @throws IllegalStateException if an external database already holds data and reset is off
+     */
+    public Map<String, Long> generate(DatasetSize size) {
+        long startedAt = System.currentTimeMillis();
+        prepareDatabase();
+
+        LocalDate firstDay = anchor().minusDays(historyDays);
+        LocalDateTime start = firstDay.atStartOfDay();
+        Catalogue catalogue = new Catalogue(size, firstDay);
+
+        Map<String, Long> rows = new LinkedHashMap<>();
+        rows.put("stores", (long) insertStores(catalogue, start));
+        rows.put("products", (long) insertProducts(catalogue, start));
+        rows.put("users", (long) insertCustomers(size, start));
+        rows.put("campaigns", (long) insertCampaigns(catalogue, start));
+
+        long[] orderRows = insertOrders(size, catalogue, start);
+        rows.put("orders", orderRows[0]);
+        rows.put("order_items", orderRows[1]);
+        rows.put("payments", orderRows[2]);
+        rows.put("loyalty_transactions", orderRows[3]);
+        rows.put("loyalty_accounts", (long) jdbcTemplate.update(INSERT_LOYALTY_ACCOUNTS_SQL));
+
+        log.info("Generated {} dataset in {} ms: {}", size.getName(), System.currentTimeMillis() - startedAt, rows);
+        return rows;
+    }
+
+    private void prepareDatabase() {
+        Long orders = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM orders", Long.class);
+        Long users = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM users", Long.class);
+        if ((orders == null || orders == 0) && (users == null || users == 0)) {
+            return;
+        }
+        if (!embeddedDb && !reset) {
+            throw new IllegalStateException("The benchmark database already holds data; set "
+                    + "shopsphere.benchmark.reset=true to truncate every table in it");
+        }
+        List<String> tables = jdbcTemplate.queryForList("SELECT table_name FROM information_schema.tables "
+                + "WHERE table_schema = DATABASE() AND table_type = 'BASE TABLE'", String.class);
+        // Foreign key checks are per session, so everything runs on one connection
+        jdbcTemplate.execute((ConnectionCallback<Void>) con -> {
+            try (Statement statement = con.createStatement()) {
+                statement.execute("SET FOREIGN_KEY_CHECKS = 0");
+                for (String table : tables) {
+                    statement.execute("TRUNCATE TABLE `" + table + "`");
+                }
+                statement.execute("SET FOREIGN_KEY_CHECKS = 1");
+            }
+            return null;
+        });
+        log.info("Truncated {} tables before generating", tables.size());
+    }
+
+    private int insertStores(Catalogue catalogue, LocalDateTime start) {
+        SplittableRandom random = new SplittableRandom(streamSeed(1));
+        Timestamp createdAt = Timestamp.valueOf(start);
+        List<Object[]> rows = new ArrayList<>(catalogue.stores.length);
+        for (int i = 0; i < catalogue.stores.length; i++) {
+            // Spread over India, matching the coordinates real stores are entered with
+            double latitude = 8 + random.nextDouble() * 22;
+            double longitude = 70 + random.nextDouble() * 18;
+            rows.add(new Object[]{i + 1, catalogue.stores[i], random.nextInt(3), 100 - 10 * random.nextInt(3),
+                    true, 100 + i, latitude, longitude, createdAt, createdAt});
+        }
+        jdbcTemplate.batchUpdate(INSERT_STORE_SQL, rows);
+        return rows.size();
+    }
+
+    private int insertProducts(Catalogue catalogue, LocalDateTime start) {
+        SplittableRandom random = new SplittableRandom(streamSeed(2));
+        Timestamp createdAt = Timestamp.valueOf(start);
+        List<Object[]> batch = new ArrayList<>(CHUNK_ORDERS);
+        for (int i = 0; i < catalogue.productPriceCents.length; i++) {
+            batch.add(new Object[]{i + 1, catalogue.productName(i), CATEGORIES[catalogue.productCategory[i]],
+                    cents(catalogue.productPriceCents[i]), 50 + random.nextInt(450), catalogue.productSku(i),
+                    catalogue.stores[catalogue.productStore[i]], true, createdAt, createdAt});
+            if (batch.size() == CHUNK_ORDERS) {
+                jdbcTemplate.batchUpdate(INSERT_PRODUCT_SQL, batch);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_PRODUCT_SQL, batch);
+        }
+        return catalogue.productPriceCents.length;
+    }
+
+    private int insertCustomers(DatasetSize size, LocalDateTime start) {
+        SplittableRandom random = new SplittableRandom(streamSeed(3));
+        List<Object[]> batch = new ArrayList<>(CHUNK_ORDERS);
+        for (int i = 1; i <= size.getCustomers(); i++) {
+            Timestamp createdAt = Timestamp.valueOf(start.minusDays(random.nextInt(365)));
+            // Not a usable password hash: benchmark customers never log in
+            batch.add(new Object[]{i, "Customer " + i, "customer" + i + "@bench.shopsphere.test", "{noop}benchmark",
+                    "CUSTOMER", String.format("9%09d", i), "Address " + i, true, createdAt, createdAt});
+            if (batch.size() == CHUNK_ORDERS) {
+                jdbcTemplate.batchUpdate(INSERT_USER_SQL, batch);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_USER_SQL, batch);
+        }
+        return size.getCustomers();
+    }
+
+    private int insertCampaigns(Catalogue catalogue, LocalDateTime start) {
+        Timestamp createdAt = Timestamp.valueOf(start);
+        List<Object[]> rows = new ArrayList<>(catalogue.campaignStart.length);
+        for (int i = 0; i < catalogue.campaignStart.length; i++) {
+            LocalDate from = catalogue.campaignStart[i];
+            rows.add(new Object[]{i + 1, "Benchmark Campaign " + (i + 1), Date.valueOf(from),
+                    Date.valueOf(from.plusDays(CAMPAIGN_DAYS - 1)), createdAt, createdAt});
+        }
+        jdbcTemplate.batchUpdate(INSERT_CAMPAIGN_SQL, rows);
+        return rows.size();
+    }
+
+    /**
+     * @return {orders, order items, payments, loyalty transactions}
+     */
+    private long[] insertOrders(DatasetSize size, Catalogue catalogue, LocalDateTime start) {
+        long chunks = (size.getOrders() + CHUNK_ORDERS - 1) / CHUNK_ORDERS;
+        int workers = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        ExecutorService pool = Executors.newFixedThreadPool(workers);
+        long[] totals = new long[4];
+        try {
+            List<Future<long[]>> results = new ArrayList<>();
+            for (long chunk = 0; chunk < chunks; chunk++) {
+                long chunkNumber = chunk;
+                results.add(pool.submit(() -> insertOrderChunk(chunkNumber, size, catalogue, start)));
+            }
+            long logEvery = Math.max(1, chunks / 10);
+            for (int i = 0; i < results.size(); i++) {
+                long[] counts = results.get(i).get();
+                for (int c = 0; c < totals.length; c++) {
+                    totals[c] += counts[c];
+                }
+                if ((i + 1) % logEvery == 0) {
+                    log.info("Inserted {} of {} orders", totals[0], size.getOrders());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Synthetic data generation was interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Synthetic data generation failed", e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+        return totals;
+    }
+
+    private long[] insertOrderChunk(long chunk, DatasetSize size, Catalogue catalogue, LocalDateTime start) {
+        SplittableRandom random = new SplittableRandom(streamSeed(1_000 + chunk));
+        long firstId = chunk * CHUNK_ORDERS + 1;
+        long lastId = Math.min(firstId + CHUNK_ORDERS - 1, size.getOrders());
+        long spanSeconds = historyDays * 86_400L;
+        LocalDateTime end = start.plusSeconds(spanSeconds);
+
+        List<Object[]> orders = new ArrayList<>(CHUNK_ORDERS);
+        List<Object[]> items = new ArrayList<>(CHUNK_ORDERS * 3);
+        List<Object[]> payments = new ArrayList<>(CHUNK_ORDERS);
+        List<Object[]> loyalty = new ArrayList<>(CHUNK_ORDERS);
+        for (long orderId = firstId; orderId <= lastId; orderId++) {
+            // Ids follow creation time; the exponent below 1 makes later days busier
+            double position = (orderId - 0.5) / size.getOrders();
+            LocalDateTime createdAt = start.plusSeconds((long) (spanSeconds * Math.pow(position, 0.7)));
+            Timestamp created = Timestamp.valueOf(createdAt);
+            long ageDays = Duration.between(createdAt, end).toDays();
+
+            // Skewed towards low ids: a minority of customers place most orders
+            long customerId = 1 + (long) (size.getCustomers() * Math.pow(random.nextDouble(), 2));
+            boolean online = random.nextDouble() < 0.6;
+            String storeLocation = online ? null : catalogue.stores[random.nextInt(catalogue.stores.length)];
+            String status;
+            if (random.nextDouble() < 0.07) {
+                status = "CANCELLED";
+            } else if (!online || ageDays >= 7) {
+                status = "DELIVERED";
+            } else {
+                status = ageDays >= 2 ? "SHIPPED" : "CONFIRMED";
+            }
+            int campaign = catalogue.campaignOn(createdAt.toLocalDate());
+            Long campaignId = campaign >= 0 && random.nextDouble() < 0.35 ? (long) campaign + 1 : null;
+
+            long totalCents = 0;
+            int lines = 1;
+            while (lines < 5 && random.nextDouble() < 0.45) {
+                lines++;
+            }
+            for (int line = 0; line < lines; line++) {
+                int product = (int) (catalogue.productPriceCents.length * Math.pow(random.nextDouble(), 3));
+                int quantity = random.nextDouble() < 0.7 ? 1 : 2 + random.nextInt(2);
+                long originalCents = catalogue.productPriceCents[product];
+                long unitCents = campaignId != null
+                        ? originalCents - originalCents * CAMPAIGN_DISCOUNT_PERCENT / 100
+                        : originalCents;
+                long subtotalCents = unitCents * quantity;
+                totalCents += subtotalCents;
+                items.add(new Object[]{orderId, product + 1, catalogue.productName(product),
+                        catalogue.productSku(product), quantity, cents(unitCents),
+                        campaignId != null ? cents(originalCents) : null, cents(subtotalCents),
+                        storeLocation != null ? storeLocation : catalogue.stores[catalogue.productStore[product]],
+                        created});
+            }
+
+            String discountCode = null;
+            BigDecimal discount = null;
+            if (random.nextDouble() < 0.03) {
+                long discountCents = Math.min(totalCents / 10, 20_000);
+                discountCode = "BENCH10";
+                discount = cents(discountCents);
+                totalCents -= discountCents;
+            }
+
+            String paymentMethod = online && random.nextDouble() < 0.3 ? "COD" : "UPI";
+            boolean paid = "UPI".equals(paymentMethod) ? !"CANCELLED".equals(status) : "DELIVERED".equals(status);
+            String paymentStatus = paid ? "COMPLETED" : ("CANCELLED".equals(status) && "UPI".equals(paymentMethod)
+                    ? "FAILED" : "PENDING");
+            orders.add(new Object[]{orderId, customerId, online ? "ONLINE" : "IN_STORE", status, cents(totalCents),
+                    discountCode, discount, online ? "Address " + customerId : null, storeLocation,
+                    online && ("SHIPPED".equals(status) || "DELIVERED".equals(status)) ? "TRK" + orderId : null,
+                    paymentMethod, paymentStatus, campaignId, created, created});
+            payments.add(new Object[]{orderId, customerId, cents(totalCents), paymentMethod,
+                    paid ? "SUCCESS" : ("FAILED".equals(paymentStatus) ? "FAILED" : "INITIATED"),
+                    String.format("BTX%012d", orderId), "UPI".equals(paymentMethod) ? "customer" + customerId + "@upi" : null,
+                    created, created});
+
+            int points = (int) (totalCents / 100 / 100) * POINTS_PER_HUNDRED_RUPEES;
+            if ("DELIVERED".equals(status) && points > 0) {
+                loyalty.add(new Object[]{customerId, orderId, points, "EARNED",
+                        "Earned from order #" + orderId, created});
+            }
+        }
+
+        // Items reference their orders, so orders go first
+        jdbcTemplate.batchUpdate(INSERT_ORDER_SQL, orders);
+        jdbcTemplate.batchUpdate(INSERT_ORDER_ITEM_SQL, items);
+        jdbcTemplate.batchUpdate(INSERT_PAYMENT_SQL, payments);
+        if (!loyalty.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_LOYALTY_TRANSACTION_SQL, loyalty);
+        }
+        return new long[]{orders.size(), items.size(), payments.size(), loyalty.size()};
+    }
+
+    private LocalDate anchor() {
+        return anchorDate == null || anchorDate.isBlank() ? LocalDate.now() : LocalDate.parse(anchorDate.trim());
+    }
+
+    // Independent random stream per table or order chunk
+    private long streamSeed(long stream) {
+        long z = seed + stream * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    private static BigDecimal cents(long cents) {
+        return BigDecimal.valueOf(cents, 2);
+    }
+
+    // Dimension attributes the order chunks need, generated once up front
+    private class Catalogue {
+        private final String[] stores;
+        private final long[] productPriceCents;
+        private final int[] productCategory;
+        private final int[] productStore;
+        private final LocalDate[] campaignStart;
+
+        Catalogue(DatasetSize size, LocalDate firstDay) {
+            stores = new String[size.getStores()];
+            for (int i = 0; i < stores.length; i++) {
+                stores[i] = String.format("Store %02d", i + 1);
+            }
+
+            SplittableRandom random = new SplittableRandom(streamSeed(4));
+            productPriceCents = new long[size.getProducts()];
+            productCategory = new int[size.getProducts()];
+            productStore = new int[size.getProducts()];
+            for (int i = 0; i < productPriceCents.length; i++) {
+                // Mostly cheap items with a long tail of expensive ones, Rs 49 to about Rs 25,000
+                productPriceCents[i] = 4_900 + (long) (2_500_000 * Math.pow(random.nextDouble(), 4)) / 100 * 100;
+                productCategory[i] = random.nextInt(CATEGORIES.length);
+                productStore[i] = random.nextInt(stores.length);
+            }
+
+            // Spread evenly over the history
+            campaignStart = new LocalDate[size.getCampaigns()];
+            int spacing = Math.max(CAMPAIGN_DAYS, historyDays / size.getCampaigns());
+            for (int i = 0; i < campaignStart.length; i++) {
+                campaignStart[i] = firstDay.plusDays((long) i * spacing);
+            }
+        }
+
+        String productName(int product) {
+            return CATEGORIES[productCategory[product]] + " Item " + (product + 1);
+        }
+
+        String productSku(int product) {
+            return String.format("BENCH-%06d", product + 1);
+        }
+
+        // Index of the campaign running on day, or -1
+        int campaignOn(LocalDate day) {
+            for (int i = 0; i < campaignStart.length; i++) {
+                if (!day.isBefore(campaignStart[i]) && day.isBefore(campaignStart[i].plusDays(CAMPAIGN_DAYS))) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.shopsphere.benchmark;
+
+import com.shopsphere.analytics.WindowedRevenueAggregator;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * The dashboard's trailing windows (today, 7 days, 30 days, the 30 days before) over generated
+ * orders spread across 90 days, computed once as before, with a filtered list per window, and
+ * once by bucketing every order into a {@link WindowedRevenueAggregator}. Both return the sum of
+ * the window revenues in cents, so equal results show the two paths agree.
+ */
+public class WindowedRevenueWorkload {
+
+    public static final int HORIZON_DAYS = 60;
+    private static final int HISTORY_DAYS = 90;
+    // {offsetDays, days} of each dashboard window
+    private static final int[][] WINDOWS = {{0, 1}, {0, 7}, {0, 30}, {30, 30}};
+
+    private final long anchorEpochDay;
+    private final List<SimpleOrder> orders;
+
+    public WindowedRevenueWorkload(int orderCount, long anchorEpochDay, long seed) {
+        Random random = new Random(seed);
+        this.anchorEpochDay = anchorEpochDay;
+        this.orders = new ArrayList<>(orderCount);
+        for (int i = 0; i < orderCount; i++) {
+            orders.add(new SimpleOrder(anchorEpochDay - random.nextInt(HISTORY_DAYS), random.nextLong(100, 2_000_000)));
+        }
+    }
+
+    public long perWindowLists() {
+        long total = 0;
+        for (int[] window : WINDOWS) {
+            long newest = anchorEpochDay - window[0];
+            long oldest = newest - window[1] + 1;
+            List<SimpleOrder> inWindow = orders.stream()
+                    .filter(o -> o.epochDay >= oldest && o.epochDay <= newest)
+                    .toList();
+            total += inWindow.stream().mapToLong(o -> o.amountCents).sum();
+        }
+        return total;
+    }
+
+    public long buckets() {
+        WindowedRevenueAggregator windows = new WindowedRevenueAggregator(anchorEpochDay, HORIZON_DAYS);
+        for (SimpleOrder order : orders) {
+            windows.add(order.epochDay, order.amountCents, 1);
+        }
+        long total = 0;
+        for (int[] window : WINDOWS) {
+            total += windows.revenueCents(window[0], window[1]);
+        }
+        return total;
+    }
+
+    private static class SimpleOrder {
+        private final long epochDay;
+        private final long amountCents;
+
+        SimpleOrder(long epochDay, long amountCents) {
+            this.epochDay = epochDay;
+            this.amountCents = amountCents;
+        }
+    }
+}
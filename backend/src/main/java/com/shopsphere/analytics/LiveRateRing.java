@@ -0,0 +1,155 @@
+package com.shopsphere.analytics;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Fixed-size ring of time slots counting orders, revenue and cancellations, for live rates
+ * over the last {@code slots} slots of {@code slotMillis} each.
+ * <p>
+ * Writers never block: a slot holds an immutable period number and {@link LongAdder} counters.
+ * The first writer of a new period swaps in a fresh slot with a compare-and-set, and concurrent
+ * writers add to whichever slot won. A write that arrives after its slot has been recycled for a
+ * newer period is counted in that newer period. Reads sum the slots whose period lies in the
+ * requested range; they see each counter's latest value but are not an atomic snapshot across
+ * counters.
+ */
+public final class LiveRateRing {
+
+    private final long slotMillis;
+    private final AtomicReferenceArray<Slot> slots;
+
+    public LiveRateRing(long slotMillis, int slots) {
+        if (slotMillis <= 0 || slots <= 0) {
+            throw new IllegalArgumentException("Slot length and count must be positive");
+        }
+        this.slotMillis = slotMillis;
+        this.slots = new AtomicReferenceArray<>(slots);
+    }
+
+    public long period(long epochMillis) {
+        return Math.floorDiv(epochMillis, slotMillis);
+    }
+
+    public long periodStartMillis(long period) {
+        return period * slotMillis;
+    }
+
+    public int capacity() {
+        return slots.length();
+    }
+
+    public void recordOrder(long epochMillis, long revenueCents) {
+        Slot slot = slotFor(period(epochMillis));
+        slot.orders.increment();
+        slot.revenueCents.add(revenueCents);
+    }
+
+    public void recordCancellation(long epochMillis, long revenueCents) {
+        Slot slot = slotFor(period(epochMillis));
+        slot.cancellations.increment();
+        slot.cancelledRevenueCents.add(revenueCents);
+    }
+
+    /**
+     * Counts of a single period; zero when the period has no slot (idle, or older than the ring).
+     */
+    public Totals get(long period) {
+        Slot slot = slots.get(index(period));
+        return slot != null && slot.period == period ? slot.totals() : new Totals(period, 0, 0, 0, 0);
+    }
+
+    /**
+     * Sums of the periods in [fromPeriod, toPeriod], clipped to the span the ring still holds.
+     */
+    public Totals sum(long fromPeriod, long toPeriod) {
+        long from = Math.max(fromPeriod, toPeriod - slots.length() + 1);
+        long orders = 0;
+        long revenueCents = 0;
+        long cancellations = 0;
+        long cancelledRevenueCents = 0;
+        for (long p = from; p <= toPeriod; p++) {
+            Slot slot = slots.get(index(p));
+            if (slot != null && slot.period == p) {
+                orders += slot.orders.sum();
+                revenueCents += slot.revenueCents.sum();
+                cancellations += slot.cancellations.sum();
+                cancelledRevenueCents += slot.cancelledRevenueCents.sum();
+            }
+        }
+        return new Totals(fromPeriod, orders, revenueCents, cancellations, cancelledRevenueCents);
+    }
+
+    private Slot slotFor(long period) {
+        int index = index(period);
+        while (true) {
+            Slot current = slots.get(index);
+            if (current != null && current.period >= period) {
+                return current;
+            }
+            Slot fresh = new Slot(period);
+            if (slots.compareAndSet(index, current, fresh)) {
+                return fresh;
+            }
+        }
+    }
+
+    private int index(long period) {
+        return (int) Math.floorMod(period, (long) slots.length());
+    }
+
+    private static final class Slot {
+        private final long period;
+        private final LongAdder orders = new LongAdder();
+        private final LongAdder revenueCents = new LongAdder();
+        private final LongAdder cancellations = new LongAdder();
+        private final LongAdder cancelledRevenueCents = new LongAdder();
+
+        Slot(long period) {
+            this.period = period;
+        }
+
+        Totals totals() {
+            return new Totals(period, orders.sum(), revenueCents.sum(), cancellations.sum(),
+                    cancelledRevenueCents.sum());
+        }
+    }
+
+    public static final class Totals {
+
+        private final long period;
+        private final long orders;
+        private final long revenueCents;
+        private final long cancellations;
+        private final long cancelledRevenueCents;
+
+        Totals(long period, long orders, long revenueCents, long cancellations, long cancelledRevenueCents) {
+            this.period = period;
+            this.orders = orders;
+            this.revenueCents = revenueCents;
+            this.cancellations = cancellations;
+            this.cancelledRevenueCents = cancelledRevenueCents;
+        }
+
+        // First period covered
+        public long getPeriod() {
+            return period;
+        }
+
+        public long getOrders() {
+            return orders;
+        }
+
+        public long getRevenueCents() {
+            return revenueCents;
+        }
+
+        public long getCancellations() {
+            return cancellations;
+        }
+
+        public long getCancelledRevenueCents() {
+            return cancelledRevenueCents;
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.shopsphere.analytics;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * In-memory {@link HyperLogLog} sketches by key, ahead of stored copies that a periodic flush
+ * brings up to date.
+ * <p>
+ * {@link #add} records a value in the key's live sketch. {@link #flush} merges each sketch
+ * changed since the last flush with its stored copy and hands the results to the caller to
+ * write; a sketch left unchanged for a whole flush interval is fully persisted and dropped.
+ * If the write fails, the sketches stay changed and the next flush writes them again. Sketches
+ * only ever merge by register maximum, so repeated or overlapping writes are harmless. Adds and
+ * reads are thread-safe; flushes must be serialised by the caller.
+ */
+public final class LiveSketchBuffer<K> {
+
+    private final int precision;
+    private final ConcurrentHashMap<K, LiveSketch> live = new ConcurrentHashMap<>();
+
+    public LiveSketchBuffer(int precision) {
+        this.precision = precision;
+    }
+
+    public void add(K key, long value) {
+        while (true) {
+            LiveSketch sketch = live.computeIfAbsent(key, k -> new LiveSketch(new HyperLogLog(precision)));
+            synchronized (sketch) {
+                // A retired sketch was flushed and dropped from the map; start a new one
+                if (!sketch.retired) {
+                    sketch.sketch.add(value);
+                    sketch.dirty = true;
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Calls {@code action} with each live sketch, under that sketch's lock; the action may
+     * merge the sketch elsewhere but must not keep it.
+     */
+    public void forEach(BiConsumer<K, HyperLogLog> action) {
+        live.forEach((key, sketch) -> {
+            synchronized (sketch) {
+                action.accept(key, sketch.sketch);
+            }
+        });
+    }
+
+    /**
+     * Merges every changed sketch with its stored copy, read through {@code stored} (null when
+     * there is none), and passes the serialized results to {@code write}.
+     *
+     * @return sketches written
+     */
+    public int flush(Function<K, byte[]> stored, Consumer<Map<K, byte[]>> write) {
+        Map<K, byte[]> changed = new LinkedHashMap<>();
+        List<LiveSketch> written = new ArrayList<>();
+        for (Map.Entry<K, LiveSketch> entry : live.entrySet()) {
+            K key = entry.getKey();
+            LiveSketch sketch = entry.getValue();
+            boolean wasDirty = sketch.dirty;
+            byte[] storedCopy = wasDirty ? stored.apply(key) : null;
+            synchronized (sketch) {
+                if (!sketch.dirty) {
+                    // Unchanged since the last flush, so fully persisted
+                    sketch.retired = true;
+                    live.remove(key, sketch);
+                    continue;
+                }
+                if (!wasDirty) {
+                    // Changed after the stored copy was skipped; written by the next flush
+                    continue;
+                }
+                if (storedCopy != null) {
+                    sketch.sketch.merge(HyperLogLog.fromBytes(storedCopy));
+                }
+                changed.put(key, sketch.sketch.toBytes());
+                written.add(sketch);
+                sketch.dirty = false;
+            }
+        }
+        if (changed.isEmpty()) {
+            return 0;
+        }
+        try {
+            write.accept(changed);
+        } catch (RuntimeException e) {
+            // Not persisted: keep the sketches live so the next flush writes them again
+            for (LiveSketch sketch : written) {
+                synchronized (sketch) {
+                    sketch.dirty = true;
+                }
+            }
+            throw e;
+        }
+        return changed.size();
+    }
+
+    private static final class LiveSketch {
+        private final HyperLogLog sketch;
+        // Written under the LiveSketch's lock; dirty is also peeked without it before a flush
+        private volatile boolean dirty;
+        private boolean retired;
+
+        LiveSketch(HyperLogLog sketch) {
+            this.sketch = sketch;
+        }
+    }
+}
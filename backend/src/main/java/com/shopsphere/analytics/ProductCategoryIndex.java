@@ -0,0 +1,104 @@
+package com.shopsphere.analytics;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable product id to category lookup on primitive arrays.
+ * <p>
+ * Product ids live in an open-addressing table of {@code long} keys with linear probing, and
+ * categories are interned to dense ordinals so callers can accumulate per category into
+ * plain {@code long[]} arrays indexed by {@link #categoryOf(long)}. A lookup is a multiply,
+ * a shift and usually one or two array reads; no boxing, no per-entry objects.
+ */
+public final class ProductCategoryIndex {
+
+    // Product ids are database identities and therefore positive
+    private static final long EMPTY = 0L;
+
+    private final long[] keys;
+    private final int[] ordinals;
+    private final int shift;
+    private final String[] categories;
+    private final int size;
+
+    private ProductCategoryIndex(long[] keys, int[] ordinals, int shift, String[] categories, int size) {
+        this.keys = keys;
+        this.ordinals = ordinals;
+        this.shift = shift;
+        this.categories = categories;
+        this.size = size;
+    }
+
+    /**
+     * @param productIds positive product ids, no duplicates
+     * @param productCategories category of each product; null maps to "Uncategorized"
+     * @throws IllegalArgumentException if an id is not positive (0 marks an empty slot)
+     */
+    public static ProductCategoryIndex build(long[] productIds, String[] productCategories) {
+        if (productIds.length != productCategories.length) {
+            throw new IllegalArgumentException("Expected one category per product id");
+        }
+        int capacity = Integer.highestOneBit(Math.max(2, productIds.length * 2 - 1)) << 1;
+        long[] keys = new long[capacity];
+        int[] ordinals = new int[capacity];
+        int shift = 64 - Integer.numberOfTrailingZeros(capacity);
+
+        Map<String, Integer> ordinalByCategory = new HashMap<>();
+        List<String> categories = new ArrayList<>();
+        for (int i = 0; i < productIds.length; i++) {
+            if (productIds[i] <= 0) {
+                throw new IllegalArgumentException("Product ids must be positive: " + productIds[i]);
+            }
+            String category = productCategories[i] != null ? productCategories[i] : "Uncategorized";
+            Integer ordinal = ordinalByCategory.get(category);
+            if (ordinal == null) {
+                ordinal = categories.size();
+                ordinalByCategory.put(category, ordinal);
+                categories.add(category);
+            }
+            int slot = slot(productIds[i], shift, capacity - 1);
+            while (keys[slot] != EMPTY && keys[slot] != productIds[i]) {
+                slot = (slot + 1) & (capacity - 1);
+            }
+            keys[slot] = productIds[i];
+            ordinals[slot] = ordinal;
+        }
+        return new ProductCategoryIndex(keys, ordinals, shift, categories.toArray(new String[0]), productIds.length);
+    }
+
+    /**
+     * Category ordinal of a product, or -1 if the product is unknown.
+     */
+    public int categoryOf(long productId) {
+        int mask = keys.length - 1;
+        int slot = slot(productId, shift, mask);
+        long key;
+        while ((key = keys[slot]) != EMPTY) {
+            if (key == productId) {
+                return ordinals[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    public int categoryCount() {
+        return categories.length;
+    }
+
+    public String categoryName(int ordinal) {
+        return categories[ordinal];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    // Fibonacci hashing: spreads sequential ids across the table
+    private static int slot(long productId, int shift, int mask) {
+        return (int) ((productId * 0x9E3779B97F4A7C15L) >>> shift) & mask;
+    }
+}
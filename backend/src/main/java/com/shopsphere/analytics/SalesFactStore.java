@@ -0,0 +1,362 @@
+package com.shopsphere.analytics;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.IntStream;
+
+/**
+ * Append-only, in-memory columnar store of order line facts.
+ * <p>
+ * Each fact is one order line: epoch day, product id, store id, category id, quantity and
+ * amount in cents, held in parallel primitive arrays of fixed-size chunks. Stores and
+ * categories are interned to dense ids. A cancellation is recorded as a reversing fact with
+ * negated quantity and amount, so sums stay correct without updates in place.
+ * <p>
+ * One thread appends at a time ({@link #append} and {@link #adopt} are synchronized); queries
+ * run concurrently without locks. A chunk's row count is published after its columns are
+ * written, and queries read only up to the count they observed, so they see a consistent
+ * prefix of every chunk. {@link #query} scans chunks in parallel on the common pool.
+ */
+public final class SalesFactStore {
+
+    public static final int CHUNK_ROWS = 1 << 14;
+
+    public enum Dimension { ALL, DAY, PRODUCT, STORE, CATEGORY }
+
+    private final Dictionary stores = new Dictionary();
+    private final Dictionary categories = new Dictionary();
+    private volatile Chunk[] chunks = new Chunk[0];
+
+    public int storeId(String store) {
+        return stores.intern(store);
+    }
+
+    public int categoryId(String category) {
+        return categories.intern(category);
+    }
+
+    /**
+     * Id of a known store, or -1.
+     */
+    public int findStoreId(String store) {
+        return stores.find(store);
+    }
+
+    public int findCategoryId(String category) {
+        return categories.find(category);
+    }
+
+    public String storeName(int storeId) {
+        return stores.name(storeId);
+    }
+
+    public String categoryName(int categoryId) {
+        return categories.name(categoryId);
+    }
+
+    public synchronized void append(int epochDay, long productId, int storeId, int categoryId, int quantity,
+                                    long amountCents) {
+        Chunk[] current = chunks;
+        Chunk tail = current.length > 0 ? current[current.length - 1] : null;
+        if (tail == null || tail.size == CHUNK_ROWS) {
+            tail = new Chunk();
+            Chunk[] grown = Arrays.copyOf(current, current.length + 1);
+            grown[current.length] = tail;
+            chunks = grown;
+        }
+        tail.add(epochDay, productId, storeId, categoryId, quantity, amountCents);
+    }
+
+    /**
+     * Adds chunks filled by a {@link Loader}. Used by the initial load, where several loaders
+     * fill their own chunks in parallel.
+     */
+    public synchronized void adopt(List<Chunk> loaded) {
+        if (loaded.isEmpty()) {
+            return;
+        }
+        Chunk[] current = chunks;
+        Chunk[] grown = Arrays.copyOf(current, current.length + loaded.size());
+        for (int i = 0; i < loaded.size(); i++) {
+            grown[current.length + i] = loaded.get(i);
+        }
+        // Keep a partially filled chunk last, so live appends continue to fill it
+        if (current.length > 0 && current[current.length - 1].size < CHUNK_ROWS) {
+            grown[current.length - 1] = grown[grown.length - 1];
+            grown[grown.length - 1] = current[current.length - 1];
+        }
+        chunks = grown;
+    }
+
+    public Loader newLoader() {
+        return new Loader();
+    }
+
+    public long size() {
+        long size = 0;
+        for (Chunk chunk : chunks) {
+            size += chunk.size;
+        }
+        return size;
+    }
+
+    /**
+     * Sums quantity, amount and fact count of the facts matching {@code filter}, grouped by
+     * {@code groupBy}. Groups come back in ascending key order; the key is the epoch day,
+     * product id, store id or category id (0 for {@link Dimension#ALL}).
+     */
+    public List<Group> query(Filter filter, Dimension groupBy) {
+        Chunk[] snapshot = chunks;
+        int[] limits = new int[snapshot.length];
+        for (int i = 0; i < snapshot.length; i++) {
+            limits[i] = snapshot[i].size;
+        }
+        GroupTable table = IntStream.range(0, snapshot.length).parallel().collect(GroupTable::new,
+                (t, c) -> scan(snapshot[c], limits[c], filter, groupBy, t), GroupTable::mergeFrom);
+        return table.toGroups();
+    }
+
+    private static void scan(Chunk chunk, int limit, Filter filter, Dimension groupBy, GroupTable table) {
+        int[] days = chunk.days;
+        long[] products = chunk.products;
+        int[] storeIds = chunk.stores;
+        int[] categoryIds = chunk.categories;
+        int[] quantities = chunk.quantities;
+        long[] amounts = chunk.amounts;
+        for (int row = 0; row < limit; row++) {
+            int day = days[row];
+            if (day < filter.fromDay || day > filter.toDay
+                    || (filter.productId != 0 && products[row] != filter.productId)
+                    || (filter.storeId >= 0 && storeIds[row] != filter.storeId)
+                    || (filter.categoryId >= 0 && categoryIds[row] != filter.categoryId)) {
+                continue;
+            }
+            long key = switch (groupBy) {
+                case ALL -> 0L;
+                case DAY -> day;
+                case PRODUCT -> products[row];
+                case STORE -> storeIds[row];
+                case CATEGORY -> categoryIds[row];
+            };
+            table.add(key, quantities[row], amounts[row], 1);
+        }
+    }
+
+    /**
+     * Fact filter; every criterion left unset matches all facts.
+     */
+    public static final class Filter {
+
+        private int fromDay = Integer.MIN_VALUE;
+        private int toDay = Integer.MAX_VALUE;
+        private long productId;
+        private int storeId = -1;
+        private int categoryId = -1;
+
+        /**
+         * Epoch days, both inclusive.
+         */
+        public Filter days(int fromDay, int toDay) {
+            this.fromDay = fromDay;
+            this.toDay = toDay;
+            return this;
+        }
+
+        public Filter product(long productId) {
+            this.productId = productId;
+            return this;
+        }
+
+        public Filter store(int storeId) {
+            this.storeId = storeId;
+            return this;
+        }
+
+        public Filter category(int categoryId) {
+            this.categoryId = categoryId;
+            return this;
+        }
+    }
+
+    public static final class Group {
+
+        private final long key;
+        private final long quantity;
+        private final long amountCents;
+        private final long facts;
+
+        Group(long key, long quantity, long amountCents, long facts) {
+            this.key = key;
+            this.quantity = quantity;
+            this.amountCents = amountCents;
+            this.facts = facts;
+        }
+
+        public long getKey() {
+            return key;
+        }
+
+        public long getQuantity() {
+            return quantity;
+        }
+
+        public long getAmountCents() {
+            return amountCents;
+        }
+
+        public long getFacts() {
+            return facts;
+        }
+    }
+
+    /**
+     * Fills chunks that are not yet visible in the store; hand them over with {@link #adopt}.
+     * Confined to one thread.
+     */
+    public final class Loader {
+
+        private final List<Chunk> filled = new ArrayList<>();
+        private Chunk current;
+
+        public void add(int epochDay, long productId, String store, String category, int quantity, long amountCents) {
+            if (current == null || current.size == CHUNK_ROWS) {
+                current = new Chunk();
+                filled.add(current);
+            }
+            current.add(epochDay, productId, storeId(store), categoryId(category), quantity, amountCents);
+        }
+
+        public List<Chunk> chunks() {
+            return filled;
+        }
+    }
+
+    public static final class Chunk {
+
+        private final int[] days = new int[CHUNK_ROWS];
+        private final long[] products = new long[CHUNK_ROWS];
+        private final int[] stores = new int[CHUNK_ROWS];
+        private final int[] categories = new int[CHUNK_ROWS];
+        private final int[] quantities = new int[CHUNK_ROWS];
+        private final long[] amounts = new long[CHUNK_ROWS];
+        // Written after the row's columns; readers never look past it
+        private volatile int size;
+
+        private void add(int epochDay, long productId, int storeId, int categoryId, int quantity, long amountCents) {
+            int row = size;
+            days[row] = epochDay;
+            products[row] = productId;
+            stores[row] = storeId;
+            categories[row] = categoryId;
+            quantities[row] = quantity;
+            amounts[row] = amountCents;
+            size = row + 1;
+        }
+    }
+
+    private static final class Dictionary {
+
+        private final ConcurrentHashMap<String, Integer> ids = new ConcurrentHashMap<>();
+        private volatile String[] names = new String[0];
+
+        int intern(String name) {
+            Integer id = ids.get(name);
+            return id != null ? id : assign(name);
+        }
+
+        int find(String name) {
+            Integer id = ids.get(name);
+            return id != null ? id : -1;
+        }
+
+        String name(int id) {
+            return names[id];
+        }
+
+        private synchronized int assign(String name) {
+            Integer id = ids.get(name);
+            if (id == null) {
+                String[] grown = Arrays.copyOf(names, names.length + 1);
+                grown[names.length] = name;
+                names = grown;
+                id = names.length - 1;
+                ids.put(name, id);
+            }
+            return id;
+        }
+    }
+
+    // Open-addressing long key -> sums, used as the per-thread accumulator of a query
+    private static final class GroupTable {
+
+        private long[] keys = new long[64];
+        private boolean[] used = new boolean[64];
+        private long[] quantities = new long[64];
+        private long[] amounts = new long[64];
+        private long[] facts = new long[64];
+        private int size;
+
+        void add(long key, long quantity, long amountCents, long factCount) {
+            int mask = keys.length - 1;
+            int slot = (int) ((key * 0x9E3779B97F4A7C15L) >>> 40) & mask;
+            while (used[slot] && keys[slot] != key) {
+                slot = (slot + 1) & mask;
+            }
+            if (!used[slot]) {
+                used[slot] = true;
+                keys[slot] = key;
+                if (++size * 2 > keys.length) {
+                    quantities[slot] = quantity;
+                    amounts[slot] = amountCents;
+                    facts[slot] = factCount;
+                    grow();
+                    return;
+                }
+            }
+            quantities[slot] += quantity;
+            amounts[slot] += amountCents;
+            facts[slot] += factCount;
+        }
+
+        void mergeFrom(GroupTable other) {
+            for (int i = 0; i < other.keys.length; i++) {
+                if (other.used[i]) {
+                    add(other.keys[i], other.quantities[i], other.amounts[i], other.facts[i]);
+                }
+            }
+        }
+
+        List<Group> toGroups() {
+            List<Group> groups = new ArrayList<>(size);
+            for (int i = 0; i < keys.length; i++) {
+                if (used[i]) {
+                    groups.add(new Group(keys[i], quantities[i], amounts[i], facts[i]));
+                }
+            }
+            groups.sort((a, b) -> Long.compare(a.getKey(), b.getKey()));
+            return groups;
+        }
+
+        private void grow() {
+            long[] oldKeys = keys;
+            boolean[] oldUsed = used;
+            long[] oldQuantities = quantities;
+            long[] oldAmounts = amounts;
+            long[] oldFacts = facts;
+            int capacity = oldKeys.length * 2;
+            keys = new long[capacity];
+            used = new boolean[capacity];
+            quantities = new long[capacity];
+            amounts = new long[capacity];
+            facts = new long[capacity];
+            size = 0;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldUsed[i]) {
+                    add(oldKeys[i], oldQuantities[i], oldAmounts[i], oldFacts[i]);
+                }
+            }
+        }
+    }
+}
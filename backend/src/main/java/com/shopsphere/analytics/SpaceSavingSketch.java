@@ -0,0 +1,205 @@
+package com.shopsphere.analytics;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Space-Saving heavy-hitters summary over weighted {@code long} items, in bounded memory.
+ * <p>
+ * At most {@code capacity} counters are kept. An untracked item replaces the item with the
+ * smallest count and inherits that count as its error. With total weight W, every estimate
+ * overestimates the true weight by at most W / capacity and {@code count - error} is a
+ * guaranteed lower bound; any item heavier than W / capacity is always tracked. Counters sit in
+ * a min-heap, so an update costs O(log capacity). Not thread-safe.
+ * <p>
+ * {@link #mergeTop} merges several summaries (e.g. one per minute) with the same bound over
+ * their combined weight.
+ */
+public final class SpaceSavingSketch {
+
+    private final int capacity;
+    private final long[] items;
+    private final long[] counts;
+    private final long[] errors;
+    // Min-heap of counter slots by count, and each slot's heap position
+    private final int[] heap;
+    private final int[] heapPosition;
+    private final Map<Long, Integer> slotByItem;
+    private int size;
+    private long totalWeight;
+
+    public SpaceSavingSketch(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive");
+        }
+        this.capacity = capacity;
+        this.items = new long[capacity];
+        this.counts = new long[capacity];
+        this.errors = new long[capacity];
+        this.heap = new int[capacity];
+        this.heapPosition = new int[capacity];
+        this.slotByItem = new HashMap<>(capacity * 2);
+    }
+
+    public void add(long item, long weight) {
+        if (weight <= 0) {
+            return;
+        }
+        totalWeight += weight;
+        Integer slot = slotByItem.get(item);
+        if (slot != null) {
+            counts[slot] += weight;
+            siftDown(heapPosition[slot]);
+        } else if (size < capacity) {
+            int free = size++;
+            items[free] = item;
+            counts[free] = weight;
+            errors[free] = 0;
+            slotByItem.put(item, free);
+            heap[free] = free;
+            heapPosition[free] = free;
+            siftUp(free);
+        } else {
+            // Evict the smallest counter; the newcomer may have been counted up to its count before
+            int victim = heap[0];
+            slotByItem.remove(items[victim]);
+            items[victim] = item;
+            errors[victim] = counts[victim];
+            counts[victim] += weight;
+            slotByItem.put(item, victim);
+            siftDown(0);
+        }
+    }
+
+    public long totalWeight() {
+        return totalWeight;
+    }
+
+    /**
+     * Count every untracked item could have: the smallest counter when full, otherwise 0.
+     */
+    public long minCount() {
+        return size == capacity ? counts[heap[0]] : 0;
+    }
+
+    /**
+     * Highest {@code k} counters, by estimated count descending.
+     */
+    public List<Counter> top(int k) {
+        List<Counter> all = new ArrayList<>(size);
+        for (int slot = 0; slot < size; slot++) {
+            all.add(new Counter(items[slot], counts[slot], errors[slot]));
+        }
+        return highest(all, k);
+    }
+
+    /**
+     * Highest {@code k} counters of the union of {@code sketches}. An item missing from a full
+     * summary may have had up to that summary's minimum count there, which is added to both its
+     * count and its error; the per-item overestimate therefore stays within the sum of the
+     * summaries' bounds, i.e. combined weight / capacity.
+     */
+    public static List<Counter> mergeTop(List<SpaceSavingSketch> sketches, int k) {
+        Map<Long, long[]> merged = new HashMap<>();
+        long missingAllowance = 0;
+        for (SpaceSavingSketch sketch : sketches) {
+            missingAllowance += sketch.minCount();
+        }
+        for (SpaceSavingSketch sketch : sketches) {
+            for (int slot = 0; slot < sketch.size; slot++) {
+                long[] totals = merged.computeIfAbsent(sketch.items[slot], item -> new long[2]);
+                totals[0] += sketch.counts[slot];
+                totals[1] += sketch.errors[slot];
+            }
+        }
+        List<Counter> counters = new ArrayList<>(merged.size());
+        for (Map.Entry<Long, long[]> entry : merged.entrySet()) {
+            long item = entry.getKey();
+            // Charge the minimum of each full summary that does not track the item
+            long allowance = missingAllowance;
+            for (SpaceSavingSketch sketch : sketches) {
+                if (sketch.size == sketch.capacity && sketch.slotByItem.containsKey(item)) {
+                    allowance -= sketch.minCount();
+                }
+            }
+            long[] totals = entry.getValue();
+            counters.add(new Counter(item, totals[0] + allowance, totals[1] + allowance));
+        }
+        return highest(counters, k);
+    }
+
+    private static List<Counter> highest(List<Counter> counters, int k) {
+        counters.sort((a, b) -> Long.compare(b.getCount(), a.getCount()));
+        return counters.size() > k ? new ArrayList<>(counters.subList(0, k)) : counters;
+    }
+
+    private void siftUp(int position) {
+        int slot = heap[position];
+        while (position > 0) {
+            int parent = (position - 1) >>> 1;
+            if (counts[heap[parent]] <= counts[slot]) {
+                break;
+            }
+            place(heap[parent], position);
+            position = parent;
+        }
+        place(slot, position);
+    }
+
+    private void siftDown(int position) {
+        int slot = heap[position];
+        while (true) {
+            int child = 2 * position + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && counts[heap[child + 1]] < counts[heap[child]]) {
+                child++;
+            }
+            if (counts[slot] <= counts[heap[child]]) {
+                break;
+            }
+            place(heap[child], position);
+            position = child;
+        }
+        place(slot, position);
+    }
+
+    private void place(int slot, int position) {
+        heap[position] = slot;
+        heapPosition[slot] = position;
+    }
+
+    public static final class Counter {
+
+        private final long item;
+        private final long count;
+        private final long error;
+
+        Counter(long item, long count, long error) {
+            this.item = item;
+            this.count = count;
+            this.error = error;
+        }
+
+        public long getItem() {
+            return item;
+        }
+
+        // Upper bound of the item's true weight
+        public long getCount() {
+            return count;
+        }
+
+        public long getError() {
+            return error;
+        }
+
+        // Lower bound of the item's true weight
+        public long getGuaranteedCount() {
+            return count - error;
+        }
+    }
+}
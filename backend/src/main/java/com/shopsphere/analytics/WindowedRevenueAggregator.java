@@ -0,0 +1,121 @@
+package com.shopsphere.analytics;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Revenue and order counts bucketed once per epoch day, answering any trailing window from the
+ * buckets.
+ * <p>
+ * Buckets cover the {@code horizonDays} days ending at the anchor day (normally today); bucket
+ * {@code i} holds the day {@code i} days before the anchor. Window sums come from prefix sums
+ * built on first query after an {@link #add}, so any number of windows costs one pass over
+ * the input plus O(1) per window. Amounts are in cents. Not thread-safe; build one per
+ * computation.
+ */
+public final class WindowedRevenueAggregator {
+
+    private final long anchorEpochDay;
+    private final long[] revenueCents;
+    private final long[] orders;
+    // prefix[i] = sum of buckets [0, i)
+    private final long[] revenuePrefix;
+    private final long[] ordersPrefix;
+    private boolean prefixValid;
+
+    public WindowedRevenueAggregator(long anchorEpochDay, int horizonDays) {
+        if (horizonDays <= 0) {
+            throw new IllegalArgumentException("Horizon must be at least one day");
+        }
+        this.anchorEpochDay = anchorEpochDay;
+        this.revenueCents = new long[horizonDays];
+        this.orders = new long[horizonDays];
+        this.revenuePrefix = new long[horizonDays + 1];
+        this.ordersPrefix = new long[horizonDays + 1];
+    }
+
+    /**
+     * Adds sales of one epoch day.
+     *
+     * @return false if the day is outside the horizon (nothing is added)
+     */
+    public boolean add(long epochDay, long amountCents, long orderCount) {
+        long daysAgo = anchorEpochDay - epochDay;
+        if (daysAgo < 0 || daysAgo >= revenueCents.length) {
+            return false;
+        }
+        revenueCents[(int) daysAgo] += amountCents;
+        orders[(int) daysAgo] += orderCount;
+        prefixValid = false;
+        return true;
+    }
+
+    public int horizonDays() {
+        return revenueCents.length;
+    }
+
+    public long dayRevenueCents(int daysAgo) {
+        return revenueCents[daysAgo];
+    }
+
+    public long dayOrders(int daysAgo) {
+        return orders[daysAgo];
+    }
+
+    /**
+     * Revenue of the {@code days} days ending {@code offsetDays} before the anchor;
+     * {@code revenueCents(0, 7)} is the last 7 days including the anchor day.
+     */
+    public long revenueCents(int offsetDays, int days) {
+        checkWindow(offsetDays, days);
+        return revenuePrefix[offsetDays + days] - revenuePrefix[offsetDays];
+    }
+
+    public long orders(int offsetDays, int days) {
+        checkWindow(offsetDays, days);
+        return ordersPrefix[offsetDays + days] - ordersPrefix[offsetDays];
+    }
+
+    /**
+     * Revenue growth of the trailing {@code days} over the {@code days} before them, in percent
+     * with two decimals; 0 when the earlier window had no revenue.
+     */
+    public double revenueGrowthPercent(int days) {
+        long current = revenueCents(0, days);
+        long previous = revenueCents(days, days);
+        if (previous <= 0) {
+            return 0.0;
+        }
+        return BigDecimal.valueOf(current - previous)
+                .divide(BigDecimal.valueOf(previous), 4, RoundingMode.HALF_UP)
+                .multiply(BigDecimal.valueOf(100))
+                .doubleValue();
+    }
+
+    /**
+     * Order count growth of the trailing {@code days} over the {@code days} before them, in
+     * percent; 0 when the earlier window had no orders.
+     */
+    public double orderGrowthPercent(int days) {
+        long current = orders(0, days);
+        long previous = orders(days, days);
+        if (previous <= 0) {
+            return 0.0;
+        }
+        return ((double) (current - previous) / previous) * 100;
+    }
+
+    private void checkWindow(int offsetDays, int days) {
+        if (offsetDays < 0 || days < 0 || offsetDays + days > revenueCents.length) {
+            throw new IllegalArgumentException("Window of " + days + " days at offset " + offsetDays +
+                    " exceeds the " + revenueCents.length + "-day horizon");
+        }
+        if (!prefixValid) {
+            for (int i = 0; i < revenueCents.length; i++) {
+                revenuePrefix[i + 1] = revenuePrefix[i] + revenueCents[i];
+                ordersPrefix[i + 1] = ordersPrefix[i] + orders[i];
+            }
+            prefixValid = true;
+        }
+    }
+}
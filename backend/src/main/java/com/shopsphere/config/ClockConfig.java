@@ -0,0 +1,19 @@
+package com.shopsphere.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Clock;
+
+/**
+ * The clock analytics read "today" from. The benchmark profile replaces it with one fixed to the
+ * last day of its generated history.
+ */
+@Configuration
+public class ClockConfig {
+
+    @Bean
+    public Clock clock() {
+        return Clock.systemDefaultZone();
+    }
+}
@@ -0,0 +1,14 @@
+package com.shopsphere.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Enables {@code @Scheduled} jobs. They share one pool, sized by
+ * {@code spring.task.scheduling.pool.size}; latency-sensitive periodic work (the hot-SKU
+ * flush, the live order-rate push to dashboards) runs on dedicated threads instead.
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
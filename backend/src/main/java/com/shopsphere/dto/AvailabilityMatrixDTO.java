@@ -0,0 +1,21 @@
+package com.shopsphere.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Stock of many products across many stores in one response.
+ * stock.get(i).get(j) is the sellable quantity of productIds[i] at storeLocations[j]
+ * (0 when the product is not stocked or not available there).
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AvailabilityMatrixDTO {
+    private List<Long> productIds;
+    private List<String> storeLocations;
+    private List<List<Integer>> stock;
+}
@@ -0,0 +1,21 @@
+package com.shopsphere.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Set;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AvailabilityRequest {
+
+    @NotEmpty(message = "At least one product ID is required")
+    @Size(max = 500, message = "At most 500 products can be checked at once")
+    private Set<Long> productIds;
+
+    private Set<String> storeLocations; // Optional: all stores holding any of the products when empty
+}
@@ -0,0 +1,40 @@
+package com.shopsphere.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkStockAdjustmentRequest {
+
+    @NotEmpty(message = "At least one adjustment is required")
+    @Valid
+    private List<StockAdjustmentInput> adjustments;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class StockAdjustmentInput {
+        @NotNull(message = "Product ID is required")
+        private Long productId;
+
+        @NotBlank(message = "Store location is required")
+        private String storeLocation;
+
+        // Relative change (e.g. +24 for a delivery, -3 for shrinkage)
+        private Integer delta;
+
+        // Absolute stock level (e.g. after a stock count); used when delta is not set
+        @Min(value = 0, message = "Stock quantity cannot be negative")
+        private Integer quantity;
+    }
+}
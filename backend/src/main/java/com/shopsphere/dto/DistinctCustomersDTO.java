@@ -0,0 +1,24 @@
+package com.shopsphere.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DistinctCustomersDTO {
+
+    private LocalDate from;
+    private LocalDate to;
+    // Empty when all stores are counted
+    private List<String> storeLocations;
+
+    // HyperLogLog estimate; the true count lies within about two standard errors with 95% confidence
+    private Long estimatedCustomers;
+    private Double relativeStandardError;
+    private Integer sketchesMerged;
+}
@@ -0,0 +1,37 @@
+package com.shopsphere.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LiveOrderRateDTO {
+
+    private LocalDateTime asOf;
+
+    // Rolling totals ending at asOf
+    private IntervalDTO lastMinute;
+    private IntervalDTO lastHour;
+
+    // A snapshot carries the whole ring; a pushed delta only the seconds completed since the
+    // previous push and the current, still open minute
+    private List<IntervalDTO> seconds;
+    private List<IntervalDTO> minutes;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class IntervalDTO {
+        private LocalDateTime start;
+        private Long orderCount;
+        private BigDecimal revenue;
+        private Long cancellations;
+        private BigDecimal cancelledRevenue;
+    }
+}
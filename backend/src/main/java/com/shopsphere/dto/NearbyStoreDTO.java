@@ -0,0 +1,17 @@
+package com.shopsphere.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class NearbyStoreDTO {
+
+    private String storeLocation;
+    private Double latitude;
+    private Double longitude;
+    private Double distanceKm;
+    private Integer availableQuantity;
+}
@@ -41,6 +41,9 @@ public class ProductDTO {
     private Boolean isActive;
     
     private Boolean isLowStock;
+
+    // Units ONLINE orders may still take after store reserve floors and share caps
+    private Integer onlineSellableQuantity;
     
     private LocalDateTime createdAt;
     
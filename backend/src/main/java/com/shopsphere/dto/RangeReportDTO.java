@@ -0,0 +1,44 @@
+package com.shopsphere.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RangeReportDTO {
+
+    // Inclusive date range, split into DAY or WEEK partitions
+    private LocalDate from;
+    private LocalDate to;
+    private String granularity;
+    private Long durationMs;
+
+    // Totals over non-cancelled orders
+    private BigDecimal revenue;
+    private Long orderCount;
+    private Long unitsSold;
+    private BigDecimal averageOrderValue;
+    private Long cancelledOrders;
+
+    private List<PeriodDTO> periods;
+    private List<SalesAnalyticsDTO.TopProductDTO> topProducts;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class PeriodDTO {
+        // Inclusive
+        private LocalDate periodStart;
+        private LocalDate periodEnd;
+        private BigDecimal revenue;
+        private Long orderCount;
+        private Long unitsSold;
+        private Long cancelledOrders;
+    }
+}
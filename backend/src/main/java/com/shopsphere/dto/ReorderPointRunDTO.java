@@ -0,0 +1,25 @@
+package com.shopsphere.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReorderPointRunDTO {
+
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+    private Long durationMs;
+
+    // Order line id range folded in by this run: (fromOrderItemId, toOrderItemId]
+    private Long fromOrderItemId;
+    private Long toOrderItemId;
+
+    private Long orderLinesProcessed;
+    private Long seriesTracked;
+    private Long reorderPointsUpdated;
+}
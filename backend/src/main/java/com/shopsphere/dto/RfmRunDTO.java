@@ -0,0 +1,26 @@
+package com.shopsphere.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RfmRunDTO {
+
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+    private Long durationMs;
+
+    // Order id range folded in by this run: (fromOrderId, toOrderId]; a full run starts at 0
+    private Long fromOrderId;
+    private Long toOrderId;
+    private Boolean fullRebuild;
+
+    private Long customersWithNewOrders;
+    private Long customersScored;
+    private Long scoresChanged;
+}
@@ -0,0 +1,22 @@
+package com.shopsphere.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RollupBackfillReportDTO {
+
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+    private Long durationMs;
+
+    // One partition per calendar month of order history
+    private Integer partitions;
+    private Integer failedPartitions;
+    private Long rowsWritten;
+}
@@ -5,6 +5,7 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Data
@@ -37,6 +38,9 @@ public class SalesAnalyticsDTO {
     
     // Status Distribution
     private OrderStatusDistributionDTO statusDistribution;
+
+    // When these figures were computed (responses may be served from cache)
+    private LocalDateTime snapshotAt;
     
     @Data
     @NoArgsConstructor
@@ -0,0 +1,35 @@
+package com.shopsphere.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SalesBreakdownDTO {
+
+    // Inclusive date range
+    private LocalDate from;
+    private LocalDate to;
+
+    private List<SegmentDTO> stores;
+    private List<SegmentDTO> channels;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class SegmentDTO {
+        // Store location ('' for orders without a store) or channel (ONLINE / IN_STORE)
+        private String key;
+        private BigDecimal revenue;
+        private Long orderCount;
+        private Long unitsSold;
+        private BigDecimal averageOrderValue;
+        private List<SalesAnalyticsDTO.TopProductDTO> topProducts;
+    }
+}
@@ -0,0 +1,19 @@
+package com.shopsphere.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SalesFactGroupDTO {
+
+    // Day (yyyy-MM-dd), product id, store location or category, depending on the grouping; null when ungrouped
+    private String key;
+    private Long quantity;
+    private BigDecimal revenue;
+    private Long lines;
+}
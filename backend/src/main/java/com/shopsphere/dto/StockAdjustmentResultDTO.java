@@ -0,0 +1,17 @@
+package com.shopsphere.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockAdjustmentResultDTO {
+    private Long productId;
+    private String storeLocation;
+    private Integer delta;
+    private Integer quantity;
+    private String status; // APPLIED, NOT_FOUND, INSUFFICIENT_STOCK, INVALID
+    private String message;
+}
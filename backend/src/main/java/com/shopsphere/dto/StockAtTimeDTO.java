@@ -0,0 +1,19 @@
+package com.shopsphere.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockAtTimeDTO {
+    private Long productId;
+    private String storeLocation;
+    private LocalDateTime at;
+    private Integer stockQuantity;
+    private LocalDateTime snapshotAt; // null when answered from the start of the journal
+    private Integer movementsReplayed;
+}
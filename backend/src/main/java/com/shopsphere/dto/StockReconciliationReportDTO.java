@@ -0,0 +1,42 @@
+package com.shopsphere.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockReconciliationReportDTO {
+
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+    private Long durationMs;
+    private Boolean repairEnabled;
+
+    // Metrics
+    private Long productsScanned;
+    private Long chunksProcessed;
+    private Long mismatches;
+    private Long repaired;
+    private Long repairSkippedConcurrentChange;
+    private Long productsWithoutStoreRows;
+    private Long totalDriftUnits;
+
+    // First mismatches found, capped to keep the report small
+    private List<DriftDTO> sampleDrifts = new ArrayList<>();
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class DriftDTO {
+        private Long productId;
+        private Integer productStock;
+        private Integer storeTotal;
+        private Boolean repaired;
+    }
+}
@@ -0,0 +1,40 @@
+package com.shopsphere.dto;
+
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StoreDTO {
+
+    private Long storeId;
+
+    @NotBlank(message = "Store location is required")
+    private String storeLocation;
+
+    @Min(value = 0, message = "Reserve floor cannot be negative")
+    private Integer inStoreReserveFloor;
+
+    @Min(value = 0, message = "Online share cap must be between 0 and 100")
+    @Max(value = 100, message = "Online share cap must be between 0 and 100")
+    private Integer onlineShareCapPercent;
+
+    private Boolean onlineEnabled;
+
+    private Integer onlinePriority;
+
+    @DecimalMin(value = "-90.0", message = "Latitude must be between -90 and 90")
+    @DecimalMax(value = "90.0", message = "Latitude must be between -90 and 90")
+    private Double latitude;
+
+    @DecimalMin(value = "-180.0", message = "Longitude must be between -180 and 180")
+    @DecimalMax(value = "180.0", message = "Longitude must be between -180 and 180")
+    private Double longitude;
+}
@@ -0,0 +1,18 @@
+package com.shopsphere.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TrendingProductDTO {
+
+    private Long productId;
+    private String productName;
+
+    // Approximate: the true units sold in the window lie between guaranteedUnits and estimatedUnits
+    private Long estimatedUnits;
+    private Long guaranteedUnits;
+}
@@ -0,0 +1,33 @@
+package com.shopsphere.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "batch_job_watermarks")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchJobWatermark {
+
+    @Id
+    @Column(name = "job_name", length = 50)
+    private String jobName;
+
+    // Highest source row id already folded into the job's results
+    @Column(name = "last_processed_id", nullable = false)
+    private Long lastProcessedId;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    @PrePersist
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
+}
@@ -0,0 +1,51 @@
+package com.shopsphere.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Recency, frequency and monetary value of one customer's non-cancelled orders, with
+ * quintile scores (1-5, higher is better) and the segment derived from them.
+ */
+@Entity
+@Table(name = "customer_rfm",
+       indexes = @Index(name = "idx_customer_rfm_segment", columnList = "segment"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CustomerRfm {
+
+    @Id
+    @Column(name = "customer_id")
+    private Long customerId;
+
+    @Column(name = "last_order_at", nullable = false)
+    private LocalDateTime lastOrderAt;
+
+    @Column(name = "order_count", nullable = false)
+    private Long orderCount;
+
+    @Column(name = "monetary", nullable = false, precision = 14, scale = 2)
+    private BigDecimal monetary;
+
+    // 0 until the first scoring pass
+    @Column(name = "recency_score", nullable = false)
+    private Integer recencyScore;
+
+    @Column(name = "frequency_score", nullable = false)
+    private Integer frequencyScore;
+
+    @Column(name = "monetary_score", nullable = false)
+    private Integer monetaryScore;
+
+    @Column(name = "segment", length = 30)
+    private String segment;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,52 @@
+package com.shopsphere.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Non-cancelled order totals of one campaign on one day, plus a HyperLogLog sketch of the
+ * customers who ordered. Counters are maintained incrementally from order events and rebuilt
+ * by the campaign backfill; registers are merged in by the sketch flush. Never written through JPA.
+ */
+@Entity
+@Table(name = "daily_campaign_sales",
+       uniqueConstraints = @UniqueConstraint(name = "uk_daily_campaign_sales", columnNames = {"campaign_id", "sales_date"}))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DailyCampaignSales {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "rollup_id")
+    private Long rollupId;
+
+    @Column(name = "campaign_id", nullable = false)
+    private Long campaignId;
+
+    @Column(name = "sales_date", nullable = false)
+    private LocalDate salesDate;
+
+    @Column(name = "revenue", nullable = false, precision = 14, scale = 2)
+    private BigDecimal revenue;
+
+    @Column(name = "order_count", nullable = false)
+    private Long orderCount;
+
+    @Column(name = "units", nullable = false)
+    private Long units;
+
+    // (original price - campaign price) x quantity
+    @Column(name = "savings", nullable = false, precision = 14, scale = 2)
+    private BigDecimal savings;
+
+    // Packed as written by HyperLogLog#toBytes(); null until the first flush
+    @Lob
+    @Column(name = "registers", length = 65536)
+    private byte[] registers;
+}
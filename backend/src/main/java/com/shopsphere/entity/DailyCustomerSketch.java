@@ -0,0 +1,42 @@
+package com.shopsphere.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * HyperLogLog sketch of the customers who placed non-cancelled orders on one day at one
+ * store ('' for orders without a store). Registers are packed as written by
+ * {@link com.shopsphere.analytics.HyperLogLog#toBytes()}.
+ */
+@Entity
+@Table(name = "daily_customer_sketches",
+       uniqueConstraints = @UniqueConstraint(name = "uk_daily_customer_sketch",
+               columnNames = {"sales_date", "store_key"}))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DailyCustomerSketch {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "sketch_id")
+    private Long sketchId;
+
+    @Column(name = "sales_date", nullable = false)
+    private LocalDate salesDate;
+
+    @Column(name = "store_key", nullable = false, length = 100)
+    private String storeKey;
+
+    @Lob
+    @Column(name = "registers", nullable = false, length = 65536)
+    private byte[] registers;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+}
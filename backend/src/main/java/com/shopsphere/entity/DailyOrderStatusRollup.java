@@ -0,0 +1,41 @@
+package com.shopsphere.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * Orders per creation day, store, channel and current status (cancelled orders included).
+ */
+@Entity
+@Table(name = "daily_order_status_rollup",
+       uniqueConstraints = @UniqueConstraint(name = "uk_daily_order_status",
+               columnNames = {"sales_date", "store_key", "channel", "status"}))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DailyOrderStatusRollup {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "rollup_id")
+    private Long rollupId;
+
+    @Column(name = "sales_date", nullable = false)
+    private LocalDate salesDate;
+
+    @Column(name = "store_key", nullable = false, length = 100)
+    private String storeKey;
+
+    @Column(name = "channel", nullable = false, length = 20)
+    private String channel;
+
+    @Column(name = "status", nullable = false, length = 20)
+    private String status;
+
+    @Column(name = "order_count", nullable = false)
+    private Long orderCount;
+}
@@ -0,0 +1,52 @@
+package com.shopsphere.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Non-cancelled order line totals per day, store, channel and product. Category figures are
+ * derived from these rows through the product's current category.
+ */
+@Entity
+@Table(name = "daily_product_sales_rollup",
+       uniqueConstraints = @UniqueConstraint(name = "uk_daily_product_sales",
+               columnNames = {"sales_date", "store_key", "channel", "product_id"}),
+       indexes = @Index(name = "idx_daily_product_sales_product", columnList = "product_id, sales_date"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DailyProductSalesRollup {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "rollup_id")
+    private Long rollupId;
+
+    @Column(name = "sales_date", nullable = false)
+    private LocalDate salesDate;
+
+    @Column(name = "store_key", nullable = false, length = 100)
+    private String storeKey;
+
+    @Column(name = "channel", nullable = false, length = 20)
+    private String channel;
+
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+
+    // Sum of line subtotals
+    @Column(name = "revenue", nullable = false, precision = 14, scale = 2)
+    private BigDecimal revenue;
+
+    // Orders containing the product
+    @Column(name = "order_count", nullable = false)
+    private Long orderCount;
+
+    @Column(name = "units", nullable = false)
+    private Long units;
+}
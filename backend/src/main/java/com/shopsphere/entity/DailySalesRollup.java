@@ -0,0 +1,49 @@
+package com.shopsphere.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Non-cancelled order totals per day, store and channel. Maintained incrementally from order
+ * events and rebuilt by the rollup backfill; never written through JPA.
+ */
+@Entity
+@Table(name = "daily_sales_rollup",
+       uniqueConstraints = @UniqueConstraint(name = "uk_daily_sales", columnNames = {"sales_date", "store_key", "channel"}))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DailySalesRollup {
+
+    // Store key of orders placed without a store (ONLINE)
+    public static final String NO_STORE = "";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "rollup_id")
+    private Long rollupId;
+
+    @Column(name = "sales_date", nullable = false)
+    private LocalDate salesDate;
+
+    @Column(name = "store_key", nullable = false, length = 100)
+    private String storeKey;
+
+    // Order type: ONLINE or IN_STORE
+    @Column(name = "channel", nullable = false, length = 20)
+    private String channel;
+
+    @Column(name = "revenue", nullable = false, precision = 14, scale = 2)
+    private BigDecimal revenue;
+
+    @Column(name = "order_count", nullable = false)
+    private Long orderCount;
+
+    @Column(name = "units", nullable = false)
+    private Long units;
+}
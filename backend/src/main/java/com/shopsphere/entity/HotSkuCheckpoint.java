@@ -0,0 +1,33 @@
+package com.shopsphere.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "hot_sku_checkpoints")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class HotSkuCheckpoint {
+
+    @Id
+    @Column(name = "log_name", length = 50)
+    private String logName;
+
+    // Highest intent log sequence whose stock change is reflected in store_product_inventory
+    @Column(name = "last_sequence", nullable = false)
+    private Long lastSequence;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    @PrePersist
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
+}
@@ -0,0 +1,34 @@
+package com.shopsphere.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Marks a database transaction whose hot-SKU intents took effect. Inserted by the transaction
+ * itself just before it commits, so the row exists exactly when the transaction committed;
+ * intent log recovery skips records whose token has no marker. Removed once the flush checkpoint
+ * covers the transaction's last intent. Never written through JPA.
+ */
+@Entity
+@Table(name = "hot_sku_commits",
+       indexes = @Index(name = "idx_hot_sku_commits_sequence", columnList = "last_sequence"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class HotSkuCommit {
+
+    @Id
+    @Column(name = "token")
+    private Long token;
+
+    // Sequence of the transaction's last intent log record
+    @Column(name = "last_sequence", nullable = false)
+    private Long lastSequence;
+
+    @Column(name = "committed_at", nullable = false)
+    private LocalDateTime committedAt;
+}
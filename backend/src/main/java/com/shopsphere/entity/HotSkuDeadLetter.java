@@ -0,0 +1,47 @@
+package com.shopsphere.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * A hot-SKU delta the database guard kept rejecting, parked by the flush instead of being
+ * retried forever. The store row and the in-memory counter disagree by this delta until an
+ * operator corrects the row (a restock or set quantity reloads the counter).
+ */
+@Entity
+@Table(name = "hot_sku_dead_letters")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class HotSkuDeadLetter {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "dead_letter_id")
+    private Long deadLetterId;
+
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+
+    @Column(name = "store_location", nullable = false, length = 100)
+    private String storeLocation;
+
+    @Column(name = "delta", nullable = false)
+    private Integer delta;
+
+    // Flushes that tried the delta
+    @Column(name = "attempts", nullable = false)
+    private Integer attempts;
+
+    @Column(name = "parked_at", nullable = false)
+    private LocalDateTime parkedAt;
+
+    @PrePersist
+    protected void onCreate() {
+        parkedAt = LocalDateTime.now();
+    }
+}
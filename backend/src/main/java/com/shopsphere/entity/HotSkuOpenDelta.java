@@ -0,0 +1,37 @@
+package com.shopsphere.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Net hot-SKU change of a database transaction that the flush wrote to a store row while the
+ * transaction was still open. Replaced by every flush, in the same transaction as its checkpoint;
+ * if the process dies and the transaction never commits, recovery reverses these deltas.
+ * Never written through JPA.
+ */
+@Entity
+@Table(name = "hot_sku_open_deltas")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class HotSkuOpenDelta {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "open_delta_id")
+    private Long openDeltaId;
+
+    @Column(name = "token", nullable = false)
+    private Long token;
+
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+
+    @Column(name = "store_location", nullable = false, length = 100)
+    private String storeLocation;
+
+    @Column(name = "delta", nullable = false)
+    private Integer delta;
+}
@@ -0,0 +1,61 @@
+package com.shopsphere.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Append-only record of one change to a store inventory row. Rows are inserted in JDBC
+ * batches by InventoryJournalService and never updated.
+ * <p>
+ * period_month (yyyyMM) is the time partition key: point-in-time queries bound it so that
+ * MySQL can prune partitions when the table is range-partitioned on it, e.g.
+ * {@code ALTER TABLE inventory_movements PARTITION BY RANGE (period_month) (...)}
+ * (the primary key then has to include period_month).
+ */
+@Entity
+@Table(name = "inventory_movements",
+       indexes = {
+           @Index(name = "idx_movement_sku", columnList = "product_id, store_location, movement_id"),
+           @Index(name = "idx_movement_period", columnList = "period_month")
+       })
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class InventoryMovement {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "movement_id")
+    private Long movementId;
+
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+
+    @Column(name = "store_location", nullable = false, length = 100)
+    private String storeLocation;
+
+    @Column(name = "movement_type", nullable = false, length = 20)
+    private String movementType; // DECREASE, INCREASE, ADJUST, SET, DELETE
+
+    // Relative change; null for a SET whose previous quantity was not read
+    @Column(name = "quantity_change")
+    private Integer quantityChange;
+
+    // Quantity after the change when known; always set for SET and DELETE
+    @Column(name = "resulting_quantity")
+    private Integer resultingQuantity;
+
+    @Column(name = "period_month", nullable = false)
+    private Integer periodMonth;
+
+    @Column(name = "occurred_at", nullable = false, updatable = false)
+    private LocalDateTime occurredAt;
+
+    public boolean isAbsolute() {
+        return "SET".equals(movementType) || "DELETE".equals(movementType);
+    }
+}
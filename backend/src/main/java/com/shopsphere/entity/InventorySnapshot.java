@@ -0,0 +1,44 @@
+package com.shopsphere.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Compacted stock level of one store inventory row at a snapshot cut: the row's quantity after
+ * every movement that occurred up to snapshot_at, and none after it. Only rows that changed
+ * since the previous cut are written, so the latest snapshot at or before a given time is
+ * always the row's quantity at that snapshot.
+ */
+@Entity
+@Table(name = "inventory_snapshots",
+       indexes = @Index(name = "idx_snapshot_sku_time", columnList = "product_id, store_location, snapshot_at"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class InventorySnapshot {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "snapshot_id")
+    private Long snapshotId;
+
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+
+    @Column(name = "store_location", nullable = false, length = 100)
+    private String storeLocation;
+
+    @Column(name = "stock_quantity", nullable = false)
+    private Integer stockQuantity;
+
+    // Highest journal movement folded into stock_quantity; 0 for a seed taken from the store row
+    @Column(name = "last_movement_id", nullable = false)
+    private Long lastMovementId;
+
+    @Column(name = "snapshot_at", nullable = false)
+    private LocalDateTime snapshotAt;
+}
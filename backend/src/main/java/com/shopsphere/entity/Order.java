@@ -12,7 +12,11 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "orders")
+@Table(name = "orders",
+       indexes = {
+               @Index(name = "idx_order_created_status", columnList = "created_at, status"),
+               @Index(name = "idx_order_campaign_created", columnList = "campaign_id, created_at")
+       })
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -1,5 +1,6 @@
 package com.shopsphere.entity;
 
+import com.shopsphere.util.Money;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotNull;
@@ -70,7 +71,7 @@ public class OrderItem {
     // Helper method to calculate subtotal
     public void calculateSubtotal() {
         if (unitPrice != null && quantity != null) {
-            this.subtotal = unitPrice.multiply(BigDecimal.valueOf(quantity));
+            this.subtotal = Money.of(unitPrice).times(quantity).toBigDecimal();
         }
     }
 }
@@ -0,0 +1,109 @@
+package com.shopsphere.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Demand-driven reorder point of one product at one store.
+ * <p>
+ * Daily demand is smoothed exponentially. The most recent day seen is kept open
+ * ({@code openDay}/{@code openDayQuantity}) until a later day arrives, so history can be
+ * folded in incrementally without re-reading earlier orders.
+ */
+@Entity
+@Table(name = "reorder_points",
+       uniqueConstraints = @UniqueConstraint(name = "uk_reorder_point_sku", columnNames = {"product_id", "store_location"}))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReorderPoint {
+
+    // Store key used for order lines without a store (ONLINE orders)
+    public static final String ONLINE_CHANNEL = "ONLINE";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "reorder_point_id")
+    private Long reorderPointId;
+
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+
+    @Column(name = "store_location", nullable = false, length = 100)
+    private String storeLocation;
+
+    // Smoothed units per day over closed days; null until the first day is closed
+    @Column(name = "smoothed_daily_demand")
+    private Double smoothedDailyDemand;
+
+    @Column(name = "open_day")
+    private LocalDate openDay;
+
+    @Column(name = "open_day_quantity", nullable = false)
+    private Integer openDayQuantity = 0;
+
+    @Column(name = "reorder_point", nullable = false)
+    private Integer reorderPoint = 0;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    public ReorderPoint(Long productId, String storeLocation) {
+        this.productId = productId;
+        this.storeLocation = storeLocation;
+    }
+
+    @PrePersist
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
+
+    /**
+     * Folds units sold on {@code day} into the series. Lines older than the open day are
+     * counted into the open day rather than reopening closed history.
+     */
+    public void addDemand(LocalDate day, int quantity, double alpha) {
+        if (openDay == null) {
+            openDay = day;
+            openDayQuantity = quantity;
+            return;
+        }
+        if (!day.isAfter(openDay)) {
+            openDayQuantity += quantity;
+            return;
+        }
+        smoothedDailyDemand = closeThrough(day, alpha);
+        openDay = day;
+        openDayQuantity = quantity;
+    }
+
+    /**
+     * Smoothed daily demand as of {@code asOf}. A still-open current day is not counted,
+     * since it is only partly over.
+     */
+    public double forecastDailyDemand(LocalDate asOf, double alpha) {
+        if (openDay == null) {
+            return 0;
+        }
+        if (!asOf.isAfter(openDay)) {
+            return smoothedDailyDemand != null ? smoothedDailyDemand : openDayQuantity;
+        }
+        return closeThrough(asOf, alpha);
+    }
+
+    // Closes the open day, then decays through the demand-free days before {@code nextDay}
+    private double closeThrough(LocalDate nextDay, double alpha) {
+        double closed = smoothedDailyDemand == null
+                ? openDayQuantity
+                : alpha * openDayQuantity + (1 - alpha) * smoothedDailyDemand;
+        long emptyDays = ChronoUnit.DAYS.between(openDay, nextDay) - 1;
+        return emptyDays > 0 ? closed * Math.pow(1 - alpha, emptyDays) : closed;
+    }
+}
@@ -0,0 +1,97 @@
+package com.shopsphere.entity;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Per-store settings. Stores are still referenced by name (storeLocation) everywhere else;
+ * a store without a record here uses the defaults below.
+ */
+@Entity
+@Table(name = "stores")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class Store {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "store_id")
+    private Long storeId;
+
+    @NotBlank(message = "Store location is required")
+    @Column(name = "store_location", unique = true, nullable = false, length = 100)
+    private String storeLocation;
+
+    // Units per SKU kept back for IN_STORE sales; ONLINE orders never draw below this
+    @Min(value = 0, message = "Reserve floor cannot be negative")
+    @Column(name = "in_store_reserve_floor", nullable = false)
+    private Integer inStoreReserveFloor = 0;
+
+    // Maximum share of a SKU's replenished stock at this store that ONLINE orders may draw; the
+    // rest is kept for IN_STORE sales until the next replenishment
+    @Min(value = 0, message = "Online share cap must be between 0 and 100")
+    @Max(value = 100, message = "Online share cap must be between 0 and 100")
+    @Column(name = "online_share_cap_percent", nullable = false)
+    private Integer onlineShareCapPercent = 100;
+
+    @Column(name = "online_enabled", nullable = false)
+    private Boolean onlineEnabled = true;
+
+    // Lower values are drawn first by ONLINE orders
+    @Column(name = "online_priority", nullable = false)
+    private Integer onlinePriority = 100;
+
+    // WGS84 coordinates for nearest-store lookups; stores without them are not located
+    @DecimalMin(value = "-90.0", message = "Latitude must be between -90 and 90")
+    @DecimalMax(value = "90.0", message = "Latitude must be between -90 and 90")
+    @Column(name = "latitude")
+    private Double latitude;
+
+    @DecimalMin(value = "-180.0", message = "Longitude must be between -180 and 180")
+    @DecimalMax(value = "180.0", message = "Longitude must be between -180 and 180")
+    @Column(name = "longitude")
+    private Double longitude;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+        updatedAt = LocalDateTime.now();
+    }
+
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
+
+    /**
+     * Units of {@code stock} at this store that ONLINE orders may take. The IN_STORE share is fixed
+     * by {@code allocationBase}, the stock after the last replenishment, so it does not shrink as
+     * ONLINE orders draw the stock down.
+     */
+    public int onlineSellable(int stock, int allocationBase) {
+        if (!Boolean.TRUE.equals(onlineEnabled) || stock <= 0) {
+            return 0;
+        }
+        int floor = inStoreReserveFloor != null ? inStoreReserveFloor : 0;
+        int capPercent = onlineShareCapPercent != null ? onlineShareCapPercent : 100;
+        // Rounded up, so the ONLINE share is rounded down as before
+        int inStoreShare = (int) (((long) allocationBase * (100 - capPercent) + 99) / 100);
+        return Math.max(0, stock - Math.max(floor, inStoreShare));
+    }
+}
@@ -35,6 +35,12 @@ public class StoreProductInventory {
     @Column(nullable = false)
     private Integer stockQuantity;
 
+    // Stock after the row's last replenishment (a set or an increase). Channel shares are taken of
+    // this rather than of current stock, so ONLINE draws do not shrink the IN_STORE share; null
+    // until the row is first replenished, when current stock stands in
+    @Column(name = "allocation_base")
+    private Integer allocationBase;
+
     @Column(nullable = false)
     private Boolean isAvailable = true;
 
@@ -74,5 +80,11 @@ public class StoreProductInventory {
 
     public void increaseStock(int quantity) {
         stockQuantity += quantity;
+        allocationBase = stockQuantity;
+    }
+
+    public void replenishTo(int quantity) {
+        stockQuantity = quantity;
+        allocationBase = quantity;
     }
 }
@@ -0,0 +1,89 @@
+package com.shopsphere.event;
+
+import com.shopsphere.entity.Order;
+import com.shopsphere.entity.OrderItem;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Published by OrderService when an order is created or changes status. Carries a snapshot of
+ * the order's sales facts so listeners never reload the order.
+ * <p>
+ * An order counts towards sales unless it is CANCELLED; listeners that keep sales aggregates
+ * apply {@link #salesDelta()} (+1, -1 or 0) to the order's figures.
+ */
+@Getter
+@AllArgsConstructor
+public class OrderEvent {
+
+    public static final String CREATED = "CREATED";
+    public static final String STATUS_CHANGED = "STATUS_CHANGED";
+
+    private final String type;
+    private final Long orderId;
+    private final Long customerId;
+    private final String orderType;
+    private final String storeLocation;
+    private final Long campaignId;
+    private final LocalDateTime orderCreatedAt;
+    private final BigDecimal totalAmount;
+    // Null for CREATED
+    private final String previousStatus;
+    private final String status;
+    private final List<Line> lines;
+
+    public static OrderEvent created(Order order) {
+        return of(CREATED, order, null);
+    }
+
+    public static OrderEvent statusChanged(Order order, String previousStatus) {
+        return of(STATUS_CHANGED, order, previousStatus);
+    }
+
+    private static OrderEvent of(String type, Order order, String previousStatus) {
+        List<Line> lines = order.getOrderItems().stream()
+                .map(OrderEvent::toLine)
+                .collect(Collectors.toUnmodifiableList());
+        return new OrderEvent(type, order.getOrderId(), order.getCustomerId(), order.getOrderType().toUpperCase(),
+                order.getStoreLocation(), order.getCampaignId(), order.getCreatedAt(), order.getTotalAmount(),
+                previousStatus, order.getStatus(), lines);
+    }
+
+    private static Line toLine(OrderItem item) {
+        return new Line(item.getProductId(), item.getQuantity(), item.getSubtotal(), item.getOriginalPrice(),
+                item.getUnitPrice(), item.getStoreLocation());
+    }
+
+    /**
+     * Change in the order's contribution to sales caused by this event: +1 when it starts
+     * counting, -1 when it stops (cancellation), 0 otherwise.
+     */
+    public int salesDelta() {
+        boolean counted = isCounted(status);
+        if (CREATED.equals(type)) {
+            return counted ? 1 : 0;
+        }
+        boolean wasCounted = isCounted(previousStatus);
+        return counted == wasCounted ? 0 : (counted ? 1 : -1);
+    }
+
+    private static boolean isCounted(String status) {
+        return status != null && !"CANCELLED".equalsIgnoreCase(status);
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class Line {
+        private final Long productId;
+        private final Integer quantity;
+        private final BigDecimal subtotal;
+        private final BigDecimal originalPrice;
+        private final BigDecimal unitPrice;
+        private final String storeLocation;
+    }
+}
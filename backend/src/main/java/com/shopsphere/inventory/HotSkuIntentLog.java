@@ -0,0 +1,184 @@
+package com.shopsphere.inventory;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.LongFunction;
+
+/**
+ * Append-only file of hot-SKU stock changes that have been applied in memory but not yet
+ * written to the database. Every record carries a sequence number; the flusher stores the
+ * highest sequence it has written in the same transaction as the stock update, so after a
+ * crash exactly the records past that checkpoint are replayed. A record logged inside a database
+ * transaction carries that transaction's token, so recovery can skip records of transactions
+ * that never committed; token 0 marks a record that applies unconditionally.
+ * <p>
+ * Record layout: seq (long), token (long), productId (long), storeLocation length (short) + UTF-8
+ * bytes, delta (int).
+ * Concurrent appenders share fsyncs: whoever forces the channel makes every record written
+ * before it durable, so waiting appenders return without forcing again.
+ */
+public class HotSkuIntentLog implements Closeable {
+
+    private final FileChannel channel;
+    private final Object syncLock = new Object();
+    private long lastSequence;
+    private volatile long durableSequence;
+
+    private HotSkuIntentLog(FileChannel channel, long lastSequence) {
+        this.channel = channel;
+        this.lastSequence = lastSequence;
+        this.durableSequence = lastSequence;
+    }
+
+    public static HotSkuIntentLog open(Path path, long checkpointSequence) throws IOException {
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        FileChannel channel = FileChannel.open(path,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        List<Entry> entries = new ArrayList<>();
+        long validLength = readAll(channel, entries);
+        if (validLength < channel.size()) {
+            // Drop a torn tail left by a crash mid-write; that record was never acknowledged
+            channel.truncate(validLength);
+        }
+        long last = checkpointSequence;
+        for (Entry entry : entries) {
+            last = Math.max(last, entry.getSequence());
+        }
+        channel.position(validLength);
+        return new HotSkuIntentLog(channel, last);
+    }
+
+    /**
+     * Writes one record and, while appends are still excluded, runs {@code onAppended}
+     * (used to account the change as pending). The record is not durable until {@link #sync(long)}.
+     *
+     * @return the sequence number of the record
+     */
+    public synchronized long append(long token, long productId, String storeLocation, int delta, Runnable onAppended) {
+        byte[] store = storeLocation.getBytes(StandardCharsets.UTF_8);
+        ByteBuffer buffer = ByteBuffer.allocate(8 + 8 + 8 + 2 + store.length + 4);
+        long sequence = lastSequence + 1;
+        buffer.putLong(sequence).putLong(token).putLong(productId).putShort((short) store.length).put(store)
+                .putInt(delta).flip();
+        try {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to append hot-SKU intent", e);
+        }
+        lastSequence = sequence;
+        onAppended.run();
+        return sequence;
+    }
+
+    /**
+     * Blocks until the record with the given sequence is on disk.
+     */
+    public void sync(long sequence) {
+        if (durableSequence >= sequence) {
+            return;
+        }
+        synchronized (syncLock) {
+            if (durableSequence >= sequence) {
+                return;
+            }
+            long target;
+            synchronized (this) {
+                target = lastSequence;
+            }
+            try {
+                channel.force(false);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to sync hot-SKU intent log", e);
+            }
+            durableSequence = target;
+        }
+    }
+
+    /**
+     * Runs {@code action} with the last written sequence while no record can be appended,
+     * giving the caller a consistent cut between the log and its pending counters.
+     */
+    public synchronized <T> T withAppendsPaused(LongFunction<T> action) {
+        return action.apply(lastSequence);
+    }
+
+    /**
+     * Empties the file if nothing was appended after {@code checkpointSequence}.
+     * Sequence numbers keep increasing across truncations.
+     */
+    public synchronized void truncateIfCheckpointed(long checkpointSequence) throws IOException {
+        if (lastSequence == checkpointSequence && channel.size() > 0) {
+            channel.truncate(0);
+            channel.position(0);
+            channel.force(true);
+        }
+    }
+
+    public synchronized List<Entry> readAfter(long checkpointSequence) throws IOException {
+        List<Entry> all = new ArrayList<>();
+        readAll(channel, all);
+        List<Entry> entries = new ArrayList<>();
+        for (Entry entry : all) {
+            if (entry.getSequence() > checkpointSequence) {
+                entries.add(entry);
+            }
+        }
+        return entries;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * Reads every complete record into {@code entries} and returns the length of the valid prefix.
+     */
+    private static long readAll(FileChannel channel, List<Entry> entries) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate((int) Math.min(channel.size(), Integer.MAX_VALUE));
+        channel.read(buffer, 0);
+        buffer.flip();
+        while (buffer.remaining() >= 8 + 8 + 8 + 2) {
+            int start = buffer.position();
+            long sequence = buffer.getLong();
+            long token = buffer.getLong();
+            long productId = buffer.getLong();
+            int storeLength = buffer.getShort();
+            if (storeLength < 0 || buffer.remaining() < storeLength + 4) {
+                buffer.position(start);
+                break;
+            }
+            byte[] store = new byte[storeLength];
+            buffer.get(store);
+            int delta = buffer.getInt();
+            entries.add(new Entry(sequence, token, productId, new String(store, StandardCharsets.UTF_8), delta));
+        }
+        return buffer.position();
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class Entry {
+        private final long sequence;
+        private final long token;
+        private final long productId;
+        private final String storeLocation;
+        private final int delta;
+    }
+}
@@ -0,0 +1,176 @@
+package com.shopsphere.inventory;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.function.Predicate;
+
+/**
+ * Immutable uniform lat/long grid over store coordinates for k-nearest lookups.
+ * <p>
+ * Stores are bucketed into square cells of {@code cellDegrees}. A query visits rings of cells
+ * around the query cell, nearest first, and stops once the closest unvisited ring is farther
+ * than the k-th best store found so far. With a cell size around typical store spacing only a
+ * handful of cells are touched, independent of the number of stores. When few stores pass the
+ * filter the rings never close; once probing the next ring would take more cell lookups than
+ * there are stores, the stores outside the rings visited so far are scanned directly instead,
+ * so a query never costs more than a linear scan.
+ */
+public class StoreGridIndex {
+
+    private static final double EARTH_RADIUS_KM = 6371.0088;
+    private static final double KM_PER_DEGREE = 111.32;
+
+    private final double cellDegrees;
+    private final String[] names;
+    private final double[] latitudes;
+    private final double[] longitudes;
+    private final int[] rows;
+    private final int[] cols;
+    private final Map<Long, int[]> cells = new HashMap<>();
+    private int minRow = Integer.MAX_VALUE;
+    private int maxRow = Integer.MIN_VALUE;
+    private int minCol = Integer.MAX_VALUE;
+    private int maxCol = Integer.MIN_VALUE;
+
+    public StoreGridIndex(List<String> names, double[] latitudes, double[] longitudes, double cellDegrees) {
+        if (cellDegrees <= 0) {
+            throw new IllegalArgumentException("Grid cell size must be positive");
+        }
+        this.cellDegrees = cellDegrees;
+        this.names = names.toArray(new String[0]);
+        this.latitudes = latitudes.clone();
+        this.longitudes = longitudes.clone();
+        this.rows = new int[this.names.length];
+        this.cols = new int[this.names.length];
+
+        Map<Long, List<Integer>> buckets = new HashMap<>();
+        for (int i = 0; i < this.names.length; i++) {
+            int row = row(latitudes[i]);
+            int col = col(longitudes[i]);
+            rows[i] = row;
+            cols[i] = col;
+            minRow = Math.min(minRow, row);
+            maxRow = Math.max(maxRow, row);
+            minCol = Math.min(minCol, col);
+            maxCol = Math.max(maxCol, col);
+            buckets.computeIfAbsent(cellKey(row, col), k -> new ArrayList<>()).add(i);
+        }
+        buckets.forEach((key, members) -> cells.put(key, members.stream().mapToInt(Integer::intValue).toArray()));
+    }
+
+    public int size() {
+        return names.length;
+    }
+
+    /**
+     * Up to {@code k} stores accepted by {@code filter}, nearest first.
+     */
+    public List<Hit> nearest(double latitude, double longitude, int k, Predicate<String> filter) {
+        List<Hit> result = new ArrayList<>();
+        if (names.length == 0 || k <= 0) {
+            return result;
+        }
+        int row = row(latitude);
+        int col = col(longitude);
+        int maxRing = Math.max(Math.max(Math.abs(row - minRow), Math.abs(row - maxRow)),
+                Math.max(Math.abs(col - minCol), Math.abs(col - maxCol)));
+
+        // Max-heap on distance holding the best k so far
+        PriorityQueue<Hit> best = new PriorityQueue<>(k, Comparator.comparingDouble(Hit::getDistanceKm).reversed());
+        long probes = 0;
+        for (int ring = 0; ring <= maxRing; ring++) {
+            if (best.size() == k && ringLowerBoundKm(ring, latitude) > best.peek().getDistanceKm()) {
+                break;
+            }
+            long ringCells = ring == 0 ? 1 : 8L * ring;
+            if (probes + ringCells > names.length) {
+                // Cheaper to scan every store in this ring or beyond than to keep probing cells
+                for (int i = 0; i < names.length; i++) {
+                    if (Math.max(Math.abs(rows[i] - row), Math.abs(cols[i] - col)) >= ring) {
+                        consider(i, latitude, longitude, k, filter, best);
+                    }
+                }
+                break;
+            }
+            probes += ringCells;
+            for (int dr = -ring; dr <= ring; dr++) {
+                // Interior rows of the ring only contribute their two edge cells
+                int step = (Math.abs(dr) == ring) ? 1 : Math.max(1, 2 * ring);
+                for (int dc = -ring; dc <= ring; dc += step) {
+                    int[] members = cells.get(cellKey(row + dr, col + dc));
+                    if (members == null) {
+                        continue;
+                    }
+                    for (int i : members) {
+                        consider(i, latitude, longitude, k, filter, best);
+                    }
+                }
+            }
+        }
+        result.addAll(best);
+        result.sort(Comparator.comparingDouble(Hit::getDistanceKm));
+        return result;
+    }
+
+    private void consider(int i, double latitude, double longitude, int k, Predicate<String> filter,
+                          PriorityQueue<Hit> best) {
+        if (!filter.test(names[i])) {
+            return;
+        }
+        double distance = distanceKm(latitude, longitude, latitudes[i], longitudes[i]);
+        if (best.size() < k) {
+            best.add(new Hit(names[i], latitudes[i], longitudes[i], distance));
+        } else if (distance < best.peek().getDistanceKm()) {
+            best.poll();
+            best.add(new Hit(names[i], latitudes[i], longitudes[i], distance));
+        }
+    }
+
+    /**
+     * Great-circle (haversine) distance in kilometres.
+     */
+    public static double distanceKm(double lat1, double lon1, double lat2, double lon2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLon = Math.toRadians(lon2 - lon1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2)) * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1, Math.sqrt(a)));
+    }
+
+    // Any store in ring r is at least r - 1 whole cells away; longitude cells shrink towards the poles
+    private double ringLowerBoundKm(int ring, double latitude) {
+        if (ring <= 1) {
+            return 0;
+        }
+        double farthestLatitude = Math.min(89.0, Math.abs(latitude) + ring * cellDegrees);
+        return (ring - 1) * cellDegrees * KM_PER_DEGREE * Math.cos(Math.toRadians(farthestLatitude));
+    }
+
+    private int row(double latitude) {
+        return (int) Math.floor(latitude / cellDegrees);
+    }
+
+    private int col(double longitude) {
+        return (int) Math.floor(longitude / cellDegrees);
+    }
+
+    private static long cellKey(int row, int col) {
+        return ((long) row << 32) | (col & 0xffffffffL);
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class Hit {
+        private final String storeLocation;
+        private final double latitude;
+        private final double longitude;
+        private final double distanceKm;
+    }
+}
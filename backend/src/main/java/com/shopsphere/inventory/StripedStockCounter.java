@@ -0,0 +1,119 @@
+package com.shopsphere.inventory;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Stock counter split across several independently updated slots so that concurrent
+ * decrements on the same SKU do not all contend on one memory location.
+ * Each thread works against a home slot; when it runs short it pulls the remaining stock
+ * of the other slots into its own, and {@link #rebalance()} evens the slots out again.
+ * The total across all slots is never over-committed: a decrement only succeeds against
+ * units it has removed from a slot with a compare-and-set. Only the uncontended fast path is
+ * lock-free; stealing and rebalancing hold the counter's monitor, so a decrement is refused only
+ * when the total is short.
+ */
+public class StripedStockCounter {
+
+    // 16 longs = 128 bytes between slots, so neighbouring slots never share a cache line
+    private static final int PADDING = 16;
+
+    private final int slots;
+    private final AtomicLongArray cells;
+
+    public StripedStockCounter(int slots, long initialStock) {
+        this.slots = Math.max(1, slots);
+        this.cells = new AtomicLongArray(this.slots * PADDING);
+        distribute(Math.max(0, initialStock));
+    }
+
+    public boolean tryDecrement(int quantity) {
+        int home = homeSlot();
+        if (tryTake(home, quantity)) {
+            return true;
+        }
+        // Slow path, serialised with other stealers and rebalance(): while the lock is held no
+        // units are in flight between slots, so a failure below means the total really is short
+        synchronized (this) {
+            for (int i = 1; i < slots; i++) {
+                int victim = (home + i) % slots;
+                long stolen = cells.getAndSet(victim * PADDING, 0);
+                if (stolen > 0) {
+                    cells.addAndGet(home * PADDING, stolen);
+                }
+                if (tryTake(home, quantity)) {
+                    return true;
+                }
+            }
+            return tryTake(home, quantity);
+        }
+    }
+
+    public void add(int quantity) {
+        cells.addAndGet(homeSlot() * PADDING, quantity);
+    }
+
+    public long total() {
+        long total = 0;
+        for (int i = 0; i < slots; i++) {
+            total += cells.get(i * PADDING);
+        }
+        return total;
+    }
+
+    /**
+     * Replaces the stock held by this counter, e.g. after an admin set the quantity directly.
+     */
+    public synchronized void reset(long stock) {
+        for (int i = 0; i < slots; i++) {
+            cells.set(i * PADDING, 0);
+        }
+        distribute(Math.max(0, stock));
+    }
+
+    /**
+     * Moves surplus from slots above the mean into slots below it. Units are taken from a
+     * slot before they are added to another, so concurrent decrements never see extra stock.
+     */
+    public synchronized void rebalance() {
+        long target = total() / slots;
+        for (int poor = 0; poor < slots; poor++) {
+            long deficit = target - cells.get(poor * PADDING);
+            for (int rich = 0; deficit > 0 && rich < slots; rich++) {
+                long surplus = cells.get(rich * PADDING) - target;
+                if (surplus <= 0) {
+                    continue;
+                }
+                int move = (int) Math.min(deficit, surplus);
+                if (tryTake(rich, move)) {
+                    cells.addAndGet(poor * PADDING, move);
+                    deficit -= move;
+                }
+            }
+        }
+    }
+
+    private boolean tryTake(int slot, int quantity) {
+        int index = slot * PADDING;
+        while (true) {
+            long current = cells.get(index);
+            if (current < quantity) {
+                return false;
+            }
+            if (cells.compareAndSet(index, current, current - quantity)) {
+                return true;
+            }
+        }
+    }
+
+    private void distribute(long stock) {
+        long share = stock / slots;
+        long remainder = stock % slots;
+        for (int i = 0; i < slots; i++) {
+            cells.addAndGet(i * PADDING, share + (i < remainder ? 1 : 0));
+        }
+    }
+
+    private int homeSlot() {
+        return (int) (Thread.currentThread().threadId() % slots);
+    }
+}
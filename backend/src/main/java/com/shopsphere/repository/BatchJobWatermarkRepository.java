@@ -0,0 +1,9 @@
+package com.shopsphere.repository;
+
+import com.shopsphere.entity.BatchJobWatermark;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface BatchJobWatermarkRepository extends JpaRepository<BatchJobWatermark, String> {
+}
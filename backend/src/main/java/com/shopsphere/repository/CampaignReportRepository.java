@@ -0,0 +1,146 @@
+package com.shopsphere.repository;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * JDBC access to the daily campaign counters behind the campaign report: increment upserts
+ * for order events, per-campaign rebuilds for the backfill, sketch writes and the report read.
+ * Cancelled orders are excluded throughout.
+ */
+@Repository
+@RequiredArgsConstructor
+public class CampaignReportRepository {
+
+    private static final String UPSERT_SALES_SQL =
+            "INSERT INTO daily_campaign_sales (campaign_id, sales_date, revenue, order_count, units, savings) " +
+            "VALUES (?, ?, ?, ?, ?, ?) ON DUPLICATE KEY UPDATE revenue = revenue + VALUES(revenue), " +
+            "order_count = order_count + VALUES(order_count), units = units + VALUES(units), " +
+            "savings = savings + VALUES(savings)";
+
+    private static final String UPSERT_REGISTERS_SQL =
+            "INSERT INTO daily_campaign_sales (campaign_id, sales_date, revenue, order_count, units, savings, registers) " +
+            "VALUES (?, ?, 0, 0, 0, 0, ?) ON DUPLICATE KEY UPDATE registers = VALUES(registers)";
+
+    private static final String FIND_REGISTERS_SQL =
+            "SELECT registers FROM daily_campaign_sales WHERE campaign_id = ? AND sales_date = ?";
+
+    private static final String DAILY_SQL =
+            "SELECT sales_date, order_count, revenue, units, savings, registers FROM daily_campaign_sales " +
+            "WHERE campaign_id = ? ORDER BY sales_date";
+
+    // Rebuild: counters are reset and set from orders, keeping the sketches already stored
+    private static final String RESET_SALES_SQL =
+            "UPDATE daily_campaign_sales SET revenue = 0, order_count = 0, units = 0, savings = 0 WHERE campaign_id = ?";
+
+    // Order-level sums per day joined with line-level sums per day. Under REPEATABLE READ the
+    // select share-locks the campaign's orders until the campaign's rebuild transaction commits
+    private static final String REBUILD_SALES_SQL =
+            "INSERT INTO daily_campaign_sales (campaign_id, sales_date, revenue, order_count, units, savings) " +
+            "SELECT ?, d.day, d.revenue, d.orders, COALESCE(l.units, 0), COALESCE(l.savings, 0) FROM (" +
+            "SELECT DATE(created_at) AS day, COUNT(*) AS orders, SUM(total_amount) AS revenue FROM orders " +
+            "WHERE campaign_id = ? AND status <> 'CANCELLED' GROUP BY DATE(created_at)) d LEFT JOIN (" +
+            "SELECT DATE(o.created_at) AS day, SUM(oi.quantity) AS units, " +
+            "SUM((COALESCE(oi.original_price, oi.unit_price) - oi.unit_price) * oi.quantity) AS savings " +
+            "FROM orders o JOIN order_items oi ON oi.order_id = o.order_id " +
+            "WHERE o.campaign_id = ? AND o.status <> 'CANCELLED' GROUP BY DATE(o.created_at)) l ON l.day = d.day " +
+            "ON DUPLICATE KEY UPDATE revenue = VALUES(revenue), order_count = VALUES(order_count), " +
+            "units = VALUES(units), savings = VALUES(savings)";
+
+    private static final String CAMPAIGN_CUSTOMERS_SQL =
+            "SELECT DATE(created_at), customer_id FROM orders " +
+            "WHERE campaign_id = ? AND status <> 'CANCELLED' AND customer_id IS NOT NULL";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // Incremental updates
+
+    public void addSales(long campaignId, LocalDate day, BigDecimal revenue, long orders, long units, BigDecimal savings) {
+        jdbcTemplate.update(UPSERT_SALES_SQL, campaignId, Date.valueOf(day), revenue, orders, units, savings);
+    }
+
+    public byte[] findRegisters(long campaignId, LocalDate day) {
+        List<byte[]> rows = jdbcTemplate.query(FIND_REGISTERS_SQL, (rs, i) -> rs.getBytes(1),
+                campaignId, Date.valueOf(day));
+        return rows.isEmpty() ? null : rows.get(0);
+    }
+
+    public void upsertRegisters(List<DaySketch> sketches) {
+        jdbcTemplate.batchUpdate(UPSERT_REGISTERS_SQL, sketches, 500, (ps, s) -> {
+            ps.setLong(1, s.getCampaignId());
+            ps.setDate(2, Date.valueOf(s.getDay()));
+            ps.setBytes(3, s.getRegisters());
+        });
+    }
+
+    // Report
+
+    /**
+     * Streams the campaign's daily rows in date order. Registers may be null.
+     */
+    public void forEachDay(long campaignId, DailyHandler handler) {
+        jdbcTemplate.query(DAILY_SQL, (RowCallbackHandler) rs -> handler.accept(rs.getDate(1).toLocalDate(),
+                rs.getLong(2), rs.getBigDecimal(3), rs.getLong(4), rs.getBigDecimal(5), rs.getBytes(6)), campaignId);
+    }
+
+    // Backfill
+
+    public boolean isEmpty() {
+        Integer rows = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM (SELECT 1 FROM daily_campaign_sales LIMIT 1) t",
+                Integer.class);
+        return rows == null || rows == 0;
+    }
+
+    public List<Long> findCampaignIdsWithOrders() {
+        return jdbcTemplate.queryForList("SELECT DISTINCT campaign_id FROM orders WHERE campaign_id IS NOT NULL",
+                Long.class);
+    }
+
+    /**
+     * Recomputes the campaign's counters from orders, leaving its stored sketches in place.
+     *
+     * @return daily rows written
+     */
+    public int rebuildSales(long campaignId) {
+        jdbcTemplate.update(RESET_SALES_SQL, campaignId);
+        return jdbcTemplate.update(REBUILD_SALES_SQL, campaignId, campaignId, campaignId);
+    }
+
+    /**
+     * Streams (order day, customer id) of the campaign's non-cancelled orders, forward-only.
+     */
+    public void streamCampaignCustomers(long campaignId, RowCallbackHandler handler) {
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(CAMPAIGN_CUSTOMERS_SQL,
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            // MySQL Connector/J streams rows one by one only with this fetch size
+            ps.setFetchSize(Integer.MIN_VALUE);
+            ps.setLong(1, campaignId);
+            return ps;
+        }, handler);
+    }
+
+    @FunctionalInterface
+    public interface DailyHandler {
+        void accept(LocalDate day, long orders, BigDecimal revenue, long units, BigDecimal savings, byte[] registers);
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class DaySketch {
+        private final long campaignId;
+        private final LocalDate day;
+        private final byte[] registers;
+    }
+}
@@ -0,0 +1,19 @@
+package com.shopsphere.repository;
+
+import com.shopsphere.entity.CustomerRfm;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface CustomerRfmRepository extends JpaRepository<CustomerRfm, Long> {
+
+    // Customers of one segment, e.g. for loyalty reward or campaign targeting
+    List<CustomerRfm> findBySegment(String segment);
+
+    // Customer count per segment: [segment, count]
+    @Query("SELECT r.segment, COUNT(r) FROM CustomerRfm r GROUP BY r.segment")
+    List<Object[]> countBySegment();
+}
@@ -0,0 +1,111 @@
+package com.shopsphere.repository;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * JDBC access to the daily customer sketches, plus the order stream the backfill reads.
+ */
+@Repository
+@RequiredArgsConstructor
+public class CustomerSketchRepository {
+
+    private static final String UPSERT_SKETCH_SQL =
+            "INSERT INTO daily_customer_sketches (sales_date, store_key, registers, updated_at) VALUES (?, ?, ?, ?) " +
+            "ON DUPLICATE KEY UPDATE registers = VALUES(registers), updated_at = VALUES(updated_at)";
+
+    private static final String FIND_SKETCH_SQL =
+            "SELECT registers FROM daily_customer_sketches WHERE sales_date = ? AND store_key = ?";
+
+    private static final String SKETCHES_SQL =
+            "SELECT sales_date, store_key, registers FROM daily_customer_sketches WHERE sales_date BETWEEN ? AND ?";
+
+    private static final String ORDER_CUSTOMERS_SQL =
+            "SELECT DATE(created_at), COALESCE(store_location, ''), customer_id FROM orders " +
+            "WHERE created_at >= ? AND created_at < ? AND status <> 'CANCELLED' AND customer_id IS NOT NULL";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public byte[] findSketch(LocalDate day, String storeKey) {
+        List<byte[]> rows = jdbcTemplate.query(FIND_SKETCH_SQL, (rs, i) -> rs.getBytes(1),
+                Date.valueOf(day), storeKey);
+        return rows.isEmpty() ? null : rows.get(0);
+    }
+
+    /**
+     * Streams the sketches of days in [from, to], limited to {@code storeKeys} unless it is
+     * empty.
+     */
+    public void forEachSketch(LocalDate from, LocalDate to, Collection<String> storeKeys, SketchHandler handler) {
+        List<Object> args = new ArrayList<>();
+        args.add(Date.valueOf(from));
+        args.add(Date.valueOf(to));
+        String sql = SKETCHES_SQL;
+        if (!storeKeys.isEmpty()) {
+            sql += " AND store_key IN (" + String.join(", ", Collections.nCopies(storeKeys.size(), "?")) + ")";
+            args.addAll(storeKeys);
+        }
+        jdbcTemplate.query(sql, (RowCallbackHandler) rs ->
+                handler.accept(rs.getDate(1).toLocalDate(), rs.getString(2), rs.getBytes(3)), args.toArray());
+    }
+
+    public void upsertSketches(List<Sketch> sketches) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(UPSERT_SKETCH_SQL, sketches, 500, (ps, s) -> {
+            ps.setDate(1, Date.valueOf(s.getDay()));
+            ps.setString(2, s.getStoreKey());
+            ps.setBytes(3, s.getRegisters());
+            ps.setTimestamp(4, now);
+        });
+    }
+
+    public boolean isEmpty() {
+        Integer rows = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM (SELECT 1 FROM daily_customer_sketches LIMIT 1) t",
+                Integer.class);
+        return rows == null || rows == 0;
+    }
+
+    /**
+     * Streams (order day, store key, customer id) of non-cancelled orders created in
+     * [from, toExclusive), forward-only.
+     */
+    public void streamOrderCustomers(LocalDate from, LocalDate toExclusive, RowCallbackHandler handler) {
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(ORDER_CUSTOMERS_SQL,
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            // MySQL Connector/J streams rows one by one only with this fetch size
+            ps.setFetchSize(Integer.MIN_VALUE);
+            ps.setTimestamp(1, Timestamp.valueOf(from.atStartOfDay()));
+            ps.setTimestamp(2, Timestamp.valueOf(toExclusive.atStartOfDay()));
+            return ps;
+        }, handler);
+    }
+
+    @FunctionalInterface
+    public interface SketchHandler {
+        void accept(LocalDate day, String storeKey, byte[] registers);
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class Sketch {
+        private final LocalDate day;
+        private final String storeKey;
+        private final byte[] registers;
+    }
+}
@@ -0,0 +1,82 @@
+package com.shopsphere.repository;
+
+import com.shopsphere.entity.ReorderPoint;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Streaming reads of order line history and batched upserts of reorder points for the
+ * demand forecasting job.
+ */
+@Repository
+@RequiredArgsConstructor
+public class DemandHistoryRepository {
+
+    private static final String MAX_ITEM_ID_SQL =
+            "SELECT COALESCE(MAX(order_item_id), 0) FROM order_items WHERE created_at < ?";
+
+    // Lines of cancelled orders are not demand
+    private static final String ORDER_ITEMS_SQL =
+            "SELECT oi.product_id, oi.store_location, oi.quantity, DATE(oi.created_at) FROM order_items oi " +
+            "JOIN orders o ON o.order_id = oi.order_id " +
+            "WHERE oi.order_item_id > ? AND oi.order_item_id <= ? AND o.status <> 'CANCELLED' " +
+            "ORDER BY oi.order_item_id";
+
+    private static final String UPSERT_REORDER_POINT_SQL =
+            "INSERT INTO reorder_points (product_id, store_location, smoothed_daily_demand, open_day, " +
+            "open_day_quantity, reorder_point, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?) " +
+            "ON DUPLICATE KEY UPDATE smoothed_daily_demand = VALUES(smoothed_daily_demand), " +
+            "open_day = VALUES(open_day), open_day_quantity = VALUES(open_day_quantity), " +
+            "reorder_point = VALUES(reorder_point), updated_at = VALUES(updated_at)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Highest order line id created before {@code cutoff}. Lines newer than the cutoff are
+     * left for the next run so that transactions still in flight are not skipped.
+     */
+    public long findMaxOrderItemIdBefore(LocalDateTime cutoff) {
+        Long max = jdbcTemplate.queryForObject(MAX_ITEM_ID_SQL, Long.class, Timestamp.valueOf(cutoff));
+        return max != null ? max : 0L;
+    }
+
+    /**
+     * Streams order lines with ids in ({@code afterId}, {@code upToId}] in id order. Rows are
+     * handed to {@code handler} one at a time; the result set is never materialised.
+     * Columns: product_id, store_location, quantity, order day.
+     */
+    public void streamOrderItems(long afterId, long upToId, RowCallbackHandler handler) {
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(ORDER_ITEMS_SQL,
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            // MySQL Connector/J streams rows one by one only with this fetch size
+            ps.setFetchSize(Integer.MIN_VALUE);
+            ps.setLong(1, afterId);
+            ps.setLong(2, upToId);
+            return ps;
+        }, handler);
+    }
+
+    public void upsertReorderPoints(List<ReorderPoint> points) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(UPSERT_REORDER_POINT_SQL, points, 1000, (ps, r) -> {
+            ps.setLong(1, r.getProductId());
+            ps.setString(2, r.getStoreLocation());
+            ps.setObject(3, r.getSmoothedDailyDemand(), Types.DOUBLE);
+            ps.setDate(4, r.getOpenDay() != null ? Date.valueOf(r.getOpenDay()) : null);
+            ps.setInt(5, r.getOpenDayQuantity());
+            ps.setInt(6, r.getReorderPoint());
+            ps.setTimestamp(7, now);
+        });
+    }
+}
@@ -0,0 +1,9 @@
+package com.shopsphere.repository;
+
+import com.shopsphere.entity.HotSkuCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface HotSkuCheckpointRepository extends JpaRepository<HotSkuCheckpoint, String> {
+}
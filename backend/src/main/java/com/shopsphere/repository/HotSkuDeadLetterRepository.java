@@ -0,0 +1,9 @@
+package com.shopsphere.repository;
+
+import com.shopsphere.entity.HotSkuDeadLetter;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface HotSkuDeadLetterRepository extends JpaRepository<HotSkuDeadLetter, Long> {
+}
@@ -0,0 +1,97 @@
+package com.shopsphere.repository;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * JDBC access to the hot-SKU commit markers and to the deltas the flush wrote for transactions
+ * that were still open, which together let intent log recovery tell committed order transactions
+ * from ones that died with the process.
+ */
+@Repository
+@RequiredArgsConstructor
+public class HotSkuTransactionRepository {
+
+    private static final int IN_CHUNK = 1000;
+
+    private static final String INSERT_COMMIT_SQL =
+            "INSERT INTO hot_sku_commits (token, last_sequence, committed_at) VALUES (?, ?, ?)";
+
+    private static final String DELETE_COMMIT_SQL = "DELETE FROM hot_sku_commits WHERE token = ?";
+
+    private static final String DELETE_COMMITS_UP_TO_SQL = "DELETE FROM hot_sku_commits WHERE last_sequence <= ?";
+
+    private static final String INSERT_OPEN_DELTA_SQL =
+            "INSERT INTO hot_sku_open_deltas (token, product_id, store_location, delta) VALUES (?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public void insertCommit(long token, long lastSequence) {
+        jdbcTemplate.update(INSERT_COMMIT_SQL, token, lastSequence, Timestamp.valueOf(LocalDateTime.now()));
+    }
+
+    /**
+     * The given tokens that have a commit marker.
+     */
+    public Set<Long> findCommitted(Collection<Long> tokens) {
+        Set<Long> committed = new HashSet<>();
+        List<Long> all = new ArrayList<>(tokens);
+        for (int start = 0; start < all.size(); start += IN_CHUNK) {
+            List<Long> chunk = all.subList(start, Math.min(start + IN_CHUNK, all.size()));
+            jdbcTemplate.query("SELECT token FROM hot_sku_commits WHERE token IN ("
+                            + String.join(", ", Collections.nCopies(chunk.size(), "?")) + ")",
+                    (RowCallbackHandler) rs -> committed.add(rs.getLong(1)), chunk.toArray());
+        }
+        return committed;
+    }
+
+    public void deleteCommits(List<Long> tokens) {
+        jdbcTemplate.batchUpdate(DELETE_COMMIT_SQL, tokens, 500, (ps, token) -> ps.setLong(1, token));
+    }
+
+    public int deleteCommitsUpTo(long sequence) {
+        return jdbcTemplate.update(DELETE_COMMITS_UP_TO_SQL, sequence);
+    }
+
+    public List<OpenDelta> findOpenDeltas() {
+        return jdbcTemplate.query("SELECT token, product_id, store_location, delta FROM hot_sku_open_deltas",
+                (rs, i) -> new OpenDelta(rs.getLong(1), rs.getLong(2), rs.getString(3), rs.getInt(4)));
+    }
+
+    /**
+     * Replaces the recorded open deltas with {@code deltas}; runs in the flush's transaction.
+     */
+    public void replaceOpenDeltas(List<OpenDelta> deltas) {
+        jdbcTemplate.update("DELETE FROM hot_sku_open_deltas");
+        if (!deltas.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_OPEN_DELTA_SQL, deltas, 500, (ps, d) -> {
+                ps.setLong(1, d.getToken());
+                ps.setLong(2, d.getProductId());
+                ps.setString(3, d.getStoreLocation());
+                ps.setInt(4, d.getDelta());
+            });
+        }
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class OpenDelta {
+        private final long token;
+        private final long productId;
+        private final String storeLocation;
+        private final int delta;
+    }
+}
@@ -0,0 +1,124 @@
+package com.shopsphere.repository;
+
+import com.shopsphere.entity.InventoryMovement;
+import com.shopsphere.entity.InventorySnapshot;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * JDBC access for the inventory journal: batched movement inserts and the reads and writes
+ * behind snapshots.
+ */
+@Repository
+@RequiredArgsConstructor
+public class InventoryMovementBatchRepository {
+
+    private static final String INSERT_MOVEMENT_SQL =
+            "INSERT INTO inventory_movements (product_id, store_location, movement_type, quantity_change, " +
+            "resulting_quantity, period_month, occurred_at) VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String INSERT_SNAPSHOT_SQL =
+            "INSERT INTO inventory_snapshots (product_id, store_location, stock_quantity, last_movement_id, snapshot_at) " +
+            "VALUES (?, ?, ?, ?, ?)";
+
+    // Shared locks: writers that already changed a row commit first, later ones wait for the seed
+    private static final String LOCK_STORE_ROWS_SQL =
+            "SELECT product_id, store_location, stock_quantity FROM store_product_inventory LOCK IN SHARE MODE";
+
+    private static final String CHANGES_AFTER_SQL =
+            "SELECT product_id, store_location, quantity_change FROM inventory_movements " +
+            "WHERE period_month >= ? AND occurred_at > ?";
+
+    // Latest snapshot quantity (null when none) of every row with movements in the window
+    private static final String CHANGED_ROW_BASES_SQL =
+            "SELECT c.product_id, c.store_location, (SELECT s.stock_quantity FROM inventory_snapshots s " +
+            "WHERE s.product_id = c.product_id AND s.store_location = c.store_location " +
+            "ORDER BY s.snapshot_at DESC LIMIT 1) FROM (SELECT DISTINCT product_id, store_location " +
+            "FROM inventory_movements WHERE period_month BETWEEN ? AND ? AND occurred_at > ? AND occurred_at <= ?) c";
+
+    private static final String MOVEMENTS_BETWEEN_SQL =
+            "SELECT movement_id, product_id, store_location, movement_type, quantity_change, resulting_quantity " +
+            "FROM inventory_movements WHERE period_month BETWEEN ? AND ? AND occurred_at > ? AND occurred_at <= ? " +
+            "ORDER BY product_id, store_location, movement_id";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public void insertMovements(List<InventoryMovement> movements) {
+        jdbcTemplate.batchUpdate(INSERT_MOVEMENT_SQL, movements, movements.size(), (ps, m) -> {
+            ps.setLong(1, m.getProductId());
+            ps.setString(2, m.getStoreLocation());
+            ps.setString(3, m.getMovementType());
+            ps.setObject(4, m.getQuantityChange(), Types.INTEGER);
+            ps.setObject(5, m.getResultingQuantity(), Types.INTEGER);
+            ps.setInt(6, m.getPeriodMonth());
+            ps.setTimestamp(7, Timestamp.valueOf(m.getOccurredAt()));
+        });
+    }
+
+    public void insertSnapshots(List<InventorySnapshot> snapshots) {
+        jdbcTemplate.batchUpdate(INSERT_SNAPSHOT_SQL, snapshots, 500, (ps, snapshot) -> {
+            ps.setLong(1, snapshot.getProductId());
+            ps.setString(2, snapshot.getStoreLocation());
+            ps.setInt(3, snapshot.getStockQuantity());
+            ps.setLong(4, snapshot.getLastMovementId());
+            ps.setTimestamp(5, Timestamp.valueOf(snapshot.getSnapshotAt()));
+        });
+    }
+
+    /**
+     * Reads every store row (product_id, store_location, stock_quantity) under a shared lock held
+     * until the surrounding transaction ends.
+     */
+    public void lockStoreRows(RowCallbackHandler handler) {
+        jdbcTemplate.query(LOCK_STORE_ROWS_SQL, handler);
+    }
+
+    /**
+     * Streams (product_id, store_location, quantity_change) of the movements after {@code after},
+     * in no particular order; quantity_change may be null.
+     */
+    public void streamChangesAfter(LocalDateTime after, int fromPeriod, RowCallbackHandler handler) {
+        stream(CHANGES_AFTER_SQL, handler, fromPeriod, Timestamp.valueOf(after));
+    }
+
+    /**
+     * Reads (product_id, store_location, latest snapshot quantity or null) of every store row with
+     * movements in (after, upTo].
+     */
+    public void findChangedRowBases(LocalDateTime after, LocalDateTime upTo, int fromPeriod, int toPeriod,
+                                    RowCallbackHandler handler) {
+        jdbcTemplate.query(CHANGED_ROW_BASES_SQL, handler, fromPeriod, toPeriod, Timestamp.valueOf(after),
+                Timestamp.valueOf(upTo));
+    }
+
+    /**
+     * Streams the movements in (after, upTo] grouped by store row, each row's in journal order.
+     * Columns: movement_id, product_id, store_location, movement_type, quantity_change,
+     * resulting_quantity.
+     */
+    public void streamMovementsBetween(LocalDateTime after, LocalDateTime upTo, int fromPeriod, int toPeriod,
+                                       RowCallbackHandler handler) {
+        stream(MOVEMENTS_BETWEEN_SQL, handler, fromPeriod, toPeriod, Timestamp.valueOf(after), Timestamp.valueOf(upTo));
+    }
+
+    private void stream(String sql, RowCallbackHandler handler, Object... args) {
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            // MySQL Connector/J streams rows one by one only with this fetch size
+            ps.setFetchSize(Integer.MIN_VALUE);
+            for (int i = 0; i < args.length; i++) {
+                ps.setObject(i + 1, args[i]);
+            }
+            return ps;
+        }, handler);
+    }
+}
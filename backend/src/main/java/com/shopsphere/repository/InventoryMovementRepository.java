@@ -0,0 +1,33 @@
+package com.shopsphere.repository;
+
+import com.shopsphere.entity.InventoryMovement;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface InventoryMovementRepository extends JpaRepository<InventoryMovement, Long> {
+
+    // Movements of one store row after a snapshot's cut, up to a point in time, in journal order
+    @Query("SELECT m FROM InventoryMovement m WHERE m.productId = :productId AND m.storeLocation = :storeLocation " +
+           "AND m.occurredAt > :after AND m.periodMonth BETWEEN :fromPeriod AND :toPeriod " +
+           "AND m.occurredAt <= :at ORDER BY m.movementId")
+    List<InventoryMovement> findForReplay(@Param("productId") Long productId,
+                                          @Param("storeLocation") String storeLocation,
+                                          @Param("after") LocalDateTime after,
+                                          @Param("fromPeriod") int fromPeriod,
+                                          @Param("toPeriod") int toPeriod,
+                                          @Param("at") LocalDateTime at);
+
+    // Full movement history of one store row within a period range, in journal order
+    @Query("SELECT m FROM InventoryMovement m WHERE m.productId = :productId AND m.storeLocation = :storeLocation " +
+           "AND m.periodMonth BETWEEN :fromPeriod AND :toPeriod ORDER BY m.movementId")
+    List<InventoryMovement> findHistory(@Param("productId") Long productId,
+                                        @Param("storeLocation") String storeLocation,
+                                        @Param("fromPeriod") int fromPeriod,
+                                        @Param("toPeriod") int toPeriod);
+}
@@ -0,0 +1,25 @@
+package com.shopsphere.repository;
+
+import com.shopsphere.entity.InventorySnapshot;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface InventorySnapshotRepository extends JpaRepository<InventorySnapshot, Long> {
+
+    // Nearest snapshot of a store row at or before a point in time
+    Optional<InventorySnapshot> findFirstByProductIdAndStoreLocationAndSnapshotAtLessThanEqualOrderBySnapshotAtDesc(
+            Long productId, String storeLocation, LocalDateTime at);
+
+    // Cut of the most recent snapshot run
+    @Query("SELECT MAX(s.snapshotAt) FROM InventorySnapshot s")
+    LocalDateTime findLatestSnapshotTime();
+
+    // Cut of the seed snapshot, where the journal's history starts
+    @Query("SELECT MIN(s.snapshotAt) FROM InventorySnapshot s")
+    LocalDateTime findEarliestSnapshotTime();
+}
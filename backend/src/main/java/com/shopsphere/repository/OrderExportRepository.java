@@ -0,0 +1,46 @@
+package com.shopsphere.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+
+/**
+ * Forward-only read of orders joined with their lines, for exports.
+ */
+@Repository
+@RequiredArgsConstructor
+public class OrderExportRepository {
+
+    // One row per order line (orders without lines yield one row with null line columns), grouped by order
+    private static final String ORDER_LINES_SQL =
+            "SELECT o.order_id, o.created_at, o.customer_id, o.order_type, o.status, o.total_amount, " +
+            "o.discount_amount, o.store_location, o.campaign_id, o.payment_method, o.payment_status, " +
+            "oi.order_item_id, oi.product_id, oi.product_sku, oi.product_name, oi.quantity, oi.unit_price, " +
+            "oi.original_price, oi.subtotal, oi.store_location FROM orders o " +
+            "LEFT JOIN order_items oi ON oi.order_id = o.order_id " +
+            "WHERE o.created_at >= ? AND o.created_at < ? ORDER BY o.created_at, o.order_id, oi.order_item_id";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Streams the lines of orders created in [from, to] to {@code handler}, one row at a time;
+     * the result set is never materialised.
+     */
+    public void streamOrderLines(LocalDate from, LocalDate to, RowCallbackHandler handler) {
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(ORDER_LINES_SQL,
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            // MySQL Connector/J streams rows one by one only with this fetch size
+            ps.setFetchSize(Integer.MIN_VALUE);
+            ps.setTimestamp(1, Timestamp.valueOf(from.atStartOfDay()));
+            ps.setTimestamp(2, Timestamp.valueOf(to.plusDays(1).atStartOfDay()));
+            return ps;
+        }, handler);
+    }
+}
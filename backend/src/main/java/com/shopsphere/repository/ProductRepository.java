@@ -13,11 +13,15 @@ import java.util.Optional;
 @Repository
 public interface ProductRepository extends JpaRepository<Product, Long> {
 
+    // Demand-driven reorder point of the product, or :threshold when it has no order history
+    String PRODUCT_REORDER_POINT = "COALESCE((SELECT SUM(r.reorderPoint) FROM ReorderPoint r " +
+            "WHERE r.productId = p.productId), :threshold)";
+
     // Find products by category
     List<Product> findByCategory(String category);
 
-    // Find products with stock quantity less than or equal to threshold
-    @Query("SELECT p FROM Product p WHERE p.stockQuantity <= :threshold AND p.isActive = true")
+    // Find products with stock at or below their reorder point
+    @Query("SELECT p FROM Product p WHERE p.isActive = true AND p.stockQuantity <= " + PRODUCT_REORDER_POINT)
     List<Product> findLowStockProducts(@Param("threshold") int threshold);
 
     // Find active products
@@ -37,7 +41,7 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
     List<String> findAllDistinctCategories();
 
     // Count low stock products
-    @Query("SELECT COUNT(p) FROM Product p WHERE p.stockQuantity <= :threshold AND p.isActive = true")
+    @Query("SELECT COUNT(p) FROM Product p WHERE p.isActive = true AND p.stockQuantity <= " + PRODUCT_REORDER_POINT)
     Long countLowStockProducts(@Param("threshold") int threshold);
 
     @Query("SELECT p FROM Product p WHERE p.isActive = true AND p.productId NOT IN " +
@@ -47,4 +51,8 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
 
     @Query("SELECT p FROM Product p JOIN CampaignProduct cp ON p.productId = cp.product.productId WHERE cp.campaign.campaignId = :campaignId")
     List<Product> findProductsByCampaignId(@Param("campaignId") Long campaignId);
+
+    // Product id and category pairs for the analytics category index
+    @Query("SELECT p.productId, p.category FROM Product p")
+    List<Object[]> findAllProductCategories();
 }
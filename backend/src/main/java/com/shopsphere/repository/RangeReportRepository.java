@@ -0,0 +1,51 @@
+package com.shopsphere.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.function.Consumer;
+
+/**
+ * Streaming read of one date partition of orders for range reports.
+ */
+@Repository
+@RequiredArgsConstructor
+public class RangeReportRepository {
+
+    // Grouped by order so each order's amount is counted once
+    private static final String PARTITION_LINES_SQL =
+            "SELECT o.order_id, o.status, o.total_amount, oi.product_id, oi.quantity, oi.subtotal FROM orders o " +
+            "LEFT JOIN order_items oi ON oi.order_id = o.order_id " +
+            "WHERE o.created_at >= ? AND o.created_at < ? ORDER BY o.order_id";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Streams the lines of orders created in [from, toExclusive), forward-only. The statement
+     * is cancelled by the driver after {@code timeoutSeconds} (0 = no limit), and is handed to
+     * {@code onStatement} before it runs so the caller can {@link Statement#cancel()} it earlier:
+     * closing a streaming result set otherwise reads every remaining row first.
+     * Columns: order_id, status, total_amount, product_id, quantity, subtotal.
+     */
+    public void streamPartition(LocalDate from, LocalDate toExclusive, int timeoutSeconds,
+                                Consumer<Statement> onStatement, RowCallbackHandler handler) {
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(PARTITION_LINES_SQL,
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            // MySQL Connector/J streams rows one by one only with this fetch size
+            ps.setFetchSize(Integer.MIN_VALUE);
+            ps.setQueryTimeout(timeoutSeconds);
+            ps.setTimestamp(1, Timestamp.valueOf(from.atStartOfDay()));
+            ps.setTimestamp(2, Timestamp.valueOf(toExclusive.atStartOfDay()));
+            onStatement.accept(ps);
+            return ps;
+        }, handler);
+    }
+}
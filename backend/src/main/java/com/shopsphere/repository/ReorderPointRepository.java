@@ -0,0 +1,19 @@
+package com.shopsphere.repository;
+
+import com.shopsphere.entity.ReorderPoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface ReorderPointRepository extends JpaRepository<ReorderPoint, Long> {
+
+    // Find reorder points of a product at every store
+    List<ReorderPoint> findByProductId(Long productId);
+
+    // Product-level reorder point: sum over its stores and the ONLINE channel
+    @Query("SELECT r.productId, SUM(r.reorderPoint) FROM ReorderPoint r GROUP BY r.productId")
+    List<Object[]> sumReorderPointsByProduct();
+}
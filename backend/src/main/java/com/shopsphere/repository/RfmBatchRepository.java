@@ -0,0 +1,139 @@
+package com.shopsphere.repository;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Streaming reads and batched writes for the RFM segmentation job.
+ */
+@Repository
+@RequiredArgsConstructor
+public class RfmBatchRepository {
+
+    private static final String MAX_ORDER_ID_SQL =
+            "SELECT COALESCE(MAX(order_id), 0) FROM orders WHERE created_at < ?";
+
+    // New orders folded per customer by the database; one row per customer
+    private static final String NEW_ORDERS_BY_CUSTOMER_SQL =
+            "SELECT customer_id, MAX(created_at), COUNT(*), SUM(total_amount) FROM orders " +
+            "WHERE order_id > ? AND order_id <= ? AND status <> 'CANCELLED' GROUP BY customer_id";
+
+    private static final String COUNT_NEW_CUSTOMERS_SQL =
+            "SELECT COUNT(DISTINCT customer_id) FROM orders " +
+            "WHERE order_id > ? AND order_id <= ? AND status <> 'CANCELLED'";
+
+    private static final String UPSERT_AGGREGATE_SQL =
+            "INSERT INTO customer_rfm (customer_id, last_order_at, order_count, monetary, recency_score, " +
+            "frequency_score, monetary_score, segment, updated_at) VALUES (?, ?, ?, ?, 0, 0, 0, NULL, ?) " +
+            "ON DUPLICATE KEY UPDATE last_order_at = GREATEST(last_order_at, VALUES(last_order_at)), " +
+            "order_count = order_count + VALUES(order_count), monetary = monetary + VALUES(monetary), " +
+            "updated_at = VALUES(updated_at)";
+
+    // Monetary in whole cents so the job can score on primitive arrays
+    private static final String ALL_CUSTOMERS_SQL =
+            "SELECT customer_id, last_order_at, order_count, CAST(ROUND(monetary * 100) AS SIGNED), " +
+            "recency_score, frequency_score, monetary_score, segment FROM customer_rfm";
+
+    private static final String UPDATE_SCORES_SQL =
+            "UPDATE customer_rfm SET recency_score = ?, frequency_score = ?, monetary_score = ?, segment = ?, " +
+            "updated_at = ? WHERE customer_id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Highest order id created before {@code cutoff}; newer orders are left for the next run.
+     */
+    public long findMaxOrderIdBefore(LocalDateTime cutoff) {
+        Long max = jdbcTemplate.queryForObject(MAX_ORDER_ID_SQL, Long.class, Timestamp.valueOf(cutoff));
+        return max != null ? max : 0L;
+    }
+
+    /**
+     * Adds the per-customer totals of the non-cancelled orders with ids in ({@code afterId},
+     * {@code upToId}] to the customers' aggregates, creating unscored rows for new customers.
+     * The totals are held in memory, so callers bound the id range; folding consecutive ranges
+     * gives the same aggregates as folding them as one.
+     *
+     * @return aggregate rows written
+     */
+    public int foldNewOrders(long afterId, long upToId) {
+        List<Aggregate> aggregates = jdbcTemplate.query(NEW_ORDERS_BY_CUSTOMER_SQL, (rs, i) -> new Aggregate(
+                rs.getLong(1), rs.getTimestamp(2), rs.getLong(3), rs.getBigDecimal(4)), afterId, upToId);
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(UPSERT_AGGREGATE_SQL, aggregates, 1000, (ps, a) -> {
+            ps.setLong(1, a.getCustomerId());
+            ps.setTimestamp(2, a.getLastOrderAt());
+            ps.setLong(3, a.getOrderCount());
+            ps.setBigDecimal(4, a.getMonetary());
+            ps.setTimestamp(5, now);
+        });
+        return aggregates.size();
+    }
+
+    /**
+     * Distinct customers with non-cancelled orders with ids in ({@code afterId}, {@code upToId}].
+     */
+    public long countCustomersWithOrders(long afterId, long upToId) {
+        Long count = jdbcTemplate.queryForObject(COUNT_NEW_CUSTOMERS_SQL, Long.class, afterId, upToId);
+        return count != null ? count : 0L;
+    }
+
+    public void deleteAll() {
+        jdbcTemplate.update("DELETE FROM customer_rfm");
+    }
+
+    /**
+     * Streams every customer's aggregates and current scores.
+     * Columns: customer_id, last_order_at, order_count, monetary cents, recency/frequency/monetary score, segment.
+     */
+    public void streamAll(RowCallbackHandler handler) {
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(ALL_CUSTOMERS_SQL,
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(Integer.MIN_VALUE);
+            return ps;
+        }, handler);
+    }
+
+    public void updateScores(List<Scores> scores) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(UPDATE_SCORES_SQL, scores, 1000, (ps, s) -> {
+            ps.setInt(1, s.getRecency());
+            ps.setInt(2, s.getFrequency());
+            ps.setInt(3, s.getMonetary());
+            ps.setString(4, s.getSegment());
+            ps.setTimestamp(5, now);
+            ps.setLong(6, s.getCustomerId());
+        });
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class Aggregate {
+        private final long customerId;
+        private final Timestamp lastOrderAt;
+        private final long orderCount;
+        private final BigDecimal monetary;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class Scores {
+        private final long customerId;
+        private final int recency;
+        private final int frequency;
+        private final int monetary;
+        private final String segment;
+    }
+}
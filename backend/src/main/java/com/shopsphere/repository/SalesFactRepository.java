@@ -0,0 +1,48 @@
+package com.shopsphere.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+
+/**
+ * Streaming read of order lines for the in-memory sales fact store.
+ */
+@Repository
+@RequiredArgsConstructor
+public class SalesFactRepository {
+
+    // Lines are attributed to their fulfilling store, falling back to the order's store ('' when neither)
+    private static final String ORDER_LINES_SQL =
+            "SELECT DATEDIFF(o.created_at, '1970-01-01'), oi.product_id, " +
+            "COALESCE(oi.store_location, o.store_location, ''), COALESCE(p.category, 'Uncategorized'), " +
+            "oi.quantity, CAST(ROUND(oi.subtotal * 100) AS SIGNED), o.order_id FROM order_items oi " +
+            "JOIN orders o ON o.order_id = oi.order_id LEFT JOIN products p ON p.product_id = oi.product_id " +
+            "WHERE o.order_id > ? AND o.order_id <= ? AND o.status <> 'CANCELLED'";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public long findMaxOrderId() {
+        Long max = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(order_id), 0) FROM orders", Long.class);
+        return max != null ? max : 0L;
+    }
+
+    /**
+     * Streams lines of non-cancelled orders with ids in ({@code afterOrderId}, {@code upToOrderId}].
+     * Columns: epoch day, product_id, store, category, quantity, amount in cents, order_id.
+     */
+    public void streamOrderLines(long afterOrderId, long upToOrderId, RowCallbackHandler handler) {
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(ORDER_LINES_SQL,
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            // MySQL Connector/J streams rows one by one only with this fetch size
+            ps.setFetchSize(Integer.MIN_VALUE);
+            ps.setLong(1, afterOrderId);
+            ps.setLong(2, upToOrderId);
+            return ps;
+        }, handler);
+    }
+}
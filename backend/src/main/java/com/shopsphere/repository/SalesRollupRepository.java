@@ -0,0 +1,296 @@
+package com.shopsphere.repository;
+
+import com.shopsphere.dto.SalesAnalyticsDTO;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * JDBC access to the daily sales rollup tables: increment upserts for order events,
+ * range rebuilds for the backfill, and the dashboard reads.
+ * <p>
+ * Store key and channel are derived the same way on both paths: the order's store location
+ * ('' when absent) and its upper-cased order type.
+ */
+@Repository
+@RequiredArgsConstructor
+public class SalesRollupRepository {
+
+    public static final LocalDate MIN_DATE = LocalDate.of(1970, 1, 1);
+    public static final LocalDate MAX_DATE = LocalDate.of(9999, 12, 31);
+
+    private static final String[] ROLLUP_TABLES =
+            {"daily_sales_rollup", "daily_product_sales_rollup", "daily_order_status_rollup"};
+
+    private static final String UPSERT_SALES_SQL =
+            "INSERT INTO daily_sales_rollup (sales_date, store_key, channel, revenue, order_count, units) " +
+            "VALUES (?, ?, ?, ?, ?, ?) ON DUPLICATE KEY UPDATE revenue = revenue + VALUES(revenue), " +
+            "order_count = order_count + VALUES(order_count), units = units + VALUES(units)";
+
+    private static final String UPSERT_PRODUCT_SALES_SQL =
+            "INSERT INTO daily_product_sales_rollup (sales_date, store_key, channel, product_id, revenue, order_count, units) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?) ON DUPLICATE KEY UPDATE revenue = revenue + VALUES(revenue), " +
+            "order_count = order_count + VALUES(order_count), units = units + VALUES(units)";
+
+    private static final String UPSERT_STATUS_SQL =
+            "INSERT INTO daily_order_status_rollup (sales_date, store_key, channel, status, order_count) " +
+            "VALUES (?, ?, ?, ?, ?) ON DUPLICATE KEY UPDATE order_count = order_count + VALUES(order_count)";
+
+    // Backfill sources; plain SELECTs so they read a snapshot without locking orders
+    private static final String SOURCE_SALES_SQL =
+            "SELECT DATE(o.created_at), COALESCE(o.store_location, ''), UPPER(o.order_type), " +
+            "SUM(o.total_amount), COUNT(*), COALESCE(SUM(u.units), 0) FROM orders o " +
+            "LEFT JOIN (SELECT oi.order_id, SUM(oi.quantity) AS units FROM order_items oi " +
+            "JOIN orders o2 ON o2.order_id = oi.order_id WHERE o2.created_at >= ? AND o2.created_at < ? " +
+            "GROUP BY oi.order_id) u ON u.order_id = o.order_id " +
+            "WHERE o.status <> 'CANCELLED' AND o.created_at >= ? AND o.created_at < ? " +
+            "GROUP BY DATE(o.created_at), COALESCE(o.store_location, ''), UPPER(o.order_type)";
+
+    private static final String SOURCE_PRODUCT_SALES_SQL =
+            "SELECT DATE(o.created_at), COALESCE(o.store_location, ''), UPPER(o.order_type), oi.product_id, " +
+            "SUM(oi.subtotal), COUNT(DISTINCT o.order_id), SUM(oi.quantity) FROM order_items oi " +
+            "JOIN orders o ON o.order_id = oi.order_id " +
+            "WHERE o.status <> 'CANCELLED' AND o.created_at >= ? AND o.created_at < ? " +
+            "GROUP BY DATE(o.created_at), COALESCE(o.store_location, ''), UPPER(o.order_type), oi.product_id";
+
+    private static final String SOURCE_STATUS_SQL =
+            "SELECT DATE(created_at), COALESCE(store_location, ''), UPPER(order_type), status, COUNT(*) FROM orders " +
+            "WHERE created_at >= ? AND created_at < ? " +
+            "GROUP BY DATE(created_at), COALESCE(store_location, ''), UPPER(order_type), status";
+
+    private static final String SUM_SALES_SQL =
+            "SELECT COALESCE(SUM(revenue), 0), COALESCE(SUM(order_count), 0), COALESCE(SUM(units), 0) " +
+            "FROM daily_sales_rollup WHERE sales_date BETWEEN ? AND ?";
+
+    private static final String DAILY_REVENUE_CENTS_SQL =
+            "SELECT sales_date, CAST(ROUND(SUM(revenue) * 100) AS SIGNED), SUM(order_count) FROM daily_sales_rollup " +
+            "WHERE sales_date BETWEEN ? AND ? GROUP BY sales_date";
+
+    // Breakdown dimensions; the column name is substituted into the grouped queries below
+    private static final String STORE_COLUMN = "store_key";
+    private static final String CHANNEL_COLUMN = "channel";
+
+    private static final String SUM_SALES_GROUPED_SQL =
+            "SELECT %1$s, SUM(revenue), SUM(order_count), SUM(units) FROM daily_sales_rollup " +
+            "WHERE sales_date BETWEEN ? AND ? GROUP BY %1$s ORDER BY SUM(revenue) DESC";
+
+    // Top products within each group, ranked by units
+    private static final String TOP_PRODUCTS_GROUPED_SQL =
+            "SELECT t.grp, t.product_id, COALESCE(p.name, 'Unknown Product'), p.sku, t.units, t.revenue FROM (" +
+            "SELECT %1$s AS grp, product_id, SUM(units) AS units, SUM(revenue) AS revenue, " +
+            "ROW_NUMBER() OVER (PARTITION BY %1$s ORDER BY SUM(units) DESC) AS rn FROM daily_product_sales_rollup " +
+            "WHERE sales_date BETWEEN ? AND ? GROUP BY %1$s, product_id) t " +
+            "LEFT JOIN products p ON p.product_id = t.product_id WHERE t.rn <= ? ORDER BY t.grp, t.rn";
+
+    private static final String TOP_PRODUCTS_SQL =
+            "SELECT r.product_id, COALESCE(MAX(p.name), 'Unknown Product'), MAX(p.sku), SUM(r.units), SUM(r.revenue) " +
+            "FROM daily_product_sales_rollup r LEFT JOIN products p ON p.product_id = r.product_id " +
+            "WHERE r.sales_date BETWEEN ? AND ? GROUP BY r.product_id ORDER BY SUM(r.units) DESC LIMIT ?";
+
+    // Revenue in whole cents so callers can accumulate in primitive longs
+    private static final String PRODUCT_REVENUE_CENTS_SQL =
+            "SELECT product_id, CAST(ROUND(SUM(revenue) * 100) AS SIGNED) FROM daily_product_sales_rollup " +
+            "WHERE sales_date BETWEEN ? AND ? GROUP BY product_id";
+
+    private static final String STATUS_COUNTS_SQL =
+            "SELECT status, SUM(order_count) FROM daily_order_status_rollup " +
+            "WHERE sales_date BETWEEN ? AND ? GROUP BY status";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // Incremental updates
+
+    public void addSales(LocalDate day, String storeKey, String channel, BigDecimal revenue, long orders, long units) {
+        jdbcTemplate.update(UPSERT_SALES_SQL, Date.valueOf(day), storeKey, channel, revenue, orders, units);
+    }
+
+    public void addProductSales(LocalDate day, String storeKey, String channel, List<ProductSales> products) {
+        jdbcTemplate.batchUpdate(UPSERT_PRODUCT_SALES_SQL, products, products.size(), (ps, p) -> {
+            ps.setDate(1, Date.valueOf(day));
+            ps.setString(2, storeKey);
+            ps.setString(3, channel);
+            ps.setLong(4, p.getProductId());
+            ps.setBigDecimal(5, p.getRevenue());
+            ps.setLong(6, p.getOrderCount());
+            ps.setLong(7, p.getUnits());
+        });
+    }
+
+    public void addStatusCount(LocalDate day, String storeKey, String channel, String status, long delta) {
+        jdbcTemplate.update(UPSERT_STATUS_SQL, Date.valueOf(day), storeKey, channel, status, delta);
+    }
+
+    // Backfill
+
+    public LocalDate findFirstOrderDate() {
+        Date first = jdbcTemplate.queryForObject("SELECT MIN(DATE(created_at)) FROM orders", Date.class);
+        return first != null ? first.toLocalDate() : null;
+    }
+
+    public boolean isEmpty() {
+        Integer rows = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM (SELECT 1 FROM daily_order_status_rollup LIMIT 1) t",
+                Integer.class);
+        return rows == null || rows == 0;
+    }
+
+    public void deleteRange(LocalDate from, LocalDate toExclusive) {
+        for (String table : ROLLUP_TABLES) {
+            jdbcTemplate.update("DELETE FROM " + table + " WHERE sales_date >= ? AND sales_date < ?",
+                    Date.valueOf(from), Date.valueOf(toExclusive));
+        }
+    }
+
+    /**
+     * Recomputes all rollup rows for days in [from, toExclusive) from orders. The range must
+     * have been cleared first.
+     *
+     * @return rollup rows written
+     */
+    public int rebuildRange(LocalDate from, LocalDate toExclusive) {
+        Timestamp start = Timestamp.valueOf(from.atStartOfDay());
+        Timestamp end = Timestamp.valueOf(toExclusive.atStartOfDay());
+
+        List<Object[]> sales = new ArrayList<>();
+        jdbcTemplate.query(SOURCE_SALES_SQL, (RowCallbackHandler) rs -> sales.add(new Object[]{
+                rs.getDate(1), rs.getString(2), rs.getString(3), rs.getBigDecimal(4), rs.getLong(5), rs.getLong(6)
+        }), start, end, start, end);
+        if (!sales.isEmpty()) {
+            jdbcTemplate.batchUpdate(UPSERT_SALES_SQL, sales);
+        }
+
+        List<Object[]> products = new ArrayList<>();
+        jdbcTemplate.query(SOURCE_PRODUCT_SALES_SQL, (RowCallbackHandler) rs -> products.add(new Object[]{
+                rs.getDate(1), rs.getString(2), rs.getString(3), rs.getLong(4), rs.getBigDecimal(5),
+                rs.getLong(6), rs.getLong(7)
+        }), start, end);
+        if (!products.isEmpty()) {
+            jdbcTemplate.batchUpdate(UPSERT_PRODUCT_SALES_SQL, products);
+        }
+
+        List<Object[]> statuses = new ArrayList<>();
+        jdbcTemplate.query(SOURCE_STATUS_SQL, (RowCallbackHandler) rs -> statuses.add(new Object[]{
+                rs.getDate(1), rs.getString(2), rs.getString(3), rs.getString(4), rs.getLong(5)
+        }), start, end);
+        if (!statuses.isEmpty()) {
+            jdbcTemplate.batchUpdate(UPSERT_STATUS_SQL, statuses);
+        }
+
+        return sales.size() + products.size() + statuses.size();
+    }
+
+    // Dashboard reads; date bounds are inclusive
+
+    public SalesTotals sumSales(LocalDate from, LocalDate to) {
+        return jdbcTemplate.queryForObject(SUM_SALES_SQL,
+                (rs, i) -> new SalesTotals(rs.getBigDecimal(1), rs.getLong(2), rs.getLong(3)),
+                Date.valueOf(from), Date.valueOf(to));
+    }
+
+    /**
+     * Streams revenue and order count per day with sales in the range, one day per call.
+     */
+    public void forEachDailySales(LocalDate from, LocalDate to, DailySalesHandler handler) {
+        jdbcTemplate.query(DAILY_REVENUE_CENTS_SQL, (RowCallbackHandler) rs ->
+                handler.accept(rs.getDate(1).toLocalDate().toEpochDay(), rs.getLong(2), rs.getLong(3)),
+                Date.valueOf(from), Date.valueOf(to));
+    }
+
+    public List<SalesAnalyticsDTO.TopProductDTO> findTopProducts(LocalDate from, LocalDate to, int limit) {
+        return jdbcTemplate.query(TOP_PRODUCTS_SQL, (rs, i) -> new SalesAnalyticsDTO.TopProductDTO(
+                rs.getLong(1), rs.getString(2), rs.getString(3), rs.getLong(4), rs.getBigDecimal(5)),
+                Date.valueOf(from), Date.valueOf(to), limit);
+    }
+
+    public List<GroupTotals> sumSalesByStore(LocalDate from, LocalDate to) {
+        return sumSalesGrouped(STORE_COLUMN, from, to);
+    }
+
+    public List<GroupTotals> sumSalesByChannel(LocalDate from, LocalDate to) {
+        return sumSalesGrouped(CHANNEL_COLUMN, from, to);
+    }
+
+    public Map<String, List<SalesAnalyticsDTO.TopProductDTO>> findTopProductsByStore(LocalDate from, LocalDate to, int limit) {
+        return findTopProductsGrouped(STORE_COLUMN, from, to, limit);
+    }
+
+    public Map<String, List<SalesAnalyticsDTO.TopProductDTO>> findTopProductsByChannel(LocalDate from, LocalDate to, int limit) {
+        return findTopProductsGrouped(CHANNEL_COLUMN, from, to, limit);
+    }
+
+    /**
+     * Streams total revenue per product sold in the range, one product per call.
+     */
+    public void forEachProductRevenue(LocalDate from, LocalDate to, ProductRevenueHandler handler) {
+        jdbcTemplate.query(PRODUCT_REVENUE_CENTS_SQL, (RowCallbackHandler) rs -> handler.accept(rs.getLong(1), rs.getLong(2)),
+                Date.valueOf(from), Date.valueOf(to));
+    }
+
+    public Map<String, Long> countOrdersByStatus(LocalDate from, LocalDate to) {
+        Map<String, Long> counts = new HashMap<>();
+        jdbcTemplate.query(STATUS_COUNTS_SQL, (RowCallbackHandler) rs -> counts.put(rs.getString(1), rs.getLong(2)),
+                Date.valueOf(from), Date.valueOf(to));
+        return counts;
+    }
+
+    private List<GroupTotals> sumSalesGrouped(String column, LocalDate from, LocalDate to) {
+        return jdbcTemplate.query(String.format(SUM_SALES_GROUPED_SQL, column), (rs, i) -> new GroupTotals(
+                rs.getString(1), new SalesTotals(rs.getBigDecimal(2), rs.getLong(3), rs.getLong(4))),
+                Date.valueOf(from), Date.valueOf(to));
+    }
+
+    private Map<String, List<SalesAnalyticsDTO.TopProductDTO>> findTopProductsGrouped(String column, LocalDate from,
+                                                                                    LocalDate to, int limit) {
+        Map<String, List<SalesAnalyticsDTO.TopProductDTO>> byGroup = new HashMap<>();
+        jdbcTemplate.query(String.format(TOP_PRODUCTS_GROUPED_SQL, column), (RowCallbackHandler) rs ->
+                byGroup.computeIfAbsent(rs.getString(1), k -> new ArrayList<>()).add(new SalesAnalyticsDTO.TopProductDTO(
+                        rs.getLong(2), rs.getString(3), rs.getString(4), rs.getLong(5), rs.getBigDecimal(6))),
+                Date.valueOf(from), Date.valueOf(to), limit);
+        return byGroup;
+    }
+
+    @FunctionalInterface
+    public interface DailySalesHandler {
+        void accept(long epochDay, long revenueCents, long orderCount);
+    }
+
+    @FunctionalInterface
+    public interface ProductRevenueHandler {
+        void accept(long productId, long revenueCents);
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class ProductSales {
+        private final long productId;
+        private final BigDecimal revenue;
+        private final long orderCount;
+        private final long units;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class SalesTotals {
+        private final BigDecimal revenue;
+        private final long orderCount;
+        private final long units;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class GroupTotals {
+        private final String key;
+        private final SalesTotals totals;
+    }
+}
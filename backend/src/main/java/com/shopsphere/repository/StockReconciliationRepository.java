@@ -0,0 +1,84 @@
+package com.shopsphere.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keyset-paged reads and guarded batch repairs for product-versus-store stock reconciliation.
+ * Only ids and quantities are read, never full entities.
+ */
+@Repository
+@RequiredArgsConstructor
+public class StockReconciliationRepository {
+
+    private static final String PRODUCT_CHUNK_SQL =
+            "SELECT product_id, stock_quantity FROM products WHERE product_id > ? ORDER BY product_id LIMIT ?";
+
+    private static final String STORE_TOTALS_SQL =
+            "SELECT product_id, SUM(stock_quantity) FROM store_product_inventory " +
+            "WHERE product_id BETWEEN ? AND ? GROUP BY product_id";
+
+    // Only repairs a product whose stock is still the value the comparison saw
+    private static final String REPAIR_SQL =
+            "UPDATE products SET stock_quantity = ?, updated_at = ? WHERE product_id = ? AND stock_quantity = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Reads the next chunk of products after {@code afterProductId}, in id order.
+     *
+     * @return parallel arrays [ids, stock]; empty arrays when there are no more products
+     */
+    public ProductChunk findProductChunk(long afterProductId, int chunkSize) {
+        long[] ids = new long[chunkSize];
+        int[] stock = new int[chunkSize];
+        int[] count = {0};
+        jdbcTemplate.query(PRODUCT_CHUNK_SQL, (RowCallbackHandler) rs -> {
+            ids[count[0]] = rs.getLong(1);
+            stock[count[0]] = rs.getInt(2);
+            count[0]++;
+        }, afterProductId, chunkSize);
+        return new ProductChunk(ids, stock, count[0]);
+    }
+
+    public Map<Long, Integer> findStoreTotals(long fromProductId, long toProductId) {
+        Map<Long, Integer> totals = new HashMap<>();
+        jdbcTemplate.query(STORE_TOTALS_SQL, (RowCallbackHandler) rs -> totals.put(rs.getLong(1), rs.getInt(2)),
+                fromProductId, toProductId);
+        return totals;
+    }
+
+    /**
+     * @param repairs rows of {productId, expectedCurrentStock, newStock}
+     * @return update count per repair (0 when the product changed since it was read)
+     */
+    public int[] repairProductStock(List<long[]> repairs) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        return jdbcTemplate.batchUpdate(REPAIR_SQL, repairs, repairs.size(), (ps, r) -> {
+            ps.setInt(1, (int) r[2]);
+            ps.setTimestamp(2, now);
+            ps.setLong(3, r[0]);
+            ps.setInt(4, (int) r[1]);
+        })[0];
+    }
+
+    public static class ProductChunk {
+        public final long[] productIds;
+        public final int[] stockQuantities;
+        public final int size;
+
+        ProductChunk(long[] productIds, int[] stockQuantities, int size) {
+            this.productIds = productIds;
+            this.stockQuantities = stockQuantities;
+            this.size = size;
+        }
+    }
+}
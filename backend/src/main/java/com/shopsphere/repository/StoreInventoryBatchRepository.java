@@ -0,0 +1,99 @@
+package com.shopsphere.repository;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * JDBC batch operations on store inventory that would otherwise cost one JPA round trip
+ * per row. Callers are expected to run inside a transaction and to pass rows already
+ * sorted by (productId, storeLocation) so that concurrent batches lock rows in the same order.
+ */
+@Repository
+@RequiredArgsConstructor
+public class StoreInventoryBatchRepository {
+
+    // Assignments run left to right, so an increase sets the allocation base to the new stock
+    private static final String APPLY_DELTA_SQL =
+            "UPDATE store_product_inventory SET stock_quantity = stock_quantity + ?, " +
+            "allocation_base = CASE WHEN ? > 0 THEN stock_quantity ELSE allocation_base END, updated_at = ? " +
+            "WHERE product_id = ? AND store_location = ? AND stock_quantity + ? >= 0";
+
+    private static final String SET_QUANTITY_SQL =
+            "UPDATE store_product_inventory SET stock_quantity = ?, allocation_base = ?, updated_at = ? " +
+            "WHERE product_id = ? AND store_location = ?";
+
+    private static final String SYNC_PRODUCT_STOCK_SQL =
+            "UPDATE products SET stock_quantity = (SELECT COALESCE(SUM(s.stock_quantity), 0) " +
+            "FROM store_product_inventory s WHERE s.product_id = ?), updated_at = ? WHERE product_id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Applies guarded adjustments in one JDBC batch. An entry with a delta only applies when the
+     * resulting stock stays non-negative; an entry without a delta sets the absolute quantity.
+     *
+     * @return the update count per entry (0 means the row is missing or the guard rejected it)
+     */
+    public int[] applyAdjustments(List<Adjustment> adjustments) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        int[] counts = new int[adjustments.size()];
+        // Deltas and absolute sets are different statements; run them in input order, grouping
+        // consecutive entries of the same kind into one batch so the lock order is preserved.
+        int start = 0;
+        while (start < adjustments.size()) {
+            boolean isDelta = adjustments.get(start).getDelta() != null;
+            int end = start;
+            while (end < adjustments.size() && (adjustments.get(end).getDelta() != null) == isDelta) {
+                end++;
+            }
+            List<Adjustment> run = adjustments.subList(start, end);
+            int[] runCounts = isDelta
+                    ? jdbcTemplate.batchUpdate(APPLY_DELTA_SQL, run, run.size(), (ps, a) -> {
+                        ps.setInt(1, a.getDelta());
+                        ps.setInt(2, a.getDelta());
+                        ps.setTimestamp(3, now);
+                        ps.setLong(4, a.getProductId());
+                        ps.setString(5, a.getStoreLocation());
+                        ps.setInt(6, a.getDelta());
+                    })[0]
+                    : jdbcTemplate.batchUpdate(SET_QUANTITY_SQL, run, run.size(), (ps, a) -> {
+                        ps.setInt(1, a.getQuantity());
+                        ps.setInt(2, a.getQuantity());
+                        ps.setTimestamp(3, now);
+                        ps.setLong(4, a.getProductId());
+                        ps.setString(5, a.getStoreLocation());
+                    })[0];
+            System.arraycopy(runCounts, 0, counts, start, runCounts.length);
+            start = end;
+        }
+        return counts;
+    }
+
+    /**
+     * Recomputes Product.stockQuantity as the sum of its store rows, one batched statement per product.
+     */
+    public void syncProductTotalStock(List<Long> productIds) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(SYNC_PRODUCT_STOCK_SQL, productIds, productIds.size(), (ps, productId) -> {
+            ps.setLong(1, productId);
+            ps.setTimestamp(2, now);
+            ps.setLong(3, productId);
+        });
+    }
+
+    @Data
+    @AllArgsConstructor
+    public static class Adjustment {
+        private Long productId;
+        private String storeLocation;
+        private Integer delta;
+        private Integer quantity;
+    }
+}
@@ -1,27 +1,67 @@
 package com.shopsphere.repository;
 
+import com.shopsphere.dto.StoreInventoryDTO;
 import com.shopsphere.entity.StoreProductInventory;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface StoreProductInventoryRepository extends JpaRepository<StoreProductInventory, Long> {
 
+    // Demand-driven reorder point of the store row, or :threshold when it has no order history
+    String STORE_REORDER_POINT = "COALESCE((SELECT r.reorderPoint FROM ReorderPoint r " +
+            "WHERE r.productId = s.productId AND r.storeLocation = s.storeLocation), :threshold)";
+
     // Find inventory by product ID
     List<StoreProductInventory> findByProductId(Long productId);
 
+    // Unmanaged copies of a product's rows, read from the database even when a persistence
+    // context that already holds some of them (possibly stale) is still open
+    @Query("SELECT new com.shopsphere.entity.StoreProductInventory(s.inventoryId, s.productId, s.storeLocation, " +
+           "s.stockQuantity, s.allocationBase, s.isAvailable, s.createdAt, s.updatedAt) " +
+           "FROM StoreProductInventory s WHERE s.productId = :productId")
+    List<StoreProductInventory> findCurrentByProductId(@Param("productId") Long productId);
+
+    // Unmanaged copies of every row, for bulk reads that must not fill the persistence context
+    @Query("SELECT new com.shopsphere.entity.StoreProductInventory(s.inventoryId, s.productId, s.storeLocation, " +
+           "s.stockQuantity, s.allocationBase, s.isAvailable, s.createdAt, s.updatedAt) " +
+           "FROM StoreProductInventory s")
+    List<StoreProductInventory> findAllCurrent();
+
+    // Unmanaged copy of one store row, read from the database; see findCurrentByProductId
+    @Query("SELECT new com.shopsphere.entity.StoreProductInventory(s.inventoryId, s.productId, s.storeLocation, " +
+           "s.stockQuantity, s.allocationBase, s.isAvailable, s.createdAt, s.updatedAt) " +
+           "FROM StoreProductInventory s WHERE s.productId = :productId AND s.storeLocation = :storeLocation")
+    Optional<StoreProductInventory> findCurrent(@Param("productId") Long productId,
+                                                @Param("storeLocation") String storeLocation);
+
     // Find inventory by store location
     List<StoreProductInventory> findByStoreLocation(String storeLocation);
 
     // Find inventory by product and store
     Optional<StoreProductInventory> findByProductIdAndStoreLocation(Long productId, String storeLocation);
 
+    // Same row, locked (SELECT ... FOR UPDATE) until the transaction ends; for read-modify-write
+    // updates that must not overwrite concurrent delta updates such as the hot-SKU flush
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM StoreProductInventory s WHERE s.productId = :productId AND s.storeLocation = :storeLocation")
+    Optional<StoreProductInventory> findForUpdate(@Param("productId") Long productId,
+                                                  @Param("storeLocation") String storeLocation);
+
+    // Check if an inventory row exists for a product and store
+    boolean existsByProductIdAndStoreLocation(Long productId, String storeLocation);
+
     // Check if product is available at a specific store
     @Query("SELECT CASE WHEN COUNT(s) > 0 THEN true ELSE false END FROM StoreProductInventory s " +
            "WHERE s.productId = :productId AND s.storeLocation = :storeLocation " +
@@ -29,6 +69,17 @@ public interface StoreProductInventoryRepository extends JpaRepository<StoreProd
     boolean isProductAvailableAtStore(@Param("productId") Long productId, 
                                      @Param("storeLocation") String storeLocation);
 
+    // Available stock rows for a set of products (one query for a whole product grid)
+    @Query("SELECT s FROM StoreProductInventory s WHERE s.productId IN :productIds " +
+           "AND s.isAvailable = true AND s.stockQuantity > 0")
+    List<StoreProductInventory> findAvailableByProductIds(@Param("productIds") Collection<Long> productIds);
+
+    // Available stock rows for a set of products restricted to a set of stores
+    @Query("SELECT s FROM StoreProductInventory s WHERE s.productId IN :productIds " +
+           "AND s.storeLocation IN :storeLocations AND s.isAvailable = true AND s.stockQuantity > 0")
+    List<StoreProductInventory> findAvailableByProductIdsAndStores(@Param("productIds") Collection<Long> productIds,
+                                                                   @Param("storeLocations") Collection<String> storeLocations);
+
     // Find all available products at a store
     @Query("SELECT s FROM StoreProductInventory s WHERE s.storeLocation = :storeLocation " +
            "AND s.isAvailable = true AND s.stockQuantity > 0")
@@ -36,10 +87,33 @@ public interface StoreProductInventoryRepository extends JpaRepository<StoreProd
 
     // Find low stock items at a store
     @Query("SELECT s FROM StoreProductInventory s WHERE s.storeLocation = :storeLocation " +
-           "AND s.stockQuantity <= :threshold AND s.isAvailable = true")
+           "AND s.stockQuantity <= " + STORE_REORDER_POINT + " AND s.isAvailable = true")
     List<StoreProductInventory> findLowStockAtStore(@Param("storeLocation") String storeLocation, 
                                                      @Param("threshold") int threshold);
 
+    // Store inventory view joined with product names in a single query
+    @Query(value = "SELECT new com.shopsphere.dto.StoreInventoryDTO(s.inventoryId, s.productId, " +
+                   "COALESCE(p.name, 'Unknown Product'), s.storeLocation, s.stockQuantity, s.isAvailable, " +
+                   "s.createdAt, s.updatedAt) " +
+                   "FROM StoreProductInventory s LEFT JOIN Product p ON p.productId = s.productId " +
+                   "WHERE s.storeLocation = :storeLocation",
+           countQuery = "SELECT COUNT(s) FROM StoreProductInventory s WHERE s.storeLocation = :storeLocation")
+    Page<StoreInventoryDTO> findInventoryViewsByStore(@Param("storeLocation") String storeLocation,
+                                                      Pageable pageable);
+
+    // Low stock view at a store joined with product names in a single query
+    @Query(value = "SELECT new com.shopsphere.dto.StoreInventoryDTO(s.inventoryId, s.productId, " +
+                   "COALESCE(p.name, 'Unknown Product'), s.storeLocation, s.stockQuantity, s.isAvailable, " +
+                   "s.createdAt, s.updatedAt) " +
+                   "FROM StoreProductInventory s LEFT JOIN Product p ON p.productId = s.productId " +
+                   "WHERE s.storeLocation = :storeLocation AND s.stockQuantity <= " + STORE_REORDER_POINT +
+                   " AND s.isAvailable = true",
+           countQuery = "SELECT COUNT(s) FROM StoreProductInventory s WHERE s.storeLocation = :storeLocation " +
+                        "AND s.stockQuantity <= " + STORE_REORDER_POINT + " AND s.isAvailable = true")
+    Page<StoreInventoryDTO> findLowStockViewsAtStore(@Param("storeLocation") String storeLocation,
+                                                     @Param("threshold") int threshold,
+                                                     Pageable pageable);
+
     // Get all distinct store locations
     @Query("SELECT DISTINCT s.storeLocation FROM StoreProductInventory s")
     List<String> findAllStoreLocations();
@@ -0,0 +1,13 @@
+package com.shopsphere.repository;
+
+import com.shopsphere.entity.Store;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface StoreRepository extends JpaRepository<Store, Long> {
+
+    Optional<Store> findByStoreLocation(String storeLocation);
+}
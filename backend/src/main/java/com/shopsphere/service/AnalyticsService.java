@@ -1,61 +1,186 @@
 package com.shopsphere.service;
 
+import com.shopsphere.analytics.ProductCategoryIndex;
+import com.shopsphere.analytics.WindowedRevenueAggregator;
 import com.shopsphere.dto.SalesAnalyticsDTO;
-import com.shopsphere.entity.Order;
-import com.shopsphere.entity.OrderItem;
-import com.shopsphere.entity.Product;
-import com.shopsphere.repository.OrderRepository;
-import com.shopsphere.repository.ProductRepository;
+import com.shopsphere.dto.SalesBreakdownDTO;
+import com.shopsphere.event.OrderEvent;
+import com.shopsphere.repository.SalesRollupRepository;
 import com.shopsphere.repository.UserRepository;
+import com.shopsphere.util.Money;
 import lombok.RequiredArgsConstructor;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
 
 import java.math.BigDecimal;
-import java.math.RoundingMode;
+import java.time.Clock;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
-import java.util.*;
-import java.util.stream.Collectors;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class AnalyticsService {
 
-    private final OrderRepository orderRepository;
-    private final ProductRepository productRepository;
-    private final UserRepository userRepository;
+    // Day buckets read per computation: the current and the previous 30-day window
+    private static final int WINDOW_HORIZON_DAYS = 60;
 
-    @Transactional(readOnly = true)
+    private final SalesRollupRepository rollupRepository;
+    private final UserRepository userRepository;
+    private final CategoryIndexService categoryIndexService;
+    // Source of "today" for the time windows
+    private final Clock clock;
+
+    @Value("${shopsphere.analytics.cache.ttl-ms:30000}")
+    private long cacheTtlMs;
+
+    // An expired or invalidated result is still served, while one refresh runs, up to this age
+    @Value("${shopsphere.analytics.cache.max-stale-ms:300000}")
+    private long cacheMaxStaleMs;
+
+    private final AtomicLong generation = new AtomicLong();
+    private final AtomicReference<CompletableFuture<SalesAnalyticsDTO>> inFlight = new AtomicReference<>();
+    private final ExecutorService refresher = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "analytics-refresh");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private volatile CachedAnalytics cached;
+    private volatile long lastReadMillis;
+
+    /**
+     * Dashboard analytics, served from cache. A fresh result is returned as is; an expired or
+     * invalidated one is returned while a single background refresh recomputes it. Only when
+     * nothing usable is cached does the caller wait, and concurrent callers then share one
+     * computation. {@link SalesAnalyticsDTO#getSnapshotAt()} tells when the figures were taken.
+     */
     public SalesAnalyticsDTO getComprehensiveAnalytics() {
+        long now = System.currentTimeMillis();
+        lastReadMillis = now;
+        CachedAnalytics entry = cached;
+        if (entry != null) {
+            long age = now - entry.computedAtMillis;
+            if (age < cacheTtlMs && entry.generation == generation.get()) {
+                return entry.analytics;
+            }
+            if (age < cacheMaxStaleMs) {
+                startRefresh(true);
+                return entry.analytics;
+            }
+        }
+        try {
+            return startRefresh(false).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Revenue, orders, average order value and top products per store and per channel for
+     * orders created in [from, to], read from the daily rollups.
+     */
+    public SalesBreakdownDTO getStoreChannelBreakdown(LocalDate from, LocalDate to, int topProducts) {
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("Start date must not be after end date");
+        }
+        List<SalesBreakdownDTO.SegmentDTO> stores = toSegments(rollupRepository.sumSalesByStore(from, to),
+                rollupRepository.findTopProductsByStore(from, to, topProducts));
+        List<SalesBreakdownDTO.SegmentDTO> channels = toSegments(rollupRepository.sumSalesByChannel(from, to),
+                rollupRepository.findTopProductsByChannel(from, to, topProducts));
+        return new SalesBreakdownDTO(from, to, stores, channels);
+    }
+
+    // Orders created or changing status make the cached figures out of date
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onOrderEvent(OrderEvent event) {
+        generation.incrementAndGet();
+    }
+
+    // Keeps polled dashboards warm: refreshes an out-of-date result if it was read since it was computed
+    @Scheduled(fixedDelayString = "${shopsphere.analytics.cache.refresh-interval-ms:10000}")
+    public void refreshIfRead() {
+        CachedAnalytics entry = cached;
+        if (entry != null && lastReadMillis > entry.computedAtMillis
+                && (entry.generation != generation.get()
+                    || System.currentTimeMillis() - entry.computedAtMillis >= cacheTtlMs)) {
+            startRefresh(true);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        refresher.shutdownNow();
+    }
+
+    // Single flight: joins the running computation or starts one, on the caller or in the background
+    private CompletableFuture<SalesAnalyticsDTO> startRefresh(boolean background) {
+        while (true) {
+            CompletableFuture<SalesAnalyticsDTO> running = inFlight.get();
+            if (running != null) {
+                return running;
+            }
+            CompletableFuture<SalesAnalyticsDTO> future = new CompletableFuture<>();
+            if (inFlight.compareAndSet(null, future)) {
+                if (background) {
+                    refresher.execute(() -> runRefresh(future));
+                } else {
+                    runRefresh(future);
+                }
+                return future;
+            }
+        }
+    }
+
+    private void runRefresh(CompletableFuture<SalesAnalyticsDTO> future) {
+        long startGeneration = generation.get();
+        try {
+            SalesAnalyticsDTO analytics = computeComprehensiveAnalytics();
+            cached = new CachedAnalytics(analytics, startGeneration, System.currentTimeMillis());
+            inFlight.compareAndSet(future, null);
+            future.complete(analytics);
+        } catch (RuntimeException e) {
+            log.error("Analytics computation failed: {}", e.getMessage());
+            inFlight.compareAndSet(future, null);
+            future.completeExceptionally(e);
+        }
+    }
+
+    private SalesAnalyticsDTO computeComprehensiveAnalytics() {
         log.info("Generating comprehensive sales analytics");
 
         SalesAnalyticsDTO analytics = new SalesAnalyticsDTO();
+        analytics.setSnapshotAt(LocalDateTime.now());
 
-        // Get all orders (excluding cancelled for revenue)
-        List<Order> allOrders = orderRepository.findAll();
-        List<Order> completedOrders = allOrders.stream()
-                .filter(o -> !o.getStatus().equals("CANCELLED"))
-                .collect(Collectors.toList());
-
-        // Calculate total revenue and orders
-        BigDecimal totalRevenue = completedOrders.stream()
-                .map(Order::getTotalAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        // Totals over all non-cancelled orders
+        SalesRollupRepository.SalesTotals allTime = rollupRepository.sumSales(
+                SalesRollupRepository.MIN_DATE, SalesRollupRepository.MAX_DATE);
+        BigDecimal totalRevenue = allTime.getRevenue();
+        long totalOrders = allTime.getOrderCount();
         analytics.setTotalRevenue(totalRevenue);
-        analytics.setTotalOrders((long) completedOrders.size());
+        analytics.setTotalOrders(totalOrders);
 
         // Calculate average order value
-        if (!completedOrders.isEmpty()) {
-            BigDecimal avgOrderValue = totalRevenue.divide(
-                    BigDecimal.valueOf(completedOrders.size()),
-                    2,
-                    RoundingMode.HALF_UP
-            );
-            analytics.setAverageOrderValue(avgOrderValue);
+        if (totalOrders > 0) {
+            Money avgOrderValue = Money.of(totalRevenue).dividedBy(totalOrders);
+            analytics.setAverageOrderValue(avgOrderValue.toBigDecimal());
         } else {
             analytics.setAverageOrderValue(BigDecimal.ZERO);
         }
@@ -64,83 +189,34 @@ public class AnalyticsService {
         Long totalCustomers = userRepository.countByRole("CUSTOMER");
         analytics.setTotalCustomers(totalCustomers);
 
-        // Time-based metrics
-        LocalDateTime now = LocalDateTime.now();
-        LocalDateTime startOfToday = now.toLocalDate().atStartOfDay();
-        LocalDateTime startOfWeek = now.minusDays(7);
-        LocalDateTime startOfMonth = now.minusDays(30);
+        // Time-based metrics over whole days (rollups are daily): week = last 7 days, month = last 30.
+        // Each day of the last 60 is read once into day buckets; every window is then a bucket range.
+        LocalDate today = LocalDate.now(clock);
+        WindowedRevenueAggregator windows = new WindowedRevenueAggregator(today.toEpochDay(), WINDOW_HORIZON_DAYS);
+        rollupRepository.forEachDailySales(today.minusDays(WINDOW_HORIZON_DAYS - 1), today, windows::add);
 
         // Today's metrics
-        List<Order> todayOrders = completedOrders.stream()
-                .filter(o -> o.getCreatedAt().isAfter(startOfToday))
-                .collect(Collectors.toList());
-        analytics.setOrdersToday((long) todayOrders.size());
-        analytics.setRevenueToday(
-                todayOrders.stream()
-                        .map(Order::getTotalAmount)
-                        .reduce(BigDecimal.ZERO, BigDecimal::add)
-        );
+        analytics.setOrdersToday(windows.orders(0, 1));
+        analytics.setRevenueToday(Money.ofCents(windows.revenueCents(0, 1)).toBigDecimal());
 
         // This week's metrics
-        List<Order> weekOrders = completedOrders.stream()
-                .filter(o -> o.getCreatedAt().isAfter(startOfWeek))
-                .collect(Collectors.toList());
-        analytics.setOrdersThisWeek((long) weekOrders.size());
-        analytics.setRevenueThisWeek(
-                weekOrders.stream()
-                        .map(Order::getTotalAmount)
-                        .reduce(BigDecimal.ZERO, BigDecimal::add)
-        );
+        analytics.setOrdersThisWeek(windows.orders(0, 7));
+        analytics.setRevenueThisWeek(Money.ofCents(windows.revenueCents(0, 7)).toBigDecimal());
 
         // This month's metrics
-        List<Order> monthOrders = completedOrders.stream()
-                .filter(o -> o.getCreatedAt().isAfter(startOfMonth))
-                .collect(Collectors.toList());
-        analytics.setOrdersThisMonth((long) monthOrders.size());
-        analytics.setRevenueThisMonth(
-                monthOrders.stream()
-                        .map(Order::getTotalAmount)
-                        .reduce(BigDecimal.ZERO, BigDecimal::add)
-        );
+        analytics.setOrdersThisMonth(windows.orders(0, 30));
+        analytics.setRevenueThisMonth(Money.ofCents(windows.revenueCents(0, 30)).toBigDecimal());
 
         // Growth percentages (comparing last 30 days to previous 30 days)
-        LocalDateTime startOfPreviousMonth = now.minusDays(60);
-        LocalDateTime endOfPreviousMonth = now.minusDays(30);
-        
-        List<Order> previousMonthOrders = completedOrders.stream()
-                .filter(o -> o.getCreatedAt().isAfter(startOfPreviousMonth) 
-                        && o.getCreatedAt().isBefore(endOfPreviousMonth))
-                .collect(Collectors.toList());
-        
-        BigDecimal previousMonthRevenue = previousMonthOrders.stream()
-                .map(Order::getTotalAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-        if (previousMonthRevenue.compareTo(BigDecimal.ZERO) > 0) {
-            BigDecimal growth = analytics.getRevenueThisMonth()
-                    .subtract(previousMonthRevenue)
-                    .divide(previousMonthRevenue, 4, RoundingMode.HALF_UP)
-                    .multiply(BigDecimal.valueOf(100));
-            analytics.setRevenueGrowthPercentage(growth.doubleValue());
-        } else {
-            analytics.setRevenueGrowthPercentage(0.0);
-        }
-
-        long previousMonthOrderCount = previousMonthOrders.size();
-        if (previousMonthOrderCount > 0) {
-            double orderGrowth = ((double) (analytics.getOrdersThisMonth() - previousMonthOrderCount) 
-                    / previousMonthOrderCount) * 100;
-            analytics.setOrderGrowthPercentage(orderGrowth);
-        } else {
-            analytics.setOrderGrowthPercentage(0.0);
-        }
+        analytics.setRevenueGrowthPercentage(windows.revenueGrowthPercent(30));
+        analytics.setOrderGrowthPercentage(windows.orderGrowthPercent(30));
 
         // Top selling products (last 30 days)
         List<SalesAnalyticsDTO.TopProductDTO> topProducts = getTopSellingProducts(30);
         analytics.setTopSellingProducts(topProducts);
 
         // Daily sales for last 7 days
-        List<SalesAnalyticsDTO.DailySalesDTO> dailySales = getDailySales(7);
+        List<SalesAnalyticsDTO.DailySalesDTO> dailySales = getDailySales(windows, today, 7);
         analytics.setDailySales(dailySales);
 
         // Category sales
@@ -148,11 +224,13 @@ public class AnalyticsService {
         analytics.setCategorySales(categorySales);
 
         // Order status distribution
+        Map<String, Long> countsByStatus = rollupRepository.countOrdersByStatus(
+                SalesRollupRepository.MIN_DATE, SalesRollupRepository.MAX_DATE);
         SalesAnalyticsDTO.OrderStatusDistributionDTO statusDist = new SalesAnalyticsDTO.OrderStatusDistributionDTO();
-        statusDist.setConfirmed(orderRepository.countByStatus("CONFIRMED"));
-        statusDist.setShipped(orderRepository.countByStatus("SHIPPED"));
-        statusDist.setDelivered(orderRepository.countByStatus("DELIVERED"));
-        statusDist.setCancelled(orderRepository.countByStatus("CANCELLED"));
+        statusDist.setConfirmed(countsByStatus.getOrDefault("CONFIRMED", 0L));
+        statusDist.setShipped(countsByStatus.getOrDefault("SHIPPED", 0L));
+        statusDist.setDelivered(countsByStatus.getOrDefault("DELIVERED", 0L));
+        statusDist.setCancelled(countsByStatus.getOrDefault("CANCELLED", 0L));
         analytics.setStatusDistribution(statusDist);
 
         log.info("Analytics generated successfully");
@@ -160,168 +238,77 @@ public class AnalyticsService {
     }
 
     private List<SalesAnalyticsDTO.TopProductDTO> getTopSellingProducts(int days) {
-        LocalDateTime since = LocalDateTime.now().minusDays(days);
-        
-        // Get all order items from orders in the time period
-        List<Order> recentOrders = orderRepository.findAll().stream()
-                .filter(o -> o.getCreatedAt().isAfter(since))
-                .filter(o -> !o.getStatus().equals("CANCELLED"))
-                .collect(Collectors.toList());
-
-        // Group by product and sum quantities
-        Map<Long, ProductSales> productSalesMap = new HashMap<>();
-        
-        for (Order order : recentOrders) {
-            for (OrderItem item : order.getOrderItems()) {
-                ProductSales sales = productSalesMap.getOrDefault(
-                        item.getProductId(),
-                        new ProductSales(item.getProductId(), item.getProductName(), item.getProductSku())
-                );
-                sales.addSale(item.getQuantity(), item.getSubtotal());
-                productSalesMap.put(item.getProductId(), sales);
-            }
-        }
-
-        // Convert to DTO and sort by quantity
-        return productSalesMap.values().stream()
-                .map(ps -> new SalesAnalyticsDTO.TopProductDTO(
-                        ps.productId,
-                        ps.productName,
-                        ps.productSku,
-                        ps.totalQuantity,
-                        ps.totalRevenue
-                ))
-                .sorted((a, b) -> b.getTotalQuantitySold().compareTo(a.getTotalQuantitySold()))
-                .limit(5)
-                .collect(Collectors.toList());
+        LocalDate today = LocalDate.now(clock);
+        return rollupRepository.findTopProducts(today.minusDays(days - 1), today, 5);
     }
 
-    private List<SalesAnalyticsDTO.DailySalesDTO> getDailySales(int days) {
-        LocalDateTime since = LocalDateTime.now().minusDays(days);
-        
-        List<Order> recentOrders = orderRepository.findAll().stream()
-                .filter(o -> o.getCreatedAt().isAfter(since))
-                .filter(o -> !o.getStatus().equals("CANCELLED"))
-                .collect(Collectors.toList());
-
-        // Group by date
-        Map<LocalDate, DaySales> dailySalesMap = new LinkedHashMap<>();
-        
-        // Initialize all days
+    private List<SalesAnalyticsDTO.DailySalesDTO> getDailySales(WindowedRevenueAggregator windows, LocalDate today,
+                                                                int days) {
+        // One entry per day, including days without sales
+        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("MMM dd");
+        List<SalesAnalyticsDTO.DailySalesDTO> dailySales = new ArrayList<>(days);
         for (int i = days - 1; i >= 0; i--) {
-            LocalDate date = LocalDate.now().minusDays(i);
-            dailySalesMap.put(date, new DaySales(date));
+            dailySales.add(new SalesAnalyticsDTO.DailySalesDTO(
+                    today.minusDays(i).format(formatter),
+                    Money.ofCents(windows.dayRevenueCents(i)).toBigDecimal(),
+                    windows.dayOrders(i)
+            ));
         }
-
-        // Populate with actual sales
-        for (Order order : recentOrders) {
-            LocalDate orderDate = order.getCreatedAt().toLocalDate();
-            DaySales daySales = dailySalesMap.get(orderDate);
-            if (daySales != null) {
-                daySales.addOrder(order.getTotalAmount());
-            }
-        }
-
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("MMM dd");
-        
-        return dailySalesMap.values().stream()
-                .map(ds -> new SalesAnalyticsDTO.DailySalesDTO(
-                        ds.date.format(formatter),
-                        ds.revenue,
-                        ds.orderCount
-                ))
-                .collect(Collectors.toList());
+        return dailySales;
     }
 
     private List<SalesAnalyticsDTO.CategorySalesDTO> getCategorySales() {
-        List<Product> allProducts = productRepository.findAll();
-        List<Order> allOrders = orderRepository.findAll().stream()
-                .filter(o -> !o.getStatus().equals("CANCELLED"))
-                .collect(Collectors.toList());
-
-        Map<String, CategorySales> categorySalesMap = new HashMap<>();
-
-        for (Order order : allOrders) {
-            for (OrderItem item : order.getOrderItems()) {
-                // Find product to get category
-                Product product = allProducts.stream()
-                        .filter(p -> p.getProductId().equals(item.getProductId()))
-                        .findFirst()
-                        .orElse(null);
-
-                if (product != null) {
-                    String category = product.getCategory() != null ? product.getCategory() : "Uncategorized";
-                    CategorySales sales = categorySalesMap.getOrDefault(
-                            category,
-                            new CategorySales(category)
-                    );
-                    sales.addRevenue(item.getSubtotal());
-                    sales.addProduct(product.getProductId());
-                    categorySalesMap.put(category, sales);
-                }
+        // One pass over per-product revenue: hash lookup to a category ordinal, primitive accumulators
+        ProductCategoryIndex index = categoryIndexService.getIndex();
+        long[] revenueCents = new long[index.categoryCount()];
+        long[] productCounts = new long[index.categoryCount()];
+        rollupRepository.forEachProductRevenue(SalesRollupRepository.MIN_DATE, SalesRollupRepository.MAX_DATE,
+                (productId, cents) -> {
+                    int category = index.categoryOf(productId);
+                    if (category >= 0) {
+                        revenueCents[category] += cents;
+                        productCounts[category]++;
+                    }
+                });
+
+        List<SalesAnalyticsDTO.CategorySalesDTO> categorySales = new ArrayList<>();
+        for (int c = 0; c < revenueCents.length; c++) {
+            if (productCounts[c] > 0) {
+                categorySales.add(new SalesAnalyticsDTO.CategorySalesDTO(
+                        index.categoryName(c),
+                        Money.ofCents(revenueCents[c]).toBigDecimal(),
+                        productCounts[c]
+                ));
             }
         }
-
-        return categorySalesMap.values().stream()
-                .map(cs -> new SalesAnalyticsDTO.CategorySalesDTO(
-                        cs.category,
-                        cs.revenue,
-                        (long) cs.uniqueProducts.size()
-                ))
-                .sorted((a, b) -> b.getRevenue().compareTo(a.getRevenue()))
-                .collect(Collectors.toList());
-    }
-
-    // Helper classes
-    private static class ProductSales {
-        Long productId;
-        String productName;
-        String productSku;
-        Long totalQuantity = 0L;
-        BigDecimal totalRevenue = BigDecimal.ZERO;
-
-        ProductSales(Long productId, String productName, String productSku) {
-            this.productId = productId;
-            this.productName = productName;
-            this.productSku = productSku;
-        }
-
-        void addSale(Integer quantity, BigDecimal revenue) {
-            this.totalQuantity += quantity;
-            this.totalRevenue = this.totalRevenue.add(revenue);
-        }
+        categorySales.sort((a, b) -> b.getRevenue().compareTo(a.getRevenue()));
+        return categorySales;
     }
 
-    private static class DaySales {
-        LocalDate date;
-        BigDecimal revenue = BigDecimal.ZERO;
-        Long orderCount = 0L;
-
-        DaySales(LocalDate date) {
-            this.date = date;
-        }
-
-        void addOrder(BigDecimal amount) {
-            this.revenue = this.revenue.add(amount);
-            this.orderCount++;
+    private List<SalesBreakdownDTO.SegmentDTO> toSegments(List<SalesRollupRepository.GroupTotals> groups,
+                                                          Map<String, List<SalesAnalyticsDTO.TopProductDTO>> topProducts) {
+        List<SalesBreakdownDTO.SegmentDTO> segments = new ArrayList<>(groups.size());
+        for (SalesRollupRepository.GroupTotals group : groups) {
+            SalesRollupRepository.SalesTotals totals = group.getTotals();
+            Money revenue = Money.of(totals.getRevenue());
+            Money average = totals.getOrderCount() > 0 ? revenue.dividedBy(totals.getOrderCount()) : Money.ZERO;
+            segments.add(new SalesBreakdownDTO.SegmentDTO(group.getKey(), revenue.toBigDecimal(),
+                    totals.getOrderCount(), totals.getUnits(), average.toBigDecimal(),
+                    topProducts.getOrDefault(group.getKey(), List.of())));
         }
+        return segments;
     }
 
-    private static class CategorySales {
-        String category;
-        BigDecimal revenue = BigDecimal.ZERO;
-        Set<Long> uniqueProducts = new HashSet<>();
-
-        CategorySales(String category) {
-            this.category = category;
-        }
-
-        void addRevenue(BigDecimal amount) {
-            this.revenue = this.revenue.add(amount);
-        }
+    private static class CachedAnalytics {
+        final SalesAnalyticsDTO analytics;
+        // Order event count when the computation started; any later event makes it out of date
+        final long generation;
+        final long computedAtMillis;
 
-        void addProduct(Long productId) {
-            this.uniqueProducts.add(productId);
+        CachedAnalytics(SalesAnalyticsDTO analytics, long generation, long computedAtMillis) {
+            this.analytics = analytics;
+            this.generation = generation;
+            this.computedAtMillis = computedAtMillis;
         }
     }
 }
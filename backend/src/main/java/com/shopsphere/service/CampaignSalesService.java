@@ -0,0 +1,223 @@
+package com.shopsphere.service;
+
+import com.shopsphere.analytics.HyperLogLog;
+import com.shopsphere.analytics.LiveSketchBuffer;
+import com.shopsphere.dto.CampaignReportDTO;
+import com.shopsphere.event.OrderEvent;
+import com.shopsphere.repository.CampaignReportRepository;
+import com.shopsphere.util.Money;
+import com.shopsphere.util.StripedRebuildLocks;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Keeps per-campaign daily counters (orders, revenue, units, savings) and customer sketches, so
+ * a campaign report reads one row per campaign day instead of scanning the campaign's orders.
+ * <p>
+ * Counters follow the sales rollups: order events with a campaign are applied as increments just
+ * before the order's transaction commits, under the read lock of the campaign's stripe, and the
+ * backfill rebuilds a campaign under its write lock. Distinct customers follow the customer
+ * sketches: committed new orders add their customer to an in-memory {@link HyperLogLog} per
+ * campaign and day, which a scheduled flush merges into the stored copy. As there, a cancelled
+ * order's customer stays counted.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class CampaignSalesService {
+
+    private static final int LOCK_STRIPES = 64;
+
+    private final CampaignReportRepository campaignReportRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${shopsphere.analytics.customers.sketch-precision:12}")
+    private int precision;
+
+    @Value("${shopsphere.analytics.campaigns.backfill-on-startup:true}")
+    private boolean backfillOnStartup;
+
+    private final StripedRebuildLocks campaignLocks = new StripedRebuildLocks(LOCK_STRIPES);
+    private LiveSketchBuffer<SketchKey> live;
+    // Serialises sketch flushes with the backfill's read-merge-write
+    private final Object flushLock = new Object();
+    private final AtomicBoolean backfillRunning = new AtomicBoolean();
+
+    @PostConstruct
+    public void init() {
+        live = new LiveSketchBuffer<>(precision);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillIfEmpty() {
+        if (backfillOnStartup && campaignReportRepository.isEmpty()
+                && !campaignReportRepository.findCampaignIdsWithOrders().isEmpty()) {
+            log.info("Campaign counters are empty; building them from order history");
+            backfill();
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void onOrderEvent(OrderEvent event) {
+        int delta = event.salesDelta();
+        if (event.getCampaignId() == null || delta == 0) {
+            return;
+        }
+        campaignLocks.incrementUntilCompletion(event.getCampaignId(), () -> apply(event, delta));
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onOrderCommitted(OrderEvent event) {
+        if (event.getCampaignId() == null || !OrderEvent.CREATED.equals(event.getType())
+                || event.salesDelta() <= 0 || event.getCustomerId() == null) {
+            return;
+        }
+        live.add(new SketchKey(event.getCampaignId(), event.getOrderCreatedAt().toLocalDate()), event.getCustomerId());
+    }
+
+    @Scheduled(fixedDelayString = "${shopsphere.analytics.campaigns.flush-interval-ms:60000}")
+    public void flush() {
+        synchronized (flushLock) {
+            int flushed = live.flush(key -> campaignReportRepository.findRegisters(key.campaignId, key.day), changed -> {
+                List<CampaignReportRepository.DaySketch> rows = new ArrayList<>(changed.size());
+                changed.forEach((key, registers) ->
+                        rows.add(new CampaignReportRepository.DaySketch(key.campaignId, key.day, registers)));
+                campaignReportRepository.upsertRegisters(rows);
+            });
+            if (flushed > 0) {
+                log.debug("Flushed {} campaign customer sketches", flushed);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    /**
+     * Daily rows of the campaign with orders, in date order, and the campaign totals. Reads one
+     * stored row per campaign day; in-memory sketches not yet flushed are merged in.
+     */
+    public CampaignReportDTO report(long campaignId, String title) {
+        Map<LocalDate, HyperLogLog> sketches = new HashMap<>();
+        live.forEach((key, sketch) -> {
+            if (key.campaignId == campaignId) {
+                sketches.computeIfAbsent(key.day, d -> new HyperLogLog(precision)).merge(sketch);
+            }
+        });
+
+        List<CampaignReportDTO.DailyDTO> daily = new ArrayList<>();
+        HyperLogLog campaignCustomers = new HyperLogLog(precision);
+        long[] totals = new long[2];
+        Money[] sums = {Money.ZERO, Money.ZERO};
+        campaignReportRepository.forEachDay(campaignId, (day, orders, revenue, units, savings, registers) -> {
+            HyperLogLog customers = sketches.computeIfAbsent(day, d -> new HyperLogLog(precision));
+            if (registers != null) {
+                customers.merge(HyperLogLog.fromBytes(registers));
+            }
+            campaignCustomers.merge(customers);
+            if (orders <= 0) {
+                // Every order of the day was cancelled
+                return;
+            }
+            daily.add(new CampaignReportDTO.DailyDTO(day, orders, revenue, units, savings, customers.estimate()));
+            totals[0] += orders;
+            totals[1] += units;
+            sums[0] = sums[0].plus(Money.of(revenue));
+            sums[1] = sums[1].plus(Money.of(savings));
+        });
+        long uniqueCustomers = daily.isEmpty() ? 0 : campaignCustomers.estimate();
+        return new CampaignReportDTO(campaignId, title, totals[0], sums[0].toBigDecimal(), totals[1],
+                sums[1].toBigDecimal(), uniqueCustomers, daily);
+    }
+
+    /**
+     * Rebuilds every campaign's counters from orders and merges its customers into the stored
+     * sketches, one campaign at a time.
+     *
+     * @return daily rows written
+     */
+    public int backfill() {
+        if (!backfillRunning.compareAndSet(false, true)) {
+            throw new IllegalStateException("Campaign counter backfill is already running");
+        }
+        try {
+            int written = 0;
+            List<Long> campaignIds = campaignReportRepository.findCampaignIdsWithOrders();
+            for (Long campaignId : campaignIds) {
+                written += rebuildCampaign(campaignId);
+            }
+            log.info("Campaign counter backfill finished: {} campaigns, {} daily rows", campaignIds.size(), written);
+            return written;
+        } finally {
+            backfillRunning.set(false);
+        }
+    }
+
+    private void apply(OrderEvent event, int delta) {
+        long units = 0;
+        Money savings = Money.ZERO;
+        for (OrderEvent.Line line : event.getLines()) {
+            units += line.getQuantity();
+            if (line.getOriginalPrice() != null && line.getUnitPrice() != null) {
+                savings = savings.plus(Money.of(line.getOriginalPrice()).minus(Money.of(line.getUnitPrice()))
+                        .times(line.getQuantity()));
+            }
+        }
+        BigDecimal sign = BigDecimal.valueOf(delta);
+        campaignReportRepository.addSales(event.getCampaignId(), event.getOrderCreatedAt().toLocalDate(),
+                event.getTotalAmount().multiply(sign), delta, units * delta, savings.toBigDecimal().multiply(sign));
+    }
+
+    private int rebuildCampaign(long campaignId) {
+        return campaignLocks.rebuild(campaignId, () -> {
+            Integer rows = transactionTemplate.execute(status -> campaignReportRepository.rebuildSales(campaignId));
+            synchronized (flushLock) {
+                Map<LocalDate, HyperLogLog> sketches = new HashMap<>();
+                campaignReportRepository.streamCampaignCustomers(campaignId, rs -> sketches
+                        .computeIfAbsent(rs.getDate(1).toLocalDate(), d -> new HyperLogLog(precision))
+                        .add(rs.getLong(2)));
+                List<CampaignReportRepository.DaySketch> merged = new ArrayList<>(sketches.size());
+                sketches.forEach((day, sketch) -> {
+                    byte[] stored = campaignReportRepository.findRegisters(campaignId, day);
+                    if (stored != null) {
+                        sketch.merge(HyperLogLog.fromBytes(stored));
+                    }
+                    merged.add(new CampaignReportRepository.DaySketch(campaignId, day, sketch.toBytes()));
+                });
+                if (!merged.isEmpty()) {
+                    campaignReportRepository.upsertRegisters(merged);
+                }
+            }
+            return rows != null ? rows : 0;
+        });
+    }
+
+    @EqualsAndHashCode
+    @AllArgsConstructor
+    private static class SketchKey {
+        private final long campaignId;
+        private final LocalDate day;
+    }
+}
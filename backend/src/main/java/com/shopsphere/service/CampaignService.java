@@ -9,10 +9,10 @@ import com.shopsphere.entity.Campaign;
 import com.shopsphere.entity.CampaignProduct;
 import com.shopsphere.entity.Product;
 import com.shopsphere.exception.ResourceNotFoundException;
-import com.shopsphere.repository.OrderRepository;
 import com.shopsphere.repository.CampaignProductRepository;
 import com.shopsphere.repository.CampaignRepository;
 import com.shopsphere.repository.ProductRepository;
+import com.shopsphere.util.Money;
 import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -20,7 +20,6 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
-import java.math.RoundingMode;
 import java.time.LocalDate;
 import java.util.List;
 
@@ -33,7 +32,7 @@ public class CampaignService {
     private final CampaignProductRepository campaignProductRepository;
     private final ProductRepository productRepository;
     private final ProductService productService;
-    private final OrderRepository orderRepository;
+    private final CampaignSalesService campaignSalesService;
 
     @Transactional(readOnly = true)
     public List<CampaignDTO> getActiveCampaigns() {
@@ -143,12 +142,8 @@ public class CampaignService {
         Campaign c = campaignRepository.findById(campaignId)
                 .orElseThrow(() -> new ResourceNotFoundException("Campaign not found with id: " + campaignId));
 
-        var orders = orderRepository.findByCampaignId(campaignId);
-        BigDecimal revenue = orders.stream()
-                .map(o -> o.getTotalAmount() == null ? BigDecimal.ZERO : o.getTotalAmount())
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-        return new CampaignReportDTO(c.getCampaignId(), c.getTitle(), (long) orders.size(), revenue);
+        // From the maintained daily counters: one row per campaign day, however many orders
+        return campaignSalesService.report(c.getCampaignId(), c.getTitle());
     }
 
     private CampaignDTO toDTO(Campaign c) {
@@ -168,9 +163,8 @@ public class CampaignService {
         if (price == null) return BigDecimal.ZERO;
         int p = percent == null ? 0 : percent;
         if (p <= 0) return price;
-        BigDecimal discount = price.multiply(BigDecimal.valueOf(p)).divide(BigDecimal.valueOf(100), 2, RoundingMode.HALF_UP);
-        BigDecimal result = price.subtract(discount);
-        return result.max(BigDecimal.ZERO);
+        Money original = Money.of(price);
+        return original.minus(original.percent(p)).max(Money.ZERO).toBigDecimal();
     }
 }
 
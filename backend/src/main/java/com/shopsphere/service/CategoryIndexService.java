@@ -0,0 +1,86 @@
+package com.shopsphere.service;
+
+import com.shopsphere.analytics.ProductCategoryIndex;
+import com.shopsphere.repository.ProductRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Holds the current {@link ProductCategoryIndex}. The index is rebuilt lazily on first use
+ * after a product is created, re-categorised or deleted.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class CategoryIndexService {
+
+    private final ProductRepository productRepository;
+
+    // Bumped by every committed product change; an index built before the latest bump is out of date
+    private final AtomicLong generation = new AtomicLong();
+    private volatile CachedIndex cached;
+
+    public ProductCategoryIndex getIndex() {
+        CachedIndex current = cached;
+        if (current != null && current.generation == generation.get()) {
+            return current.index;
+        }
+        synchronized (this) {
+            current = cached;
+            if (current != null && current.generation == generation.get()) {
+                return current.index;
+            }
+            // Tagged with the generation it started from, so a change committed while the rows
+            // were being read leaves it out of date instead of being overwritten by it
+            long startGeneration = generation.get();
+            ProductCategoryIndex built = build();
+            cached = new CachedIndex(built, startGeneration);
+            return built;
+        }
+    }
+
+    /**
+     * Drops the index once the current transaction commits, so the next read sees the change.
+     */
+    public void invalidate() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    generation.incrementAndGet();
+                }
+            });
+        } else {
+            generation.incrementAndGet();
+        }
+    }
+
+    private ProductCategoryIndex build() {
+        List<Object[]> rows = productRepository.findAllProductCategories();
+        long[] productIds = new long[rows.size()];
+        String[] categories = new String[rows.size()];
+        for (int i = 0; i < rows.size(); i++) {
+            productIds[i] = (Long) rows.get(i)[0];
+            categories[i] = (String) rows.get(i)[1];
+        }
+        ProductCategoryIndex built = ProductCategoryIndex.build(productIds, categories);
+        log.info("Built product category index: {} products in {} categories", built.size(), built.categoryCount());
+        return built;
+    }
+
+    private static class CachedIndex {
+        final ProductCategoryIndex index;
+        final long generation;
+
+        CachedIndex(ProductCategoryIndex index, long generation) {
+            this.index = index;
+            this.generation = generation;
+        }
+    }
+}
@@ -0,0 +1,348 @@
+package com.shopsphere.service;
+
+import com.shopsphere.dto.StoreDTO;
+import com.shopsphere.entity.Store;
+import com.shopsphere.entity.StoreProductInventory;
+import com.shopsphere.repository.StoreProductInventoryRepository;
+import com.shopsphere.repository.StoreRepository;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Splits store stock between ONLINE and IN_STORE channels.
+ * <p>
+ * Store rules (reserve floor, online share cap, priority) are held in memory and applied per
+ * store row during ONLINE allocation, so IN_STORE shelves keep their floor and their share of
+ * the last replenishment. The online-sellable quantity of every product is precomputed and
+ * refreshed after each stock change commits, together with per-store stock, so listings, order
+ * intake and store lookups read it without touching the database.
+ * <p>
+ * Each product's figures keep the store rows they were computed from. Hot-SKU products are not
+ * refreshed per order: their figures are derived on read from those rows and the in-memory
+ * counters. A rules change only reloads the rules; each product's figures are recomputed from
+ * its kept rows the next time they are read.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ChannelAllocationService {
+
+    private static final Store DEFAULT_RULES = new Store();
+    private static final int LOCK_STRIPES = 64;
+
+    private final StoreRepository storeRepository;
+    private final StoreProductInventoryRepository inventoryRepository;
+    private final HotSkuStockService hotSkuStockService;
+
+    private volatile Map<String, Store> rulesByStore = Map.of();
+    private final Map<Long, ProductAvailability> availabilityByProduct = new ConcurrentHashMap<>();
+    // Serialise each product's read-and-publish, so a refresh that read older rows cannot
+    // overwrite one that read newer rows
+    private final Object[] productLocks = new Object[LOCK_STRIPES];
+    // Taken before each read; a published availability carries the number its read started with
+    private final AtomicLong readSequence = new AtomicLong();
+
+    {
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            productLocks[i] = new Object();
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void loadRules() {
+        reloadRules();
+        availabilityByProduct.clear();
+        long version = readSequence.incrementAndGet();
+        Map<Long, List<RowState>> rowsByProduct = inventoryRepository.findAllCurrent().stream()
+                .collect(Collectors.groupingBy(StoreProductInventory::getProductId,
+                        Collectors.mapping(RowState::new, Collectors.toList())));
+        Map<String, Store> rules = rulesByStore;
+        rowsByProduct.forEach((productId, rows) -> {
+            ProductAvailability availability = computeAvailability(rows, rules, version);
+            synchronized (lockFor(productId)) {
+                // A product refreshed after this bulk read already holds newer figures
+                ProductAvailability current = availabilityByProduct.get(productId);
+                if (current == null || current.version < version) {
+                    availabilityByProduct.put(productId, availability);
+                }
+            }
+        });
+        log.info("Loaded channel rules for {} stores; online-sellable stock precomputed for {} products",
+                rulesByStore.size(), availabilityByProduct.size());
+    }
+
+    @Transactional(readOnly = true)
+    public List<StoreDTO> getAllStoreRules() {
+        return storeRepository.findAll().stream()
+                .map(this::toDTO)
+                .collect(Collectors.toList());
+    }
+
+    @Transactional
+    public StoreDTO saveStoreRules(StoreDTO dto) {
+        log.info("Saving channel rules for store {}", dto.getStoreLocation());
+        Store store = storeRepository.findByStoreLocation(dto.getStoreLocation()).orElse(new Store());
+        store.setStoreLocation(dto.getStoreLocation());
+        if (dto.getInStoreReserveFloor() != null) {
+            store.setInStoreReserveFloor(dto.getInStoreReserveFloor());
+        }
+        if (dto.getOnlineShareCapPercent() != null) {
+            store.setOnlineShareCapPercent(dto.getOnlineShareCapPercent());
+        }
+        if (dto.getOnlineEnabled() != null) {
+            store.setOnlineEnabled(dto.getOnlineEnabled());
+        }
+        if (dto.getOnlinePriority() != null) {
+            store.setOnlinePriority(dto.getOnlinePriority());
+        }
+        if (dto.getLatitude() != null && dto.getLongitude() != null) {
+            store.setLatitude(dto.getLatitude());
+            store.setLongitude(dto.getLongitude());
+        }
+        Store saved = storeRepository.save(store);
+
+        // Every product's online share may change; figures are recomputed on their next read
+        runAfterCommit(this::reloadRules);
+        return toDTO(saved);
+    }
+
+    /**
+     * Precomputed ONLINE-sellable quantity of a product across all stores.
+     */
+    public int getOnlineSellable(Long productId) {
+        return availabilityOf(productId).onlineSellable;
+    }
+
+    /**
+     * Precomputed stock per store for IN_STORE sale or pickup (available rows with stock only).
+     */
+    public Map<String, Integer> getStoreStock(Long productId) {
+        return availabilityOf(productId).storeStock;
+    }
+
+    /**
+     * Current store records by store location. A new map instance is published whenever
+     * rules are reloaded, so callers may cache derived structures by identity.
+     */
+    public Map<String, Store> getStoreRecords() {
+        return rulesByStore;
+    }
+
+    /**
+     * Recomputes a product's online-sellable quantity once the current transaction commits.
+     */
+    public void refreshProduct(Long productId) {
+        runAfterCommit(() -> {
+            synchronized (lockFor(productId)) {
+                availabilityByProduct.put(productId, loadAvailability(productId));
+            }
+        });
+    }
+
+    public void removeProduct(Long productId) {
+        runAfterCommit(() -> {
+            synchronized (lockFor(productId)) {
+                availabilityByProduct.remove(productId);
+            }
+        });
+    }
+
+    /**
+     * Plans how an ONLINE order line draws from the given store rows: stores are visited in
+     * priority order, a single store that can cover the whole quantity is preferred, otherwise
+     * the quantity is split across stores. Only each store's online-sellable share is used.
+     *
+     * @return the planned draws, or an empty list if the online share cannot cover the quantity
+     */
+    public List<Allocation> allocateOnline(List<StoreProductInventory> storeRows, int quantity) {
+        List<Allocation> candidates = new ArrayList<>();
+        for (StoreProductInventory row : storeRows) {
+            if (!Boolean.TRUE.equals(row.getIsAvailable())) {
+                continue;
+            }
+            int stock = currentStock(row);
+            int sellable = rulesFor(row.getStoreLocation()).onlineSellable(stock, allocationBase(row, stock));
+            if (sellable > 0) {
+                candidates.add(new Allocation(row.getStoreLocation(), sellable));
+            }
+        }
+        // Stable sort keeps the repository order between stores of equal priority
+        candidates.sort(Comparator.comparing(a -> rulesFor(a.getStoreLocation()).getOnlinePriority()));
+
+        for (Allocation candidate : candidates) {
+            if (candidate.getQuantity() >= quantity) {
+                return List.of(new Allocation(candidate.getStoreLocation(), quantity));
+            }
+        }
+
+        List<Allocation> split = new ArrayList<>();
+        int remaining = quantity;
+        for (Allocation candidate : candidates) {
+            if (remaining <= 0) {
+                break;
+            }
+            int take = Math.min(candidate.getQuantity(), remaining);
+            split.add(new Allocation(candidate.getStoreLocation(), take));
+            remaining -= take;
+        }
+        return remaining > 0 ? Collections.emptyList() : split;
+    }
+
+    private void reloadRules() {
+        rulesByStore = storeRepository.findAll().stream()
+                .collect(Collectors.toUnmodifiableMap(Store::getStoreLocation, s -> s));
+    }
+
+    private ProductAvailability availabilityOf(Long productId) {
+        ProductAvailability availability = availabilityByProduct.get(productId);
+        Map<String, Store> rules = rulesByStore;
+        if (availability == null || availability.rules != rules) {
+            synchronized (lockFor(productId)) {
+                availability = availabilityByProduct.get(productId);
+                if (availability == null) {
+                    availability = loadAvailability(productId);
+                    availabilityByProduct.put(productId, availability);
+                } else if (availability.rules != rules) {
+                    availability = computeAvailability(availability.rows, rules, availability.version);
+                    availabilityByProduct.put(productId, availability);
+                }
+            }
+        }
+        if (hotSkuStockService.isHotProduct(productId)) {
+            // Hot rows change with every order; their counters are read instead of refreshing per order
+            return computeAvailability(availability.rows, availability.rules, availability.version);
+        }
+        return availability;
+    }
+
+    // Callers hold the product's lock
+    private ProductAvailability loadAvailability(Long productId) {
+        long version = readSequence.incrementAndGet();
+        List<RowState> rows = inventoryRepository.findCurrentByProductId(productId).stream()
+                .map(RowState::new)
+                .collect(Collectors.toList());
+        return computeAvailability(rows, rulesByStore, version);
+    }
+
+    private ProductAvailability computeAvailability(List<RowState> rows, Map<String, Store> rules, long version) {
+        int onlineSellable = 0;
+        Map<String, Integer> storeStock = new HashMap<>();
+        for (RowState row : rows) {
+            if (row.available) {
+                int stock = currentStock(row.productId, row.storeLocation, row.stockQuantity);
+                onlineSellable += rules.getOrDefault(row.storeLocation, DEFAULT_RULES)
+                        .onlineSellable(stock, allocationBase(row.allocationBase, stock));
+                if (stock > 0) {
+                    storeStock.put(row.storeLocation, stock);
+                }
+            }
+        }
+        return new ProductAvailability(rows, rules, onlineSellable, Collections.unmodifiableMap(storeStock), version);
+    }
+
+    private int currentStock(StoreProductInventory row) {
+        return currentStock(row.getProductId(), row.getStoreLocation(), row.getStockQuantity());
+    }
+
+    private int currentStock(Long productId, String storeLocation, int persistedStock) {
+        long hotStock = hotSkuStockService.getAvailableStock(productId, storeLocation);
+        return hotStock >= 0 ? (int) hotStock : persistedStock;
+    }
+
+    private static int allocationBase(StoreProductInventory row, int stock) {
+        return allocationBase(row.getAllocationBase(), stock);
+    }
+
+    // Stock returned without a replenishment (a hot-SKU return) can exceed the stored base
+    private static int allocationBase(Integer storedBase, int stock) {
+        return storedBase != null ? Math.max(storedBase, stock) : stock;
+    }
+
+    private Object lockFor(Long productId) {
+        return productLocks[(int) Math.floorMod(productId, (long) LOCK_STRIPES)];
+    }
+
+    private Store rulesFor(String storeLocation) {
+        return rulesByStore.getOrDefault(storeLocation, DEFAULT_RULES);
+    }
+
+    private void runAfterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private StoreDTO toDTO(Store store) {
+        return new StoreDTO(store.getStoreId(), store.getStoreLocation(), store.getInStoreReserveFloor(),
+                store.getOnlineShareCapPercent(), store.getOnlineEnabled(), store.getOnlinePriority(),
+                store.getLatitude(), store.getLongitude());
+    }
+
+    private static class ProductAvailability {
+        final List<RowState> rows;
+        // The rules the figures were computed with
+        final Map<String, Store> rules;
+        final int onlineSellable;
+        final Map<String, Integer> storeStock;
+        final long version;
+
+        ProductAvailability(List<RowState> rows, Map<String, Store> rules, int onlineSellable,
+                            Map<String, Integer> storeStock, long version) {
+            this.rows = rows;
+            this.rules = rules;
+            this.onlineSellable = onlineSellable;
+            this.storeStock = storeStock;
+            this.version = version;
+        }
+    }
+
+    // The fields of a store row the figures depend on
+    private static class RowState {
+        final Long productId;
+        final String storeLocation;
+        final int stockQuantity;
+        final Integer allocationBase;
+        final boolean available;
+
+        RowState(StoreProductInventory row) {
+            this.productId = row.getProductId();
+            this.storeLocation = row.getStoreLocation();
+            this.stockQuantity = row.getStockQuantity();
+            this.allocationBase = row.getAllocationBase();
+            this.available = Boolean.TRUE.equals(row.getIsAvailable());
+        }
+    }
+
+    @Data
+    @AllArgsConstructor
+    public static class Allocation {
+        private String storeLocation;
+        private Integer quantity;
+    }
+}
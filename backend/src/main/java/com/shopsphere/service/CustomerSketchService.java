@@ -0,0 +1,185 @@
+package com.shopsphere.service;
+
+import com.shopsphere.analytics.HyperLogLog;
+import com.shopsphere.analytics.LiveSketchBuffer;
+import com.shopsphere.dto.DistinctCustomersDTO;
+import com.shopsphere.entity.DailySalesRollup;
+import com.shopsphere.event.OrderEvent;
+import com.shopsphere.repository.CustomerSketchRepository;
+import com.shopsphere.repository.SalesRollupRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Approximate distinct customers per day and store, kept as {@link HyperLogLog} sketches.
+ * <p>
+ * Committed new orders add their customer to an in-memory sketch for the order's day and
+ * store; a scheduled flush merges each changed sketch with its stored copy and writes it back.
+ * Sketches only ever merge by register maximum, so flushes, the backfill and replays are
+ * idempotent and may overlap in any order. Ranges and store combinations are answered by
+ * merging the stored and in-memory sketches involved. A cancelled order's customer is not
+ * removed (sketches cannot delete), so counts are of customers who placed orders.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class CustomerSketchService {
+
+    private final CustomerSketchRepository sketchRepository;
+    private final SalesRollupRepository rollupRepository;
+
+    @Value("${shopsphere.analytics.customers.sketch-precision:12}")
+    private int precision;
+
+    @Value("${shopsphere.analytics.customers.backfill-on-startup:true}")
+    private boolean backfillOnStartup;
+
+    private LiveSketchBuffer<SketchKey> live;
+    // Serialises flushes with the backfill's per-month read-merge-write
+    private final Object flushLock = new Object();
+    private final AtomicBoolean backfillRunning = new AtomicBoolean();
+
+    @PostConstruct
+    public void init() {
+        live = new LiveSketchBuffer<>(precision);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillIfEmpty() {
+        if (backfillOnStartup && sketchRepository.isEmpty() && rollupRepository.findFirstOrderDate() != null) {
+            log.info("Customer sketches are empty; building them from order history");
+            backfill();
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onOrderEvent(OrderEvent event) {
+        if (!OrderEvent.CREATED.equals(event.getType()) || event.salesDelta() <= 0 || event.getCustomerId() == null) {
+            return;
+        }
+        live.add(new SketchKey(event.getOrderCreatedAt().toLocalDate(),
+                event.getStoreLocation() != null ? event.getStoreLocation() : DailySalesRollup.NO_STORE),
+                event.getCustomerId());
+    }
+
+    @Scheduled(fixedDelayString = "${shopsphere.analytics.customers.flush-interval-ms:60000}")
+    public void flush() {
+        synchronized (flushLock) {
+            int flushed = live.flush(key -> sketchRepository.findSketch(key.day, key.storeKey), changed -> {
+                List<CustomerSketchRepository.Sketch> rows = new ArrayList<>(changed.size());
+                changed.forEach((key, registers) ->
+                        rows.add(new CustomerSketchRepository.Sketch(key.day, key.storeKey, registers)));
+                sketchRepository.upsertSketches(rows);
+            });
+            if (flushed > 0) {
+                log.debug("Flushed {} customer sketches", flushed);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    /**
+     * Estimated number of distinct customers with orders in [from, to] at the given stores
+     * ('' for orders without a store); null or empty means all stores.
+     */
+    public DistinctCustomersDTO estimateDistinctCustomers(LocalDate from, LocalDate to, Collection<String> storeLocations) {
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("Start date must not be after end date");
+        }
+        List<String> stores = storeLocations != null ? List.copyOf(storeLocations) : List.of();
+        HyperLogLog union = new HyperLogLog(precision);
+        int[] merged = {0};
+        sketchRepository.forEachSketch(from, to, stores, (day, storeKey, registers) -> {
+            union.merge(HyperLogLog.fromBytes(registers));
+            merged[0]++;
+        });
+        // In-memory sketches may be ahead of their stored copies
+        live.forEach((key, sketch) -> {
+            if (!key.day.isBefore(from) && !key.day.isAfter(to) && (stores.isEmpty() || stores.contains(key.storeKey))) {
+                union.merge(sketch);
+                merged[0]++;
+            }
+        });
+        return new DistinctCustomersDTO(from, to, stores, union.estimate(), union.relativeStandardError(), merged[0]);
+    }
+
+    /**
+     * Rebuilds every day's sketches from order history, one calendar month at a time, merging
+     * into what is already stored.
+     *
+     * @return sketches written
+     */
+    public int backfill() {
+        if (!backfillRunning.compareAndSet(false, true)) {
+            throw new IllegalStateException("Customer sketch backfill is already running");
+        }
+        try {
+            LocalDate firstOrderDate = rollupRepository.findFirstOrderDate();
+            if (firstOrderDate == null) {
+                return 0;
+            }
+            int written = 0;
+            YearMonth current = YearMonth.now();
+            for (YearMonth month = YearMonth.from(firstOrderDate); !month.isAfter(current); month = month.plusMonths(1)) {
+                written += backfillMonth(month);
+            }
+            log.info("Customer sketch backfill finished: {} sketches", written);
+            return written;
+        } finally {
+            backfillRunning.set(false);
+        }
+    }
+
+    private int backfillMonth(YearMonth month) {
+        LocalDate from = month.atDay(1);
+        LocalDate to = month.atEndOfMonth();
+        synchronized (flushLock) {
+            Map<SketchKey, HyperLogLog> sketches = new HashMap<>();
+            sketchRepository.forEachSketch(from, to, List.of(), (day, storeKey, registers) ->
+                    sketches.put(new SketchKey(day, storeKey), HyperLogLog.fromBytes(registers)));
+            sketchRepository.streamOrderCustomers(from, to.plusDays(1), rs -> sketches
+                    .computeIfAbsent(new SketchKey(rs.getDate(1).toLocalDate(), rs.getString(2)),
+                            k -> new HyperLogLog(precision))
+                    .add(rs.getLong(3)));
+
+            List<CustomerSketchRepository.Sketch> rows = new ArrayList<>(sketches.size());
+            sketches.forEach((key, sketch) ->
+                    rows.add(new CustomerSketchRepository.Sketch(key.day, key.storeKey, sketch.toBytes())));
+            if (!rows.isEmpty()) {
+                sketchRepository.upsertSketches(rows);
+            }
+            return rows.size();
+        }
+    }
+
+    @EqualsAndHashCode
+    @AllArgsConstructor
+    private static class SketchKey {
+        private final LocalDate day;
+        private final String storeKey;
+    }
+}
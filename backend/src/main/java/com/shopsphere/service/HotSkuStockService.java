@@ -0,0 +1,627 @@
+package com.shopsphere.service;
+
+import com.shopsphere.entity.HotSkuCheckpoint;
+import com.shopsphere.entity.HotSkuDeadLetter;
+import com.shopsphere.entity.StoreProductInventory;
+import com.shopsphere.inventory.HotSkuIntentLog;
+import com.shopsphere.inventory.StripedStockCounter;
+import com.shopsphere.repository.HotSkuCheckpointRepository;
+import com.shopsphere.repository.HotSkuDeadLetterRepository;
+import com.shopsphere.repository.HotSkuTransactionRepository;
+import com.shopsphere.repository.StoreInventoryBatchRepository;
+import com.shopsphere.repository.StoreProductInventoryRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Opt-in write-behind stock for flash-sale products.
+ * <p>
+ * For products listed in {@code shopsphere.inventory.hot-sku.product-ids}, each store row's stock
+ * is held in a {@link StripedStockCounter}. Order decrements are served from memory and recorded
+ * in a durable {@link HotSkuIntentLog} before the order proceeds; a flusher on its own thread writes
+ * the accumulated deltas to store_product_inventory and advances a checkpoint in the same transaction.
+ * On startup, intents past the checkpoint are replayed so no units are lost on a crash.
+ * <p>
+ * Intents are logged before the order's transaction commits, so each carries a token of that
+ * transaction, and the transaction inserts a commit marker for the token just before it commits.
+ * Recovery replays an intent only if its transaction committed. Because a flush may already have
+ * written a still-open transaction's decrement to the store row, each flush also records those
+ * deltas with its checkpoint, and recovery reverses them for transactions that never committed.
+ * <p>
+ * Store rows of hot products lag memory by at most one flush interval. Direct writes to those rows
+ * (restock, set quantity, cancellation) reload the counter after they commit; a deleted row's
+ * unflushed units are dropped with it. A delta the database guard rejects is logged again past
+ * the new checkpoint and retried on the next flush; after {@code max-rejections} attempts it is
+ * parked in hot_sku_dead_letters for an operator instead. Deltas for rows that no longer exist
+ * are dropped.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class HotSkuStockService {
+
+    private static final String LOG_NAME = "hot-sku";
+
+    private final StoreProductInventoryRepository inventoryRepository;
+    private final StoreInventoryBatchRepository batchRepository;
+    private final HotSkuCheckpointRepository checkpointRepository;
+    private final HotSkuTransactionRepository transactionRepository;
+    private final HotSkuDeadLetterRepository deadLetterRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final InventoryJournalService inventoryJournalService;
+
+    @Value("${shopsphere.inventory.hot-sku.enabled:false}")
+    private boolean enabled;
+
+    @Value("${shopsphere.inventory.hot-sku.product-ids:}")
+    private String hotProductIdsProperty;
+
+    // 0 = one slot per available processor
+    @Value("${shopsphere.inventory.hot-sku.slots:0}")
+    private int slotCount;
+
+    @Value("${shopsphere.inventory.hot-sku.intent-log-path:data/hot-sku-intent.log}")
+    private String intentLogPath;
+
+    @Value("${shopsphere.inventory.hot-sku.flush-interval-ms:200}")
+    private long flushIntervalMs;
+
+    @Value("${shopsphere.inventory.hot-sku.max-rejections:5}")
+    private int maxRejections;
+
+    private final Map<String, HotRow> rows = new ConcurrentHashMap<>();
+    private final Set<Long> hotProductIds = ConcurrentHashMap.newKeySet();
+    // Key of the current database transaction's HotTransaction among its bound resources
+    private final Object transactionKey = new Object();
+    // Transactions with logged intents that have not completed yet, by token
+    private final Map<Long, HotTransaction> openTransactions = new ConcurrentHashMap<>();
+    // Committed transactions whose commit markers the next flush removes
+    private final Queue<HotTransaction> settledTransactions = new ConcurrentLinkedQueue<>();
+    // Held across a flush (drain + commit) and a counter reload, so a reload never reads
+    // a row whose drained deltas are not yet committed
+    private final ReentrantLock flushLock = new ReentrantLock();
+    // Not the shared @Scheduled pool: a long nightly job there must not delay flushes, which
+    // bound how far the store rows lag memory
+    private final ScheduledExecutorService flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "hot-sku-flush");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private HotSkuIntentLog intentLog;
+    private volatile boolean ready;
+    private long lastCheckpoint;
+    // Whether hot_sku_open_deltas has rows; flusher only
+    private boolean openDeltasRecorded;
+    // Consecutive flushes whose delta the database guard rejected, keyed like rows; flusher only
+    private final Map<String, Integer> rejections = new HashMap<>();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        for (String id : hotProductIdsProperty.split(",")) {
+            if (!id.isBlank()) {
+                hotProductIds.add(Long.parseLong(id.trim()));
+            }
+        }
+        if (hotProductIds.isEmpty()) {
+            log.info("Hot-SKU mode enabled but no product ids configured");
+            return;
+        }
+
+        lastCheckpoint = checkpointRepository.findById(LOG_NAME)
+                .map(HotSkuCheckpoint::getLastSequence)
+                .orElse(0L);
+        intentLog = HotSkuIntentLog.open(Path.of(intentLogPath), lastCheckpoint);
+        Map<String, Integer> carried = recover();
+
+        int slots = slotCount > 0 ? slotCount : Runtime.getRuntime().availableProcessors();
+        for (Long productId : hotProductIds) {
+            for (StoreProductInventory inventory : inventoryRepository.findByProductId(productId)) {
+                String key = key(productId, inventory.getStoreLocation());
+                int pending = carried.getOrDefault(key, 0);
+                HotRow row = new HotRow(productId, inventory.getStoreLocation(),
+                        new StripedStockCounter(slots, inventory.getStockQuantity() + pending));
+                row.pending.set(pending);
+                rows.put(key, row);
+            }
+        }
+        ready = true;
+        flusher.scheduleWithFixedDelay(this::flushQuietly, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+        log.info("Hot-SKU mode active for products {} ({} store rows, {} slots each)", hotProductIds, rows.size(), slots);
+    }
+
+    /**
+     * Whether the product's store rows are served from in-memory counters.
+     */
+    public boolean isHotProduct(Long productId) {
+        return ready && hotProductIds.contains(productId);
+    }
+
+    public boolean isHot(Long productId, String storeLocation) {
+        return ready && rows.containsKey(key(productId, storeLocation));
+    }
+
+    /**
+     * Current stock of a hot row as seen by order intake, or -1 if the row is not hot.
+     */
+    public long getAvailableStock(Long productId, String storeLocation) {
+        HotRow row = ready ? rows.get(key(productId, storeLocation)) : null;
+        return row == null ? -1 : row.counter.total();
+    }
+
+    /**
+     * Takes units from memory and makes the intent durable. If the surrounding transaction
+     * rolls back, the units are returned and a compensating intent is logged.
+     *
+     * @return false if the row does not have enough stock
+     */
+    public boolean tryDecrement(Long productId, String storeLocation, int quantity) {
+        HotRow row = rows.get(key(productId, storeLocation));
+        if (row == null) {
+            return false;
+        }
+        HotTransaction transaction = currentTransaction();
+        long sequence;
+        // Units leave the counter and enter pending under the read lock, so a reload never
+        // sees them in neither place
+        row.guard.readLock().lock();
+        try {
+            if (row.removed || !row.counter.tryDecrement(quantity)) {
+                return false;
+            }
+            try {
+                sequence = append(transaction, row, -quantity);
+            } catch (UncheckedIOException e) {
+                row.counter.add(quantity);
+                throw e;
+            }
+        } finally {
+            row.guard.readLock().unlock();
+        }
+        try {
+            intentLog.sync(sequence);
+        } catch (UncheckedIOException e) {
+            returnUnits(row, quantity, transaction);
+            throw e;
+        }
+        return true;
+    }
+
+    /**
+     * Called when a hot product's store row was written directly (restock, absolute set,
+     * cancellation, delete). The counter is reloaded from the database once the write commits.
+     */
+    public void afterDirectWrite(Long productId, String storeLocation) {
+        if (!ready || !hotProductIds.contains(productId)) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    reload(productId, storeLocation);
+                }
+            });
+        } else {
+            reload(productId, storeLocation);
+        }
+    }
+
+    public void flush() {
+        if (!ready) {
+            return;
+        }
+        flushLock.lock();
+        try {
+            Map<HotRow, Integer> drained = new LinkedHashMap<>();
+            List<HotSkuTransactionRepository.OpenDelta> open = new ArrayList<>();
+            List<HotTransaction> settled = new ArrayList<>();
+            long upTo = intentLog.withAppendsPaused(lastSequence -> {
+                for (HotRow row : rows.values()) {
+                    int delta = row.pending.getAndSet(0);
+                    if (delta != 0) {
+                        drained.put(row, delta);
+                    }
+                }
+                // The drained deltas include those of transactions that have not completed yet
+                for (HotTransaction transaction : openTransactions.values()) {
+                    transaction.deltas.forEach((row, delta) -> {
+                        if (delta != 0) {
+                            open.add(new HotSkuTransactionRepository.OpenDelta(
+                                    transaction.token, row.productId, row.storeLocation, delta));
+                        }
+                    });
+                }
+                for (HotTransaction transaction; (transaction = settledTransactions.poll()) != null; ) {
+                    settled.add(transaction);
+                }
+                return lastSequence;
+            });
+            if (upTo == lastCheckpoint && settled.isEmpty() && open.isEmpty() && !openDeltasRecorded) {
+                return;
+            }
+
+            try {
+                writeDeltas(drained, upTo, open.isEmpty() && !openDeltasRecorded ? null : open,
+                        settled.stream().map(t -> t.token).toList());
+            } catch (RuntimeException e) {
+                // The intents are still in the log past the old checkpoint; keep them pending
+                drained.forEach((row, delta) -> row.pending.addAndGet(delta));
+                settledTransactions.addAll(settled);
+                log.error("Hot-SKU flush failed, will retry: {}", e.getMessage());
+                return;
+            }
+            lastCheckpoint = upTo;
+            openDeltasRecorded = !open.isEmpty();
+            try {
+                intentLog.truncateIfCheckpointed(upTo);
+            } catch (IOException e) {
+                log.warn("Could not truncate hot-SKU intent log: {}", e.getMessage());
+            }
+        } finally {
+            flushLock.unlock();
+        }
+        rows.values().forEach(row -> row.counter.rebalance());
+    }
+
+    @PreDestroy
+    public void shutdown() throws IOException, InterruptedException {
+        flusher.shutdown();
+        flusher.awaitTermination(10, TimeUnit.SECONDS);
+        if (intentLog == null) {
+            return;
+        }
+        flush();
+        ready = false;
+        intentLog.close();
+    }
+
+    // A periodic task that throws is never run again
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            log.error("Hot-SKU flush failed", e);
+        }
+    }
+
+    /**
+     * Writes the deltas logged after the checkpoint by committed transactions, reverses the
+     * deltas flushed for transactions that never committed, and returns the deltas the database
+     * rejected (keyed like {@link #rows}), which stay pending on the rows built by {@link #start()}.
+     */
+    private Map<String, Integer> recover() throws IOException {
+        List<HotSkuIntentLog.Entry> unflushed = intentLog.readAfter(lastCheckpoint);
+        List<HotSkuTransactionRepository.OpenDelta> open = transactionRepository.findOpenDeltas();
+        if (unflushed.isEmpty() && open.isEmpty()) {
+            return Map.of();
+        }
+        Set<Long> tokens = new HashSet<>();
+        unflushed.stream().filter(e -> e.getToken() != 0).forEach(e -> tokens.add(e.getToken()));
+        open.forEach(d -> tokens.add(d.getToken()));
+        Set<Long> committed = transactionRepository.findCommitted(tokens);
+
+        Map<HotRow, Integer> deltas = new LinkedHashMap<>();
+        long upTo = lastCheckpoint;
+        int skipped = 0;
+        for (HotSkuIntentLog.Entry entry : unflushed) {
+            upTo = Math.max(upTo, entry.getSequence());
+            if (entry.getToken() != 0 && !committed.contains(entry.getToken())) {
+                skipped++;
+                continue;
+            }
+            HotRow row = new HotRow(entry.getProductId(), entry.getStoreLocation(), null);
+            deltas.merge(row, entry.getDelta(), Integer::sum);
+        }
+        int reversed = 0;
+        for (HotSkuTransactionRepository.OpenDelta delta : open) {
+            if (!committed.contains(delta.getToken())) {
+                deltas.merge(new HotRow(delta.getProductId(), delta.getStoreLocation(), null), -delta.getDelta(),
+                        Integer::sum);
+                reversed++;
+            }
+        }
+        deltas.values().removeIf(delta -> delta == 0);
+        writeDeltas(deltas, upTo, List.of(), List.of());
+        lastCheckpoint = upTo;
+        // Every committed transaction's intents are now at or below the checkpoint
+        transactionRepository.deleteCommitsUpTo(upTo);
+        intentLog.truncateIfCheckpointed(upTo);
+        log.info("Replayed {} hot-SKU intents up to sequence {}; skipped {} and reversed {} flushed deltas "
+                + "of transactions that never committed", unflushed.size() - skipped, upTo, skipped, reversed);
+
+        Map<String, Integer> carried = new HashMap<>();
+        for (HotRow row : deltas.keySet()) {
+            if (row.pending.get() != 0) {
+                carried.put(key(row.productId, row.storeLocation), row.pending.get());
+            }
+        }
+        return carried;
+    }
+
+    /**
+     * Applies net deltas per row (in key order), syncs the products once and records the
+     * checkpoint, all in one transaction. With the checkpoint it replaces the recorded deltas of
+     * open transactions (unless {@code open} is null) and removes the commit markers of settled
+     * ones. A rejected delta is appended to the log again (past the checkpoint) and added back to
+     * its row's pending before the checkpoint commits; if the transaction fails, those carried
+     * intents are compensated and the caller restores the deltas.
+     */
+    private void writeDeltas(Map<HotRow, Integer> deltas, long checkpointSequence,
+                             List<HotSkuTransactionRepository.OpenDelta> open, List<Long> settledTokens) {
+        List<HotRow> ordered = new ArrayList<>(deltas.keySet());
+        ordered.sort(Comparator.comparing((HotRow r) -> r.productId).thenComparing(r -> r.storeLocation));
+
+        Map<HotRow, Integer> carried = new LinkedHashMap<>();
+        try {
+            writeDeltas(ordered, deltas, carried, checkpointSequence, open, settledTokens);
+        } catch (RuntimeException e) {
+            carried.forEach((row, delta) -> intentLog.sync(
+                    intentLog.append(0, row.productId, row.storeLocation, -delta, () -> row.pending.addAndGet(-delta))));
+            throw e;
+        }
+    }
+
+    private void writeDeltas(List<HotRow> ordered, Map<HotRow, Integer> deltas, Map<HotRow, Integer> carried,
+                             long checkpointSequence, List<HotSkuTransactionRepository.OpenDelta> open,
+                             List<Long> settledTokens) {
+        transactionTemplate.executeWithoutResult(status -> {
+            List<StoreInventoryBatchRepository.Adjustment> adjustments = new ArrayList<>();
+            for (HotRow row : ordered) {
+                adjustments.add(new StoreInventoryBatchRepository.Adjustment(
+                        row.productId, row.storeLocation, deltas.get(row), null));
+            }
+            if (!adjustments.isEmpty()) {
+                int[] counts = batchRepository.applyAdjustments(adjustments);
+                for (int i = 0; i < counts.length; i++) {
+                    HotRow row = ordered.get(i);
+                    int delta = deltas.get(row);
+                    String key = key(row.productId, row.storeLocation);
+                    if (counts[i] > 0) {
+                        rejections.remove(key);
+                        inventoryJournalService.recordChange(row.productId, row.storeLocation,
+                                delta < 0 ? InventoryJournalService.DECREASE : InventoryJournalService.INCREASE, delta, null);
+                    } else if (!inventoryRepository.existsByProductIdAndStoreLocation(row.productId, row.storeLocation)) {
+                        rejections.remove(key);
+                        log.warn("Dropping hot-SKU delta {} for product {} at {}: the store row no longer exists",
+                                delta, row.productId, row.storeLocation);
+                    } else {
+                        int attempts = rejections.merge(key, 1, Integer::sum);
+                        if (attempts >= maxRejections) {
+                            rejections.remove(key);
+                            deadLetterRepository.save(new HotSkuDeadLetter(null, row.productId, row.storeLocation,
+                                    delta, attempts, null));
+                            log.error("Hot-SKU delta {} for product {} at {} was rejected by the database guard {} times; "
+                                    + "parked in hot_sku_dead_letters until the store row is corrected",
+                                    delta, row.productId, row.storeLocation, attempts);
+                            continue;
+                        }
+                        log.warn("Hot-SKU delta {} for product {} at {} was rejected by the database guard "
+                                + "(attempt {} of {}), carrying it to the next flush",
+                                delta, row.productId, row.storeLocation, attempts, maxRejections);
+                        long sequence = intentLog.append(0, row.productId, row.storeLocation, delta,
+                                () -> row.pending.addAndGet(delta));
+                        carried.put(row, delta);
+                        intentLog.sync(sequence);
+                    }
+                }
+                batchRepository.syncProductTotalStock(ordered.stream().map(r -> r.productId).distinct().toList());
+            }
+            checkpointRepository.save(new HotSkuCheckpoint(LOG_NAME, checkpointSequence, null));
+            if (open != null) {
+                transactionRepository.replaceOpenDeltas(open);
+            }
+            if (!settledTokens.isEmpty()) {
+                transactionRepository.deleteCommits(settledTokens);
+            }
+        });
+    }
+
+    private void reload(Long productId, String storeLocation) {
+        flushLock.lock();
+        try {
+            String key = key(productId, storeLocation);
+            // Runs after commit with the writer's persistence context still open; its managed copy
+            // of the row can predate a flush that committed after the write, so read past it
+            Optional<StoreProductInventory> inventory = inventoryRepository.findCurrent(productId, storeLocation);
+            if (inventory.isEmpty()) {
+                HotRow removed = rows.remove(key);
+                if (removed != null) {
+                    drop(removed);
+                }
+                return;
+            }
+            HotRow row = rows.get(key);
+            if (row == null) {
+                int slots = slotCount > 0 ? slotCount : Runtime.getRuntime().availableProcessors();
+                rows.put(key, new HotRow(productId, storeLocation,
+                        new StripedStockCounter(slots, inventory.get().getStockQuantity())));
+            } else {
+                // Unflushed decrements are not in the row yet. The write lock waits out decrements
+                // that have taken units from the counter but not yet added them to pending
+                row.guard.writeLock().lock();
+                try {
+                    row.counter.reset(inventory.get().getStockQuantity() + row.pending.get());
+                } finally {
+                    row.guard.writeLock().unlock();
+                }
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * Retires a row whose store row was deleted. Its unflushed units have nowhere to go, so they
+     * are dropped from pending; the flush checkpoint then passes over their intents.
+     */
+    private void drop(HotRow row) {
+        row.guard.writeLock().lock();
+        try {
+            row.removed = true;
+            int dropped = intentLog.withAppendsPaused(s -> row.pending.getAndSet(0));
+            if (dropped != 0) {
+                log.warn("Dropped unflushed hot-SKU delta {} of product {} at {}: the store row was deleted",
+                        dropped, row.productId, row.storeLocation);
+            }
+        } finally {
+            row.guard.writeLock().unlock();
+        }
+    }
+
+    private void returnUnits(HotRow row, int quantity, HotTransaction transaction) {
+        long sequence;
+        row.guard.readLock().lock();
+        try {
+            if (row.removed) {
+                return;
+            }
+            sequence = append(transaction, row, quantity);
+            row.counter.add(quantity);
+        } finally {
+            row.guard.readLock().unlock();
+        }
+        intentLog.sync(sequence);
+    }
+
+    /**
+     * Logs a change of the row, tagged with the transaction (if any), and accounts it as pending
+     * and as part of the transaction's net change while appends are still excluded.
+     */
+    private long append(HotTransaction transaction, HotRow row, int delta) {
+        long sequence = intentLog.append(transaction != null ? transaction.token : 0, row.productId, row.storeLocation,
+                delta, () -> {
+                    row.pending.addAndGet(delta);
+                    if (transaction != null) {
+                        transaction.deltas.merge(row, delta, Integer::sum);
+                    }
+                });
+        if (transaction != null) {
+            transaction.lastSequence = sequence;
+        }
+        return sequence;
+    }
+
+    /**
+     * The hot-SKU state of the current database transaction, created on first use with a
+     * synchronization that inserts the commit marker and returns the units on rollback; null
+     * outside a transaction, where intents apply unconditionally.
+     */
+    private HotTransaction currentTransaction() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return null;
+        }
+        HotTransaction existing = (HotTransaction) TransactionSynchronizationManager.getResource(transactionKey);
+        if (existing != null) {
+            return existing;
+        }
+        long token;
+        do {
+            token = ThreadLocalRandom.current().nextLong();
+        } while (token == 0 || openTransactions.containsKey(token));
+        HotTransaction transaction = new HotTransaction(token);
+        TransactionSynchronizationManager.bindResource(transactionKey, transaction);
+        openTransactions.put(token, transaction);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                if (transaction.lastSequence > 0) {
+                    // Part of the transaction: the marker exists exactly when the intents took effect
+                    transactionRepository.insertCommit(transaction.token, transaction.lastSequence);
+                }
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(transactionKey);
+                if (status != STATUS_COMMITTED) {
+                    Map<HotRow, Integer> net = intentLog.withAppendsPaused(s -> new HashMap<>(transaction.deltas));
+                    net.forEach((row, delta) -> {
+                        if (delta < 0) {
+                            log.info("Returning {} hot-SKU units for product {} at {} after rollback",
+                                    -delta, row.productId, row.storeLocation);
+                            returnUnits(row, -delta, transaction);
+                        }
+                    });
+                }
+                // Only after the returns are logged: a flush that no longer sees the transaction
+                // open has them below its checkpoint
+                openTransactions.remove(transaction.token);
+                if (status == STATUS_COMMITTED && transaction.lastSequence > 0) {
+                    settledTransactions.add(transaction);
+                }
+            }
+        });
+        return transaction;
+    }
+
+    private static String key(Long productId, String storeLocation) {
+        return productId + "|" + storeLocation;
+    }
+
+    private static class HotRow {
+        final Long productId;
+        final String storeLocation;
+        final StripedStockCounter counter;
+        // Net change applied in memory and logged, but not yet written to the database
+        final AtomicInteger pending = new AtomicInteger();
+        // Shared by decrements and returns, exclusive for a counter reset; see reload()
+        final ReentrantReadWriteLock guard = new ReentrantReadWriteLock();
+        // Set under the write lock once the store row is deleted; decrements and returns stop
+        boolean removed;
+
+        HotRow(Long productId, String storeLocation, StripedStockCounter counter) {
+            this.productId = productId;
+            this.storeLocation = storeLocation;
+            this.counter = counter;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof HotRow other
+                    && productId.equals(other.productId) && storeLocation.equals(other.storeLocation);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(productId, storeLocation);
+        }
+    }
+
+    private static class HotTransaction {
+        final long token;
+        // Net change per row of the intents logged so far; written and read under the log's append lock
+        final Map<HotRow, Integer> deltas = new HashMap<>();
+        // Sequence of the last intent logged; transaction thread only
+        long lastSequence;
+
+        HotTransaction(long token) {
+            this.token = token;
+        }
+    }
+}
@@ -0,0 +1,264 @@
+package com.shopsphere.service;
+
+import com.shopsphere.dto.StockAtTimeDTO;
+import com.shopsphere.entity.InventoryMovement;
+import com.shopsphere.entity.InventorySnapshot;
+import com.shopsphere.repository.InventoryMovementBatchRepository;
+import com.shopsphere.repository.InventoryMovementRepository;
+import com.shopsphere.repository.InventorySnapshotRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Append-only journal of store inventory changes with point-in-time stock queries.
+ * <p>
+ * Movements recorded inside a transaction are buffered and written as one JDBC batch just
+ * before that transaction commits, so the journal commits (or rolls back) with the stock change
+ * it describes. A scheduled job writes compacted snapshots of the rows that changed since the
+ * previous run; a point-in-time query starts from the nearest snapshot and replays only the
+ * movements after it.
+ * <p>
+ * Snapshots are cut on time, not on movement ids: ids are assigned on insert, so a lower id can
+ * commit after a higher one. A cut lies a settle window in the past, by which time every
+ * movement that occurred before it has committed, and a snapshot is the previous one plus the
+ * movements up to the cut. Stock that predates the journal is captured once by a seed snapshot
+ * of the store rows.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class InventoryJournalService {
+
+    public static final String DECREASE = "DECREASE";
+    public static final String INCREASE = "INCREASE";
+    public static final String ADJUST = "ADJUST";
+    public static final String SET = "SET";
+    public static final String DELETE = "DELETE";
+
+    private static final LocalDateTime JOURNAL_EPOCH = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    private final InventoryMovementRepository movementRepository;
+    private final InventorySnapshotRepository snapshotRepository;
+    private final InventoryMovementBatchRepository movementBatchRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    // Longer than any transaction that records movements
+    @Value("${shopsphere.inventory.journal.settle-seconds:300}")
+    private long settleSeconds;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void seedIfEmpty() {
+        if (snapshotRepository.count() == 0) {
+            transactionTemplate.executeWithoutResult(status -> seed());
+        }
+    }
+
+    /**
+     * Records a relative change (DECREASE, INCREASE, ADJUST). resultingQuantity may be null.
+     */
+    public void recordChange(Long productId, String storeLocation, String type, int delta, Integer resultingQuantity) {
+        record(productId, storeLocation, type, delta, resultingQuantity);
+    }
+
+    /**
+     * Records an absolute change (SET, DELETE). previousQuantity may be null when it was not read.
+     */
+    public void recordAbsolute(Long productId, String storeLocation, String type, Integer previousQuantity, int newQuantity) {
+        Integer delta = previousQuantity != null ? newQuantity - previousQuantity : null;
+        record(productId, storeLocation, type, delta, newQuantity);
+    }
+
+    @Transactional(readOnly = true)
+    public StockAtTimeDTO getStockAt(Long productId, String storeLocation, LocalDateTime at) {
+        log.info("Computing stock of product {} at store {} as of {}", productId, storeLocation, at);
+        Optional<InventorySnapshot> snapshot = snapshotRepository
+                .findFirstByProductIdAndStoreLocationAndSnapshotAtLessThanEqualOrderBySnapshotAtDesc(
+                        productId, storeLocation, at);
+
+        if (snapshot.isEmpty()) {
+            // Rows created after the seed start at zero; before the seed there is no history
+            LocalDateTime journalStart = snapshotRepository.findEarliestSnapshotTime();
+            if (journalStart != null && at.isBefore(journalStart)) {
+                throw new IllegalArgumentException("Inventory history starts at " + journalStart);
+            }
+        }
+
+        int quantity = snapshot.map(InventorySnapshot::getStockQuantity).orElse(0);
+        LocalDateTime after = snapshot.map(InventorySnapshot::getSnapshotAt).orElse(JOURNAL_EPOCH);
+        int fromPeriod = snapshot.map(s -> periodOf(s.getSnapshotAt())).orElse(0);
+
+        List<InventoryMovement> movements = movementRepository.findForReplay(
+                productId, storeLocation, after, fromPeriod, periodOf(at), at);
+        for (InventoryMovement movement : movements) {
+            quantity = apply(quantity, movement.getMovementType(), movement.getQuantityChange(),
+                    movement.getResultingQuantity());
+        }
+
+        return new StockAtTimeDTO(productId, storeLocation, at, quantity,
+                snapshot.map(InventorySnapshot::getSnapshotAt).orElse(null), movements.size());
+    }
+
+    @Transactional(readOnly = true)
+    public List<InventoryMovement> getMovements(Long productId, String storeLocation, LocalDateTime from, LocalDateTime to) {
+        return movementRepository.findHistory(productId, storeLocation, periodOf(from), periodOf(to)).stream()
+                .filter(m -> !m.getOccurredAt().isBefore(from) && !m.getOccurredAt().isAfter(to))
+                .toList();
+    }
+
+    /**
+     * Writes a compacted snapshot, at the settled cut, of every store row with movements since
+     * the previous cut.
+     */
+    @Scheduled(cron = "${shopsphere.inventory.journal.snapshot-cron:0 30 2 * * *}")
+    @Transactional
+    public void takeSnapshot() {
+        LocalDateTime since = snapshotRepository.findLatestSnapshotTime();
+        LocalDateTime cut = settledCut();
+        if (since != null && !cut.isAfter(since)) {
+            return;
+        }
+        LocalDateTime after = since != null ? since : JOURNAL_EPOCH;
+        int fromPeriod = since != null ? periodOf(since) : 0;
+        int toPeriod = periodOf(cut);
+
+        Map<String, Integer> bases = new HashMap<>();
+        movementBatchRepository.findChangedRowBases(after, cut, fromPeriod, toPeriod, rs -> {
+            int quantity = rs.getInt(3);
+            bases.put(key(rs.getLong(1), rs.getString(2)), rs.wasNull() ? 0 : quantity);
+        });
+
+        // Rows arrive grouped, each in journal order; written after the stream is closed
+        List<InventorySnapshot> snapshots = new ArrayList<>(bases.size());
+        InventorySnapshot[] current = new InventorySnapshot[1];
+        movementBatchRepository.streamMovementsBetween(after, cut, fromPeriod, toPeriod, rs -> {
+            long productId = rs.getLong(2);
+            String storeLocation = rs.getString(3);
+            InventorySnapshot row = current[0];
+            if (row == null || row.getProductId() != productId || !row.getStoreLocation().equals(storeLocation)) {
+                row = new InventorySnapshot(null, productId, storeLocation,
+                        bases.getOrDefault(key(productId, storeLocation), 0), 0L, cut);
+                snapshots.add(row);
+                current[0] = row;
+            }
+            int change = rs.getInt(5);
+            Integer quantityChange = rs.wasNull() ? null : change;
+            int resulting = rs.getInt(6);
+            Integer resultingQuantity = rs.wasNull() ? null : resulting;
+            row.setStockQuantity(apply(row.getStockQuantity(), rs.getString(4), quantityChange, resultingQuantity));
+            row.setLastMovementId(rs.getLong(1));
+        });
+
+        movementBatchRepository.insertSnapshots(snapshots);
+        log.info("Inventory snapshot at {} wrote {} rows", cut, snapshots.size());
+    }
+
+    /**
+     * Snapshots every store row at the settled cut: its current quantity with the movements
+     * committed after the cut taken back out. The store rows are read under shared locks, so no
+     * change is half applied; a row whose changes since the cut include a SET of an unread
+     * quantity cannot be taken back and is left without a seed.
+     */
+    private void seed() {
+        LocalDateTime cut = settledCut();
+        Map<String, InventorySnapshot> rows = new HashMap<>();
+        movementBatchRepository.lockStoreRows(rs -> {
+            long productId = rs.getLong(1);
+            String storeLocation = rs.getString(2);
+            rows.put(key(productId, storeLocation),
+                    new InventorySnapshot(null, productId, storeLocation, rs.getInt(3), 0L, cut));
+        });
+
+        Set<String> unknown = new HashSet<>();
+        movementBatchRepository.streamChangesAfter(cut, periodOf(cut), rs -> {
+            String key = key(rs.getLong(1), rs.getString(2));
+            InventorySnapshot row = rows.get(key);
+            if (row == null) {
+                return;
+            }
+            int change = rs.getInt(3);
+            if (rs.wasNull()) {
+                unknown.add(key);
+            } else {
+                row.setStockQuantity(row.getStockQuantity() - change);
+            }
+        });
+        unknown.forEach(rows::remove);
+
+        movementBatchRepository.insertSnapshots(new ArrayList<>(rows.values()));
+        log.info("Seeded the inventory journal at {} with {} rows ({} rows changed too recently to seed)",
+                cut, rows.size(), unknown.size());
+    }
+
+    private void record(Long productId, String storeLocation, String type, Integer delta, Integer resultingQuantity) {
+        LocalDateTime now = LocalDateTime.now();
+        InventoryMovement movement = new InventoryMovement(null, productId, storeLocation, type, delta,
+                resultingQuantity, periodOf(now), now);
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            movementBatchRepository.insertMovements(List.of(movement));
+            return;
+        }
+
+        @SuppressWarnings("unchecked")
+        List<InventoryMovement> buffer = (List<InventoryMovement>) TransactionSynchronizationManager.getResource(this);
+        if (buffer == null) {
+            List<InventoryMovement> newBuffer = new ArrayList<>();
+            TransactionSynchronizationManager.bindResource(this, newBuffer);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    if (!newBuffer.isEmpty()) {
+                        movementBatchRepository.insertMovements(newBuffer);
+                        newBuffer.clear();
+                    }
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(InventoryJournalService.this);
+                }
+            });
+            buffer = newBuffer;
+        }
+        buffer.add(movement);
+    }
+
+    private static int apply(int quantity, String type, Integer quantityChange, Integer resultingQuantity) {
+        boolean absolute = SET.equals(type) || DELETE.equals(type);
+        if (absolute || quantityChange == null) {
+            return resultingQuantity;
+        }
+        return quantity + quantityChange;
+    }
+
+    private LocalDateTime settledCut() {
+        return LocalDateTime.now().minusSeconds(settleSeconds).truncatedTo(ChronoUnit.SECONDS);
+    }
+
+    private static String key(long productId, String storeLocation) {
+        return productId + "|" + storeLocation;
+    }
+
+    private static int periodOf(LocalDateTime time) {
+        return time.getYear() * 100 + time.getMonthValue();
+    }
+}
@@ -0,0 +1,192 @@
+package com.shopsphere.service;
+
+import com.shopsphere.analytics.LiveRateRing;
+import com.shopsphere.dto.LiveOrderRateDTO;
+import com.shopsphere.event.OrderEvent;
+import com.shopsphere.util.Money;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Live order, revenue and cancellation rates for the admin dashboard, kept entirely in memory.
+ * <p>
+ * Committed order events are counted into a per-second ring (two minutes) and a per-minute ring
+ * (one hour) without locking. Dashboards subscribe through {@link #subscribe()}: they receive a
+ * full snapshot once and then, on every push, the seconds completed since the previous push
+ * together with rolling minute and hour totals, so keeping a dashboard live never touches the
+ * database. The rings start empty on every restart.
+ * <p>
+ * Pushes run on a dedicated thread: a send can block on a slow client's socket, which must not
+ * hold up the shared {@code @Scheduled} pool.
+ */
+@Service
+@Slf4j
+public class LiveOrderRateService {
+
+    private static final long SECOND_MS = 1_000L;
+    private static final long MINUTE_MS = 60_000L;
+    private static final String SNAPSHOT_EVENT = "snapshot";
+    private static final String DELTA_EVENT = "delta";
+
+    private final LiveRateRing seconds = new LiveRateRing(SECOND_MS, 120);
+    private final LiveRateRing minutes = new LiveRateRing(MINUTE_MS, 60);
+    private final List<SseEmitter> emitters = new CopyOnWriteArrayList<>();
+
+    @Value("${shopsphere.analytics.live.emitter-timeout-ms:1800000}")
+    private long emitterTimeoutMs;
+
+    @Value("${shopsphere.analytics.live.push-interval-ms:1000}")
+    private long pushIntervalMs;
+
+    private final ScheduledExecutorService pusher = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "live-order-push");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // Last second included in a push; only touched by the push task
+    private long lastPushedSecond = -1;
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onOrderEvent(OrderEvent event) {
+        int delta = event.salesDelta();
+        if (delta == 0 || event.getTotalAmount() == null) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        long cents = Money.of(event.getTotalAmount()).cents();
+        if (delta > 0) {
+            seconds.recordOrder(now, cents);
+            minutes.recordOrder(now, cents);
+        } else {
+            seconds.recordCancellation(now, cents);
+            minutes.recordCancellation(now, cents);
+        }
+    }
+
+    /**
+     * Current rolling totals with the full per-second and per-minute series.
+     */
+    public LiveOrderRateDTO getSnapshot() {
+        long now = System.currentTimeMillis();
+        long second = seconds.period(now);
+        long minute = minutes.period(now);
+        return new LiveOrderRateDTO(toDateTime(now), lastMinute(second), lastHour(minute),
+                series(seconds, second - seconds.capacity() + 1, second),
+                series(minutes, minute - minutes.capacity() + 1, minute));
+    }
+
+    /**
+     * Registers a server-sent event stream: a {@code snapshot} event now, then a {@code delta}
+     * event per push. Controllers return the emitter as the response body.
+     */
+    public SseEmitter subscribe() {
+        SseEmitter emitter = new SseEmitter(emitterTimeoutMs);
+        emitter.onCompletion(() -> emitters.remove(emitter));
+        emitter.onTimeout(() -> emitters.remove(emitter));
+        emitter.onError(e -> emitters.remove(emitter));
+        emitters.add(emitter);
+        try {
+            emitter.send(SseEmitter.event().name(SNAPSHOT_EVENT).data(getSnapshot()));
+        } catch (IOException e) {
+            emitters.remove(emitter);
+            emitter.completeWithError(e);
+        }
+        return emitter;
+    }
+
+    public int getSubscriberCount() {
+        return emitters.size();
+    }
+
+    @PostConstruct
+    public void start() {
+        pusher.scheduleWithFixedDelay(this::pushQuietly, pushIntervalMs, pushIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    public void push() {
+        long now = System.currentTimeMillis();
+        // Only completed seconds are pushed, so a pushed second does not change afterwards
+        long lastComplete = seconds.period(now) - 1;
+        long firstNew = Math.max(lastPushedSecond + 1, lastComplete - seconds.capacity() + 2);
+        lastPushedSecond = lastComplete;
+        if (emitters.isEmpty()) {
+            return;
+        }
+        long minute = minutes.period(now);
+        LiveOrderRateDTO delta = new LiveOrderRateDTO(toDateTime(now), lastMinute(seconds.period(now)),
+                lastHour(minute), series(seconds, firstNew, lastComplete), series(minutes, minute, minute));
+
+        for (SseEmitter emitter : emitters) {
+            try {
+                emitter.send(SseEmitter.event().name(DELTA_EVENT).data(delta));
+            } catch (IOException | IllegalStateException e) {
+                // Client went away or the emitter already completed
+                emitters.remove(emitter);
+                emitter.completeWithError(e);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        pusher.shutdown();
+        pusher.awaitTermination(5, TimeUnit.SECONDS);
+        for (SseEmitter emitter : emitters) {
+            emitter.complete();
+        }
+        emitters.clear();
+    }
+
+    // A periodic task that throws is never run again
+    private void pushQuietly() {
+        try {
+            push();
+        } catch (RuntimeException e) {
+            log.error("Live order rate push failed", e);
+        }
+    }
+
+    private LiveOrderRateDTO.IntervalDTO lastMinute(long second) {
+        return toInterval(seconds, seconds.sum(second - 59, second));
+    }
+
+    private LiveOrderRateDTO.IntervalDTO lastHour(long minute) {
+        return toInterval(minutes, minutes.sum(minute - 59, minute));
+    }
+
+    private static List<LiveOrderRateDTO.IntervalDTO> series(LiveRateRing ring, long from, long to) {
+        List<LiveOrderRateDTO.IntervalDTO> series = new ArrayList<>((int) Math.max(0, to - from + 1));
+        for (long period = from; period <= to; period++) {
+            series.add(toInterval(ring, ring.get(period)));
+        }
+        return series;
+    }
+
+    private static LiveOrderRateDTO.IntervalDTO toInterval(LiveRateRing ring, LiveRateRing.Totals totals) {
+        return new LiveOrderRateDTO.IntervalDTO(toDateTime(ring.periodStartMillis(totals.getPeriod())),
+                totals.getOrders(), Money.ofCents(totals.getRevenueCents()).toBigDecimal(),
+                totals.getCancellations(), Money.ofCents(totals.getCancelledRevenueCents()).toBigDecimal());
+    }
+
+    private static LocalDateTime toDateTime(long epochMillis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneId.systemDefault());
+    }
+}
@@ -0,0 +1,200 @@
+package com.shopsphere.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.util.MinimalPrettyPrinter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.shopsphere.repository.OrderExportRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Streams orders and their lines for a date range straight to an output stream.
+ * <p>
+ * Rows come from a forward-only cursor and are written as they are read, so heap use does not
+ * grow with the export size. CSV has one row per order line with the order columns repeated;
+ * NDJSON has one object per order with its lines nested. Callers pass the response stream
+ * (e.g. from a {@code StreamingResponseBody}); it is flushed but not closed.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class OrderExportService {
+
+    public enum Format { CSV, NDJSON }
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private static final String[] ORDER_COLUMNS = {"orderId", "createdAt", "customerId", "orderType", "status",
+            "totalAmount", "discountAmount", "storeLocation", "campaignId", "paymentMethod", "paymentStatus"};
+    private static final String[] LINE_COLUMNS = {"orderItemId", "productId", "productSku", "productName",
+            "quantity", "unitPrice", "originalPrice", "subtotal", "lineStoreLocation"};
+
+    private final OrderExportRepository exportRepository;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Writes every order created in [from, to] with its lines.
+     *
+     * @return number of rows read (order lines, plus one per order without lines)
+     */
+    public long export(LocalDate from, LocalDate to, Format format, boolean gzip, OutputStream out) throws IOException {
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("Start date must not be after end date");
+        }
+        long startedAt = System.currentTimeMillis();
+        GZIPOutputStream compressed = gzip ? new GZIPOutputStream(out, BUFFER_SIZE) : null;
+        Writer writer = new BufferedWriter(new OutputStreamWriter(compressed != null ? compressed : out,
+                StandardCharsets.UTF_8), BUFFER_SIZE);
+        long rows;
+        try {
+            rows = format == Format.CSV ? writeCsv(from, to, writer) : writeNdjson(from, to, writer);
+        } catch (UncheckedIOException e) {
+            // Typically the client went away; the cursor has been closed by then
+            throw e.getCause();
+        }
+        writer.flush();
+        if (compressed != null) {
+            compressed.finish();
+        }
+        out.flush();
+        log.info("Exported {} order rows for {} to {} as {} in {} ms", rows, from, to, format,
+                System.currentTimeMillis() - startedAt);
+        return rows;
+    }
+
+    private long writeCsv(LocalDate from, LocalDate to, Writer writer) throws IOException {
+        writer.write(String.join(",", ORDER_COLUMNS));
+        writer.write(',');
+        writer.write(String.join(",", LINE_COLUMNS));
+        writer.write('\n');
+        long[] rows = {0};
+        int columns = ORDER_COLUMNS.length + LINE_COLUMNS.length;
+        exportRepository.streamOrderLines(from, to, rs -> {
+            try {
+                for (int i = 1; i <= columns; i++) {
+                    if (i > 1) {
+                        writer.write(',');
+                    }
+                    writeCsvField(writer, columnText(rs, i));
+                }
+                writer.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            rows[0]++;
+        });
+        return rows[0];
+    }
+
+    private long writeNdjson(LocalDate from, LocalDate to, Writer writer) throws IOException {
+        JsonGenerator json = objectMapper.getFactory().createGenerator(writer);
+        json.setPrettyPrinter(new MinimalPrettyPrinter("\n"));
+        // The writer belongs to export(), which flushes it
+        json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        long[] rows = {0};
+        long[] currentOrderId = {-1};
+        exportRepository.streamOrderLines(from, to, rs -> {
+            try {
+                long orderId = rs.getLong(1);
+                if (orderId != currentOrderId[0]) {
+                    if (currentOrderId[0] >= 0) {
+                        json.writeEndArray();
+                        json.writeEndObject();
+                    }
+                    currentOrderId[0] = orderId;
+                    json.writeStartObject();
+                    for (int i = 1; i <= ORDER_COLUMNS.length; i++) {
+                        writeJsonField(json, ORDER_COLUMNS[i - 1], rs, i);
+                    }
+                    json.writeArrayFieldStart("lines");
+                }
+                rs.getLong(ORDER_COLUMNS.length + 1);
+                if (!rs.wasNull()) {
+                    json.writeStartObject();
+                    for (int i = 0; i < LINE_COLUMNS.length; i++) {
+                        writeJsonField(json, LINE_COLUMNS[i], rs, ORDER_COLUMNS.length + 1 + i);
+                    }
+                    json.writeEndObject();
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            rows[0]++;
+        });
+        if (currentOrderId[0] >= 0) {
+            json.writeEndArray();
+            json.writeEndObject();
+        }
+        json.close();
+        if (currentOrderId[0] >= 0) {
+            writer.write('\n');
+        }
+        return rows[0];
+    }
+
+    private static void writeJsonField(JsonGenerator json, String name, ResultSet rs, int column)
+            throws IOException, SQLException {
+        Object value = rs.getObject(column);
+        if (value == null) {
+            json.writeNullField(name);
+        } else if (value instanceof BigDecimal decimal) {
+            json.writeNumberField(name, decimal);
+        } else if (value instanceof Number number) {
+            json.writeNumberField(name, number.longValue());
+        } else {
+            json.writeStringField(name, text(value));
+        }
+    }
+
+    private static String columnText(ResultSet rs, int column) throws SQLException {
+        Object value = rs.getObject(column);
+        return value == null ? "" : text(value);
+    }
+
+    private static String text(Object value) {
+        if (value instanceof Timestamp timestamp) {
+            return timestamp.toLocalDateTime().toString();
+        }
+        if (value instanceof BigDecimal decimal) {
+            return decimal.toPlainString();
+        }
+        return value.toString();
+    }
+
+    // RFC 4180: quote fields containing separators, quotes or line breaks; double embedded quotes
+    private static void writeCsvField(Writer writer, String value) throws IOException {
+        boolean quote = false;
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                writer.write('"');
+            }
+            writer.write(c);
+        }
+        writer.write('"');
+    }
+}
@@ -9,13 +9,16 @@ import com.shopsphere.entity.Order;
 import com.shopsphere.entity.OrderItem;
 import com.shopsphere.entity.Payment;
 import com.shopsphere.entity.Product;
+import com.shopsphere.event.OrderEvent;
 import com.shopsphere.exception.ResourceNotFoundException;
 import com.shopsphere.repository.OrderRepository;
 import com.shopsphere.repository.PaymentRepository;
 import com.shopsphere.repository.ProductRepository;
 import com.shopsphere.repository.StoreProductInventoryRepository;
+import com.shopsphere.util.Money;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -36,8 +39,12 @@ public class OrderService {
     private final ProductRepository productRepository;
     private final StoreProductInventoryRepository storeInventoryRepository;
     private final StoreInventoryService storeInventoryService;
+    private final HotSkuStockService hotSkuStockService;
+    private final InventoryJournalService inventoryJournalService;
     private final LoyaltyService loyaltyService;
     private final CampaignService campaignService;
+    private final ChannelAllocationService channelAllocationService;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Transactional
     public OrderResponse createOrder(CreateOrderRequest request) {
@@ -95,8 +102,8 @@ public class OrderService {
                             " is not available at store " + request.getStoreLocation());
                 }
             } else {
-                // Check general product stock
-                if (product.getStockQuantity() < itemDTO.getQuantity()) {
+                // Check the precomputed online-sellable stock (store reserve floors and caps applied)
+                if (channelAllocationService.getOnlineSellable(product.getProductId()) < itemDTO.getQuantity()) {
                     throw new IllegalArgumentException("Insufficient stock for product: " + product.getName());
                 }
             }
@@ -123,40 +130,19 @@ public class OrderService {
                 log.info("Processing IN_STORE order - reducing stock from store: {}", request.getStoreLocation());
                 storeInventoryService.decreaseStock(product.getProductId(), request.getStoreLocation(), itemDTO.getQuantity());
             } else {
-                // For ONLINE orders, find first store with sufficient stock and reduce from there
-                log.info("Processing ONLINE order - finding store with sufficient stock for product {}", product.getProductId());
+                // For ONLINE orders, draw only the online share of each store, in store priority order
+                log.info("Processing ONLINE order - allocating stock across stores for product {}", product.getProductId());
                 List<com.shopsphere.entity.StoreProductInventory> storeInventories = 
                         storeInventoryRepository.findByProductId(product.getProductId());
-                
-                boolean stockReduced = false;
-                for (com.shopsphere.entity.StoreProductInventory inventory : storeInventories) {
-                    if (inventory.hasStock(itemDTO.getQuantity())) {
-                        log.info("Reducing {} units from store: {}", itemDTO.getQuantity(), inventory.getStoreLocation());
-                        storeInventoryService.decreaseStock(product.getProductId(), inventory.getStoreLocation(), itemDTO.getQuantity());
-                        stockReduced = true;
-                        break;
-                    }
+
+                List<ChannelAllocationService.Allocation> allocations =
+                        channelAllocationService.allocateOnline(storeInventories, itemDTO.getQuantity());
+                if (allocations.isEmpty()) {
+                    throw new IllegalArgumentException("Insufficient stock across all stores for product: " + product.getName());
                 }
-                
-                if (!stockReduced) {
-                    log.warn("No single store has sufficient stock - attempting to fulfill from multiple stores");
-                    // Try to fulfill from multiple stores if no single store has enough
-                    int remainingQuantity = itemDTO.getQuantity();
-                    for (com.shopsphere.entity.StoreProductInventory inventory : storeInventories) {
-                        if (remainingQuantity <= 0) break;
-                        
-                        int availableAtStore = inventory.getStockQuantity();
-                        if (availableAtStore > 0) {
-                            int toReduce = Math.min(availableAtStore, remainingQuantity);
-                            log.info("Reducing {} units from store: {}", toReduce, inventory.getStoreLocation());
-                            storeInventoryService.decreaseStock(product.getProductId(), inventory.getStoreLocation(), toReduce);
-                            remainingQuantity -= toReduce;
-                        }
-                    }
-                    
-                    if (remainingQuantity > 0) {
-                        throw new IllegalArgumentException("Insufficient stock across all stores for product: " + product.getName());
-                    }
+                for (ChannelAllocationService.Allocation allocation : allocations) {
+                    log.info("Reducing {} units from store: {}", allocation.getQuantity(), allocation.getStoreLocation());
+                    storeInventoryService.decreaseStock(product.getProductId(), allocation.getStoreLocation(), allocation.getQuantity());
                 }
             }
             
@@ -209,6 +195,7 @@ public class OrderService {
         log.info("Order discountCode: {}", savedOrder.getDiscountCode());
         log.info("Order discountAmount: {}", savedOrder.getDiscountAmount());
 
+        eventPublisher.publishEvent(OrderEvent.created(savedOrder));
         return convertToOrderResponse(savedOrder);
     }
 
@@ -327,6 +314,9 @@ public class OrderService {
 
         Order updatedOrder = orderRepository.save(order);
         log.info("Order status updated successfully");
+        if (!newStatus.equals(previousStatus)) {
+            eventPublisher.publishEvent(OrderEvent.statusChanged(updatedOrder, previousStatus));
+        }
         
         return convertToOrderResponse(updatedOrder);
     }
@@ -341,9 +331,11 @@ public class OrderService {
             throw new IllegalArgumentException("Order cannot be cancelled in current status: " + order.getStatus());
         }
 
+        String previousStatus = order.getStatus();
         order.setStatus("CANCELLED");
         restoreStock(order);
         orderRepository.save(order);
+        eventPublisher.publishEvent(OrderEvent.statusChanged(order, previousStatus));
         
         log.info("Order cancelled successfully");
     }
@@ -397,11 +389,15 @@ public class OrderService {
 
                 // Restore store-specific inventory if applicable
                 if (item.getStoreLocation() != null) {
-                    storeInventoryRepository.findByProductIdAndStoreLocation(
-                            item.getProductId(), item.getStoreLocation())
+                    // Locked so a concurrent hot-SKU flush is not overwritten by the absolute save
+                    storeInventoryRepository.findForUpdate(item.getProductId(), item.getStoreLocation())
                             .ifPresent(inventory -> {
                                 inventory.increaseStock(item.getQuantity());
                                 storeInventoryRepository.save(inventory);
+                                inventoryJournalService.recordChange(item.getProductId(), item.getStoreLocation(),
+                                        InventoryJournalService.INCREASE, item.getQuantity(), inventory.getStockQuantity());
+                                hotSkuStockService.afterDirectWrite(item.getProductId(), item.getStoreLocation());
+                                channelAllocationService.refreshProduct(item.getProductId());
                             });
                 }
             }
@@ -458,15 +454,15 @@ public class OrderService {
                 response.setCampaignTitle(campaign.getTitle());
                 
                 // Calculate campaign savings
-                BigDecimal campaignSavings = BigDecimal.ZERO;
+                Money campaignSavings = Money.ZERO;
                 for (OrderItem item : order.getOrderItems()) {
                     if (item.getOriginalPrice() != null && item.getUnitPrice() != null) {
-                        BigDecimal itemSavings = item.getOriginalPrice().subtract(item.getUnitPrice())
-                                .multiply(BigDecimal.valueOf(item.getQuantity()));
-                        campaignSavings = campaignSavings.add(itemSavings);
+                        Money itemSavings = Money.of(item.getOriginalPrice()).minus(Money.of(item.getUnitPrice()))
+                                .times(item.getQuantity());
+                        campaignSavings = campaignSavings.plus(itemSavings);
                     }
                 }
-                response.setCampaignSavings(campaignSavings);
+                response.setCampaignSavings(campaignSavings.toBigDecimal());
             } catch (Exception e) {
                     log.warn("Could not fetch campaign details for order {}: {}", order.getCampaignId(), e.getMessage());
                     response.setCampaignTitle("Campaign Offer");
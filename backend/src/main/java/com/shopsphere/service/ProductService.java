@@ -27,6 +27,10 @@ public class ProductService {
     private final StoreInventoryService storeInventoryService;
     private final CampaignProductRepository campaignProductRepository;
     private final StoreProductInventoryRepository storeInventoryRepository;
+    private final InventoryJournalService inventoryJournalService;
+    private final ChannelAllocationService channelAllocationService;
+    private final ReorderPointService reorderPointService;
+    private final CategoryIndexService categoryIndexService;
 
     @Value("${shopsphere.inventory.low-stock-threshold:10}")
     private int lowStockThreshold;
@@ -44,7 +48,8 @@ public class ProductService {
         dto.setStoreLocation(product.getStoreLocation());
         dto.setImageUrl(product.getImageUrl());
         dto.setIsActive(product.getIsActive());
-        dto.setIsLowStock(product.isLowStock(lowStockThreshold));
+        dto.setIsLowStock(product.isLowStock(reorderPointService.getProductThreshold(product.getProductId())));
+        dto.setOnlineSellableQuantity(channelAllocationService.getOnlineSellable(product.getProductId()));
         dto.setCreatedAt(product.getCreatedAt());
         dto.setUpdatedAt(product.getUpdatedAt());
         return dto;
@@ -91,6 +96,7 @@ public class ProductService {
         log.info("Creating new product: {}", productDTO.getName());
         Product product = convertToEntity(productDTO);
         Product savedProduct = productRepository.save(product);
+        categoryIndexService.invalidate();
         log.info("Product created successfully with ID: {}", savedProduct.getProductId());
         
         // If initial store location is provided, create store inventory entry
@@ -132,6 +138,7 @@ public class ProductService {
         }
 
         Product updatedProduct = productRepository.save(existingProduct);
+        categoryIndexService.invalidate();
         log.info("Product updated successfully with ID: {}", updatedProduct.getProductId());
         return convertToDTO(updatedProduct);
     }
@@ -151,10 +158,14 @@ public class ProductService {
 
         // 2. Delete from store_product_inventory table
         log.info("Deleting store inventory records for product ID: {}", id);
+        storeInventoryRepository.findByProductId(id).forEach(inv -> inventoryJournalService.recordAbsolute(
+                id, inv.getStoreLocation(), InventoryJournalService.DELETE, inv.getStockQuantity(), 0));
         storeInventoryRepository.deleteByProductId(id);
+        channelAllocationService.removeProduct(id);
 
         // 3. Finally delete the product
         productRepository.delete(product);
+        categoryIndexService.invalidate();
         log.info("Product deleted successfully with ID: {}", id);
     }
 
@@ -171,7 +182,7 @@ public class ProductService {
     // Get low stock products
     @Transactional(readOnly = true)
     public List<ProductDTO> getLowStockProducts() {
-        log.info("Fetching low stock products (threshold: {})", lowStockThreshold);
+        log.info("Fetching low stock products (reorder points, fallback threshold: {})", lowStockThreshold);
         return productRepository.findLowStockProducts(lowStockThreshold)
                 .stream()
                 .map(this::convertToDTO)
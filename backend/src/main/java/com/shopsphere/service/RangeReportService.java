@@ -0,0 +1,292 @@
+package com.shopsphere.service;
+
+import com.shopsphere.dto.RangeReportDTO;
+import com.shopsphere.dto.SalesAnalyticsDTO;
+import com.shopsphere.entity.Product;
+import com.shopsphere.repository.ProductRepository;
+import com.shopsphere.repository.RangeReportRepository;
+import com.shopsphere.util.Money;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sales reports over arbitrary historical ranges, computed from orders in parallel.
+ * <p>
+ * The range is split into day or week partitions. Each partition streams its own orders
+ * through a forward-only query on a shared bounded pool and aggregates them into primitive
+ * counters; the partial results are merged into totals, a per-period series and top products.
+ * A report stops when it exceeds its timeout or its calling thread is interrupted: queued
+ * partitions are cancelled, running statements are cancelled on the server (a streaming result
+ * set would otherwise read all its remaining rows on close), and every statement also carries
+ * a driver-side query timeout.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class RangeReportService {
+
+    public enum Granularity { DAY, WEEK }
+
+    private static final int TOP_PRODUCTS = 10;
+
+    private final RangeReportRepository rangeReportRepository;
+    private final ProductRepository productRepository;
+
+    @Value("${shopsphere.analytics.range-report.parallelism:4}")
+    private int parallelism;
+
+    @Value("${shopsphere.analytics.range-report.timeout-seconds:120}")
+    private int defaultTimeoutSeconds;
+
+    @Value("${shopsphere.analytics.range-report.max-partitions:1000}")
+    private int maxPartitions;
+
+    private volatile ExecutorService pool;
+
+    public RangeReportDTO generateReport(LocalDate from, LocalDate to, Granularity granularity) {
+        return generateReport(from, to, granularity, defaultTimeoutSeconds);
+    }
+
+    /**
+     * Report over orders created in [from, to].
+     *
+     * @throws IllegalStateException if the report times out, is interrupted or a partition fails
+     */
+    public RangeReportDTO generateReport(LocalDate from, LocalDate to, Granularity granularity, int timeoutSeconds) {
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("Start date must not be after end date");
+        }
+        List<LocalDate[]> periods = partition(from, to, granularity);
+        if (periods.size() > maxPartitions) {
+            throw new IllegalArgumentException("Range splits into " + periods.size() + " partitions; the limit is "
+                    + maxPartitions + ". Use a coarser granularity or a shorter range");
+        }
+        long startedAt = System.currentTimeMillis();
+        long deadline = startedAt + TimeUnit.SECONDS.toMillis(timeoutSeconds);
+        AtomicBoolean cancelled = new AtomicBoolean();
+        Set<Statement> running = ConcurrentHashMap.newKeySet();
+
+        List<Future<PartialReport>> futures = new ArrayList<>(periods.size());
+        PartialReport[] partials = new PartialReport[periods.size()];
+        try {
+            for (LocalDate[] period : periods) {
+                futures.add(pool().submit(() -> aggregate(period[0], period[1], deadline, cancelled, running)));
+            }
+            for (int i = 0; i < futures.size(); i++) {
+                long remaining = deadline - System.currentTimeMillis();
+                partials[i] = futures.get(i).get(Math.max(remaining, 0), TimeUnit.MILLISECONDS);
+            }
+        } catch (TimeoutException e) {
+            cancel(futures, cancelled, running);
+            throw new IllegalStateException("Range report for " + from + " to " + to + " timed out after "
+                    + timeoutSeconds + " s", e);
+        } catch (InterruptedException e) {
+            cancel(futures, cancelled, running);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Range report was cancelled", e);
+        } catch (ExecutionException e) {
+            cancel(futures, cancelled, running);
+            throw new IllegalStateException("Range report partition failed: " + e.getCause().getMessage(), e.getCause());
+        }
+
+        RangeReportDTO report = merge(from, to, granularity, periods, partials);
+        report.setDurationMs(System.currentTimeMillis() - startedAt);
+        log.info("Range report {} to {} by {}: {} partitions in {} ms", from, to, granularity, periods.size(),
+                report.getDurationMs());
+        return report;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (pool != null) {
+            pool.shutdownNow();
+        }
+    }
+
+    private PartialReport aggregate(LocalDate from, LocalDate toExclusive, long deadline, AtomicBoolean cancelled,
+                                    Set<Statement> running) {
+        PartialReport partial = new PartialReport();
+        int timeoutSeconds = (int) Math.max(1, TimeUnit.MILLISECONDS.toSeconds(deadline - System.currentTimeMillis()));
+        long[] lastOrderId = {-1};
+        boolean[] orderCounted = {false};
+        Statement[] statement = new Statement[1];
+        try {
+            rangeReportRepository.streamPartition(from, toExclusive, timeoutSeconds, ps -> {
+                statement[0] = ps;
+                running.add(ps);
+                // cancel() may have run before this statement was registered
+                if (cancelled.get()) {
+                    throw new CancellationException("Range report cancelled");
+                }
+            }, rs -> {
+                if (cancelled.get()) {
+                    throw new CancellationException("Range report cancelled");
+                }
+                long orderId = rs.getLong(1);
+                if (orderId != lastOrderId[0]) {
+                    lastOrderId[0] = orderId;
+                    orderCounted[0] = !"CANCELLED".equals(rs.getString(2));
+                    if (orderCounted[0]) {
+                        partial.revenueCents += Money.of(rs.getBigDecimal(3)).cents();
+                        partial.orders++;
+                    } else {
+                        partial.cancelledOrders++;
+                    }
+                }
+                long productId = rs.getLong(4);
+                if (orderCounted[0] && !rs.wasNull()) {
+                    int quantity = rs.getInt(5);
+                    partial.units += quantity;
+                    long[] product = partial.products.computeIfAbsent(productId, id -> new long[2]);
+                    product[0] += quantity;
+                    product[1] += Money.of(rs.getBigDecimal(6)).cents();
+                }
+            });
+        } finally {
+            if (statement[0] != null) {
+                running.remove(statement[0]);
+            }
+        }
+        return partial;
+    }
+
+    private RangeReportDTO merge(LocalDate from, LocalDate to, Granularity granularity, List<LocalDate[]> periods,
+                                 PartialReport[] partials) {
+        long revenueCents = 0;
+        long orders = 0;
+        long units = 0;
+        long cancelledOrders = 0;
+        Map<Long, long[]> products = new HashMap<>();
+        List<RangeReportDTO.PeriodDTO> series = new ArrayList<>(periods.size());
+        for (int i = 0; i < partials.length; i++) {
+            PartialReport partial = partials[i];
+            revenueCents += partial.revenueCents;
+            orders += partial.orders;
+            units += partial.units;
+            cancelledOrders += partial.cancelledOrders;
+            partial.products.forEach((productId, sums) -> {
+                long[] merged = products.computeIfAbsent(productId, id -> new long[2]);
+                merged[0] += sums[0];
+                merged[1] += sums[1];
+            });
+            series.add(new RangeReportDTO.PeriodDTO(periods.get(i)[0], periods.get(i)[1].minusDays(1),
+                    Money.ofCents(partial.revenueCents).toBigDecimal(), partial.orders, partial.units,
+                    partial.cancelledOrders));
+        }
+
+        Money revenue = Money.ofCents(revenueCents);
+        BigDecimal averageOrderValue = orders > 0 ? revenue.dividedBy(orders).toBigDecimal() : BigDecimal.ZERO;
+        return new RangeReportDTO(from, to, granularity.name(), null, revenue.toBigDecimal(), orders, units,
+                averageOrderValue, cancelledOrders, series, topProducts(products));
+    }
+
+    private List<SalesAnalyticsDTO.TopProductDTO> topProducts(Map<Long, long[]> products) {
+        List<Map.Entry<Long, long[]>> ranked = new ArrayList<>(products.entrySet());
+        ranked.sort((a, b) -> Long.compare(b.getValue()[0], a.getValue()[0]));
+        if (ranked.size() > TOP_PRODUCTS) {
+            ranked = ranked.subList(0, TOP_PRODUCTS);
+        }
+        Map<Long, Product> byId = new HashMap<>();
+        productRepository.findAllById(ranked.stream().map(Map.Entry::getKey).toList())
+                .forEach(p -> byId.put(p.getProductId(), p));
+
+        List<SalesAnalyticsDTO.TopProductDTO> top = new ArrayList<>(ranked.size());
+        for (Map.Entry<Long, long[]> entry : ranked) {
+            Product product = byId.get(entry.getKey());
+            top.add(new SalesAnalyticsDTO.TopProductDTO(entry.getKey(),
+                    product != null ? product.getName() : "Unknown Product",
+                    product != null ? product.getSku() : null,
+                    entry.getValue()[0], Money.ofCents(entry.getValue()[1]).toBigDecimal()));
+        }
+        return top;
+    }
+
+    // [start, endExclusive) pairs covering [from, to]; weeks start on Monday
+    private static List<LocalDate[]> partition(LocalDate from, LocalDate to, Granularity granularity) {
+        List<LocalDate[]> periods = new ArrayList<>((int) Math.min(ChronoUnit.DAYS.between(from, to) + 1, 1024));
+        LocalDate end = to.plusDays(1);
+        LocalDate start = from;
+        while (start.isBefore(end)) {
+            LocalDate next = granularity == Granularity.DAY
+                    ? start.plusDays(1)
+                    : start.with(TemporalAdjusters.next(DayOfWeek.MONDAY));
+            if (next.isAfter(end)) {
+                next = end;
+            }
+            periods.add(new LocalDate[]{start, next});
+            start = next;
+        }
+        return periods;
+    }
+
+    // Queued partitions never start; running statements are killed on the server, so closing their
+    // streaming result sets does not read the rest of the partition first
+    private static void cancel(List<Future<PartialReport>> futures, AtomicBoolean cancelled, Set<Statement> running) {
+        cancelled.set(true);
+        for (Future<PartialReport> future : futures) {
+            future.cancel(true);
+        }
+        for (Statement statement : running) {
+            try {
+                statement.cancel();
+            } catch (SQLException e) {
+                // Already finished or closed
+                log.debug("Could not cancel range report statement: {}", e.getMessage());
+            }
+        }
+    }
+
+    private ExecutorService pool() {
+        ExecutorService current = pool;
+        if (current == null) {
+            synchronized (this) {
+                current = pool;
+                if (current == null) {
+                    AtomicInteger threads = new AtomicInteger();
+                    current = Executors.newFixedThreadPool(parallelism, r -> {
+                        Thread thread = new Thread(r, "range-report-" + threads.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+                    pool = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    private static class PartialReport {
+        private long revenueCents;
+        private long orders;
+        private long units;
+        private long cancelledOrders;
+        // productId -> {units, revenue cents}
+        private final Map<Long, long[]> products = new HashMap<>();
+    }
+}
@@ -0,0 +1,300 @@
+package com.shopsphere.service;
+
+import com.shopsphere.dto.ReorderPointRunDTO;
+import com.shopsphere.entity.BatchJobWatermark;
+import com.shopsphere.entity.ReorderPoint;
+import com.shopsphere.repository.BatchJobWatermarkRepository;
+import com.shopsphere.repository.DemandHistoryRepository;
+import com.shopsphere.repository.ReorderPointRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Derives per-product, per-store reorder points from order history.
+ * <p>
+ * Each run streams only the order lines added since the previous run's watermark. Lines are
+ * routed by product id to one of N partitions, each owned by a single worker thread, so
+ * every demand series is updated in order and without locking. Daily demand is smoothed
+ * exponentially and the reorder point covers the forecast over lead time plus safety days.
+ * Changed reorder points and the new watermark are written in one transaction, so a failed
+ * run is simply repeated by the next one.
+ * <p>
+ * Low-stock queries use these reorder points and fall back to the global
+ * {@code shopsphere.inventory.low-stock-threshold} for SKUs without history.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ReorderPointService {
+
+    private static final String JOB_NAME = "reorder-points";
+
+    private final DemandHistoryRepository demandHistoryRepository;
+    private final ReorderPointRepository reorderPointRepository;
+    private final BatchJobWatermarkRepository watermarkRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${shopsphere.inventory.low-stock-threshold:10}")
+    private int lowStockThreshold;
+
+    @Value("${shopsphere.inventory.reorder.smoothing-alpha:0.3}")
+    private double alpha;
+
+    @Value("${shopsphere.inventory.reorder.lead-time-days:7}")
+    private int leadTimeDays;
+
+    @Value("${shopsphere.inventory.reorder.safety-days:3}")
+    private int safetyDays;
+
+    // 0 = one partition per available processor
+    @Value("${shopsphere.inventory.reorder.parallelism:0}")
+    private int parallelism;
+
+    @Value("${shopsphere.inventory.reorder.batch-size:2000}")
+    private int batchSize;
+
+    // Lines younger than this are left for the next run (transactions may still be in flight)
+    @Value("${shopsphere.inventory.reorder.settle-seconds:60}")
+    private int settleSeconds;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private volatile Map<Long, Integer> productReorderPoints = Map.of();
+    private volatile ReorderPointRunDTO lastRun;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadProductReorderPoints() {
+        Map<Long, Integer> sums = new HashMap<>();
+        for (Object[] row : reorderPointRepository.sumReorderPointsByProduct()) {
+            sums.put((Long) row[0], ((Number) row[1]).intValue());
+        }
+        productReorderPoints = sums;
+        log.info("Loaded reorder points for {} products", sums.size());
+    }
+
+    /**
+     * Low-stock threshold of a product across all its stores: its reorder point when
+     * demand history exists, otherwise the global threshold.
+     */
+    public int getProductThreshold(Long productId) {
+        return productReorderPoints.getOrDefault(productId, lowStockThreshold);
+    }
+
+    public List<ReorderPoint> getReorderPoints(Long productId) {
+        return reorderPointRepository.findByProductId(productId);
+    }
+
+    public ReorderPointRunDTO getLastRun() {
+        return lastRun;
+    }
+
+    @Scheduled(cron = "${shopsphere.inventory.reorder.cron:0 15 * * * *}")
+    public void scheduledRun() {
+        recompute();
+    }
+
+    public ReorderPointRunDTO recompute() {
+        if (!running.compareAndSet(false, true)) {
+            throw new IllegalStateException("Reorder point computation is already running");
+        }
+        try {
+            return runRecompute();
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private ReorderPointRunDTO runRecompute() {
+        LocalDateTime startedAt = LocalDateTime.now();
+        long fromId = watermarkRepository.findById(JOB_NAME)
+                .map(BatchJobWatermark::getLastProcessedId)
+                .orElse(0L);
+        long toId = demandHistoryRepository.findMaxOrderItemIdBefore(startedAt.minusSeconds(settleSeconds));
+        int workers = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        log.info("Starting reorder point computation for order lines ({}, {}] with {} partitions", fromId, toId, workers);
+
+        Partition[] partitions = new Partition[workers];
+        for (int i = 0; i < workers; i++) {
+            partitions[i] = new Partition();
+        }
+        for (ReorderPoint point : reorderPointRepository.findAll()) {
+            partitions[partitionOf(point.getProductId(), workers)].put(point);
+        }
+
+        long[] linesRead = {0};
+        List<ReorderPoint> changed = new ArrayList<>();
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        Semaphore inFlight = new Semaphore(workers * 2);
+        try {
+            if (toId > fromId) {
+                DemandLine[][] buffers = new DemandLine[workers][batchSize];
+                int[] filled = new int[workers];
+                demandHistoryRepository.streamOrderItems(fromId, toId, rs -> {
+                    long productId = rs.getLong(1);
+                    String store = rs.getString(2);
+                    int p = partitionOf(productId, workers);
+                    buffers[p][filled[p]++] = new DemandLine(productId,
+                            store != null ? store : ReorderPoint.ONLINE_CHANNEL,
+                            rs.getInt(3), rs.getDate(4).toLocalDate());
+                    if (filled[p] == batchSize) {
+                        partitions[p].submit(buffers[p], filled[p], inFlight, failure);
+                        buffers[p] = new DemandLine[batchSize];
+                        filled[p] = 0;
+                    }
+                    linesRead[0]++;
+                });
+                for (int p = 0; p < workers; p++) {
+                    if (filled[p] > 0) {
+                        partitions[p].submit(buffers[p], filled[p], inFlight, failure);
+                    }
+                }
+            }
+
+            // Each partition re-evaluates its own series once its queued lines are applied
+            LocalDate today = startedAt.toLocalDate();
+            List<Future<List<ReorderPoint>>> results = new ArrayList<>();
+            for (Partition partition : partitions) {
+                results.add(partition.executor.submit(() -> partition.collectChanged(today)));
+            }
+            for (Future<List<ReorderPoint>> result : results) {
+                changed.addAll(result.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Reorder point computation was interrupted", e);
+        } catch (ExecutionException e) {
+            failure.compareAndSet(null, e.getCause());
+        } finally {
+            for (Partition partition : partitions) {
+                partition.executor.shutdownNow();
+            }
+        }
+        if (failure.get() != null) {
+            throw new IllegalStateException("Reorder point computation failed; watermark left at " + fromId,
+                    failure.get());
+        }
+
+        long watermark = Math.max(fromId, toId);
+        transactionTemplate.executeWithoutResult(status -> {
+            if (!changed.isEmpty()) {
+                demandHistoryRepository.upsertReorderPoints(changed);
+            }
+            watermarkRepository.save(new BatchJobWatermark(JOB_NAME, watermark, null));
+        });
+        loadProductReorderPoints();
+
+        long tracked = 0;
+        for (Partition partition : partitions) {
+            tracked += partition.size;
+        }
+        LocalDateTime finishedAt = LocalDateTime.now();
+        ReorderPointRunDTO run = new ReorderPointRunDTO(startedAt, finishedAt,
+                Duration.between(startedAt, finishedAt).toMillis(), fromId, watermark,
+                linesRead[0], tracked, (long) changed.size());
+        lastRun = run;
+        log.info("Reorder point computation finished in {} ms: {} order lines, {} series, {} reorder points updated",
+                run.getDurationMs(), run.getOrderLinesProcessed(), run.getSeriesTracked(), run.getReorderPointsUpdated());
+        return run;
+    }
+
+    private int reorderPointFor(double dailyDemand) {
+        return (int) Math.ceil(dailyDemand * (leadTimeDays + safetyDays));
+    }
+
+    private static int partitionOf(long productId, int partitions) {
+        return Math.floorMod(Long.hashCode(productId), partitions);
+    }
+
+    private static class DemandLine {
+        final long productId;
+        final String storeLocation;
+        final int quantity;
+        final LocalDate day;
+
+        DemandLine(long productId, String storeLocation, int quantity, LocalDate day) {
+            this.productId = productId;
+            this.storeLocation = storeLocation;
+            this.quantity = quantity;
+            this.day = day;
+        }
+    }
+
+    /**
+     * Demand series of the products hashed to one worker. Only that worker's thread touches
+     * the maps after loading.
+     */
+    private class Partition {
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        final Map<Long, Map<String, ReorderPoint>> series = new HashMap<>();
+        final Set<ReorderPoint> touched = Collections.newSetFromMap(new IdentityHashMap<>());
+        long size;
+
+        void put(ReorderPoint point) {
+            series.computeIfAbsent(point.getProductId(), k -> new HashMap<>()).put(point.getStoreLocation(), point);
+            size++;
+        }
+
+        void submit(DemandLine[] lines, int count, Semaphore inFlight, AtomicReference<Throwable> failure) {
+            inFlight.acquireUninterruptibly();
+            executor.execute(() -> {
+                try {
+                    for (int i = 0; i < count; i++) {
+                        apply(lines[i]);
+                    }
+                } catch (RuntimeException e) {
+                    failure.compareAndSet(null, e);
+                } finally {
+                    inFlight.release();
+                }
+            });
+        }
+
+        private void apply(DemandLine line) {
+            ReorderPoint point = series.computeIfAbsent(line.productId, k -> new HashMap<>()).get(line.storeLocation);
+            if (point == null) {
+                point = new ReorderPoint(line.productId, line.storeLocation);
+                put(point);
+            }
+            point.addDemand(line.day, line.quantity, alpha);
+            touched.add(point);
+        }
+
+        List<ReorderPoint> collectChanged(LocalDate asOf) {
+            List<ReorderPoint> changed = new ArrayList<>();
+            for (Map<String, ReorderPoint> stores : series.values()) {
+                for (ReorderPoint point : stores.values()) {
+                    int reorderPoint = reorderPointFor(point.forecastDailyDemand(asOf, alpha));
+                    if (reorderPoint != point.getReorderPoint() || touched.contains(point)) {
+                        point.setReorderPoint(reorderPoint);
+                        changed.add(point);
+                    }
+                }
+            }
+            return changed;
+        }
+    }
+}
@@ -0,0 +1,339 @@
+package com.shopsphere.service;
+
+import com.shopsphere.dto.RfmRunDTO;
+import com.shopsphere.entity.BatchJobWatermark;
+import com.shopsphere.entity.CustomerRfm;
+import com.shopsphere.repository.BatchJobWatermarkRepository;
+import com.shopsphere.repository.CustomerRfmRepository;
+import com.shopsphere.repository.RfmBatchRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Recency / frequency / monetary (RFM) segmentation of customers.
+ * <p>
+ * Each run folds only the orders added since the previous run's watermark into the
+ * per-customer aggregates in {@code customer_rfm}: the database groups the new orders by
+ * customer, a bounded order id range at a time, and the totals are added in one transaction
+ * together with the new watermark. Every customer is then re-scored, because quintiles shift
+ * with new orders and recency with time: recency is scored in fixed day bands measured back
+ * from the run, frequency and monetary by quintile. Aggregates are read into primitive arrays,
+ * quintile boundaries come from sorted copies, and scores are assigned on a fork-join pool.
+ * Only customers whose scores or segment changed are written back.
+ * <p>
+ * Incremental runs do not see cancellations of orders already folded in; the periodic full
+ * rebuild recomputes aggregates from all orders.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class RfmSegmentationService {
+
+    private static final String JOB_NAME = "rfm-segments";
+    private static final int SCORE_LEVELS = 5;
+    // Smallest index range a fork-join task scores without splitting further
+    private static final int SCORE_SPLIT_THRESHOLD = 8192;
+
+    public enum Segment { CHAMPIONS, LOYAL, POTENTIAL_LOYALIST, NEW, NEEDS_ATTENTION, AT_RISK, HIBERNATING }
+
+    private final RfmBatchRepository rfmBatchRepository;
+    private final CustomerRfmRepository customerRfmRepository;
+    private final BatchJobWatermarkRepository watermarkRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    // 0 = one worker per available processor
+    @Value("${shopsphere.customers.rfm.parallelism:0}")
+    private int parallelism;
+
+    @Value("${shopsphere.customers.rfm.batch-size:1000}")
+    private int batchSize;
+
+    // Order ids folded per grouped read; bounds the per-customer totals held in memory
+    @Value("${shopsphere.customers.rfm.fold-chunk-orders:100000}")
+    private int foldChunkOrders;
+
+    // Upper bounds, in days since the last order, of recency scores 5, 4, 3 and 2; older is 1
+    @Value("${shopsphere.customers.rfm.recency-days:30,90,180,365}")
+    private int[] recencyDays;
+
+    // Orders younger than this are left for the next run (transactions may still be in flight)
+    @Value("${shopsphere.customers.rfm.settle-seconds:60}")
+    private int settleSeconds;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private volatile RfmRunDTO lastRun;
+
+    @Scheduled(cron = "${shopsphere.customers.rfm.cron:0 0 4 * * *}")
+    public void scheduledRun() {
+        recompute(false);
+    }
+
+    @Scheduled(cron = "${shopsphere.customers.rfm.full-rebuild-cron:0 0 5 * * SUN}")
+    public void scheduledFullRebuild() {
+        recompute(true);
+    }
+
+    public RfmRunDTO getLastRun() {
+        return lastRun;
+    }
+
+    public CustomerRfm getCustomerRfm(Long customerId) {
+        return customerRfmRepository.findById(customerId).orElse(null);
+    }
+
+    public List<CustomerRfm> getCustomersInSegment(Segment segment) {
+        return customerRfmRepository.findBySegment(segment.name());
+    }
+
+    public Map<String, Long> getSegmentSizes() {
+        Map<String, Long> sizes = new LinkedHashMap<>();
+        for (Object[] row : customerRfmRepository.countBySegment()) {
+            sizes.put(row[0] != null ? (String) row[0] : "UNSCORED", (Long) row[1]);
+        }
+        return sizes;
+    }
+
+    /**
+     * Folds new orders into the customer aggregates (or rebuilds them from every order when
+     * {@code fullRebuild}) and re-scores all customers.
+     */
+    public RfmRunDTO recompute(boolean fullRebuild) {
+        if (!running.compareAndSet(false, true)) {
+            throw new IllegalStateException("RFM segmentation is already running");
+        }
+        try {
+            return runRecompute(fullRebuild);
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private RfmRunDTO runRecompute(boolean fullRebuild) {
+        LocalDateTime startedAt = LocalDateTime.now();
+        long fromId = fullRebuild ? 0L : watermarkRepository.findById(JOB_NAME)
+                .map(BatchJobWatermark::getLastProcessedId)
+                .orElse(0L);
+        long toId = Math.max(fromId, rfmBatchRepository.findMaxOrderIdBefore(startedAt.minusSeconds(settleSeconds)));
+
+        long customersWithNewOrders = toId > fromId ? rfmBatchRepository.countCustomersWithOrders(fromId, toId) : 0;
+        transactionTemplate.executeWithoutResult(status -> {
+            if (fullRebuild) {
+                rfmBatchRepository.deleteAll();
+            }
+            // Additive upserts, so folding chunk by chunk matches folding the range at once
+            for (long after = fromId; after < toId; after += foldChunkOrders) {
+                rfmBatchRepository.foldNewOrders(after, Math.min(after + foldChunkOrders, toId));
+            }
+            watermarkRepository.save(new BatchJobWatermark(JOB_NAME, toId, null));
+        });
+
+        long[] scored = score(startedAt);
+
+        LocalDateTime finishedAt = LocalDateTime.now();
+        RfmRunDTO run = new RfmRunDTO(startedAt, finishedAt, Duration.between(startedAt, finishedAt).toMillis(),
+                fromId, toId, fullRebuild, customersWithNewOrders, scored[0], scored[1]);
+        lastRun = run;
+        log.info("RFM segmentation finished in {} ms: {} customers with new orders, {} scored, {} changed",
+                run.getDurationMs(), run.getCustomersWithNewOrders(), run.getCustomersScored(), run.getScoresChanged());
+        return run;
+    }
+
+    /**
+     * @return {customers scored, customers whose scores changed}
+     */
+    private long[] score(LocalDateTime asOf) {
+        if (recencyDays.length != SCORE_LEVELS - 1) {
+            throw new IllegalStateException("shopsphere.customers.rfm.recency-days needs " + (SCORE_LEVELS - 1)
+                    + " day bounds, got " + recencyDays.length);
+        }
+        CustomerTable table = new CustomerTable();
+        rfmBatchRepository.streamAll(rs -> table.add(rs.getLong(1), rs.getTimestamp(2), rs.getLong(3), rs.getLong(4),
+                rs.getInt(5), rs.getInt(6), rs.getInt(7), rs.getString(8)));
+        int n = table.size;
+        if (n == 0) {
+            return new long[]{0, 0};
+        }
+
+        // Recency in seconds back from the run, scored against fixed day bands
+        long asOfSeconds = Timestamp.valueOf(asOf).getTime() / 1000;
+        long[] recencyBounds = new long[recencyDays.length];
+        for (int i = 0; i < recencyDays.length; i++) {
+            recencyBounds[i] = recencyDays[i] * 86_400L;
+        }
+        // Quintile scores by rank
+        long[] frequencySorted = Arrays.copyOf(table.orderCounts, n);
+        long[] monetarySorted = Arrays.copyOf(table.monetaryCents, n);
+        Arrays.parallelSort(frequencySorted);
+        Arrays.parallelSort(monetarySorted);
+
+        byte[] recency = new byte[n];
+        byte[] frequency = new byte[n];
+        byte[] monetary = new byte[n];
+        ForkJoinPool pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+        try {
+            pool.invoke(new ScoreTask(table, 0, n, asOfSeconds, recencyBounds, frequencySorted, monetarySorted,
+                    recency, frequency, monetary));
+        } finally {
+            pool.shutdown();
+        }
+
+        long changed = 0;
+        List<RfmBatchRepository.Scores> batch = new ArrayList<>(batchSize);
+        for (int i = 0; i < n; i++) {
+            String segment = segmentOf(recency[i], frequency[i], monetary[i]).name();
+            if (recency[i] != table.recencyScores[i] || frequency[i] != table.frequencyScores[i]
+                    || monetary[i] != table.monetaryScores[i] || !segment.equals(table.segments[i])) {
+                batch.add(new RfmBatchRepository.Scores(table.customerIds[i], recency[i], frequency[i], monetary[i],
+                        segment));
+                changed++;
+                if (batch.size() == batchSize) {
+                    rfmBatchRepository.updateScores(batch);
+                    batch = new ArrayList<>(batchSize);
+                }
+            }
+        }
+        if (!batch.isEmpty()) {
+            rfmBatchRepository.updateScores(batch);
+        }
+        log.debug("Scored {} customers as of {}", n, asOf);
+        return new long[]{n, changed};
+    }
+
+    private static Segment segmentOf(int recency, int frequency, int monetary) {
+        if (recency >= 4 && frequency >= 4 && monetary >= 4) {
+            return Segment.CHAMPIONS;
+        }
+        if (recency <= 2) {
+            return frequency >= 3 ? Segment.AT_RISK : Segment.HIBERNATING;
+        }
+        if (frequency >= 4) {
+            return Segment.LOYAL;
+        }
+        if (recency >= 4 && frequency <= 2) {
+            return Segment.NEW;
+        }
+        return frequency >= 2 ? Segment.POTENTIAL_LOYALIST : Segment.NEEDS_ATTENTION;
+    }
+
+    // 5 within the first band, down to 1 beyond the last
+    private static byte recencyScore(long secondsSinceLastOrder, long[] bounds) {
+        for (int i = 0; i < bounds.length; i++) {
+            if (secondsSinceLastOrder <= bounds[i]) {
+                return (byte) (SCORE_LEVELS - i);
+            }
+        }
+        return 1;
+    }
+
+    // 1 + the quintile of the value's rank among all customers; ties share the lower rank
+    private static byte quintile(long[] sorted, long value) {
+        int low = 0;
+        int high = sorted.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sorted[mid] < value) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return (byte) (1 + (long) low * SCORE_LEVELS / sorted.length);
+    }
+
+    private static class ScoreTask extends RecursiveAction {
+        private final CustomerTable table;
+        private final int from;
+        private final int to;
+        private final long asOfSeconds;
+        private final long[] recencyBounds;
+        private final long[] frequencySorted;
+        private final long[] monetarySorted;
+        private final byte[] recency;
+        private final byte[] frequency;
+        private final byte[] monetary;
+
+        ScoreTask(CustomerTable table, int from, int to, long asOfSeconds, long[] recencyBounds,
+                  long[] frequencySorted, long[] monetarySorted, byte[] recency, byte[] frequency, byte[] monetary) {
+            this.table = table;
+            this.from = from;
+            this.to = to;
+            this.asOfSeconds = asOfSeconds;
+            this.recencyBounds = recencyBounds;
+            this.frequencySorted = frequencySorted;
+            this.monetarySorted = monetarySorted;
+            this.recency = recency;
+            this.frequency = frequency;
+            this.monetary = monetary;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= SCORE_SPLIT_THRESHOLD) {
+                for (int i = from; i < to; i++) {
+                    recency[i] = recencyScore(asOfSeconds - table.lastOrderSeconds[i], recencyBounds);
+                    frequency[i] = quintile(frequencySorted, table.orderCounts[i]);
+                    monetary[i] = quintile(monetarySorted, table.monetaryCents[i]);
+                }
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new ScoreTask(table, from, mid, asOfSeconds, recencyBounds, frequencySorted, monetarySorted,
+                            recency, frequency, monetary),
+                    new ScoreTask(table, mid, to, asOfSeconds, recencyBounds, frequencySorted, monetarySorted,
+                            recency, frequency, monetary));
+        }
+    }
+
+    // Column-wise customer aggregates and current scores, grown as rows stream in
+    private static class CustomerTable {
+        private long[] customerIds = new long[1024];
+        private long[] lastOrderSeconds = new long[1024];
+        private long[] orderCounts = new long[1024];
+        private long[] monetaryCents = new long[1024];
+        private byte[] recencyScores = new byte[1024];
+        private byte[] frequencyScores = new byte[1024];
+        private byte[] monetaryScores = new byte[1024];
+        private String[] segments = new String[1024];
+        private int size;
+
+        void add(long customerId, Timestamp lastOrderAt, long orderCount, long monetary, int recencyScore,
+                 int frequencyScore, int monetaryScore, String segment) {
+            if (size == customerIds.length) {
+                int capacity = size * 2;
+                customerIds = Arrays.copyOf(customerIds, capacity);
+                lastOrderSeconds = Arrays.copyOf(lastOrderSeconds, capacity);
+                orderCounts = Arrays.copyOf(orderCounts, capacity);
+                monetaryCents = Arrays.copyOf(monetaryCents, capacity);
+                recencyScores = Arrays.copyOf(recencyScores, capacity);
+                frequencyScores = Arrays.copyOf(frequencyScores, capacity);
+                monetaryScores = Arrays.copyOf(monetaryScores, capacity);
+                segments = Arrays.copyOf(segments, capacity);
+            }
+            customerIds[size] = customerId;
+            lastOrderSeconds[size] = lastOrderAt.getTime() / 1000;
+            orderCounts[size] = orderCount;
+            monetaryCents[size] = monetary;
+            recencyScores[size] = (byte) recencyScore;
+            frequencyScores[size] = (byte) frequencyScore;
+            monetaryScores[size] = (byte) monetaryScore;
+            segments[size] = segment;
+            size++;
+        }
+    }
+}
@@ -0,0 +1,275 @@
+package com.shopsphere.service;
+
+import com.shopsphere.analytics.ProductCategoryIndex;
+import com.shopsphere.analytics.SalesFactStore;
+import com.shopsphere.dto.SalesFactGroupDTO;
+import com.shopsphere.event.OrderEvent;
+import com.shopsphere.repository.SalesFactRepository;
+import com.shopsphere.util.Money;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Keeps the in-memory {@link SalesFactStore} of order lines and answers ad hoc filter and
+ * group-by queries from it.
+ * <p>
+ * The store is loaded at startup by several workers, each streaming one order id range, and
+ * rebuilt nightly. Committed order events are appended as they arrive: new orders as facts,
+ * cancellations as reversing facts. Events committed while a load runs are held back and settled
+ * against the new store before it replaces the old one. Each partition records which orders it
+ * read, so an order whose event may have committed before or after its partition was read ends
+ * up counted exactly once if its last event left it counted, and not at all otherwise.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SalesFactService {
+
+    private static final String NO_STORE = "";
+
+    private final SalesFactRepository salesFactRepository;
+    private final CategoryIndexService categoryIndexService;
+
+    @Value("${shopsphere.analytics.facts.enabled:true}")
+    private boolean enabled;
+
+    // 0 = one worker per available processor
+    @Value("${shopsphere.analytics.facts.load-parallelism:0}")
+    private int loadParallelism;
+
+    private final AtomicBoolean building = new AtomicBoolean();
+    private final Object eventLock = new Object();
+    private volatile SalesFactStore store = new SalesFactStore();
+    // Events to replay onto the store being built; null when no build runs. Guarded by eventLock
+    private List<OrderEvent> pendingEvents;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        if (enabled) {
+            rebuild();
+        }
+    }
+
+    @Scheduled(cron = "${shopsphere.analytics.facts.rebuild-cron:0 45 3 * * *}")
+    public void scheduledRebuild() {
+        if (enabled) {
+            rebuild();
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onOrderEvent(OrderEvent event) {
+        if (!enabled || event.salesDelta() == 0) {
+            return;
+        }
+        // May rebuild the index from the database; not under the lock every order event takes
+        ProductCategoryIndex categories = categoryIndexService.getIndex();
+        synchronized (eventLock) {
+            apply(store, event, event.salesDelta(), categories);
+            if (pendingEvents != null) {
+                pendingEvents.add(event);
+            }
+        }
+    }
+
+    /**
+     * Reloads every order line into a new store and swaps it in. The current store keeps
+     * serving queries until then.
+     *
+     * @return number of facts loaded
+     */
+    public long rebuild() {
+        if (!building.compareAndSet(false, true)) {
+            throw new IllegalStateException("Sales fact store is already being built");
+        }
+        try {
+            synchronized (eventLock) {
+                pendingEvents = new ArrayList<>();
+            }
+            long startedAt = System.currentTimeMillis();
+            long maxOrderId = salesFactRepository.findMaxOrderId();
+            SalesFactStore next;
+            List<LoadedRange> loaded = new ArrayList<>();
+            try {
+                next = load(maxOrderId, loaded);
+            } catch (RuntimeException e) {
+                synchronized (eventLock) {
+                    pendingEvents = null;
+                }
+                throw e;
+            }
+            ProductCategoryIndex categories = categoryIndexService.getIndex();
+            synchronized (eventLock) {
+                // Orders past maxOrderId were not read at all. For the others the load may have seen
+                // the state before or after their events: the last event says whether the order
+                // counts now, the partition's record whether its lines are already in the store
+                Map<Long, OrderEvent> lastEventByOrder = new LinkedHashMap<>();
+                for (OrderEvent event : pendingEvents) {
+                    if (event.getOrderId() > maxOrderId) {
+                        apply(next, event, event.salesDelta(), categories);
+                    } else {
+                        lastEventByOrder.put(event.getOrderId(), event);
+                    }
+                }
+                for (OrderEvent event : lastEventByOrder.values()) {
+                    int counted = event.salesDelta() > 0 ? 1 : 0;
+                    int correction = counted - (wasLoaded(loaded, event.getOrderId()) ? 1 : 0);
+                    if (correction != 0) {
+                        apply(next, event, correction, categories);
+                    }
+                }
+                pendingEvents = null;
+                store = next;
+            }
+            log.info("Loaded {} sales facts in {} ms", next.size(), System.currentTimeMillis() - startedAt);
+            return next.size();
+        } finally {
+            building.set(false);
+        }
+    }
+
+    /**
+     * Sums quantity and revenue of order lines matching the filters, grouped by
+     * {@code groupBy}. Null filters match everything; dates are inclusive. An unknown store or
+     * category yields no groups.
+     */
+    public List<SalesFactGroupDTO> query(LocalDate from, LocalDate to, Long productId, String storeLocation,
+                                         String category, SalesFactStore.Dimension groupBy) {
+        SalesFactStore current = store;
+        SalesFactStore.Filter filter = new SalesFactStore.Filter().days(
+                from != null ? (int) from.toEpochDay() : Integer.MIN_VALUE,
+                to != null ? (int) to.toEpochDay() : Integer.MAX_VALUE);
+        if (productId != null) {
+            filter.product(productId);
+        }
+        if (storeLocation != null) {
+            int storeId = current.findStoreId(storeLocation);
+            if (storeId < 0) {
+                return List.of();
+            }
+            filter.store(storeId);
+        }
+        if (category != null) {
+            int categoryId = current.findCategoryId(category);
+            if (categoryId < 0) {
+                return List.of();
+            }
+            filter.category(categoryId);
+        }
+
+        List<SalesFactStore.Group> groups = current.query(filter, groupBy);
+        List<SalesFactGroupDTO> result = new ArrayList<>(groups.size());
+        for (SalesFactStore.Group group : groups) {
+            result.add(new SalesFactGroupDTO(keyLabel(current, groupBy, group.getKey()), group.getQuantity(),
+                    Money.ofCents(group.getAmountCents()).toBigDecimal(), group.getFacts()));
+        }
+        return result;
+    }
+
+    public long getFactCount() {
+        return store.size();
+    }
+
+    private SalesFactStore load(long maxOrderId, List<LoadedRange> loaded) {
+        SalesFactStore next = new SalesFactStore();
+        int workers = loadParallelism > 0 ? loadParallelism : Runtime.getRuntime().availableProcessors();
+        // A few ranges per worker, so one dense id range does not hold up the others
+        int ranges = (int) Math.max(1, Math.min(workers * 4L, maxOrderId));
+        long rangeSize = (maxOrderId + ranges - 1) / ranges;
+
+        ExecutorService pool = Executors.newFixedThreadPool(workers);
+        try {
+            List<Future<List<SalesFactStore.Chunk>>> results = new ArrayList<>();
+            for (long from = 0; from < maxOrderId; from += rangeSize) {
+                long after = from;
+                long upTo = Math.min(from + rangeSize, maxOrderId);
+                LoadedRange range = new LoadedRange(after, upTo);
+                loaded.add(range);
+                results.add(pool.submit(() -> {
+                    SalesFactStore.Loader loader = next.newLoader();
+                    salesFactRepository.streamOrderLines(after, upTo, rs -> {
+                        loader.add(rs.getInt(1), rs.getLong(2), rs.getString(3), rs.getString(4), rs.getInt(5),
+                                rs.getLong(6));
+                        range.orders.set((int) (rs.getLong(7) - after - 1));
+                    });
+                    return loader.chunks();
+                }));
+            }
+            for (Future<List<SalesFactStore.Chunk>> result : results) {
+                next.adopt(result.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Sales fact load was interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Sales fact load failed", e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+        return next;
+    }
+
+    // Appends the event's lines, each multiplied by delta
+    private void apply(SalesFactStore target, OrderEvent event, int delta, ProductCategoryIndex categories) {
+        int day = (int) event.getOrderCreatedAt().toLocalDate().toEpochDay();
+        for (OrderEvent.Line line : event.getLines()) {
+            String storeLocation = line.getStoreLocation() != null ? line.getStoreLocation()
+                    : event.getStoreLocation() != null ? event.getStoreLocation() : NO_STORE;
+            int categoryOrdinal = categories.categoryOf(line.getProductId());
+            String category = categoryOrdinal >= 0 ? categories.categoryName(categoryOrdinal) : "Uncategorized";
+            long cents = Money.of(line.getSubtotal()).cents();
+            target.append(day, line.getProductId(), target.storeId(storeLocation), target.categoryId(category),
+                    line.getQuantity() * delta, cents * delta);
+        }
+    }
+
+    private static boolean wasLoaded(List<LoadedRange> loaded, long orderId) {
+        for (LoadedRange range : loaded) {
+            if (orderId > range.after && orderId <= range.upTo) {
+                return range.orders.get((int) (orderId - range.after - 1));
+            }
+        }
+        return false;
+    }
+
+    private static String keyLabel(SalesFactStore store, SalesFactStore.Dimension groupBy, long key) {
+        return switch (groupBy) {
+            case ALL -> null;
+            case DAY -> LocalDate.ofEpochDay(key).toString();
+            case PRODUCT -> Long.toString(key);
+            case STORE -> store.storeName((int) key);
+            case CATEGORY -> store.categoryName((int) key);
+        };
+    }
+
+    // Orders of one partition whose lines the load read, as bits offset from the range start
+    private static class LoadedRange {
+        final long after;
+        final long upTo;
+        final BitSet orders = new BitSet();
+
+        LoadedRange(long after, long upTo) {
+            this.after = after;
+            this.upTo = upTo;
+        }
+    }
+}
@@ -0,0 +1,187 @@
+package com.shopsphere.service;
+
+import com.shopsphere.dto.RollupBackfillReportDTO;
+import com.shopsphere.entity.DailySalesRollup;
+import com.shopsphere.event.OrderEvent;
+import com.shopsphere.repository.SalesRollupRepository;
+import com.shopsphere.util.StripedRebuildLocks;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Keeps the daily sales rollup tables in step with orders.
+ * <p>
+ * Order events are applied as increments just before the order's transaction commits, so
+ * rollups and orders commit together. The backfill rebuilds one calendar month per task on a
+ * bounded pool. Each month is guarded by a striped read/write lock: live increments hold the
+ * read lock of their order's month until their transaction completes, and a month is only
+ * rebuilt under its write lock. A rebuild therefore sees every committed order of the month,
+ * and increments from transactions still open are applied after it.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SalesRollupService {
+
+    private static final int LOCK_STRIPES = 64;
+
+    private final SalesRollupRepository rollupRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    // 0 = one worker per available processor
+    @Value("${shopsphere.analytics.rollup.backfill-parallelism:0}")
+    private int backfillParallelism;
+
+    @Value("${shopsphere.analytics.rollup.backfill-on-startup:true}")
+    private boolean backfillOnStartup;
+
+    private final StripedRebuildLocks monthLocks = new StripedRebuildLocks(LOCK_STRIPES);
+    private final AtomicBoolean backfillRunning = new AtomicBoolean();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillIfEmpty() {
+        if (backfillOnStartup && rollupRepository.isEmpty() && rollupRepository.findFirstOrderDate() != null) {
+            log.info("Sales rollups are empty; rebuilding from order history");
+            backfill();
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void onOrderEvent(OrderEvent event) {
+        LocalDate day = event.getOrderCreatedAt().toLocalDate();
+        monthLocks.incrementUntilCompletion(monthKey(YearMonth.from(day)), () -> apply(event, day));
+    }
+
+    private void apply(OrderEvent event, LocalDate day) {
+        String storeKey = event.getStoreLocation() != null ? event.getStoreLocation() : DailySalesRollup.NO_STORE;
+        String channel = event.getOrderType();
+
+        if (event.getPreviousStatus() != null) {
+            rollupRepository.addStatusCount(day, storeKey, channel, event.getPreviousStatus(), -1);
+        }
+        rollupRepository.addStatusCount(day, storeKey, channel, event.getStatus(), 1);
+
+        int delta = event.salesDelta();
+        if (delta == 0) {
+            return;
+        }
+        BigDecimal sign = BigDecimal.valueOf(delta);
+        long units = 0;
+        Map<Long, BigDecimal> revenueByProduct = new LinkedHashMap<>();
+        Map<Long, Long> unitsByProduct = new LinkedHashMap<>();
+        for (OrderEvent.Line line : event.getLines()) {
+            units += line.getQuantity();
+            revenueByProduct.merge(line.getProductId(), line.getSubtotal(), BigDecimal::add);
+            unitsByProduct.merge(line.getProductId(), (long) line.getQuantity(), Long::sum);
+        }
+        rollupRepository.addSales(day, storeKey, channel, event.getTotalAmount().multiply(sign), delta, units * delta);
+
+        List<SalesRollupRepository.ProductSales> products = new ArrayList<>(revenueByProduct.size());
+        revenueByProduct.forEach((productId, revenue) -> products.add(new SalesRollupRepository.ProductSales(
+                productId, revenue.multiply(sign), delta, unitsByProduct.get(productId) * delta)));
+        if (!products.isEmpty()) {
+            rollupRepository.addProductSales(day, storeKey, channel, products);
+        }
+    }
+
+    /**
+     * Rebuilds every rollup row from order history, one calendar month per task.
+     */
+    public RollupBackfillReportDTO backfill() {
+        if (!backfillRunning.compareAndSet(false, true)) {
+            throw new IllegalStateException("Sales rollup backfill is already running");
+        }
+        try {
+            return runBackfill();
+        } finally {
+            backfillRunning.set(false);
+        }
+    }
+
+    private RollupBackfillReportDTO runBackfill() {
+        LocalDateTime startedAt = LocalDateTime.now();
+        LocalDate firstOrderDate = rollupRepository.findFirstOrderDate();
+        YearMonth current = YearMonth.from(startedAt);
+        YearMonth first = firstOrderDate != null ? YearMonth.from(firstOrderDate) : current;
+
+        // Rows outside order history (e.g. orders since deleted) are dropped
+        transactionTemplate.executeWithoutResult(status ->
+                rollupRepository.deleteRange(SalesRollupRepository.MIN_DATE, first.atDay(1)));
+
+        List<YearMonth> months = new ArrayList<>();
+        for (YearMonth month = first; !month.isAfter(current); month = month.plusMonths(1)) {
+            months.add(month);
+        }
+        int workers = Math.min(months.size(),
+                backfillParallelism > 0 ? backfillParallelism : Runtime.getRuntime().availableProcessors());
+        log.info("Starting sales rollup backfill of {} months with {} workers", months.size(), workers);
+
+        ExecutorService pool = Executors.newFixedThreadPool(workers);
+        long rowsWritten = 0;
+        int failed = 0;
+        try {
+            List<Future<Integer>> results = new ArrayList<>();
+            for (YearMonth month : months) {
+                results.add(pool.submit(() -> rebuildMonth(month)));
+            }
+            for (int i = 0; i < results.size(); i++) {
+                try {
+                    rowsWritten += results.get(i).get();
+                } catch (ExecutionException e) {
+                    failed++;
+                    log.error("Sales rollup backfill of {} failed: {}", months.get(i), e.getCause().getMessage());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Sales rollup backfill was interrupted", e);
+        } finally {
+            pool.shutdownNow();
+        }
+
+        LocalDateTime finishedAt = LocalDateTime.now();
+        RollupBackfillReportDTO report = new RollupBackfillReportDTO(startedAt, finishedAt,
+                Duration.between(startedAt, finishedAt).toMillis(), months.size(), failed, rowsWritten);
+        log.info("Sales rollup backfill finished in {} ms: {} months, {} rows, {} failed",
+                report.getDurationMs(), months.size(), rowsWritten, failed);
+        return report;
+    }
+
+    private int rebuildMonth(YearMonth month) {
+        return monthLocks.rebuild(monthKey(month), () -> {
+            LocalDate from = month.atDay(1);
+            LocalDate to = month.plusMonths(1).atDay(1);
+            Integer rows = transactionTemplate.execute(status -> {
+                rollupRepository.deleteRange(from, to);
+                return rollupRepository.rebuildRange(from, to);
+            });
+            return rows != null ? rows : 0;
+        });
+    }
+
+    private static long monthKey(YearMonth month) {
+        return month.getYear() * 12L + month.getMonthValue();
+    }
+}
@@ -0,0 +1,190 @@
+package com.shopsphere.service;
+
+import com.shopsphere.dto.StockReconciliationReportDTO;
+import com.shopsphere.repository.StockReconciliationRepository;
+import com.shopsphere.repository.StockReconciliationRepository.ProductChunk;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Finds and repairs drift between Product.stockQuantity and the sum of its store rows.
+ * <p>
+ * A single reader walks products in id order with keyset paging; each chunk is compared
+ * against the store totals for the same id range on a fork-join pool. At most
+ * {@code parallelism * 2} chunks are in flight, so memory stays bounded by chunk size
+ * regardless of catalogue size. Store rows are the source of truth: a mismatching product is
+ * rewritten to its store total with a guarded batch update that skips products changed since
+ * they were read. Products with no store rows at all are counted but never rewritten.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class StockReconciliationService {
+
+    private static final int MAX_SAMPLE_DRIFTS = 100;
+
+    private final StockReconciliationRepository reconciliationRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${shopsphere.inventory.reconciliation.chunk-size:5000}")
+    private int chunkSize;
+
+    // 0 = one worker per available processor
+    @Value("${shopsphere.inventory.reconciliation.parallelism:0}")
+    private int parallelism;
+
+    @Value("${shopsphere.inventory.reconciliation.repair:true}")
+    private boolean repairEnabled;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private volatile StockReconciliationReportDTO lastReport;
+
+    @Scheduled(cron = "${shopsphere.inventory.reconciliation.cron:0 0 3 * * *}")
+    public void scheduledRun() {
+        reconcile();
+    }
+
+    public StockReconciliationReportDTO getLastReport() {
+        return lastReport;
+    }
+
+    public StockReconciliationReportDTO reconcile() {
+        if (!running.compareAndSet(false, true)) {
+            throw new IllegalStateException("Stock reconciliation is already running");
+        }
+        try {
+            return runReconciliation();
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private StockReconciliationReportDTO runReconciliation() {
+        int workers = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        log.info("Starting stock reconciliation (chunk size {}, {} workers, repair {})", chunkSize, workers, repairEnabled);
+
+        Metrics metrics = new Metrics();
+        LocalDateTime startedAt = LocalDateTime.now();
+        ForkJoinPool pool = new ForkJoinPool(workers);
+        Semaphore inFlight = new Semaphore(workers * 2);
+        try {
+            long afterProductId = 0;
+            while (true) {
+                ProductChunk chunk = reconciliationRepository.findProductChunk(afterProductId, chunkSize);
+                if (chunk.size == 0) {
+                    break;
+                }
+                afterProductId = chunk.productIds[chunk.size - 1];
+                inFlight.acquireUninterruptibly();
+                pool.execute(() -> {
+                    try {
+                        reconcileChunk(chunk, metrics);
+                    } catch (RuntimeException e) {
+                        metrics.failedChunks.incrementAndGet();
+                        log.error("Reconciliation of products {}..{} failed: {}",
+                                chunk.productIds[0], chunk.productIds[chunk.size - 1], e.getMessage());
+                    } finally {
+                        inFlight.release();
+                    }
+                });
+                if (chunk.size < chunkSize) {
+                    break;
+                }
+            }
+            // Wait for the remaining chunks
+            inFlight.acquireUninterruptibly(workers * 2);
+        } finally {
+            pool.shutdown();
+            try {
+                pool.awaitTermination(1, TimeUnit.MINUTES);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        LocalDateTime finishedAt = LocalDateTime.now();
+        StockReconciliationReportDTO report = new StockReconciliationReportDTO(
+                startedAt, finishedAt, Duration.between(startedAt, finishedAt).toMillis(), repairEnabled,
+                metrics.productsScanned.get(), metrics.chunks.get(), metrics.mismatches.get(),
+                metrics.repaired.get(), metrics.repairSkipped.get(), metrics.withoutStoreRows.get(),
+                metrics.driftUnits.get(), new ArrayList<>(metrics.samples));
+        lastReport = report;
+
+        log.info("Stock reconciliation finished in {} ms: {} products in {} chunks, {} mismatches ({} units), " +
+                        "{} repaired, {} skipped (changed concurrently), {} without store rows, {} failed chunks",
+                report.getDurationMs(), report.getProductsScanned(), report.getChunksProcessed(),
+                report.getMismatches(), report.getTotalDriftUnits(), report.getRepaired(),
+                report.getRepairSkippedConcurrentChange(), report.getProductsWithoutStoreRows(),
+                metrics.failedChunks.get());
+        return report;
+    }
+
+    private void reconcileChunk(ProductChunk chunk, Metrics metrics) {
+        Map<Long, Integer> storeTotals = reconciliationRepository.findStoreTotals(
+                chunk.productIds[0], chunk.productIds[chunk.size - 1]);
+
+        List<long[]> repairs = new ArrayList<>();
+        for (int i = 0; i < chunk.size; i++) {
+            long productId = chunk.productIds[i];
+            int productStock = chunk.stockQuantities[i];
+            Integer storeTotal = storeTotals.get(productId);
+            if (storeTotal == null) {
+                metrics.withoutStoreRows.incrementAndGet();
+                continue;
+            }
+            if (storeTotal != productStock) {
+                metrics.mismatches.incrementAndGet();
+                metrics.driftUnits.addAndGet(Math.abs(storeTotal - productStock));
+                repairs.add(new long[]{productId, productStock, storeTotal});
+            }
+        }
+
+        if (repairEnabled && !repairs.isEmpty()) {
+            int[] counts = transactionTemplate.execute(status -> reconciliationRepository.repairProductStock(repairs));
+            for (int i = 0; i < repairs.size(); i++) {
+                boolean repaired = counts != null && counts[i] > 0;
+                (repaired ? metrics.repaired : metrics.repairSkipped).incrementAndGet();
+                metrics.sample(repairs.get(i), repaired);
+            }
+        } else {
+            repairs.forEach(r -> metrics.sample(r, false));
+        }
+
+        metrics.productsScanned.addAndGet(chunk.size);
+        metrics.chunks.incrementAndGet();
+    }
+
+    private static class Metrics {
+        final AtomicLong productsScanned = new AtomicLong();
+        final AtomicLong chunks = new AtomicLong();
+        final AtomicLong failedChunks = new AtomicLong();
+        final AtomicLong mismatches = new AtomicLong();
+        final AtomicLong repaired = new AtomicLong();
+        final AtomicLong repairSkipped = new AtomicLong();
+        final AtomicLong withoutStoreRows = new AtomicLong();
+        final AtomicLong driftUnits = new AtomicLong();
+        final List<StockReconciliationReportDTO.DriftDTO> samples = Collections.synchronizedList(new ArrayList<>());
+
+        void sample(long[] repair, boolean repaired) {
+            if (samples.size() < MAX_SAMPLE_DRIFTS) {
+                samples.add(new StockReconciliationReportDTO.DriftDTO(repair[0], (int) repair[1], (int) repair[2], repaired));
+            }
+        }
+    }
+}
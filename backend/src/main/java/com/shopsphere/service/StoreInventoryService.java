@@ -1,17 +1,33 @@
 package com.shopsphere.service;
 
+import com.shopsphere.dto.AvailabilityMatrixDTO;
+import com.shopsphere.dto.BulkStockAdjustmentRequest.StockAdjustmentInput;
+import com.shopsphere.dto.StockAdjustmentResultDTO;
 import com.shopsphere.dto.StoreInventoryDTO;
 import com.shopsphere.entity.Product;
 import com.shopsphere.entity.StoreProductInventory;
 import com.shopsphere.exception.ResourceNotFoundException;
 import com.shopsphere.repository.ProductRepository;
+import com.shopsphere.repository.StoreInventoryBatchRepository;
 import com.shopsphere.repository.StoreProductInventoryRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.JpaSort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
 import java.util.stream.Collectors;
 
 @Service
@@ -21,6 +37,12 @@ public class StoreInventoryService {
 
     private final StoreProductInventoryRepository inventoryRepository;
     private final ProductRepository productRepository;
+    private final StoreInventoryBatchRepository batchRepository;
+    private final HotSkuStockService hotSkuStockService;
+    private final InventoryJournalService inventoryJournalService;
+    private final ChannelAllocationService channelAllocationService;
+
+    private static final Sort DEFAULT_VIEW_SORT = Sort.by("productName");
 
     @Transactional
     public StoreInventoryDTO addOrUpdateStoreInventory(StoreInventoryDTO dto) {
@@ -32,15 +54,19 @@ public class StoreInventoryService {
 
         // Check if inventory already exists for this product-store combination
         StoreProductInventory inventory = inventoryRepository
-                .findByProductIdAndStoreLocation(dto.getProductId(), dto.getStoreLocation())
+                .findForUpdate(dto.getProductId(), dto.getStoreLocation())
                 .orElse(new StoreProductInventory());
 
+        Integer previousQuantity = inventory.getStockQuantity();
         inventory.setProductId(dto.getProductId());
         inventory.setStoreLocation(dto.getStoreLocation());
-        inventory.setStockQuantity(dto.getStockQuantity());
+        inventory.replenishTo(dto.getStockQuantity());
         inventory.setIsAvailable(dto.getIsAvailable() != null ? dto.getIsAvailable() : true);
 
         StoreProductInventory saved = inventoryRepository.save(inventory);
+        inventoryJournalService.recordAbsolute(dto.getProductId(), dto.getStoreLocation(), InventoryJournalService.SET,
+                previousQuantity != null ? previousQuantity : 0, saved.getStockQuantity());
+        hotSkuStockService.afterDirectWrite(dto.getProductId(), dto.getStoreLocation());
         
         // Sync product total stock quantity with sum of all store inventories
         syncProductTotalStock(dto.getProductId());
@@ -61,15 +87,18 @@ public class StoreInventoryService {
 
     @Transactional(readOnly = true)
     public List<StoreInventoryDTO> getInventoryByStore(String storeLocation) {
-        log.info("Fetching inventory for store: {}", storeLocation);
-        return inventoryRepository.findByStoreLocation(storeLocation).stream()
-                .map(inv -> {
-                    String productName = productRepository.findById(inv.getProductId())
-                            .map(Product::getName)
-                            .orElse("Unknown Product");
-                    return convertToDTO(inv, productName);
-                })
-                .collect(Collectors.toList());
+        return getInventoryByStore(storeLocation, Pageable.unpaged(DEFAULT_VIEW_SORT)).getContent();
+    }
+
+    /**
+     * Paged store inventory view. Product names are joined in the same query, so a page
+     * costs one query (plus a count query when paged) regardless of its size.
+     * Sortable by inventory fields and by "productName".
+     */
+    @Transactional(readOnly = true)
+    public Page<StoreInventoryDTO> getInventoryByStore(String storeLocation, Pageable pageable) {
+        log.info("Fetching inventory for store: {} ({})", storeLocation, pageable);
+        return inventoryRepository.findInventoryViewsByStore(storeLocation, toViewPageable(pageable));
     }
 
     @Transactional(readOnly = true)
@@ -99,16 +128,70 @@ public class StoreInventoryService {
         return inventoryRepository.isProductAvailableAtStore(productId, storeLocation);
     }
 
+    /**
+     * Availability of many products across many stores, answered from a single set-based query.
+     * Rows and columns follow ascending product id and store name.
+     */
+    @Transactional(readOnly = true)
+    public AvailabilityMatrixDTO getAvailabilityMatrix(Set<Long> productIds, Set<String> storeLocations) {
+        log.info("Checking availability of {} products at {} stores", productIds.size(),
+                storeLocations == null || storeLocations.isEmpty() ? "all" : storeLocations.size());
+        boolean allStores = storeLocations == null || storeLocations.isEmpty();
+        List<StoreProductInventory> rows = allStores
+                ? inventoryRepository.findAvailableByProductIds(productIds)
+                : inventoryRepository.findAvailableByProductIdsAndStores(productIds, storeLocations);
+
+        List<Long> productOrder = new ArrayList<>(new TreeSet<>(productIds));
+        // The store filter matches names case-insensitively, so columns use the names the rows carry;
+        // requested stores without a matching row keep an empty column
+        TreeSet<String> stores = rows.stream().map(StoreProductInventory::getStoreLocation)
+                .collect(Collectors.toCollection(TreeSet::new));
+        if (!allStores) {
+            Set<String> covered = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+            covered.addAll(stores);
+            for (String storeLocation : storeLocations) {
+                if (covered.add(storeLocation)) {
+                    stores.add(storeLocation);
+                }
+            }
+        }
+        List<String> storeOrder = new ArrayList<>(stores);
+        Map<Long, Integer> productIndex = new HashMap<>();
+        for (int i = 0; i < productOrder.size(); i++) {
+            productIndex.put(productOrder.get(i), i);
+        }
+        Map<String, Integer> storeIndex = new HashMap<>();
+        for (int j = 0; j < storeOrder.size(); j++) {
+            storeIndex.put(storeOrder.get(j), j);
+        }
+
+        int[][] stock = new int[productOrder.size()][storeOrder.size()];
+        for (StoreProductInventory row : rows) {
+            stock[productIndex.get(row.getProductId())][storeIndex.get(row.getStoreLocation())] = getCurrentStock(row);
+        }
+
+        List<List<Integer>> matrix = new ArrayList<>(stock.length);
+        for (int[] productRow : stock) {
+            matrix.add(Arrays.stream(productRow).boxed().collect(Collectors.toList()));
+        }
+        return new AvailabilityMatrixDTO(productOrder, storeOrder, matrix);
+    }
+
     @Transactional
     public void updateStockQuantity(Long productId, String storeLocation, Integer quantity) {
         log.info("Updating stock for product {} at store {} to {}", productId, storeLocation, quantity);
+        // Row lock: the hot-SKU flusher applies deltas to the same row, which a plain
+        // read-modify-write save would overwrite
         StoreProductInventory inventory = inventoryRepository
-                .findByProductIdAndStoreLocation(productId, storeLocation)
+                .findForUpdate(productId, storeLocation)
                 .orElseThrow(() -> new ResourceNotFoundException(
                         "Inventory not found for product " + productId + " at store " + storeLocation));
 
-        inventory.setStockQuantity(quantity);
+        Integer previousQuantity = inventory.getStockQuantity();
+        inventory.replenishTo(quantity);
         inventoryRepository.save(inventory);
+        inventoryJournalService.recordAbsolute(productId, storeLocation, InventoryJournalService.SET, previousQuantity, quantity);
+        hotSkuStockService.afterDirectWrite(productId, storeLocation);
         
         // Sync product total stock quantity with sum of all store inventories
         syncProductTotalStock(productId);
@@ -117,6 +200,15 @@ public class StoreInventoryService {
     @Transactional
     public void decreaseStock(Long productId, String storeLocation, Integer quantity) {
         log.info("Decreasing stock for product {} at store {} by {}", productId, storeLocation, quantity);
+        // Hot SKUs are decremented in memory; the store row and product total follow on the next flush,
+        // and channel availability reads the counter directly
+        if (hotSkuStockService.isHot(productId, storeLocation)) {
+            if (!hotSkuStockService.tryDecrement(productId, storeLocation, quantity)) {
+                throw new IllegalArgumentException("Insufficient stock at store " + storeLocation);
+            }
+            return;
+        }
+
         StoreProductInventory inventory = inventoryRepository
                 .findByProductIdAndStoreLocation(productId, storeLocation)
                 .orElseThrow(() -> new ResourceNotFoundException(
@@ -128,6 +220,8 @@ public class StoreInventoryService {
 
         inventory.decreaseStock(quantity);
         inventoryRepository.save(inventory);
+        inventoryJournalService.recordChange(productId, storeLocation, InventoryJournalService.DECREASE,
+                -quantity, inventory.getStockQuantity());
         
         // Sync product total stock quantity with sum of all store inventories
         syncProductTotalStock(productId);
@@ -137,28 +231,113 @@ public class StoreInventoryService {
     public void increaseStock(Long productId, String storeLocation, Integer quantity) {
         log.info("Increasing stock for product {} at store {} by {}", productId, storeLocation, quantity);
         StoreProductInventory inventory = inventoryRepository
-                .findByProductIdAndStoreLocation(productId, storeLocation)
+                .findForUpdate(productId, storeLocation)
                 .orElseThrow(() -> new ResourceNotFoundException(
                         "Inventory not found for product " + productId + " at store " + storeLocation));
 
         inventory.increaseStock(quantity);
         inventoryRepository.save(inventory);
+        inventoryJournalService.recordChange(productId, storeLocation, InventoryJournalService.INCREASE,
+                quantity, inventory.getStockQuantity());
+        hotSkuStockService.afterDirectWrite(productId, storeLocation);
         
         // Sync product total stock quantity with sum of all store inventories
         syncProductTotalStock(productId);
     }
 
+    /**
+     * Applies many stock adjustments (e.g. a delivery) in one transaction.
+     * Entries are sorted by (productId, storeLocation) before any row is touched, so overlapping
+     * batches always lock rows in the same order and cannot deadlock each other. Each entry is
+     * a guarded update that either applies fully or is rejected on its own, and every touched
+     * product is re-synced once at the end. Results are returned in request order.
+     */
+    @Transactional
+    public List<StockAdjustmentResultDTO> adjustStockBatch(List<StockAdjustmentInput> inputs) {
+        log.info("Applying bulk stock adjustment with {} entries", inputs.size());
+        StockAdjustmentResultDTO[] results = new StockAdjustmentResultDTO[inputs.size()];
+
+        List<Integer> applyOrder = new ArrayList<>();
+        for (int i = 0; i < inputs.size(); i++) {
+            StockAdjustmentInput input = inputs.get(i);
+            if ((input.getDelta() == null) == (input.getQuantity() == null)) {
+                results[i] = toAdjustmentResult(input, "INVALID", "Exactly one of delta or quantity must be set");
+            } else {
+                applyOrder.add(i);
+            }
+        }
+        applyOrder.sort(Comparator.comparing((Integer i) -> inputs.get(i).getProductId())
+                .thenComparing(i -> inputs.get(i).getStoreLocation()));
+
+        List<StoreInventoryBatchRepository.Adjustment> batch = applyOrder.stream()
+                .map(inputs::get)
+                .map(input -> new StoreInventoryBatchRepository.Adjustment(
+                        input.getProductId(), input.getStoreLocation(), input.getDelta(), input.getQuantity()))
+                .collect(Collectors.toList());
+        int[] updateCounts = batch.isEmpty() ? new int[0] : batchRepository.applyAdjustments(batch);
+
+        Set<Long> touchedProducts = new TreeSet<>();
+        for (int k = 0; k < applyOrder.size(); k++) {
+            int i = applyOrder.get(k);
+            StockAdjustmentInput input = inputs.get(i);
+            if (updateCounts[k] > 0) {
+                results[i] = toAdjustmentResult(input, "APPLIED", null);
+                touchedProducts.add(input.getProductId());
+                if (input.getDelta() != null) {
+                    inventoryJournalService.recordChange(input.getProductId(), input.getStoreLocation(),
+                            InventoryJournalService.ADJUST, input.getDelta(), null);
+                } else {
+                    inventoryJournalService.recordAbsolute(input.getProductId(), input.getStoreLocation(),
+                            InventoryJournalService.SET, null, input.getQuantity());
+                }
+                // Hot rows serve intake from an in-memory counter; reload it from the new row value
+                if (hotSkuStockService.isHot(input.getProductId(), input.getStoreLocation())) {
+                    hotSkuStockService.afterDirectWrite(input.getProductId(), input.getStoreLocation());
+                }
+            } else if (!inventoryRepository.existsByProductIdAndStoreLocation(
+                    input.getProductId(), input.getStoreLocation())) {
+                results[i] = toAdjustmentResult(input, "NOT_FOUND",
+                        "Inventory not found for product " + input.getProductId() + " at store " + input.getStoreLocation());
+            } else {
+                results[i] = toAdjustmentResult(input, "INSUFFICIENT_STOCK",
+                        "Insufficient stock at store " + input.getStoreLocation());
+            }
+        }
+
+        // Sync each touched product once, in id order, after all store rows are updated
+        if (!touchedProducts.isEmpty()) {
+            batchRepository.syncProductTotalStock(new ArrayList<>(touchedProducts));
+            touchedProducts.forEach(channelAllocationService::refreshProduct);
+        }
+
+        log.info("Bulk stock adjustment applied {} of {} entries across {} products",
+                applyOrder.size() - Arrays.stream(updateCounts).filter(c -> c <= 0).count(),
+                inputs.size(), touchedProducts.size());
+        return Arrays.asList(results);
+    }
+
     @Transactional(readOnly = true)
     public List<StoreInventoryDTO> getLowStockAtStore(String storeLocation, int threshold) {
-        log.info("Fetching low stock items at store {} (threshold: {})", storeLocation, threshold);
-        return inventoryRepository.findLowStockAtStore(storeLocation, threshold).stream()
-                .map(inv -> {
-                    String productName = productRepository.findById(inv.getProductId())
-                            .map(Product::getName)
-                            .orElse("Unknown Product");
-                    return convertToDTO(inv, productName);
-                })
-                .collect(Collectors.toList());
+        return getLowStockAtStore(storeLocation, threshold, Pageable.unpaged(DEFAULT_VIEW_SORT)).getContent();
+    }
+
+    @Transactional(readOnly = true)
+    public Page<StoreInventoryDTO> getLowStockAtStore(String storeLocation, int threshold, Pageable pageable) {
+        log.info("Fetching low stock items at store {} (reorder points, fallback threshold: {}, {})", storeLocation, threshold, pageable);
+        return inventoryRepository.findLowStockViewsAtStore(storeLocation, threshold, toViewPageable(pageable));
+    }
+
+    /**
+     * Stock of a store row as order intake sees it: the in-memory counter for hot SKUs,
+     * the persisted quantity otherwise.
+     */
+    public int getCurrentStock(StoreProductInventory inventory) {
+        long hotStock = hotSkuStockService.getAvailableStock(inventory.getProductId(), inventory.getStoreLocation());
+        return hotStock >= 0 ? (int) hotStock : inventory.getStockQuantity();
+    }
+
+    public boolean hasStock(StoreProductInventory inventory, int requiredQuantity) {
+        return Boolean.TRUE.equals(inventory.getIsAvailable()) && getCurrentStock(inventory) >= requiredQuantity;
     }
 
     @Transactional(readOnly = true)
@@ -174,6 +353,9 @@ public class StoreInventoryService {
         
         Long productId = inventory.getProductId();
         inventoryRepository.deleteById(inventoryId);
+        inventoryJournalService.recordAbsolute(productId, inventory.getStoreLocation(), InventoryJournalService.DELETE,
+                inventory.getStockQuantity(), 0);
+        hotSkuStockService.afterDirectWrite(productId, inventory.getStoreLocation());
         
         // Sync product total stock quantity after deletion
         syncProductTotalStock(productId);
@@ -199,11 +381,34 @@ public class StoreInventoryService {
         // Update product's total stock quantity
         product.setStockQuantity(totalStock);
         productRepository.save(product);
+        channelAllocationService.refreshProduct(productId);
         
         log.info("Product {} total stock updated to {} (across {} stores)", 
                 productId, totalStock, allStoreInventories.size());
     }
 
+    private StockAdjustmentResultDTO toAdjustmentResult(StockAdjustmentInput input, String status, String message) {
+        return new StockAdjustmentResultDTO(input.getProductId(), input.getStoreLocation(),
+                input.getDelta(), input.getQuantity(), status, message);
+    }
+
+    /**
+     * Maps the DTO-facing "productName" sort key onto the joined product alias used by the
+     * projection queries; all other keys are StoreProductInventory attributes.
+     */
+    private Pageable toViewPageable(Pageable pageable) {
+        Sort sort = Sort.unsorted();
+        for (Sort.Order order : pageable.getSort()) {
+            Sort mapped = "productName".equals(order.getProperty())
+                    ? JpaSort.unsafe(order.getDirection(), "p.name")
+                    : Sort.by(order.getDirection(), order.getProperty());
+            sort = sort.and(mapped);
+        }
+        return pageable.isPaged()
+                ? PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), sort)
+                : Pageable.unpaged(sort);
+    }
+
     private StoreInventoryDTO convertToDTO(StoreProductInventory inventory, String productName) {
         StoreInventoryDTO dto = new StoreInventoryDTO();
         dto.setInventoryId(inventory.getInventoryId());
@@ -0,0 +1,108 @@
+package com.shopsphere.service;
+
+import com.shopsphere.dto.NearbyStoreDTO;
+import com.shopsphere.entity.Store;
+import com.shopsphere.inventory.StoreGridIndex;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Answers "k nearest stores with N units of product P" from memory.
+ * <p>
+ * Store coordinates come from the store records held by {@link ChannelAllocationService} and
+ * are indexed in a {@link StoreGridIndex}, rebuilt whenever those records are reloaded. Stock
+ * per store comes from the same service's precomputed availability, so a lookup touches
+ * neither the database nor stores outside the nearest grid cells.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class StoreLocatorService {
+
+    private final ChannelAllocationService channelAllocationService;
+
+    // Roughly 11 km cells; around the spacing of stores within a city
+    @Value("${shopsphere.stores.grid-cell-degrees:0.1}")
+    private double gridCellDegrees;
+
+    @Value("${shopsphere.stores.nearest-max-results:20}")
+    private int maxResults;
+
+    private volatile IndexedStores indexed;
+
+    public List<NearbyStoreDTO> findNearestStoresWithStock(Long productId, int quantity,
+                                                           double latitude, double longitude, int limit) {
+        if (latitude < -90 || latitude > 90 || longitude < -180 || longitude > 180) {
+            throw new IllegalArgumentException("Coordinates out of range: " + latitude + ", " + longitude);
+        }
+        if (quantity <= 0) {
+            throw new IllegalArgumentException("Quantity must be at least 1");
+        }
+        if (limit <= 0 || limit > maxResults) {
+            throw new IllegalArgumentException("Number of stores must be between 1 and " + maxResults);
+        }
+
+        Map<String, Integer> storeStock = channelAllocationService.getStoreStock(productId);
+        if (storeStock.isEmpty()) {
+            return List.of();
+        }
+        List<StoreGridIndex.Hit> hits = currentIndex().nearest(latitude, longitude, limit,
+                store -> storeStock.getOrDefault(store, 0) >= quantity);
+
+        List<NearbyStoreDTO> result = new ArrayList<>(hits.size());
+        for (StoreGridIndex.Hit hit : hits) {
+            result.add(new NearbyStoreDTO(hit.getStoreLocation(), hit.getLatitude(), hit.getLongitude(),
+                    Math.round(hit.getDistanceKm() * 100) / 100.0, storeStock.get(hit.getStoreLocation())));
+        }
+        return result;
+    }
+
+    private StoreGridIndex currentIndex() {
+        Map<String, Store> records = channelAllocationService.getStoreRecords();
+        IndexedStores current = indexed;
+        if (current != null && current.source == records) {
+            return current.index;
+        }
+        synchronized (this) {
+            current = indexed;
+            if (current == null || current.source != records) {
+                current = new IndexedStores(records, buildIndex(records));
+                indexed = current;
+            }
+            return current.index;
+        }
+    }
+
+    private StoreGridIndex buildIndex(Map<String, Store> records) {
+        List<Store> located = records.values().stream()
+                .filter(s -> s.getLatitude() != null && s.getLongitude() != null)
+                .collect(Collectors.toList());
+        double[] latitudes = new double[located.size()];
+        double[] longitudes = new double[located.size()];
+        List<String> names = new ArrayList<>(located.size());
+        for (int i = 0; i < located.size(); i++) {
+            names.add(located.get(i).getStoreLocation());
+            latitudes[i] = located.get(i).getLatitude();
+            longitudes[i] = located.get(i).getLongitude();
+        }
+        log.info("Indexed {} of {} stores with coordinates", located.size(), records.size());
+        return new StoreGridIndex(names, latitudes, longitudes, gridCellDegrees);
+    }
+
+    private static class IndexedStores {
+        final Map<String, Store> source;
+        final StoreGridIndex index;
+
+        IndexedStores(Map<String, Store> source, StoreGridIndex index) {
+            this.source = source;
+            this.index = index;
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package com.shopsphere.service;
+
+import com.shopsphere.analytics.SpaceSavingSketch;
+import com.shopsphere.dto.TrendingProductDTO;
+import com.shopsphere.entity.Product;
+import com.shopsphere.event.OrderEvent;
+import com.shopsphere.repository.ProductRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Minute-level trending products from a streaming heavy-hitters summary.
+ * <p>
+ * Units of each committed new order are counted into a {@link SpaceSavingSketch} for the
+ * current minute, kept in a ring that spans the longest configured window. A scheduled
+ * refresh merges the minutes of each window and caches its top list, so a query is a map
+ * lookup. Memory is bounded by ring size times sketch capacity. Per product, the reported
+ * estimate exceeds the true units by at most (units sold in the window) / capacity, and the
+ * guaranteed figure never exceeds them.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class TrendingProductsService {
+
+    private static final long MINUTE_MS = 60_000L;
+
+    private final ProductRepository productRepository;
+
+    @Value("${shopsphere.analytics.trending.capacity:200}")
+    private int capacity;
+
+    @Value("${shopsphere.analytics.trending.window-minutes:5,15,60}")
+    private int[] windowMinutes;
+
+    @Value("${shopsphere.analytics.trending.top-k:20}")
+    private int topK;
+
+    private MinuteBucket[] ring;
+    private volatile Map<Integer, List<TrendingProductDTO>> trending = Map.of();
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onOrderEvent(OrderEvent event) {
+        if (!OrderEvent.CREATED.equals(event.getType()) || event.salesDelta() <= 0) {
+            return;
+        }
+        long minute = System.currentTimeMillis() / MINUTE_MS;
+        synchronized (this) {
+            SpaceSavingSketch sketch = bucketFor(minute).sketch;
+            for (OrderEvent.Line line : event.getLines()) {
+                sketch.add(line.getProductId(), line.getQuantity());
+            }
+        }
+    }
+
+    /**
+     * Top products by units sold over the last {@code windowMinutes} minutes, as of the last
+     * refresh.
+     */
+    public List<TrendingProductDTO> getTrendingProducts(int windowMinutes, int limit) {
+        List<TrendingProductDTO> top = trending.get(windowMinutes);
+        if (top == null) {
+            throw new IllegalArgumentException("Trending window of " + windowMinutes + " minutes is not configured");
+        }
+        return top.size() > limit ? top.subList(0, limit) : top;
+    }
+
+    @Scheduled(fixedDelayString = "${shopsphere.analytics.trending.refresh-interval-ms:5000}")
+    public void refresh() {
+        long minute = System.currentTimeMillis() / MINUTE_MS;
+        Map<Integer, List<SpaceSavingSketch.Counter>> counters = new HashMap<>();
+        synchronized (this) {
+            MinuteBucket[] buckets = ring();
+            for (int window : windowMinutes) {
+                List<SpaceSavingSketch> sketches = new ArrayList<>(window);
+                for (long m = minute - window + 1; m <= minute; m++) {
+                    MinuteBucket bucket = buckets[(int) Math.floorMod(m, (long) buckets.length)];
+                    if (bucket != null && bucket.minute == m) {
+                        sketches.add(bucket.sketch);
+                    }
+                }
+                counters.put(window, SpaceSavingSketch.mergeTop(sketches, topK));
+            }
+        }
+
+        Set<Long> productIds = new HashSet<>();
+        counters.values().forEach(list -> list.forEach(c -> productIds.add(c.getItem())));
+        Map<Long, String> names = new HashMap<>();
+        if (!productIds.isEmpty()) {
+            for (Product product : productRepository.findAllById(productIds)) {
+                names.put(product.getProductId(), product.getName());
+            }
+        }
+
+        Map<Integer, List<TrendingProductDTO>> next = new HashMap<>();
+        counters.forEach((window, list) -> {
+            List<TrendingProductDTO> top = new ArrayList<>(list.size());
+            for (SpaceSavingSketch.Counter counter : list) {
+                top.add(new TrendingProductDTO(counter.getItem(),
+                        names.getOrDefault(counter.getItem(), "Unknown Product"),
+                        counter.getCount(), counter.getGuaranteedCount()));
+            }
+            next.put(window, List.copyOf(top));
+        });
+        trending = next;
+    }
+
+    // Guarded by this
+    private MinuteBucket bucketFor(long minute) {
+        MinuteBucket[] buckets = ring();
+        int index = (int) Math.floorMod(minute, (long) buckets.length);
+        MinuteBucket bucket = buckets[index];
+        if (bucket == null || bucket.minute != minute) {
+            bucket = new MinuteBucket(minute, new SpaceSavingSketch(capacity));
+            buckets[index] = bucket;
+        }
+        return bucket;
+    }
+
+    // Guarded by this
+    private MinuteBucket[] ring() {
+        if (ring == null) {
+            int longest = 1;
+            for (int window : windowMinutes) {
+                longest = Math.max(longest, window);
+            }
+            ring = new MinuteBucket[longest];
+        }
+        return ring;
+    }
+
+    private static class MinuteBucket {
+        private final long minute;
+        private final SpaceSavingSketch sketch;
+
+        MinuteBucket(long minute, SpaceSavingSketch sketch) {
+            this.minute = minute;
+            this.sketch = sketch;
+        }
+    }
+}
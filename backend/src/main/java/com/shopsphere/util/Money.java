@@ -0,0 +1,107 @@
+package com.shopsphere.util;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Immutable amount of money held as a {@code long} number of cents.
+ * <p>
+ * Used for internal arithmetic on hot paths; entities and DTOs keep {@code BigDecimal} and
+ * convert with {@link #of(BigDecimal)} and {@link #toBigDecimal()}. Amounts with more than two
+ * decimals are rounded to cents HALF_UP on entry, and every division rounds HALF_UP (ties away
+ * from zero), matching {@code BigDecimal} at scale 2. Overflow throws
+ * {@link ArithmeticException} rather than wrapping.
+ */
+public final class Money implements Comparable<Money> {
+
+    public static final Money ZERO = new Money(0);
+
+    private final long cents;
+
+    private Money(long cents) {
+        this.cents = cents;
+    }
+
+    public static Money ofCents(long cents) {
+        return cents == 0 ? ZERO : new Money(cents);
+    }
+
+    public static Money of(BigDecimal amount) {
+        return ofCents(amount.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact());
+    }
+
+    public long cents() {
+        return cents;
+    }
+
+    public Money plus(Money other) {
+        return ofCents(Math.addExact(cents, other.cents));
+    }
+
+    public Money minus(Money other) {
+        return ofCents(Math.subtractExact(cents, other.cents));
+    }
+
+    public Money times(long multiplier) {
+        return ofCents(Math.multiplyExact(cents, multiplier));
+    }
+
+    /**
+     * This amount divided by {@code divisor}, rounded HALF_UP to the cent.
+     */
+    public Money dividedBy(long divisor) {
+        return ofCents(divideHalfUp(cents, divisor));
+    }
+
+    /**
+     * {@code percent}% of this amount, rounded HALF_UP to the cent.
+     */
+    public Money percent(int percent) {
+        return ofCents(divideHalfUp(Math.multiplyExact(cents, (long) percent), 100));
+    }
+
+    public Money max(Money other) {
+        return cents >= other.cents ? this : other;
+    }
+
+    public int signum() {
+        return Long.signum(cents);
+    }
+
+    public BigDecimal toBigDecimal() {
+        return BigDecimal.valueOf(cents, 2);
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        return Long.compare(cents, other.cents);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof Money other && other.cents == cents;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(cents);
+    }
+
+    @Override
+    public String toString() {
+        return toBigDecimal().toPlainString();
+    }
+
+    private static long divideHalfUp(long dividend, long divisor) {
+        if (divisor == 0) {
+            throw new ArithmeticException("Division by zero");
+        }
+        long quotient = dividend / divisor;
+        long remainder = dividend % divisor;
+        // Round away from zero when the remainder is at least half the divisor
+        if (Math.abs(remainder) >= Math.abs(divisor) - Math.abs(remainder)) {
+            quotient += Long.signum(dividend) * Long.signum(divisor);
+        }
+        return quotient;
+    }
+}
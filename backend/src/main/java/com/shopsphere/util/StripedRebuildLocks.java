@@ -0,0 +1,73 @@
+package com.shopsphere.util;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+/**
+ * Striped read/write locks that keep live increments and rebuilds of the same key apart.
+ * <p>
+ * An increment takes the read lock of its key's stripe and holds it until its transaction
+ * commits or rolls back; a rebuild runs under the write lock. A rebuild therefore sees every
+ * committed increment of its key, and increments from transactions still open are applied
+ * after it.
+ */
+public final class StripedRebuildLocks {
+
+    private final ReentrantReadWriteLock[] stripes;
+
+    public StripedRebuildLocks(int stripes) {
+        if (stripes <= 0) {
+            throw new IllegalArgumentException("Stripe count must be positive");
+        }
+        this.stripes = new ReentrantReadWriteLock[stripes];
+        for (int i = 0; i < stripes; i++) {
+            this.stripes[i] = new ReentrantReadWriteLock();
+        }
+    }
+
+    /**
+     * Runs {@code increment} under the read lock of the key's stripe, released when the current
+     * transaction completes, or straight after the increment when there is none.
+     */
+    public void incrementUntilCompletion(long key, Runnable increment) {
+        Lock lock = stripeFor(key).readLock();
+        lock.lock();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            // Held until the increments are committed or rolled back
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    lock.unlock();
+                }
+            });
+            increment.run();
+        } else {
+            try {
+                increment.run();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Runs {@code rebuild} under the write lock of the key's stripe.
+     */
+    public <T> T rebuild(long key, Supplier<T> rebuild) {
+        Lock lock = stripeFor(key).writeLock();
+        lock.lock();
+        try {
+            return rebuild.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private ReentrantReadWriteLock stripeFor(long key) {
+        return stripes[(int) Math.floorMod(key, (long) stripes.length)];
+    }
+}
@@ -0,0 +1,165 @@
+package com.shopsphere.analytics;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HyperLogLogTest {
+
+    @Test
+    void rejectsPrecisionOutOfRange() {
+        assertThrows(IllegalArgumentException.class, () -> new HyperLogLog(HyperLogLog.MIN_PRECISION - 1));
+        assertThrows(IllegalArgumentException.class, () -> new HyperLogLog(HyperLogLog.MAX_PRECISION + 1));
+    }
+
+    @Test
+    void packsRegistersAtSixBits() {
+        // Precision 4: 16 registers in 12 bytes; register 1 holds the largest 6-bit value
+        byte[] bytes = new byte[13];
+        bytes[0] = 4;
+        bytes[1] = (byte) 0xC0;
+        bytes[2] = 0x0F;
+
+        int[] registers = registers(HyperLogLog.fromBytes(bytes));
+
+        assertEquals(63, registers[1]);
+        for (int i = 0; i < registers.length; i++) {
+            if (i != 1) {
+                assertEquals(0, registers[i]);
+            }
+        }
+        assertArrayEquals(bytes, HyperLogLog.fromBytes(bytes).toBytes());
+    }
+
+    @Test
+    void roundTripsEveryRegisterPattern() {
+        Random random = new Random(42);
+        for (int precision = HyperLogLog.MIN_PRECISION; precision <= HyperLogLog.MAX_PRECISION; precision++) {
+            // 6 * 2^precision bits fill whole bytes, so any register bytes are a valid sketch
+            byte[] bytes = new byte[1 + (6 << precision) / 8];
+            random.nextBytes(bytes);
+            bytes[0] = (byte) precision;
+
+            HyperLogLog sketch = HyperLogLog.fromBytes(bytes);
+
+            assertEquals(precision, sketch.precision());
+            assertArrayEquals(bytes, sketch.toBytes());
+        }
+    }
+
+    @Test
+    void roundTripsAddedValues() {
+        HyperLogLog sketch = new HyperLogLog(12);
+        for (long i = 0; i < 50_000; i++) {
+            sketch.add(i);
+        }
+
+        HyperLogLog copy = HyperLogLog.fromBytes(sketch.toBytes());
+
+        assertArrayEquals(sketch.toBytes(), copy.toBytes());
+        assertEquals(sketch.estimate(), copy.estimate());
+    }
+
+    @Test
+    void rejectsCorruptBytes() {
+        byte[] bytes = new HyperLogLog(10).toBytes();
+        byte[] truncated = new byte[bytes.length - 1];
+        System.arraycopy(bytes, 0, truncated, 0, truncated.length);
+
+        assertThrows(IllegalArgumentException.class, () -> HyperLogLog.fromBytes(truncated));
+    }
+
+    @Test
+    void rankStaysWithinTheGuardBit() {
+        // At the lowest precision the hash leaves the most bits for the rank
+        int precision = HyperLogLog.MIN_PRECISION;
+        HyperLogLog sketch = new HyperLogLog(precision);
+        for (long i = 0; i < 1_000_000; i++) {
+            sketch.add(i);
+        }
+
+        for (int register : registers(HyperLogLog.fromBytes(sketch.toBytes()))) {
+            assertTrue(register >= 1 && register <= 64 - precision + 1, "register " + register);
+        }
+    }
+
+    @Test
+    void mergeEqualsSketchOfTheUnion() {
+        HyperLogLog first = new HyperLogLog(12);
+        HyperLogLog second = new HyperLogLog(12);
+        HyperLogLog union = new HyperLogLog(12);
+        for (long i = 0; i < 30_000; i++) {
+            first.add(i);
+            union.add(i);
+        }
+        // Overlaps the first half of the range
+        for (long i = 20_000; i < 60_000; i++) {
+            second.add(i);
+            union.add(i);
+        }
+
+        first.merge(second);
+
+        assertArrayEquals(union.toBytes(), first.toBytes());
+        assertWithinError(60_000, first);
+        // Merging again changes nothing
+        first.merge(second);
+        assertArrayEquals(union.toBytes(), first.toBytes());
+    }
+
+    @Test
+    void rejectsMergeAcrossPrecisions() {
+        HyperLogLog sketch = new HyperLogLog(12);
+
+        assertThrows(IllegalArgumentException.class, () -> sketch.merge(new HyperLogLog(11)));
+    }
+
+    @Test
+    void estimatesWithinTheStandardError() {
+        assertEquals(0, new HyperLogLog(12).estimate());
+
+        Random random = new Random(7);
+        for (int precision : new int[]{10, 12, 14}) {
+            for (int cardinality : new int[]{10, 1_000, 20_000, 500_000}) {
+                HyperLogLog sketch = new HyperLogLog(precision);
+                long base = random.nextLong();
+                for (int i = 0; i < cardinality; i++) {
+                    sketch.add(base + i);
+                    // Repeats must not count
+                    sketch.add(base + i / 2);
+                }
+                assertWithinError(cardinality, sketch);
+            }
+        }
+    }
+
+    private static void assertWithinError(long expected, HyperLogLog sketch) {
+        // Four standard errors, plus one for rounding at tiny cardinalities
+        double tolerance = 4 * sketch.relativeStandardError() * expected + 1;
+        long estimate = sketch.estimate();
+        assertTrue(Math.abs(estimate - expected) <= tolerance,
+                "estimate " + estimate + " for " + expected + " at precision " + sketch.precision());
+    }
+
+    // Unpacks the serialized registers independently of fromBytes
+    private static int[] registers(HyperLogLog sketch) {
+        byte[] bytes = sketch.toBytes();
+        int[] registers = new int[1 << sketch.precision()];
+        for (int i = 0; i < registers.length; i++) {
+            int value = 0;
+            for (int b = 0; b < 6; b++) {
+                int bit = i * 6 + b;
+                if ((bytes[1 + bit / 8] & (1 << (bit % 8))) != 0) {
+                    value |= 1 << b;
+                }
+            }
+            registers[i] = value;
+        }
+        return registers;
+    }
+}
@@ -0,0 +1,91 @@
+package com.shopsphere.analytics;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LiveSketchBufferTest {
+
+    private final Map<String, byte[]> store = new HashMap<>();
+
+    @Test
+    void writesChangedSketchesMergedWithTheStoredCopy() {
+        HyperLogLog stored = new HyperLogLog(10);
+        for (long i = 0; i < 500; i++) {
+            stored.add(i);
+        }
+        store.put("a", stored.toBytes());
+        LiveSketchBuffer<String> buffer = new LiveSketchBuffer<>(10);
+        for (long i = 500; i < 1_000; i++) {
+            buffer.add("a", i);
+        }
+        buffer.add("b", 1);
+
+        assertEquals(2, buffer.flush(store::get, store::putAll));
+
+        HyperLogLog expected = new HyperLogLog(10);
+        for (long i = 0; i < 1_000; i++) {
+            expected.add(i);
+        }
+        assertArrayEquals(expected.toBytes(), store.get("a"));
+        assertEquals(1, HyperLogLog.fromBytes(store.get("b")).estimate());
+    }
+
+    @Test
+    void dropsSketchesUnchangedForAWholeFlush() {
+        LiveSketchBuffer<String> buffer = new LiveSketchBuffer<>(10);
+        buffer.add("a", 1);
+
+        assertEquals(1, buffer.flush(store::get, store::putAll));
+        assertEquals(1, count(buffer));
+        assertEquals(0, buffer.flush(store::get, store::putAll));
+        assertEquals(0, count(buffer));
+
+        // A later add starts a new sketch, merged with the stored one on the next flush
+        buffer.add("a", 2);
+        assertEquals(1, buffer.flush(store::get, store::putAll));
+        assertEquals(2, HyperLogLog.fromBytes(store.get("a")).estimate());
+    }
+
+    @Test
+    void keepsSketchesWhenTheWriteFails() {
+        LiveSketchBuffer<String> buffer = new LiveSketchBuffer<>(10);
+        buffer.add("a", 1);
+        buffer.add("b", 2);
+
+        assertThrows(IllegalStateException.class, () -> buffer.flush(store::get, changed -> {
+            throw new IllegalStateException("database down");
+        }));
+        // Still changed, so neither retired nor skipped
+        assertEquals(2, buffer.flush(store::get, store::putAll));
+        assertTrue(store.containsKey("a") && store.containsKey("b"));
+        assertEquals(2, count(buffer));
+    }
+
+    @Test
+    void readsIncludeUnflushedValues() {
+        LiveSketchBuffer<String> buffer = new LiveSketchBuffer<>(10);
+        HyperLogLog expected = new HyperLogLog(10);
+        for (long i = 0; i < 100; i++) {
+            buffer.add(i % 2 == 0 ? "even" : "odd", i);
+            expected.add(i);
+        }
+
+        HyperLogLog union = new HyperLogLog(10);
+        buffer.forEach((key, sketch) -> union.merge(sketch));
+
+        assertArrayEquals(expected.toBytes(), union.toBytes());
+    }
+
+    private static int count(LiveSketchBuffer<String> buffer) {
+        int[] sketches = {0};
+        buffer.forEach((key, sketch) -> sketches[0]++);
+        return sketches[0];
+    }
+}
@@ -0,0 +1,104 @@
+package com.shopsphere.analytics;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ProductCategoryIndexTest {
+
+    @Test
+    void emptyIndexKnowsNoProduct() {
+        ProductCategoryIndex index = ProductCategoryIndex.build(new long[0], new String[0]);
+
+        assertEquals(0, index.size());
+        assertEquals(0, index.categoryCount());
+        assertEquals(-1, index.categoryOf(1));
+        assertEquals(-1, index.categoryOf(0));
+        assertEquals(-1, index.categoryOf(Long.MAX_VALUE));
+    }
+
+    @Test
+    void mapsProductsToDenseOrdinals() {
+        ProductCategoryIndex index = ProductCategoryIndex.build(new long[]{10, 20, 30, 40},
+                new String[]{"Books", "Toys", "Books", null});
+
+        assertEquals(4, index.size());
+        assertEquals(3, index.categoryCount());
+        assertEquals("Books", index.categoryName(index.categoryOf(10)));
+        assertEquals(index.categoryOf(10), index.categoryOf(30));
+        assertEquals("Toys", index.categoryName(index.categoryOf(20)));
+        assertEquals("Uncategorized", index.categoryName(index.categoryOf(40)));
+        assertEquals(-1, index.categoryOf(50));
+    }
+
+    @Test
+    void idZeroIsRejectedOnBuildAndUnknownOnLookup() {
+        assertThrows(IllegalArgumentException.class,
+                () -> ProductCategoryIndex.build(new long[]{1, 0}, new String[]{"A", "B"}));
+        assertThrows(IllegalArgumentException.class,
+                () -> ProductCategoryIndex.build(new long[]{-5}, new String[]{"A"}));
+        assertThrows(IllegalArgumentException.class,
+                () -> ProductCategoryIndex.build(new long[]{1, 2}, new String[]{"A"}));
+
+        ProductCategoryIndex index = ProductCategoryIndex.build(new long[]{1}, new String[]{"A"});
+        assertEquals(-1, index.categoryOf(0));
+    }
+
+    @Test
+    void resolvesIdsThatHashToTheSameSlot() {
+        // 8 ids -> 16 slots; collect ids that land in slot 0 so every lookup walks the probe chain
+        long[] ids = new long[8];
+        int found = 0;
+        for (long id = 1; found < ids.length; id++) {
+            if ((int) ((id * 0x9E3779B97F4A7C15L) >>> 60) == 0) {
+                ids[found++] = id;
+            }
+        }
+        String[] categories = new String[ids.length];
+        for (int i = 0; i < ids.length; i++) {
+            categories[i] = "C" + (i % 3);
+        }
+        ProductCategoryIndex index = ProductCategoryIndex.build(ids, categories);
+
+        for (int i = 0; i < ids.length; i++) {
+            assertEquals(categories[i], index.categoryName(index.categoryOf(ids[i])));
+        }
+        // A colliding id that was not inserted stops at the first empty slot after the chain
+        long absent = ids[ids.length - 1] + 1;
+        while ((int) ((absent * 0x9E3779B97F4A7C15L) >>> 60) != 0) {
+            absent++;
+        }
+        assertEquals(-1, index.categoryOf(absent));
+    }
+
+    @Test
+    void agreesWithHashMapOnRandomIds() {
+        Random random = new Random(37);
+        Map<Long, String> expected = new HashMap<>();
+        while (expected.size() < 50_000) {
+            expected.put(random.nextLong(1, Long.MAX_VALUE), "C" + random.nextInt(40));
+        }
+        long[] ids = expected.keySet().stream().mapToLong(Long::longValue).toArray();
+        String[] categories = new String[ids.length];
+        for (int i = 0; i < ids.length; i++) {
+            categories[i] = expected.get(ids[i]);
+        }
+        ProductCategoryIndex index = ProductCategoryIndex.build(ids, categories);
+
+        assertEquals(ids.length, index.size());
+        for (long id : ids) {
+            assertEquals(expected.get(id), index.categoryName(index.categoryOf(id)));
+        }
+        for (int i = 0; i < 50_000; i++) {
+            long id = random.nextLong(1, Long.MAX_VALUE);
+            if (!expected.containsKey(id)) {
+                assertEquals(-1, index.categoryOf(id));
+            }
+        }
+    }
+}
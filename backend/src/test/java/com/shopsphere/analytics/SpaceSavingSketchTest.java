@@ -0,0 +1,166 @@
+package com.shopsphere.analytics;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SpaceSavingSketchTest {
+
+    @Test
+    void rejectsNonPositiveCapacity() {
+        assertThrows(IllegalArgumentException.class, () -> new SpaceSavingSketch(0));
+    }
+
+    @Test
+    void countsExactlyUntilFull() {
+        SpaceSavingSketch sketch = new SpaceSavingSketch(4);
+        sketch.add(1, 5);
+        sketch.add(2, 3);
+        sketch.add(1, 2);
+        sketch.add(3, 0);
+        sketch.add(3, -4);
+
+        List<SpaceSavingSketch.Counter> top = sketch.top(10);
+
+        assertEquals(2, top.size());
+        assertCounter(top.get(0), 1, 7, 0);
+        assertCounter(top.get(1), 2, 3, 0);
+        assertEquals(10, sketch.totalWeight());
+        assertEquals(0, sketch.minCount());
+    }
+
+    @Test
+    void evictsTheSmallestCounter() {
+        SpaceSavingSketch sketch = new SpaceSavingSketch(2);
+        sketch.add(1, 10);
+        sketch.add(2, 3);
+        sketch.add(3, 4);
+
+        List<SpaceSavingSketch.Counter> top = sketch.top(2);
+
+        // Item 3 took over item 2's counter and may have had its 3 units
+        assertCounter(top.get(0), 1, 10, 0);
+        assertCounter(top.get(1), 3, 7, 3);
+        assertEquals(7, sketch.minCount());
+    }
+
+    @Test
+    void boundsMatchBruteForceOnSkewedStreams() {
+        for (int seed = 1; seed <= 5; seed++) {
+            Random random = new Random(seed);
+            int capacity = 10 + random.nextInt(40);
+            SpaceSavingSketch sketch = new SpaceSavingSketch(capacity);
+            Map<Long, Long> truth = new HashMap<>();
+            for (int i = 0; i < 20_000; i++) {
+                long item = skewedItem(random, 2_000);
+                long weight = 1 + random.nextInt(5);
+                sketch.add(item, weight);
+                truth.merge(item, weight, Long::sum);
+            }
+
+            long total = truth.values().stream().mapToLong(Long::longValue).sum();
+            assertEquals(total, sketch.totalWeight());
+            List<SpaceSavingSketch.Counter> counters = sketch.top(capacity);
+            assertEquals(capacity, counters.size());
+            assertBounds(counters, truth, total, capacity);
+
+            long smallest = Long.MAX_VALUE;
+            for (SpaceSavingSketch.Counter counter : counters) {
+                smallest = Math.min(smallest, counter.getCount());
+            }
+            assertEquals(smallest, sketch.minCount());
+            assertTrue(sketch.minCount() * capacity <= total);
+            for (int i = 1; i < counters.size(); i++) {
+                assertTrue(counters.get(i - 1).getCount() >= counters.get(i).getCount());
+            }
+            assertEquals(5, sketch.top(5).size());
+        }
+    }
+
+    @Test
+    void mergeTopIsExactOverNonFullSketches() {
+        SpaceSavingSketch first = new SpaceSavingSketch(4);
+        SpaceSavingSketch second = new SpaceSavingSketch(4);
+        first.add(1, 5);
+        first.add(2, 1);
+        second.add(2, 4);
+        second.add(3, 2);
+
+        List<SpaceSavingSketch.Counter> top = SpaceSavingSketch.mergeTop(List.of(first, second), 2);
+
+        assertEquals(2, top.size());
+        assertCounter(top.get(0), 1, 5, 0);
+        assertCounter(top.get(1), 2, 5, 0);
+    }
+
+    @Test
+    void mergeTopBoundsHoldAcrossFullAndNonFullSketches() {
+        Random random = new Random(41);
+        int capacity = 20;
+        List<SpaceSavingSketch> sketches = new ArrayList<>();
+        Map<Long, Long> truth = new HashMap<>();
+        // Two busy periods fill their summaries; a quiet one does not
+        int[] itemsPerPeriod = {5_000, 8, 3_000};
+        for (int period = 0; period < itemsPerPeriod.length; period++) {
+            SpaceSavingSketch sketch = new SpaceSavingSketch(capacity);
+            for (int i = 0; i < itemsPerPeriod[period]; i++) {
+                long item = period == 1 ? i : skewedItem(random, 500);
+                long weight = 1 + random.nextInt(3);
+                sketch.add(item, weight);
+                truth.merge(item, weight, Long::sum);
+            }
+            sketches.add(sketch);
+        }
+        assertTrue(sketches.get(0).minCount() > 0);
+        assertEquals(0, sketches.get(1).minCount());
+
+        long total = 0;
+        for (SpaceSavingSketch sketch : sketches) {
+            total += sketch.totalWeight();
+        }
+        List<SpaceSavingSketch.Counter> merged = SpaceSavingSketch.mergeTop(sketches, Integer.MAX_VALUE);
+        assertBounds(merged, truth, total, capacity);
+
+        List<SpaceSavingSketch.Counter> top = SpaceSavingSketch.mergeTop(sketches, 5);
+        assertEquals(5, top.size());
+        assertEquals(merged.get(0).getItem(), top.get(0).getItem());
+    }
+
+    // count >= true >= guaranteed, overestimates within W / capacity, and every heavier item reported
+    private static void assertBounds(List<SpaceSavingSketch.Counter> counters, Map<Long, Long> truth,
+                                     long totalWeight, int capacity) {
+        Map<Long, SpaceSavingSketch.Counter> byItem = new HashMap<>();
+        for (SpaceSavingSketch.Counter counter : counters) {
+            long actual = truth.getOrDefault(counter.getItem(), 0L);
+            assertTrue(counter.getCount() >= actual, "count of " + counter.getItem());
+            assertTrue(actual >= counter.getGuaranteedCount(), "guaranteed count of " + counter.getItem());
+            assertTrue((counter.getCount() - actual) * capacity <= totalWeight, "error of " + counter.getItem());
+            byItem.put(counter.getItem(), counter);
+        }
+        truth.forEach((item, weight) -> {
+            if (weight * capacity > totalWeight) {
+                assertTrue(byItem.containsKey(item), "heavy item " + item + " missing");
+            }
+        });
+    }
+
+    private static void assertCounter(SpaceSavingSketch.Counter counter, long item, long count, long error) {
+        assertEquals(item, counter.getItem());
+        assertEquals(count, counter.getCount());
+        assertEquals(error, counter.getError());
+    }
+
+    // Low ids are far more frequent, like best-selling products
+    private static long skewedItem(Random random, int universe) {
+        double u = random.nextDouble();
+        return (long) (u * u * u * universe);
+    }
+}
@@ -0,0 +1,127 @@
+package com.shopsphere.analytics;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class WindowedRevenueAggregatorTest {
+
+    private static final long ANCHOR = 20_000;
+
+    @Test
+    void rejectsEmptyHorizon() {
+        assertThrows(IllegalArgumentException.class, () -> new WindowedRevenueAggregator(ANCHOR, 0));
+    }
+
+    @Test
+    void keepsOnlyDaysInsideTheHorizon() {
+        WindowedRevenueAggregator windows = new WindowedRevenueAggregator(ANCHOR, 10);
+
+        assertTrue(windows.add(ANCHOR, 100, 1));
+        assertTrue(windows.add(ANCHOR - 9, 900, 9));
+        assertFalse(windows.add(ANCHOR + 1, 5, 1));
+        assertFalse(windows.add(ANCHOR - 10, 7, 1));
+
+        assertEquals(100, windows.dayRevenueCents(0));
+        assertEquals(900, windows.dayRevenueCents(9));
+        assertEquals(1000, windows.revenueCents(0, 10));
+        assertEquals(10, windows.orders(0, 10));
+    }
+
+    @Test
+    void windowsMatchDirectSumsAtEveryOffset() {
+        int horizon = 60;
+        WindowedRevenueAggregator windows = new WindowedRevenueAggregator(ANCHOR, horizon);
+        long[] revenue = new long[horizon];
+        long[] orders = new long[horizon];
+        Random random = new Random(39);
+        for (int i = 0; i < 5_000; i++) {
+            int daysAgo = random.nextInt(horizon);
+            long amount = random.nextLong(1, 100_000);
+            windows.add(ANCHOR - daysAgo, amount, 1);
+            revenue[daysAgo] += amount;
+            orders[daysAgo]++;
+        }
+
+        for (int offset = 0; offset <= horizon; offset++) {
+            for (int days = 0; offset + days <= horizon; days++) {
+                long expectedRevenue = 0;
+                long expectedOrders = 0;
+                for (int d = offset; d < offset + days; d++) {
+                    expectedRevenue += revenue[d];
+                    expectedOrders += orders[d];
+                }
+                assertEquals(expectedRevenue, windows.revenueCents(offset, days));
+                assertEquals(expectedOrders, windows.orders(offset, days));
+            }
+        }
+    }
+
+    @Test
+    void rebuildsPrefixSumsAfterLaterAdds() {
+        WindowedRevenueAggregator windows = new WindowedRevenueAggregator(ANCHOR, 7);
+        windows.add(ANCHOR - 3, 300, 1);
+        assertEquals(300, windows.revenueCents(0, 7));
+
+        windows.add(ANCHOR - 6, 600, 2);
+        windows.add(ANCHOR - 3, 50, 1);
+
+        assertEquals(950, windows.revenueCents(0, 7));
+        assertEquals(350, windows.revenueCents(3, 1));
+        assertEquals(4, windows.orders(0, 7));
+    }
+
+    @Test
+    void rejectsWindowsBeyondTheHorizon() {
+        WindowedRevenueAggregator windows = new WindowedRevenueAggregator(ANCHOR, 60);
+
+        assertEquals(0, windows.revenueCents(60, 0));
+        assertEquals(0, windows.revenueCents(0, 60));
+        assertThrows(IllegalArgumentException.class, () -> windows.revenueCents(0, 61));
+        assertThrows(IllegalArgumentException.class, () -> windows.revenueCents(31, 30));
+        assertThrows(IllegalArgumentException.class, () -> windows.orders(-1, 1));
+        assertThrows(IllegalArgumentException.class, () -> windows.orders(0, -1));
+        // The growth comparison needs twice the window
+        assertThrows(IllegalArgumentException.class, () -> windows.revenueGrowthPercent(31));
+        assertThrows(IllegalArgumentException.class, () -> windows.orderGrowthPercent(31));
+    }
+
+    @Test
+    void growthComparesTheTwoWindowsAtTheHorizonEdge() {
+        WindowedRevenueAggregator windows = new WindowedRevenueAggregator(ANCHOR, 60);
+        // Oldest and newest day of each 30-day window
+        windows.add(ANCHOR, 10_000, 2);
+        windows.add(ANCHOR - 29, 5_000, 1);
+        windows.add(ANCHOR - 30, 4_000, 1);
+        windows.add(ANCHOR - 59, 6_000, 3);
+
+        // 15000 against 10000
+        assertEquals(50.0, windows.revenueGrowthPercent(30));
+        // 3 orders against 4
+        assertEquals(-25.0, windows.orderGrowthPercent(30));
+    }
+
+    @Test
+    void growthRoundsRevenueToTwoDecimals() {
+        WindowedRevenueAggregator windows = new WindowedRevenueAggregator(ANCHOR, 2);
+        windows.add(ANCHOR, 1_000, 1);
+        windows.add(ANCHOR - 1, 3_000, 3);
+
+        assertEquals(-66.67, windows.revenueGrowthPercent(1));
+        assertEquals(-200.0 / 3, windows.orderGrowthPercent(1), 1e-9);
+    }
+
+    @Test
+    void growthIsZeroWithoutEarlierSales() {
+        WindowedRevenueAggregator windows = new WindowedRevenueAggregator(ANCHOR, 60);
+        windows.add(ANCHOR, 10_000, 2);
+
+        assertEquals(0.0, windows.revenueGrowthPercent(30));
+        assertEquals(0.0, windows.orderGrowthPercent(30));
+    }
+}
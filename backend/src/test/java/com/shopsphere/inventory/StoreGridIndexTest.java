@@ -0,0 +1,100 @@
+package com.shopsphere.inventory;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StoreGridIndexTest {
+
+    @Test
+    void emptyIndexFindsNothing() {
+        StoreGridIndex index = new StoreGridIndex(List.of(), new double[0], new double[0], 0.1);
+
+        assertTrue(index.nearest(12.97, 77.59, 3, s -> true).isEmpty());
+    }
+
+    @Test
+    void returnsNearestFirst() {
+        StoreGridIndex index = new StoreGridIndex(List.of("Far", "Near", "Middle"),
+                new double[]{13.50, 12.98, 13.10}, new double[]{77.59, 77.60, 77.59}, 0.1);
+
+        List<StoreGridIndex.Hit> hits = index.nearest(12.97, 77.59, 2, s -> true);
+
+        assertEquals(2, hits.size());
+        assertEquals("Near", hits.get(0).getStoreLocation());
+        assertEquals("Middle", hits.get(1).getStoreLocation());
+    }
+
+    @Test
+    void findsTheFewStoresThatPassAFilterAcrossTheGlobe() {
+        // Stores spread worldwide on 0.1-degree cells: without a bound the rings would cover the grid
+        Random random = new Random(34);
+        int n = 2_000;
+        List<String> names = new ArrayList<>(n);
+        double[] latitudes = new double[n];
+        double[] longitudes = new double[n];
+        for (int i = 0; i < n; i++) {
+            names.add("Store " + i);
+            latitudes[i] = random.nextDouble(-80, 80);
+            longitudes[i] = random.nextDouble(-180, 180);
+        }
+        StoreGridIndex index = new StoreGridIndex(names, latitudes, longitudes, 0.1);
+        Set<String> stocked = Set.of("Store 7", "Store 1500");
+
+        List<StoreGridIndex.Hit> hits = index.nearest(0, 0, 5, stocked::contains);
+
+        assertEquals(2, hits.size());
+        assertEquals(bruteForce(names, latitudes, longitudes, 0, 0, 5, stocked::contains), names(hits));
+    }
+
+    @Test
+    void agreesWithBruteForceOnRandomQueries() {
+        Random random = new Random(3400);
+        int n = 500;
+        List<String> names = new ArrayList<>(n);
+        double[] latitudes = new double[n];
+        double[] longitudes = new double[n];
+        for (int i = 0; i < n; i++) {
+            names.add("Store " + i);
+            latitudes[i] = random.nextDouble(12, 14);
+            longitudes[i] = random.nextDouble(77, 79);
+        }
+        StoreGridIndex index = new StoreGridIndex(names, latitudes, longitudes, 0.1);
+
+        for (int q = 0; q < 200; q++) {
+            double latitude = random.nextDouble(11.5, 14.5);
+            double longitude = random.nextDouble(76.5, 79.5);
+            int k = random.nextInt(1, 10);
+            int modulus = random.nextInt(1, 50);
+            Predicate<String> filter = s -> Integer.parseInt(s.substring(6)) % modulus == 0;
+
+            assertEquals(bruteForce(names, latitudes, longitudes, latitude, longitude, k, filter),
+                    names(index.nearest(latitude, longitude, k, filter)));
+        }
+    }
+
+    private static List<String> bruteForce(List<String> names, double[] latitudes, double[] longitudes,
+                                           double latitude, double longitude, int k, Predicate<String> filter) {
+        List<Integer> accepted = new ArrayList<>();
+        for (int i = 0; i < names.size(); i++) {
+            if (filter.test(names.get(i))) {
+                accepted.add(i);
+            }
+        }
+        accepted.sort(Comparator.comparingDouble(
+                i -> StoreGridIndex.distanceKm(latitude, longitude, latitudes[i], longitudes[i])));
+        return accepted.stream().limit(k).map(names::get).toList();
+    }
+
+    private static List<String> names(List<StoreGridIndex.Hit> hits) {
+        return hits.stream().map(StoreGridIndex.Hit::getStoreLocation).toList();
+    }
+}
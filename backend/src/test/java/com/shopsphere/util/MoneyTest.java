@@ -0,0 +1,207 @@
+package com.shopsphere.util;
+
+import com.shopsphere.entity.OrderItem;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Checks the long-cents paths against the BigDecimal expressions they replaced, compared at the
+ * cent precision the columns store ({@code scale = 2}).
+ */
+class MoneyTest {
+
+    private static final int RANDOM_CASES = 20_000;
+
+    @Test
+    void roundsOnEntryHalfUpAwayFromZero() {
+        assertEquals(101, Money.of(new BigDecimal("1.005")).cents());
+        assertEquals(100, Money.of(new BigDecimal("1.0049")).cents());
+        assertEquals(-101, Money.of(new BigDecimal("-1.005")).cents());
+        assertEquals(-100, Money.of(new BigDecimal("-1.0049")).cents());
+        assertEquals(new BigDecimal("12.30"), Money.of(new BigDecimal("12.3")).toBigDecimal());
+    }
+
+    @Test
+    void dividedByMatchesBigDecimalHalfUp() {
+        Random random = new Random(7);
+        for (int i = 0; i < RANDOM_CASES; i++) {
+            long cents = random.nextLong(-10_000_000, 10_000_000);
+            long divisor = random.nextLong(1, 1_000);
+            if (random.nextBoolean()) {
+                divisor = -divisor;
+            }
+            BigDecimal expected = BigDecimal.valueOf(cents, 2)
+                    .divide(BigDecimal.valueOf(divisor), 2, RoundingMode.HALF_UP);
+            assertEquals(expected, Money.ofCents(cents).dividedBy(divisor).toBigDecimal(), cents + " / " + divisor);
+        }
+        // Exact ties
+        assertEquals(new BigDecimal("0.01"), Money.ofCents(1).dividedBy(2).toBigDecimal());
+        assertEquals(new BigDecimal("-0.01"), Money.ofCents(-1).dividedBy(2).toBigDecimal());
+        assertEquals(new BigDecimal("-0.01"), Money.ofCents(1).dividedBy(-2).toBigDecimal());
+        assertThrows(ArithmeticException.class, () -> Money.ofCents(1).dividedBy(0));
+    }
+
+    @Test
+    void calculateSubtotalMatchesBaseline() {
+        Random random = new Random(11);
+        for (int i = 0; i < RANDOM_CASES; i++) {
+            BigDecimal unitPrice = randomAmount(random, 2);
+            int quantity = random.nextInt(1, 500);
+            assertEquals(baselineSubtotal(unitPrice, quantity), subtotal(unitPrice, quantity),
+                    unitPrice + " x " + quantity);
+        }
+        assertEquals(new BigDecimal("-7.50"), subtotal(new BigDecimal("-2.50"), 3));
+        assertEquals(new BigDecimal("0.00"), subtotal(new BigDecimal("19.99"), 0));
+    }
+
+    @Test
+    void calculateSubtotalRoundsScaleAboveTwoBeforeMultiplying() {
+        // The baseline multiplied first and left rounding to the scale-2 column; Money rounds the
+        // price to cents on entry. Both agree once the price is at cent precision, which it always
+        // is when it comes from products.price or a campaign price.
+        BigDecimal unitPrice = new BigDecimal("1.005");
+        assertEquals(new BigDecimal("3.03"), subtotal(unitPrice, 3));
+        assertEquals(baselineSubtotal(unitPrice.setScale(2, RoundingMode.HALF_UP), 3), subtotal(unitPrice, 3));
+        assertEquals(new BigDecimal("3.02"), baselineSubtotal(unitPrice, 3));
+
+        Random random = new Random(13);
+        for (int i = 0; i < RANDOM_CASES; i++) {
+            BigDecimal unitPrice3 = randomAmount(random, 3 + random.nextInt(3));
+            int quantity = random.nextInt(1, 50);
+            assertEquals(baselineSubtotal(unitPrice3.setScale(2, RoundingMode.HALF_UP), quantity),
+                    subtotal(unitPrice3, quantity), unitPrice3 + " x " + quantity);
+        }
+    }
+
+    @Test
+    void applyPercentDiscountMatchesBaseline() {
+        Random random = new Random(17);
+        for (int i = 0; i < RANDOM_CASES; i++) {
+            BigDecimal price = randomAmount(random, 2);
+            int percent = random.nextInt(1, 120);
+            assertEquals(baselineDiscount(price, percent), discount(price, percent), price + " - " + percent + "%");
+        }
+    }
+
+    @Test
+    void applyPercentDiscountTiesAndEdges() {
+        // 0.05 * 10% = 0.005 rounds up to 0.01 in both
+        assertEquals(new BigDecimal("0.04"), discount(new BigDecimal("0.05"), 10));
+        assertEquals(baselineDiscount(new BigDecimal("0.05"), 10), discount(new BigDecimal("0.05"), 10));
+        // 0.15 * 50% = 0.075 -> 0.08 off
+        assertEquals(baselineDiscount(new BigDecimal("0.15"), 50), discount(new BigDecimal("0.15"), 50));
+        assertEquals(new BigDecimal("0.07"), discount(new BigDecimal("0.15"), 50));
+        // Over 100% floors at zero
+        assertEquals(0, discount(new BigDecimal("10.00"), 150).signum());
+        assertEquals(0, baselineDiscount(new BigDecimal("10.00"), 150).signum());
+        // Negative prices: the discount rounds away from zero and the result floors at zero
+        assertEquals(0, discount(new BigDecimal("-10.05"), 10).signum());
+        assertEquals(0, baselineDiscount(new BigDecimal("-10.05"), 10).signum());
+        assertEquals(new BigDecimal("-1.01"), Money.of(new BigDecimal("-10.05")).percent(10).toBigDecimal());
+    }
+
+    @Test
+    void applyPercentDiscountScaleAboveTwo() {
+        // Money rounds the price to cents first, so it matches the baseline on the rounded price
+        Random random = new Random(19);
+        for (int i = 0; i < RANDOM_CASES; i++) {
+            BigDecimal price = randomAmount(random, 3 + random.nextInt(3));
+            int percent = random.nextInt(1, 100);
+            assertEquals(baselineDiscount(price.setScale(2, RoundingMode.HALF_UP), percent), discount(price, percent),
+                    price + " - " + percent + "%");
+        }
+    }
+
+    @Test
+    void campaignSavingsLoopMatchesBaseline() {
+        Random random = new Random(23);
+        for (int order = 0; order < 2_000; order++) {
+            List<OrderItem> items = new ArrayList<>();
+            for (int i = random.nextInt(1, 12); i > 0; i--) {
+                OrderItem item = new OrderItem();
+                BigDecimal original = randomAmount(random, 2).abs();
+                item.setOriginalPrice(random.nextInt(10) == 0 ? null : original);
+                item.setUnitPrice(discount(original, random.nextInt(0, 100)));
+                item.setQuantity(random.nextInt(1, 20));
+                items.add(item);
+            }
+            assertEquals(baselineSavings(items), savings(items));
+        }
+    }
+
+    @Test
+    void overflowThrows() {
+        assertThrows(ArithmeticException.class, () -> Money.ofCents(Long.MAX_VALUE).plus(Money.ofCents(1)));
+        assertThrows(ArithmeticException.class, () -> Money.ofCents(Long.MAX_VALUE / 2).times(3));
+        assertThrows(ArithmeticException.class, () -> Money.of(new BigDecimal("1e20")));
+    }
+
+    // OrderItem.calculateSubtotal as persisted
+    private static BigDecimal subtotal(BigDecimal unitPrice, int quantity) {
+        OrderItem item = new OrderItem();
+        item.setUnitPrice(unitPrice);
+        item.setQuantity(quantity);
+        item.calculateSubtotal();
+        return item.getSubtotal();
+    }
+
+    // Before Money: unitPrice.multiply(quantity), rounded by the scale-2 column on write
+    private static BigDecimal baselineSubtotal(BigDecimal unitPrice, int quantity) {
+        return unitPrice.multiply(BigDecimal.valueOf(quantity)).setScale(2, RoundingMode.HALF_UP);
+    }
+
+    // CampaignService.applyPercentDiscount for a positive percent
+    private static BigDecimal discount(BigDecimal price, int percent) {
+        if (percent <= 0) {
+            return price;
+        }
+        Money original = Money.of(price);
+        return original.minus(original.percent(percent)).max(Money.ZERO).toBigDecimal();
+    }
+
+    private static BigDecimal baselineDiscount(BigDecimal price, int percent) {
+        BigDecimal discount = price.multiply(BigDecimal.valueOf(percent))
+                .divide(BigDecimal.valueOf(100), 2, RoundingMode.HALF_UP);
+        return price.subtract(discount).max(BigDecimal.ZERO).setScale(2, RoundingMode.HALF_UP);
+    }
+
+    // Campaign savings loop of OrderService.convertToOrderResponse
+    private static BigDecimal savings(List<OrderItem> items) {
+        Money savings = Money.ZERO;
+        for (OrderItem item : items) {
+            if (item.getOriginalPrice() != null && item.getUnitPrice() != null) {
+                savings = savings.plus(Money.of(item.getOriginalPrice()).minus(Money.of(item.getUnitPrice()))
+                        .times(item.getQuantity()));
+            }
+        }
+        return savings.toBigDecimal();
+    }
+
+    private static BigDecimal baselineSavings(List<OrderItem> items) {
+        BigDecimal savings = BigDecimal.ZERO;
+        for (OrderItem item : items) {
+            if (item.getOriginalPrice() != null && item.getUnitPrice() != null) {
+                savings = savings.add(item.getOriginalPrice().subtract(item.getUnitPrice())
+                        .multiply(BigDecimal.valueOf(item.getQuantity())));
+            }
+        }
+        return savings.setScale(2, RoundingMode.HALF_UP);
+    }
+
+    // Up to +/-100000 with the given number of decimals, negative about one time in ten
+    private static BigDecimal randomAmount(Random random, int scale) {
+        long unscaled = random.nextLong(0, 100_000L * BigDecimal.TEN.pow(scale).longValueExact());
+        if (random.nextInt(10) == 0) {
+            unscaled = -unscaled;
+        }
+        return BigDecimal.valueOf(unscaled, scale);
+    }
+}